@@ -32,7 +32,9 @@ CREATE TABLE `xxl_job_info` (
   `trigger_status` tinyint(4) NOT NULL DEFAULT '0' COMMENT '调度状态：0-停止，1-运行',
   `trigger_last_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '上次调度时间',
   `trigger_next_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '下次调度时间',
-  PRIMARY KEY (`id`)
+  `shard_id` int(11) NOT NULL DEFAULT '0' COMMENT '调度分片ID，任务ID % 分片总数（xxl.job.schedule.shardtotal 大于1时启用）',
+  PRIMARY KEY (`id`),
+  KEY `i_schedule` (`trigger_status`,`shard_id`,`trigger_next_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 CREATE TABLE `xxl_job_log` (
@@ -84,6 +86,7 @@ CREATE TABLE `xxl_job_registry` (
   `registry_group` varchar(50) NOT NULL,
   `registry_key` varchar(255) NOT NULL,
   `registry_value` varchar(255) NOT NULL,
+  `registry_load` varchar(64) DEFAULT NULL COMMENT '执行器负载：运行中任务线程数,排队触发数,CPU负载',
   `update_time` datetime DEFAULT NULL,
   PRIMARY KEY (`id`),
   KEY `i_g_k_v` (`registry_group`,`registry_key`,`registry_value`)
@@ -115,10 +118,54 @@ CREATE TABLE `xxl_job_lock` (
   PRIMARY KEY (`lock_name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 调度分片租约，调度中心节点通过心跳持有分片（xxl.job.schedule.shardtotal 大于1时启用）
+CREATE TABLE `xxl_job_shard_lease` (
+  `shard_id` int(11) NOT NULL COMMENT '分片ID',
+  `owner` varchar(128) DEFAULT NULL COMMENT '持有节点，空表示未分配',
+  `lease_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '持有节点最近心跳时间',
+  PRIMARY KEY (`shard_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 调度节点心跳，分片调度时各调度中心节点登记存活，用于均分分片
+CREATE TABLE `xxl_job_shard_node` (
+  `node_id` varchar(128) NOT NULL COMMENT '调度中心节点ID',
+  `beat_time` bigint(13) NOT NULL DEFAULT '0' COMMENT '节点最近心跳时间',
+  PRIMARY KEY (`node_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 号段ID，调度日志ID按号段预分配
+CREATE TABLE `xxl_job_id_segment` (
+  `biz_tag` varchar(64) NOT NULL COMMENT '业务标识，如 log',
+  `max_id` bigint(20) NOT NULL DEFAULT '0' COMMENT '已分配的最大ID',
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 失败日志发件箱，失败日志写入后登记，失败重试及告警处理后删除
+CREATE TABLE `xxl_job_fail_outbox` (
+  `log_id` bigint(20) NOT NULL COMMENT '调度日志ID',
+  `add_time` datetime NOT NULL COMMENT '登记时间',
+  PRIMARY KEY (`log_id`),
+  KEY `i_add_time` (`add_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 执行器注册变更事件，调度中心各节点轮询并增量更新内存注册表
+CREATE TABLE `xxl_job_registry_event` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `registry_group` varchar(50) NOT NULL,
+  `registry_key` varchar(255) NOT NULL,
+  `registry_value` varchar(255) NOT NULL,
+  `event_type` tinyint(4) NOT NULL COMMENT '事件类型：0=注册、1=摘除',
+  `add_time` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `i_add_time` (`add_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 INSERT INTO `xxl_job_group`(`id`, `app_name`, `title`, `address_type`, `address_list`, `update_time`) VALUES (1, 'xxl-job-executor-sample', '示例执行器', 0, NULL, '2018-11-03 22:21:31' );
 INSERT INTO `xxl_job_info`(`id`, `job_group`, `job_desc`, `add_time`, `update_time`, `author`, `alarm_email`, `schedule_type`, `schedule_conf`, `misfire_strategy`, `executor_route_strategy`, `executor_handler`, `executor_param`, `executor_block_strategy`, `executor_timeout`, `executor_fail_retry_count`, `glue_type`, `glue_source`, `glue_remark`, `glue_updatetime`, `child_jobid`) VALUES (1, 1, '测试任务1', '2018-11-03 22:21:31', '2018-11-03 22:21:31', 'XXL', '', 'CRON', '0 0 0 * * ? *', 'DO_NOTHING', 'FIRST', 'demoJobHandler', '', 'SERIAL_EXECUTION', 0, 0, 'BEAN', '', 'GLUE代码初始化', '2018-11-03 22:21:31', '');
 INSERT INTO `xxl_job_user`(`id`, `username`, `password`, `role`, `permission`) VALUES (1, 'admin', 'e10adc3949ba59abbe56e057f20f883e', 1, NULL);
 INSERT INTO `xxl_job_lock` ( `lock_name`) VALUES ( 'schedule_lock');
+INSERT INTO `xxl_job_id_segment` ( `biz_tag`, `max_id`) VALUES ( 'log', 0);
 
 commit;
 
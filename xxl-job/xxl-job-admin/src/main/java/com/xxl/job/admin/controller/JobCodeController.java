@@ -1,12 +1,20 @@
 package com.xxl.job.admin.controller;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
+import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLogGlue;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.admin.dao.XxlJobInfoDao;
 import com.xxl.job.admin.dao.XxlJobLogGlueDao;
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.xxl.job.core.biz.model.GlueWarmupParam;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.glue.GlueTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -25,6 +33,7 @@ import java.util.List;
 @Controller
 @RequestMapping("/jobcode")
 public class JobCodeController {
+	private static Logger logger = LoggerFactory.getLogger(JobCodeController.class);
 
 	@Resource
 	private XxlJobInfoDao xxlJobInfoDao;
@@ -76,6 +85,7 @@ public class JobCodeController {
 
 		exists_jobInfo.setUpdateTime(new Date());
 		xxlJobInfoDao.update(exists_jobInfo);
+		XxlJobCache.getInstance().invalidateJobInfo(exists_jobInfo.getId());
 
 		// log old code
 		XxlJobLogGlue xxlJobLogGlue = new XxlJobLogGlue();
@@ -91,7 +101,45 @@ public class JobCodeController {
 		// remove code backup more than 30
 		xxlJobLogGlueDao.removeOld(exists_jobInfo.getId(), 30);
 
+		// compile in executor ahead, not by the first trigger
+		glueWarmup(exists_jobInfo);
+
 		return ReturnT.SUCCESS;
 	}
 
+	/**
+	 * push glue source to executors of the group, async; best effort, compiled by the trigger if missed
+	 */
+	private void glueWarmup(XxlJobInfo jobInfo) {
+		if (GlueTypeEnum.GLUE_GROOVY != GlueTypeEnum.match(jobInfo.getGlueType())) {
+			return;
+		}
+		XxlJobGroup group = XxlJobCache.getInstance().loadGroup(jobInfo.getJobGroup());
+		if (group == null) {
+			return;
+		}
+		String addressList = group.getAddressList();
+		if (group.getAddressType() == 0 && XxlJobRegistryCache.getInstance().isLoaded()) {
+			addressList = XxlJobRegistryCache.getInstance().getAddressList(group.getAppname());
+		}
+		if (addressList == null || addressList.trim().length() == 0) {
+			return;
+		}
+
+		GlueWarmupParam glueWarmupParam = new GlueWarmupParam(jobInfo.getId(), jobInfo.getGlueType(), jobInfo.getGlueSource(), jobInfo.getGlueUpdatetime().getTime());
+		for (String address : addressList.split(",")) {
+			try {
+				ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
+				executorBiz.glueWarmupAsync(glueWarmupParam).thenAccept(glueWarmupResult -> {
+					if (glueWarmupResult.getCode() != ReturnT.SUCCESS_CODE) {
+						// older executor without warm-up, etc
+						logger.debug(">>>>>>>>>>> xxl-job glue warmup fail, jobId:{}, address:{}, msg:{}", jobInfo.getId(), address, glueWarmupResult.getMsg());
+					}
+				});
+			} catch (Exception e) {
+				logger.debug(">>>>>>>>>>> xxl-job glue warmup error, jobId:{}, address:{}", jobInfo.getId(), address, e);
+			}
+		}
+	}
+
 }
@@ -1,5 +1,6 @@
 package com.xxl.job.admin.controller;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobRegistry;
 import com.xxl.job.admin.core.util.I18nUtil;
@@ -144,6 +145,7 @@ public class JobGroupController {
 		xxlJobGroup.setUpdateTime(new Date());
 
 		int ret = xxlJobGroupDao.update(xxlJobGroup);
+		XxlJobCache.getInstance().invalidateGroup(xxlJobGroup.getId());
 		return (ret > 0) ? ReturnT.SUCCESS : ReturnT.FAIL;
 	}
 
@@ -185,6 +187,7 @@ public class JobGroupController {
 		}
 
 		int ret = xxlJobGroupDao.remove(id);
+		XxlJobCache.getInstance().invalidateGroup(id);
 		return (ret > 0) ? ReturnT.SUCCESS : ReturnT.FAIL;
 	}
 
@@ -0,0 +1,207 @@
+package com.xxl.job.admin.core.cache;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobGroup;
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * versioned in-process cache of job info and job group (registry list), used by trigger
+ *
+ * 1、version: a global sequence, taken before each db read and stamped on the entry; invalidate stamps the key with a newer version,
+ *    so an entry loaded before the invalidation is never served, even if it is put after;
+ * 2、invalidate: by XxlJobServiceImpl / JobCodeController / JobGroupController on change, and by JobRegistryHelper on registry refresh;
+ * 3、timeout: change made by other admin node is not invalidated locally, entry expires after CACHE_TIMEOUT;
+ *
+ * job info is refreshed by the schedule thread with the row it just read, so cron trigger does not read job info again;
+ * value is copied on read, caller may modify it.
+ */
+public class XxlJobCache {
+
+	private static XxlJobCache instance = new XxlJobCache();
+
+	public static XxlJobCache getInstance() {
+		return instance;
+	}
+
+	// max age of entry (ms), bounds the staleness of change made by other admin node
+	public static final long CACHE_TIMEOUT = 30 * 1000;
+
+	private static final Counter JOB_INFO_HIT = Counter.builder("xxl.job.cache.requests").tag("cache", "jobinfo").tag("result", "hit").register(Metrics.globalRegistry);
+	private static final Counter JOB_INFO_MISS = Counter.builder("xxl.job.cache.requests").tag("cache", "jobinfo").tag("result", "miss").register(Metrics.globalRegistry);
+	private static final Counter GROUP_HIT = Counter.builder("xxl.job.cache.requests").tag("cache", "group").tag("result", "hit").register(Metrics.globalRegistry);
+	private static final Counter GROUP_MISS = Counter.builder("xxl.job.cache.requests").tag("cache", "group").tag("result", "miss").register(Metrics.globalRegistry);
+	private static final Timer JOB_INFO_STALENESS = Timer.builder("xxl.job.cache.staleness")
+			.description("age of the cache entry served")
+			.tag("cache", "jobinfo")
+			.register(Metrics.globalRegistry);
+	private static final Timer GROUP_STALENESS = Timer.builder("xxl.job.cache.staleness")
+			.description("age of the cache entry served")
+			.tag("cache", "group")
+			.register(Metrics.globalRegistry);
+
+	private final AtomicLong version = new AtomicLong();
+
+	private final ConcurrentMap<Integer, Entry<XxlJobInfo>> jobInfoCache = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, Long> jobInfoInvalidVersion = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Integer, Entry<XxlJobGroup>> groupCache = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, Long> groupInvalidVersion = new ConcurrentHashMap<>();
+
+
+	// ---------------------- version ----------------------
+
+	/**
+	 * current version, take it before reading db and pass it to "refresh"
+	 */
+	public long version() {
+		return version.get();
+	}
+
+
+	// ---------------------- job info ----------------------
+
+	public XxlJobInfo loadJobInfo(int jobId) {
+		long nowTime = System.currentTimeMillis();
+		Entry<XxlJobInfo> entry = jobInfoCache.get(jobId);
+		if (isValid(entry, jobInfoInvalidVersion.get(jobId), nowTime)) {
+			JOB_INFO_HIT.increment();
+			JOB_INFO_STALENESS.record(nowTime - entry.loadTime, TimeUnit.MILLISECONDS);
+			return copy(entry.value);
+		}
+		JOB_INFO_MISS.increment();
+
+		long loadVersion = version.get();
+		XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(jobId);
+		if (jobInfo == null) {
+			jobInfoCache.remove(jobId);
+			return null;
+		}
+		put(jobInfoCache, jobInfo.getId(), copy(jobInfo), loadVersion, nowTime);
+		return jobInfo;
+	}
+
+	/**
+	 * refresh by rows just read from db
+	 *
+	 * @param jobInfoList
+	 * @param loadVersion version taken before the db read
+	 */
+	public void refreshJobInfo(List<XxlJobInfo> jobInfoList, long loadVersion) {
+		if (jobInfoList == null) {
+			return;
+		}
+		long nowTime = System.currentTimeMillis();
+		for (XxlJobInfo jobInfo : jobInfoList) {
+			put(jobInfoCache, jobInfo.getId(), copy(jobInfo), loadVersion, nowTime);
+		}
+	}
+
+	public void invalidateJobInfo(int jobId) {
+		jobInfoInvalidVersion.put(jobId, version.incrementAndGet());
+		jobInfoCache.remove(jobId);
+	}
+
+
+	// ---------------------- job group ----------------------
+
+	public XxlJobGroup loadGroup(int groupId) {
+		long nowTime = System.currentTimeMillis();
+		Entry<XxlJobGroup> entry = groupCache.get(groupId);
+		if (isValid(entry, groupInvalidVersion.get(groupId), nowTime)) {
+			GROUP_HIT.increment();
+			GROUP_STALENESS.record(nowTime - entry.loadTime, TimeUnit.MILLISECONDS);
+			return copy(entry.value);
+		}
+		GROUP_MISS.increment();
+
+		long loadVersion = version.get();
+		XxlJobGroup group = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().load(groupId);
+		if (group == null) {
+			groupCache.remove(groupId);
+			return null;
+		}
+		put(groupCache, group.getId(), copy(group), loadVersion, nowTime);
+		return group;
+	}
+
+	public void invalidateGroup(int groupId) {
+		groupInvalidVersion.put(groupId, version.incrementAndGet());
+		groupCache.remove(groupId);
+	}
+
+
+	// ---------------------- tool ----------------------
+
+	private static boolean isValid(Entry<?> entry, Long invalidVersion, long nowTime) {
+		return entry != null
+				&& (invalidVersion == null || entry.version >= invalidVersion)
+				&& nowTime - entry.loadTime < CACHE_TIMEOUT;
+	}
+
+	private static <T> void put(ConcurrentMap<Integer, Entry<T>> cache, int id, T value, long loadVersion, long loadTime) {
+		// keep the newer one
+		cache.merge(id, new Entry<T>(value, loadVersion, loadTime), (oldEntry, newEntry) -> newEntry.version >= oldEntry.version ? newEntry : oldEntry);
+	}
+
+	private static XxlJobInfo copy(XxlJobInfo jobInfo) {
+		XxlJobInfo copy = new XxlJobInfo();
+		copy.setId(jobInfo.getId());
+		copy.setJobGroup(jobInfo.getJobGroup());
+		copy.setJobDesc(jobInfo.getJobDesc());
+		copy.setAddTime(jobInfo.getAddTime());
+		copy.setUpdateTime(jobInfo.getUpdateTime());
+		copy.setAuthor(jobInfo.getAuthor());
+		copy.setAlarmEmail(jobInfo.getAlarmEmail());
+		copy.setScheduleType(jobInfo.getScheduleType());
+		copy.setScheduleConf(jobInfo.getScheduleConf());
+		copy.setMisfireStrategy(jobInfo.getMisfireStrategy());
+		copy.setExecutorRouteStrategy(jobInfo.getExecutorRouteStrategy());
+		copy.setExecutorHandler(jobInfo.getExecutorHandler());
+		copy.setExecutorParam(jobInfo.getExecutorParam());
+		copy.setExecutorBlockStrategy(jobInfo.getExecutorBlockStrategy());
+		copy.setExecutorTimeout(jobInfo.getExecutorTimeout());
+		copy.setExecutorFailRetryCount(jobInfo.getExecutorFailRetryCount());
+		copy.setGlueType(jobInfo.getGlueType());
+		copy.setGlueSource(jobInfo.getGlueSource());
+		copy.setGlueRemark(jobInfo.getGlueRemark());
+		copy.setGlueUpdatetime(jobInfo.getGlueUpdatetime());
+		copy.setChildJobId(jobInfo.getChildJobId());
+		copy.setTriggerStatus(jobInfo.getTriggerStatus());
+		copy.setTriggerLastTime(jobInfo.getTriggerLastTime());
+		copy.setTriggerNextTime(jobInfo.getTriggerNextTime());
+		return copy;
+	}
+
+	private static XxlJobGroup copy(XxlJobGroup group) {
+		XxlJobGroup copy = new XxlJobGroup();
+		copy.setId(group.getId());
+		copy.setAppname(group.getAppname());
+		copy.setTitle(group.getTitle());
+		copy.setAddressType(group.getAddressType());
+		copy.setAddressList(group.getAddressList());
+		copy.setUpdateTime(group.getUpdateTime());
+		return copy;
+	}
+
+	private static class Entry<T> {
+		private final T value;
+		private final long version;
+		private final long loadTime;
+
+		private Entry(T value, long version, long loadTime) {
+			this.value = value;
+			this.version = version;
+			this.loadTime = loadTime;
+		}
+	}
+
+}
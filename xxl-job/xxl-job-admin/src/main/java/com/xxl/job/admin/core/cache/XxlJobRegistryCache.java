@@ -0,0 +1,331 @@
+package com.xxl.job.admin.core.cache;
+
+import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.model.XxlJobRegistryEvent;
+import com.xxl.job.admin.core.route.ExecutorLoad;
+import com.xxl.job.core.enums.RegistryConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * in-memory executor registry of admin node, address list of auto registry group is read from it by trigger
+ *
+ * 1、snapshot: loaded from xxl_job_registry every BEAT_TIMEOUT, versioned by the max registry event id read before it;
+ * 2、delta: registry / remove received by this node is applied at once, and by other admin node when polling registry event after the version;
+ * 3、expire: by a timer wheel (1s tick), address not beaten in DEAD_TIMEOUT is removed;
+ * 4、load: reported with beat, by the beat received by this node or the snapshot (registry_load), the newer one; for LEAST_LOADED route;
+ *
+ * address list is rebuilt on change only, and read without lock.
+ */
+public class XxlJobRegistryCache {
+
+	private static XxlJobRegistryCache instance = new XxlJobRegistryCache();
+
+	public static XxlJobRegistryCache getInstance() {
+		return instance;
+	}
+
+	private static final int WHEEL_SIZE = 128;      // s, > DEAD_TIMEOUT
+
+	// appname -> address -> registry
+	private final Map<String, Map<String, Entry>> registryMap = new HashMap<String, Map<String, Entry>>();
+	// appname -> address list (sorted, "," joined), rebuilt on change
+	private final ConcurrentMap<String, String> addressListMap = new ConcurrentHashMap<String, String>();
+	// address -> load reported, the newer one
+	private final ConcurrentMap<String, ExecutorLoad> loadMap = new ConcurrentHashMap<String, ExecutorLoad>();
+	// appname changed, for group address_list write
+	private final Set<String> changedAppnames = new HashSet<String>();
+
+	// timer wheel, slot of expire second -> registry beaten
+	@SuppressWarnings("unchecked")
+	private final List<Entry>[] wheel = new List[WHEEL_SIZE];
+	private long wheelSecond = -1;
+
+	// max registry event id applied, -1 before the first snapshot
+	private volatile long version = -1;
+
+
+	// ---------------------- read ----------------------
+
+	/**
+	 * @return false before the first snapshot, use address_list of the group row instead
+	 */
+	public boolean isLoaded() {
+		return version >= 0;
+	}
+
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return address list of appname, "," joined; null if empty
+	 */
+	public String getAddressList(String appname) {
+		return addressListMap.get(appname);
+	}
+
+	/**
+	 * @return load reported by the executor; null if not reported
+	 */
+	public ExecutorLoad getLoad(String address) {
+		return loadMap.get(address);
+	}
+
+	/**
+	 * appname changed since last call
+	 */
+	public synchronized Set<String> drainChanged() {
+		Set<String> result = new HashSet<String>(changedAppnames);
+		changedAppnames.clear();
+		return result;
+	}
+
+
+	// ---------------------- write ----------------------
+
+	/**
+	 * beat of executor
+	 *
+	 * @return registry id, 0 if new (not saved, or saved by other node and not in snapshot yet)
+	 */
+	public synchronized int beat(String appname, String address, long beatTime) {
+		return beat(appname, address, beatTime, null);
+	}
+
+	/**
+	 * beat of executor, with load reported
+	 *
+	 * @return registry id, 0 if new (not saved, or saved by other node and not in snapshot yet)
+	 */
+	public synchronized int beat(String appname, String address, long beatTime, ExecutorLoad load) {
+		if (load != null) {
+			putLoad(address, load);
+		}
+		Entry entry = registryMap.containsKey(appname) ? registryMap.get(appname).get(address) : null;
+		if (entry == null) {
+			put(appname, address, beatTime, 0);
+			return 0;
+		}
+		if (beatTime > entry.beatTime) {
+			entry.beatTime = beatTime;
+			schedule(entry);
+		}
+		return entry.id;
+	}
+
+	/**
+	 * registry id not found in db, saved again by the next beat
+	 */
+	public synchronized void clearId(Collection<Integer> ids) {
+		Set<Integer> idSet = new HashSet<Integer>(ids);
+		for (Map<String, Entry> addressMap : registryMap.values()) {
+			for (Entry entry : addressMap.values()) {
+				if (idSet.contains(entry.id)) {
+					entry.id = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if removed
+	 */
+	public synchronized boolean remove(String appname, String address) {
+		Map<String, Entry> addressMap = registryMap.get(appname);
+		if (addressMap == null || addressMap.remove(address) == null) {
+			return false;
+		}
+		loadMap.remove(address);
+		if (addressMap.isEmpty()) {
+			registryMap.remove(appname);
+		}
+		changed(appname);
+		return true;
+	}
+
+	/**
+	 * replace by snapshot; address beaten on this node after it is read (not in snapshot yet) is kept
+	 *
+	 * @param registryList  alive registry, read after the version
+	 * @param snapshotVersion   max registry event id, read before the registry
+	 * @param loadTime      time before the registry is read
+	 */
+	public synchronized void applySnapshot(List<XxlJobRegistry> registryList, long snapshotVersion, long loadTime) {
+		Set<String> snapshotKeys = new HashSet<String>();
+		if (registryList != null) {
+			for (XxlJobRegistry item : registryList) {
+				if (!RegistryConfig.RegistType.EXECUTOR.name().equals(item.getRegistryGroup())) {
+					continue;
+				}
+				snapshotKeys.add(item.getRegistryKey() + "\t" + item.getRegistryValue());
+				long beatTime = item.getUpdateTime() != null ? item.getUpdateTime().getTime() : loadTime;
+				ExecutorLoad load = ExecutorLoad.parse(item.getRegistryLoad(), beatTime);
+				if (load != null) {
+					putLoad(item.getRegistryValue(), load);
+				}
+				Entry entry = registryMap.containsKey(item.getRegistryKey()) ? registryMap.get(item.getRegistryKey()).get(item.getRegistryValue()) : null;
+				if (entry == null) {
+					put(item.getRegistryKey(), item.getRegistryValue(), beatTime, item.getId());
+				} else {
+					entry.id = item.getId();
+					if (beatTime > entry.beatTime) {
+						entry.beatTime = beatTime;
+						schedule(entry);
+					}
+				}
+			}
+		}
+
+		// removed or dead in db
+		for (String appname : new ArrayList<String>(registryMap.keySet())) {
+			for (Entry entry : new ArrayList<Entry>(registryMap.get(appname).values())) {
+				if (!snapshotKeys.contains(appname + "\t" + entry.address)
+						&& entry.beatTime < loadTime - RegistryConfig.BEAT_TIMEOUT * 1000L) {
+					remove(appname, entry.address);
+				}
+			}
+		}
+
+		version = Math.max(version, snapshotVersion);
+	}
+
+	/**
+	 * apply registry event polled, in id order
+	 */
+	public synchronized void applyEvent(XxlJobRegistryEvent event) {
+		if (RegistryConfig.RegistType.EXECUTOR.name().equals(event.getRegistryGroup())) {
+			long eventTime = event.getAddTime() != null ? event.getAddTime().getTime() : System.currentTimeMillis();
+			if (event.getEventType() == XxlJobRegistryEvent.EVENT_REMOVE) {
+				Entry entry = registryMap.containsKey(event.getRegistryKey()) ? registryMap.get(event.getRegistryKey()).get(event.getRegistryValue()) : null;
+				// beaten after removed, keep it
+				if (entry != null && entry.beatTime <= eventTime) {
+					remove(event.getRegistryKey(), event.getRegistryValue());
+				}
+			} else {
+				beat(event.getRegistryKey(), event.getRegistryValue(), eventTime);
+			}
+		}
+		version = Math.max(version, event.getId());
+	}
+
+	/**
+	 * advance the timer wheel, remove registry not beaten in DEAD_TIMEOUT
+	 */
+	public synchronized void expire(long nowTime) {
+		long nowSecond = nowTime / 1000;
+		if (wheelSecond < 0) {
+			wheelSecond = nowSecond;
+		} else if (nowSecond - wheelSecond > WHEEL_SIZE) {
+			// not advanced for long, one round
+			wheelSecond = nowSecond - WHEEL_SIZE;
+		}
+		while (wheelSecond < nowSecond) {
+			wheelSecond++;
+			int slot = (int) (wheelSecond % WHEEL_SIZE);
+			List<Entry> entryList = wheel[slot];
+			if (entryList == null) {
+				continue;
+			}
+			wheel[slot] = null;
+			for (Entry entry : entryList) {
+				// removed, or beaten again and in a later slot
+				if (entry.scheduleSecond > wheelSecond || !registryMap.containsKey(entry.appname)
+						|| registryMap.get(entry.appname).get(entry.address) != entry) {
+					continue;
+				}
+				if (entry.expireSecond() <= wheelSecond) {
+					remove(entry.appname, entry.address);
+				} else {
+					// beyond the wheel when scheduled
+					schedule(entry);
+				}
+			}
+		}
+	}
+
+
+	// ---------------------- tool ----------------------
+
+	private void put(String appname, String address, long beatTime, int id) {
+		Map<String, Entry> addressMap = registryMap.get(appname);
+		if (addressMap == null) {
+			addressMap = new HashMap<String, Entry>();
+			registryMap.put(appname, addressMap);
+		}
+		Entry entry = new Entry(appname, address, beatTime, id);
+		addressMap.put(address, entry);
+		schedule(entry);
+		changed(appname);
+	}
+
+	private void putLoad(String address, ExecutorLoad load) {
+		ExecutorLoad oldLoad = loadMap.get(address);
+		if (oldLoad == null || load.getBeatTime() > oldLoad.getBeatTime()) {
+			loadMap.put(address, load);
+		}
+	}
+
+	private void schedule(Entry entry) {
+		if (wheelSecond < 0) {
+			wheelSecond = System.currentTimeMillis() / 1000;
+		}
+		// expired in the past, by next tick
+		long expireSecond = Math.max(entry.expireSecond(), wheelSecond + 1);
+		if (expireSecond - wheelSecond >= WHEEL_SIZE) {
+			// beat time in the future (clock skew), at the wheel end and scheduled again there
+			expireSecond = wheelSecond + WHEEL_SIZE - 1;
+		}
+		if (expireSecond == entry.scheduleSecond) {
+			// in the slot already
+			return;
+		}
+		int slot = (int) (expireSecond % WHEEL_SIZE);
+		if (wheel[slot] == null) {
+			wheel[slot] = new ArrayList<Entry>();
+		}
+		wheel[slot].add(entry);
+		entry.scheduleSecond = expireSecond;
+	}
+
+	private void changed(String appname) {
+		Map<String, Entry> addressMap = registryMap.get(appname);
+		if (addressMap == null || addressMap.isEmpty()) {
+			addressListMap.remove(appname);
+		} else {
+			List<String> addressList = new ArrayList<String>(addressMap.keySet());
+			Collections.sort(addressList);
+			StringBuilder addressListSB = new StringBuilder();
+			for (String item : addressList) {
+				if (addressListSB.length() > 0) {
+					addressListSB.append(",");
+				}
+				addressListSB.append(item);
+			}
+			addressListMap.put(appname, addressListSB.toString());
+		}
+		changedAppnames.add(appname);
+	}
+
+	private static class Entry {
+		private final String appname;
+		private final String address;
+		private long beatTime;
+		private int id;
+		private long scheduleSecond;    // slot second in the wheel, the older one is stale
+
+		private Entry(String appname, String address, long beatTime, int id) {
+			this.appname = appname;
+			this.address = address;
+			this.beatTime = beatTime;
+			this.id = id;
+		}
+
+		private long expireSecond() {
+			return (beatTime + RegistryConfig.DEAD_TIMEOUT * 1000L) / 1000;
+		}
+	}
+
+}
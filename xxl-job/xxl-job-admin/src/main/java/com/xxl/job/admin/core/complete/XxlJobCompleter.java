@@ -1,17 +1,29 @@
 package com.xxl.job.admin.core.complete;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
+import com.xxl.job.admin.core.thread.JobFailMonitorHelper;
+import com.xxl.job.admin.core.thread.JobLogReportHelper;
 import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.util.I18nUtil;
+import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.context.XxlJobContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author xuxueli 2020-10-30 20:43:10
@@ -19,51 +31,122 @@ import java.text.MessageFormat;
 public class XxlJobCompleter {
 	private static Logger logger = LoggerFactory.getLogger(XxlJobCompleter.class);
 
+	private static final int BATCH_SIZE = 1000;
+
 	/**
-	 * common fresh handle entrance (limit only once)
-	 * 如果父任务执行成功了，就触发子任务的执行
-	 * 然后对日志进行修改后入库
+	 * common fresh handle entrance (limit only once), in batch
+	 *
+	 * 1、lock: log not handled (handle_code = 0) is loaded by one multi-id select "for update", repeat callback is skipped;
+	 * 2、update: handle info, with child job msg (job info from XxlJobCache), is written by one batched update "where handle_code = 0";
+	 * 3、finish: after commit, child job of success log is triggered, report counted, fail log published;
 	 *
-	 * @param xxlJobLog
-	 * @return
+	 * @param handleParamList   handle result of log; handle msg is appended to the log's
+	 * @return log count handled
 	 */
-	public static int updateHandleInfoAndFinish(XxlJobLog xxlJobLog) {
-
-		// finish
-		// 若父任务正常结束，则触发子任务,以及设置Childmsg
-		finishJob(xxlJobLog);
+	public static int updateHandleInfoAndFinish(List<HandleCallbackParam> handleParamList) {
+		int ret = 0;
+		for (int i = 0; i < handleParamList.size(); i += BATCH_SIZE) {
+			ret += updateHandleInfoAndFinishBatch(handleParamList.subList(i, Math.min(i + BATCH_SIZE, handleParamList.size())));
+		}
+		return ret;
+	}
 
-		// text最大64kb 避免长度过长，截断超过长度限制字符
-		if (xxlJobLog.getHandleMsg().length() > 15000) {
-			xxlJobLog.setHandleMsg(xxlJobLog.getHandleMsg().substring(0, 15000));
+	private static int updateHandleInfoAndFinishBatch(List<HandleCallbackParam> handleParamList) {
+		// the first one of the same log is applied, the other is repeat
+		final Map<Long, HandleCallbackParam> handleParamMap = new LinkedHashMap<Long, HandleCallbackParam>();
+		for (HandleCallbackParam handleParam : handleParamList) {
+			if (!handleParamMap.containsKey(handleParam.getLogId())) {
+				handleParamMap.put(handleParam.getLogId(), handleParam);
+			}
 		}
 
-		// fresh handle 更新超时joblog
-		return XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateHandleInfo(xxlJobLog);
+		// log id -> child job id, triggered after commit
+		final Map<Long, List<Integer>> childJobIdMap = new HashMap<Long, List<Integer>>();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(XxlJobAdminConfig.getAdminConfig().getTransactionManager());
+		List<XxlJobLog> handleLogList = transactionTemplate.execute(status -> {
+			// lock log not handled
+			List<XxlJobLog> logList = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().loadForHandle(new ArrayList<Long>(handleParamMap.keySet()));
+			if (logList == null || logList.isEmpty()) {
+				return Collections.<XxlJobLog>emptyList();
+			}
+
+			Date handleTime = new Date();
+			Map<Integer, XxlJobInfo> jobInfoMap = new HashMap<Integer, XxlJobInfo>();
+			for (XxlJobLog log : logList) {
+				HandleCallbackParam handleParam = handleParamMap.get(log.getId());
+
+				// handle msg
+				StringBuffer handleMsg = new StringBuffer();
+				if (log.getHandleMsg() != null) {
+					handleMsg.append(log.getHandleMsg()).append("<br>");
+				}
+				if (handleParam.getHandleMsg() != null) {
+					handleMsg.append(handleParam.getHandleMsg());
+				}
+
+				log.setHandleTime(handleTime);
+				log.setHandleCode(handleParam.getHandleCode());
+				log.setHandleMsg(handleMsg.toString());
+
+				// 若父任务正常结束，则触发子任务,以及设置Childmsg
+				finishJob(log, jobInfoMap, childJobIdMap);
+
+				// text最大64kb 避免长度过长，截断超过长度限制字符
+				if (log.getHandleMsg().length() > 15000) {
+					log.setHandleMsg(log.getHandleMsg().substring(0, 15000));
+				}
+			}
+
+			// fresh handle
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateHandleInfoBatch(logList);
+			return logList;
+		});
+
+		// finish, after commit
+		for (XxlJobLog log : handleLogList) {
+			List<Integer> childJobIds = childJobIdMap.get(log.getId());
+			if (childJobIds != null) {
+				for (int childJobId : childJobIds) {
+					// 触发子任务
+					JobTriggerPoolHelper.trigger(childJobId, TriggerTypeEnum.PARENT, -1, null, null, null);
+				}
+			}
+			// 统计报表计数
+			JobLogReportHelper.getInstance().countHandle(log);
+		}
+		if (!handleLogList.isEmpty()) {
+			// 失败日志，失败重试及告警
+			JobFailMonitorHelper.getInstance().publish(handleLogList);
+		}
+		return handleLogList.size();
 	}
 
 
 	/**
 	 * do somethind to finish job
-	 * 如果父任务执行成功了，就触发子任务的执行
+	 * 如果父任务执行成功了，就触发子任务的执行（提交后）
 	 */
-	private static void finishJob(XxlJobLog xxlJobLog) {
+	private static void finishJob(XxlJobLog xxlJobLog, Map<Integer, XxlJobInfo> jobInfoMap, Map<Long, List<Integer>> childJobIdMap) {
 
 		// 1、handle success, to trigger child job
 		String triggerChildMsg = null;
 		if (XxlJobContext.HANDLE_CODE_SUCCESS == xxlJobLog.getHandleCode()) {
-			XxlJobInfo xxlJobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(xxlJobLog.getJobId());
+			if (!jobInfoMap.containsKey(xxlJobLog.getJobId())) {
+				jobInfoMap.put(xxlJobLog.getJobId(), XxlJobCache.getInstance().loadJobInfo(xxlJobLog.getJobId()));
+			}
+			XxlJobInfo xxlJobInfo = jobInfoMap.get(xxlJobLog.getJobId());
 			if (xxlJobInfo != null && xxlJobInfo.getChildJobId() != null && xxlJobInfo.getChildJobId().trim().length() > 0) {
 				triggerChildMsg = "<br><br><span style=\"color:#00c0ef;\" > >>>>>>>>>>>" + I18nUtil.getString("jobconf_trigger_child_run") + "<<<<<<<<<<< </span><br>";
 
 				// 获取子任务id
+				List<Integer> childJobIdList = new ArrayList<Integer>();
 				String[] childJobIds = xxlJobInfo.getChildJobId().split(",");
 				for (int i = 0; i < childJobIds.length; i++) {
 					int childJobId = (childJobIds[i] != null && childJobIds[i].trim().length() > 0 && isNumeric(childJobIds[i])) ? Integer.valueOf(childJobIds[i]) : -1;
 					if (childJobId > 0) {
 
-						// 触发子任务
-						JobTriggerPoolHelper.trigger(childJobId, TriggerTypeEnum.PARENT, -1, null, null, null);
+						// 触发子任务，提交后
+						childJobIdList.add(childJobId);
 						ReturnT<String> triggerChildResult = ReturnT.SUCCESS;
 
 						// add msg
@@ -80,6 +163,7 @@ public class XxlJobCompleter {
 								childJobIds[i]);
 					}
 				}
+				childJobIdMap.put(xxlJobLog.getId(), childJobIdList);
 
 			}
 		}
@@ -1,6 +1,7 @@
 package com.xxl.job.admin.core.conf;
 
 import com.xxl.job.admin.core.alarm.JobAlarmer;
+import com.xxl.job.admin.core.partition.JobLogPartitionTypeEnum;
 import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
 import com.xxl.job.admin.dao.*;
 import org.springframework.beans.factory.DisposableBean;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.annotation.Resource;
 import javax.sql.DataSource;
@@ -41,14 +43,33 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
 	private int triggerPoolFastMax;
 	@Value("${xxl.job.triggerpool.slow.max}")
 	private int triggerPoolSlowMax;
+	@Value("${xxl.job.triggerpool.fast.queue}")
+	private int triggerPoolFastQueue;
+	@Value("${xxl.job.triggerpool.slow.queue}")
+	private int triggerPoolSlowQueue;
+	@Value("${xxl.job.triggerpool.slow.threshold}")
+	private int triggerPoolSlowThreshold;
+	@Value("${xxl.job.triggerbatch.windowms}")
+	private int triggerBatchWindowMs;
 	@Value("${xxl.job.logretentiondays}")
 	private int logretentiondays;
+	@Value("${xxl.job.logpartition}")
+	private String logPartition;
+	@Value("${xxl.job.timering.type}")
+	private String timeRingType;
+	@Value("${xxl.job.timering.tickms}")
+	private int timeRingTickMs;
+
+	@Value("${xxl.job.schedule.shardtotal}")
+	private int scheduleShardTotal;
 	@Resource
 	private XxlJobLogDao xxlJobLogDao;
 	@Resource
 	private XxlJobInfoDao xxlJobInfoDao;
 	@Resource
 	private XxlJobRegistryDao xxlJobRegistryDao;
+	@Resource
+	private XxlJobShardLeaseDao xxlJobShardLeaseDao;
 
 	// dao, service
 	@Resource
@@ -60,6 +81,8 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
 	@Resource
 	private DataSource dataSource;
 	@Resource
+	private PlatformTransactionManager transactionManager;
+	@Resource
 	private JobAlarmer jobAlarmer;
 
 	public static XxlJobAdminConfig getAdminConfig() {
@@ -110,6 +133,34 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
 		return triggerPoolSlowMax;
 	}
 
+	public int getTriggerPoolFastQueue() {
+		if (triggerPoolFastQueue < 100) {
+			return 100;
+		}
+		return triggerPoolFastQueue;
+	}
+
+	public int getTriggerPoolSlowQueue() {
+		if (triggerPoolSlowQueue < 100) {
+			return 100;
+		}
+		return triggerPoolSlowQueue;
+	}
+
+	public int getTriggerPoolSlowThreshold() {
+		if (triggerPoolSlowThreshold < 1) {
+			return 500;
+		}
+		return triggerPoolSlowThreshold;
+	}
+
+	public int getTriggerBatchWindowMs() {
+		if (triggerBatchWindowMs < 0) {
+			return 0;   // not batched
+		}
+		return triggerBatchWindowMs;
+	}
+
 	public int getLogretentiondays() {
 		if (logretentiondays < 7) {
 			return -1;  // Limit greater than or equal to 7, otherwise close
@@ -117,10 +168,36 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
 		return logretentiondays;
 	}
 
+	public JobLogPartitionTypeEnum getLogPartitionType() {
+		return JobLogPartitionTypeEnum.match(logPartition, JobLogPartitionTypeEnum.NONE);
+	}
+
+	public String getTimeRingType() {
+		return timeRingType;
+	}
+
+	public int getTimeRingTickMs() {
+		if (timeRingTickMs < 1 || timeRingTickMs > 1000 || 1000 % timeRingTickMs != 0) {
+			return 10;  // must divide 1000
+		}
+		return timeRingTickMs;
+	}
+
+	public int getScheduleShardTotal() {
+		if (scheduleShardTotal < 1) {
+			return 1;   // not sharded
+		}
+		return scheduleShardTotal;
+	}
+
 	public XxlJobLogDao getXxlJobLogDao() {
 		return xxlJobLogDao;
 	}
 
+	public XxlJobShardLeaseDao getXxlJobShardLeaseDao() {
+		return xxlJobShardLeaseDao;
+	}
+
 	public XxlJobInfoDao getXxlJobInfoDao() {
 		return xxlJobInfoDao;
 	}
@@ -145,6 +222,10 @@ public class XxlJobAdminConfig implements InitializingBean, DisposableBean {
 		return dataSource;
 	}
 
+	public PlatformTransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
 	public JobAlarmer getJobAlarmer() {
 		return jobAlarmer;
 	}
@@ -0,0 +1,465 @@
+package com.xxl.job.admin.core.cron;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * compiled cron expression, immutable, cached by expression; same result as CronExpression#getNextValidTimeAfter
+ *
+ * 1、compile: parsed by CronExpression once, fields are kept as bitsets (second, minute, hour, day of month, month, day of week, year);
+ * 2、evaluate: next fire time is searched field by field on local date-time numbers, without Calendar, no allocation;
+ * 3、time zone: the default time zone when compiled; evaluated in a window of constant utc offset (between two transitions),
+ *    time near a transition (one day), and expression of rare syntax ("L-28", "30W", day-of-month and day-of-week both), use CronExpression instead;
+ */
+public final class CompiledCronExpression {
+
+	// ---------------------- cache ----------------------
+
+	private static final int CACHE_MAX_SIZE = 10000;
+	private static final ConcurrentMap<String, CompiledCronExpression> cache = new ConcurrentHashMap<String, CompiledCronExpression>();
+
+	/**
+	 * compile, or get the cached one
+	 *
+	 * @throws ParseException if the expression is invalid, same as CronExpression
+	 */
+	public static CompiledCronExpression compile(String cronExpression) throws ParseException {
+		CompiledCronExpression compiled = cache.get(cronExpression);
+		if (compiled != null) {
+			return compiled;
+		}
+
+		compiled = new CompiledCronExpression(new CronExpression(cronExpression));
+		if (cache.size() >= CACHE_MAX_SIZE) {
+			// evict, about a tenth
+			Iterator<String> it = cache.keySet().iterator();
+			for (int i = 0; i < CACHE_MAX_SIZE / 10 && it.hasNext(); i++) {
+				it.next();
+				it.remove();
+			}
+		}
+		CompiledCronExpression old = cache.putIfAbsent(cronExpression, compiled);
+		return old != null ? old : compiled;
+	}
+
+
+	// ---------------------- compiled ----------------------
+
+	private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+	private static final int MIN_YEAR = 1970;
+	private static final int MAX_YEAR = Math.min(CronExpression.MAX_YEAR, 2999);
+
+	private final CronExpression expression;
+	private final TimeZone timeZone;
+
+	private final long secondBits;          // bit 0-59
+	private final long minuteBits;          // bit 0-59
+	private final long hourBits;            // bit 0-23
+	private final long dayOfMonthBits;      // bit 1-31
+	private final long monthBits;           // bit 1-12
+	private final long dayOfWeekBits;       // bit 1-7, 1=Sunday
+	private final long[] yearBits;          // bit of (year - MIN_YEAR)
+
+	private final boolean dayOfMonthRule;   // true: by day of month; false: by day of week
+	private final boolean lastdayOfMonth;
+	private final int lastdayOffset;
+	private final boolean nearestWeekday;
+	private final int firstDayOfMonth;
+	private final boolean lastdayOfWeek;
+	private final int nthdayOfWeek;
+	private final int firstDayOfWeek;
+
+	private final boolean fast;             // false: rare syntax, by CronExpression
+	private volatile OffsetWindow window;
+
+	CompiledCronExpression(CronExpression expression) {
+		this.expression = expression;
+		this.timeZone = expression.getTimeZone();
+
+		secondBits = bits(expression.seconds, 0, 59);
+		minuteBits = bits(expression.minutes, 0, 59);
+		hourBits = bits(expression.hours, 0, 23);
+		dayOfMonthBits = bits(expression.daysOfMonth, 1, 31);
+		monthBits = bits(expression.months, 1, 12);
+		dayOfWeekBits = bits(expression.daysOfWeek, 1, 7);
+
+		yearBits = new long[(MAX_YEAR - MIN_YEAR) / 64 + 1];
+		boolean yearInRange = true;
+		for (Integer year : expression.years) {
+			if (year == CronExpression.ALL_SPEC_INT || year == CronExpression.NO_SPEC_INT) {
+				continue;
+			}
+			if (year < MIN_YEAR || year > 2999) {
+				yearInRange = false;
+			} else if (year <= MAX_YEAR) {
+				yearBits[(year - MIN_YEAR) >>> 6] |= 1L << (year - MIN_YEAR);
+			}
+		}
+
+		boolean dayOfMonthSpec = !expression.daysOfMonth.contains(CronExpression.NO_SPEC);
+		boolean dayOfWeekSpec = !expression.daysOfWeek.contains(CronExpression.NO_SPEC);
+		dayOfMonthRule = dayOfMonthSpec;
+		lastdayOfMonth = expression.lastdayOfMonth;
+		lastdayOffset = expression.lastdayOffset;
+		nearestWeekday = expression.nearestWeekday;
+		firstDayOfMonth = dayOfMonthBits != 0 ? Long.numberOfTrailingZeros(dayOfMonthBits) : 1;
+		lastdayOfWeek = expression.lastdayOfWeek;
+		nthdayOfWeek = expression.nthdayOfWeek;
+		firstDayOfWeek = dayOfWeekBits != 0 ? Long.numberOfTrailingZeros(dayOfWeekBits) : 1;
+
+		fast = yearInRange
+				&& (dayOfMonthSpec != dayOfWeekSpec)
+				&& secondBits != 0 && minuteBits != 0 && hourBits != 0 && monthBits != 0
+				&& (!dayOfMonthSpec || lastdayOfMonth || dayOfMonthBits != 0)
+				&& (dayOfMonthSpec || dayOfWeekBits != 0)
+				&& lastdayOffset <= 27
+				&& (!nearestWeekday || lastdayOfMonth || firstDayOfMonth <= 28);
+	}
+
+	public String getCronExpression() {
+		return expression.getCronExpression();
+	}
+
+	/**
+	 * same as CronExpression#getNextValidTimeAfter
+	 */
+	public Date getNextValidTimeAfter(Date date) {
+		long nextTime = getNextValidTimeAfter(date.getTime());
+		return nextTime >= 0 ? new Date(nextTime) : null;
+	}
+
+	/**
+	 * next fire time after the time, allocation-free
+	 *
+	 * @return epoch ms, -1 if none
+	 */
+	public long getNextValidTimeAfter(long afterTime) {
+		if (fast) {
+			OffsetWindow offsetWindow = window;
+			if (offsetWindow == null || !offsetWindow.contains(afterTime)) {
+				offsetWindow = window = OffsetWindow.of(timeZone, afterTime);
+			}
+			if (offsetWindow != null && offsetWindow.contains(afterTime)) {
+				// not deal with milliseconds, after one second
+				long fromSecond = Math.floorDiv(afterTime + 1000 + offsetWindow.offset, 1000L);
+				long nextSecond = nextLocalSecond(fromSecond);
+				if (nextSecond < 0) {
+					return -1;
+				}
+				long nextTime = nextSecond * 1000 - offsetWindow.offset;
+				if (offsetWindow.contains(nextTime)) {
+					return nextTime;
+				}
+			}
+		}
+
+		// near a transition, or rare syntax
+		Date nextTime = expression.getNextValidTimeAfter(new Date(afterTime));
+		return nextTime != null ? nextTime.getTime() : -1;
+	}
+
+
+	// ---------------------- evaluate ----------------------
+
+	/**
+	 * the first local second matched, not before the second
+	 *
+	 * @return local epoch second, -1 if none
+	 */
+	private long nextLocalSecond(long localSecond) {
+		long epochDay = Math.floorDiv(localSecond, 86400L);
+		int secondOfDay = (int) Math.floorMod(localSecond, 86400L);
+
+		// civil from days
+		long z = epochDay + 719468;
+		long era = Math.floorDiv(z, 146097L);
+		long doe = z - era * 146097;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+		int hour = secondOfDay / 3600;
+		int minute = secondOfDay / 60 % 60;
+		int second = secondOfDay % 60;
+
+		while (true) {
+			// carry
+			if (second > 59) {
+				second = 0;
+				minute++;
+			}
+			if (minute > 59) {
+				minute = 0;
+				hour++;
+			}
+			if (hour > 23) {
+				hour = 0;
+				day++;
+			}
+			if (day > lastDayOfMonth(year, month)) {
+				day = 1;
+				month++;
+			}
+			if (month > 12) {
+				month = 1;
+				year++;
+			}
+			if (year > MAX_YEAR) {
+				return -1;
+			}
+
+			// year
+			if (year < MIN_YEAR || !yearMatch(year)) {
+				int nextYear = nextYear(Math.max(year + 1, MIN_YEAR));
+				if (nextYear < 0) {
+					return -1;
+				}
+				year = nextYear;
+				month = 1;
+				day = 1;
+				hour = minute = second = 0;
+			}
+
+			// month
+			int nextMonth = nextBit(monthBits, month);
+			if (nextMonth < 0) {
+				year++;
+				month = 1;
+				day = 1;
+				hour = minute = second = 0;
+				continue;
+			}
+			if (nextMonth != month) {
+				month = nextMonth;
+				day = 1;
+				hour = minute = second = 0;
+			}
+
+			// day
+			int nextDay = nextDay(year, month, day);
+			if (nextDay < 0) {
+				month++;
+				day = 1;
+				hour = minute = second = 0;
+				continue;
+			}
+			if (nextDay != day) {
+				day = nextDay;
+				hour = minute = second = 0;
+			}
+
+			// hour
+			int nextHour = nextBit(hourBits, hour);
+			if (nextHour < 0) {
+				day++;
+				hour = minute = second = 0;
+				continue;
+			}
+			if (nextHour != hour) {
+				hour = nextHour;
+				minute = second = 0;
+			}
+
+			// minute
+			int nextMinute = nextBit(minuteBits, minute);
+			if (nextMinute < 0) {
+				hour++;
+				minute = second = 0;
+				continue;
+			}
+			if (nextMinute != minute) {
+				minute = nextMinute;
+				second = 0;
+			}
+
+			// second
+			int nextSecond = nextBit(secondBits, second);
+			if (nextSecond < 0) {
+				minute++;
+				second = 0;
+				continue;
+			}
+			second = nextSecond;
+
+			return daysFromCivil(year, month, day) * 86400L + hour * 3600 + minute * 60 + second;
+		}
+	}
+
+	/**
+	 * the first day matched in the month, not before the day
+	 *
+	 * @return day of month, -1 if none
+	 */
+	private int nextDay(int year, int month, int day) {
+		int lastDay = lastDayOfMonth(year, month);
+		if (dayOfMonthRule) {
+			int target;
+			if (lastdayOfMonth) {
+				target = lastDay - lastdayOffset;
+				if (nearestWeekday) {
+					target = nearestWeekday(year, month, target, lastDay);
+				}
+			} else if (nearestWeekday) {
+				target = nearestWeekday(year, month, firstDayOfMonth, lastDay);
+			} else {
+				target = nextBit(dayOfMonthBits, day);
+				return target <= lastDay ? target : -1;
+			}
+			return day <= target ? target : -1;
+		}
+
+		if (lastdayOfWeek) {
+			// the last one in the month
+			int target = lastDay - Math.floorMod(dayOfWeek(year, month, lastDay) - firstDayOfWeek, 7);
+			return day <= target ? target : -1;
+		} else if (nthdayOfWeek != 0) {
+			// the nth one in the month
+			int target = 1 + Math.floorMod(firstDayOfWeek - dayOfWeek(year, month, 1), 7) + (nthdayOfWeek - 1) * 7;
+			return (day <= target && target <= lastDay) ? target : -1;
+		}
+		int dayOfWeek = dayOfWeek(year, month, day);
+		for (int i = 0; i < 7 && day + i <= lastDay; i++) {
+			if ((dayOfWeekBits & (1L << ((dayOfWeek - 1 + i) % 7 + 1))) != 0) {
+				return day + i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * nearest weekday of the day, in the month; same as CronExpression
+	 */
+	private static int nearestWeekday(int year, int month, int day, int lastDay) {
+		int dayOfWeek = dayOfWeek(year, month, day);
+		if (dayOfWeek == Calendar.SATURDAY && day == 1) {
+			return day + 2;
+		} else if (dayOfWeek == Calendar.SATURDAY) {
+			return day - 1;
+		} else if (dayOfWeek == Calendar.SUNDAY && day == lastDay) {
+			return day - 2;
+		} else if (dayOfWeek == Calendar.SUNDAY) {
+			return day + 1;
+		}
+		return day;
+	}
+
+	private boolean yearMatch(int year) {
+		int index = year - MIN_YEAR;
+		return (yearBits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private int nextYear(int year) {
+		for (int index = year - MIN_YEAR; index <= MAX_YEAR - MIN_YEAR; ) {
+			long word = yearBits[index >>> 6] & (-1L << index);
+			if (word != 0) {
+				int nextYear = MIN_YEAR + (index & ~63) + Long.numberOfTrailingZeros(word);
+				return nextYear <= MAX_YEAR ? nextYear : -1;
+			}
+			index = (index & ~63) + 64;
+		}
+		return -1;
+	}
+
+
+	// ---------------------- tool ----------------------
+
+	private static long bits(Set<Integer> values, int min, int max) {
+		long bits = 0;
+		for (Integer value : values) {
+			if (value >= min && value <= max) {
+				bits |= 1L << value;
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * @return the first bit set, not before the index; -1 if none
+	 */
+	private static int nextBit(long bits, int from) {
+		if (from > 63) {
+			return -1;
+		}
+		long word = bits & (-1L << from);
+		return word != 0 ? Long.numberOfTrailingZeros(word) : -1;
+	}
+
+	private static int lastDayOfMonth(int year, int month) {
+		switch (month) {
+			case 2:
+				return ((year % 4 == 0 && year % 100 != 0) || (year % 400 == 0)) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * @return 1=Sunday ... 7=Saturday, same as Calendar
+	 */
+	private static int dayOfWeek(int year, int month, int day) {
+		return (int) Math.floorMod(daysFromCivil(year, month, day) + 4, 7L) + 1;
+	}
+
+	private static long daysFromCivil(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400L);
+		long yoe = y - era * 400;
+		long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097 + doe - 719468;
+	}
+
+	/**
+	 * window of constant utc offset, one day inside the transitions
+	 */
+	private static class OffsetWindow {
+		private final long from;
+		private final long to;
+		private final int offset;
+
+		private OffsetWindow(long from, long to, int offset) {
+			this.from = from;
+			this.to = to;
+			this.offset = offset;
+		}
+
+		private boolean contains(long time) {
+			return time >= from && time < to;
+		}
+
+		private static OffsetWindow of(TimeZone timeZone, long time) {
+			try {
+				ZoneRules rules = timeZone.toZoneId().getRules();
+				Instant instant = Instant.ofEpochMilli(time);
+				int offset = rules.getOffset(instant).getTotalSeconds() * 1000;
+				if (offset != timeZone.getOffset(time)) {
+					return null;
+				}
+				if (rules.isFixedOffset()) {
+					return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, offset);
+				}
+				ZoneOffsetTransition previous = rules.previousTransition(instant);
+				ZoneOffsetTransition next = rules.nextTransition(instant);
+				long from = previous != null ? previous.getInstant().toEpochMilli() + DAY_MS : Long.MIN_VALUE;
+				long to = next != null ? next.getInstant().toEpochMilli() - DAY_MS : Long.MAX_VALUE;
+				return new OffsetWindow(from, to, offset);
+			} catch (Exception e) {
+				// time zone not supported by java.time
+				return null;
+			}
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ public class XxlJobRegistry {
 	private String registryGroup;
 	private String registryKey;
 	private String registryValue;
+	private String registryLoad;
 	private Date updateTime;
 
 	public int getId() {
@@ -45,6 +46,14 @@ public class XxlJobRegistry {
 		this.registryValue = registryValue;
 	}
 
+	public String getRegistryLoad() {
+		return registryLoad;
+	}
+
+	public void setRegistryLoad(String registryLoad) {
+		this.registryLoad = registryLoad;
+	}
+
 	public Date getUpdateTime() {
 		return updateTime;
 	}
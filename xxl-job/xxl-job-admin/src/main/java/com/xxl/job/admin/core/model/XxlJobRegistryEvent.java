@@ -0,0 +1,68 @@
+package com.xxl.job.admin.core.model;
+
+import java.util.Date;
+
+/**
+ * registry delta event, polled by each admin node
+ */
+public class XxlJobRegistryEvent {
+
+	public static final int EVENT_REGISTRY = 0;
+	public static final int EVENT_REMOVE = 1;
+
+	private long id;
+	private String registryGroup;
+	private String registryKey;
+	private String registryValue;
+	private int eventType;          // 0=注册、1=摘除
+	private Date addTime;
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getRegistryGroup() {
+		return registryGroup;
+	}
+
+	public void setRegistryGroup(String registryGroup) {
+		this.registryGroup = registryGroup;
+	}
+
+	public String getRegistryKey() {
+		return registryKey;
+	}
+
+	public void setRegistryKey(String registryKey) {
+		this.registryKey = registryKey;
+	}
+
+	public String getRegistryValue() {
+		return registryValue;
+	}
+
+	public void setRegistryValue(String registryValue) {
+		this.registryValue = registryValue;
+	}
+
+	public int getEventType() {
+		return eventType;
+	}
+
+	public void setEventType(int eventType) {
+		this.eventType = eventType;
+	}
+
+	public Date getAddTime() {
+		return addTime;
+	}
+
+	public void setAddTime(Date addTime) {
+		this.addTime = addTime;
+	}
+
+}
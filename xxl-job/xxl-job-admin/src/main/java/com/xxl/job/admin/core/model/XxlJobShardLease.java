@@ -0,0 +1,35 @@
+package com.xxl.job.admin.core.model;
+
+/**
+ * schedule shard lease, one row per shard
+ */
+public class XxlJobShardLease {
+
+	private int shardId;
+	private String owner;        // admin node id, null if free
+	private long leaseTime;      // last heartbeat of owner, ms
+
+	public int getShardId() {
+		return shardId;
+	}
+
+	public void setShardId(int shardId) {
+		this.shardId = shardId;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+
+	public long getLeaseTime() {
+		return leaseTime;
+	}
+
+	public void setLeaseTime(long leaseTime) {
+		this.leaseTime = leaseTime;
+	}
+}
@@ -0,0 +1,288 @@
+package com.xxl.job.admin.core.partition;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * time-partitioned storage of xxl_job_log: MySQL RANGE partition by "TO_DAYS(trigger_time)"
+ *
+ * 1、partition: one per day or week ("xxl.job.logpartition"), named by its start day (p20221018), and "pmax" at the end;
+ *    created ahead at startup and once each day, by reorganizing the empty "pmax";
+ * 2、retention: expired partition is dropped as a whole, instead of deleting log by id; queries with trigger_time range
+ *    (page, count, report) read the partitions in range only;
+ * 3、migration: table not partitioned is migrated by JobLogPartitionMigrator, log is deleted by id until then;
+ */
+public class JobLogPartitionHelper {
+	private static Logger logger = LoggerFactory.getLogger(JobLogPartitionHelper.class);
+
+	private static JobLogPartitionHelper instance = new JobLogPartitionHelper();
+
+	public static JobLogPartitionHelper getInstance() {
+		return instance;
+	}
+
+	public static final String LOG_TABLE = "xxl_job_log";
+	static final String MAX_PARTITION = "pmax";
+	static final long TO_DAYS_EPOCH = 719528;       // TO_DAYS('1970-01-01')
+	private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+	// checked by "maintain"
+	private volatile boolean partitioned = false;
+
+	/**
+	 * @return true if partition enabled, and xxl_job_log is partitioned by trigger_time
+	 */
+	public boolean isPartitioned() {
+		return partitioned;
+	}
+
+	/**
+	 * check the table, create partitions ahead; at startup and once each day
+	 */
+	public void maintain() {
+		JobLogPartitionTypeEnum partitionType = XxlJobAdminConfig.getAdminConfig().getLogPartitionType();
+		if (partitionType == JobLogPartitionTypeEnum.NONE) {
+			partitioned = false;
+			return;
+		}
+
+		Connection conn = null;
+		try {
+			conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
+			List<Partition> partitionList = loadPartitions(conn, LOG_TABLE);
+			if (partitionList.isEmpty()) {
+				logger.warn(">>>>>>>>>>> xxl-job, {} is not partitioned by trigger_time, run JobLogPartitionMigrator to migrate; log is deleted by id until then.", LOG_TABLE);
+				partitioned = false;
+				return;
+			}
+			partitioned = true;
+
+			List<Partition> aheadList = planAhead(partitionList, currentDate(conn), partitionType);
+			if (!aheadList.isEmpty()) {
+				execute(conn, addPartitionSql(LOG_TABLE, partitionList, aheadList));
+				logger.info(">>>>>>>>>>> xxl-job, {} partition created, from {} to {}", LOG_TABLE,
+						aheadList.get(0).getName(), aheadList.get(aheadList.size() - 1).getName());
+			}
+		} catch (SQLException e) {
+			// partition created by other admin node meanwhile, etc; retried the next time
+			logger.error(">>>>>>>>>>> xxl-job, {} partition maintain fail: {}", LOG_TABLE, e.getMessage());
+		} finally {
+			close(conn);
+		}
+	}
+
+	/**
+	 * drop partitions with all log triggered before the time
+	 *
+	 * @return partition count dropped
+	 */
+	public int dropBefore(Date clearBeforeTime) {
+		if (!partitioned) {
+			return 0;
+		}
+		LocalDate clearBeforeDay = clearBeforeTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+
+		Connection conn = null;
+		try {
+			conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
+			List<Partition> dropList = planDrop(loadPartitions(conn, LOG_TABLE), clearBeforeDay);
+			if (!dropList.isEmpty()) {
+				execute(conn, dropPartitionSql(LOG_TABLE, dropList));
+				logger.info(">>>>>>>>>>> xxl-job, {} partition dropped, from {} to {}", LOG_TABLE,
+						dropList.get(0).getName(), dropList.get(dropList.size() - 1).getName());
+			}
+			return dropList.size();
+		} catch (SQLException e) {
+			// dropped by other admin node meanwhile, etc; retried the next time
+			logger.error(">>>>>>>>>>> xxl-job, {} partition drop fail: {}", LOG_TABLE, e.getMessage());
+			return 0;
+		} finally {
+			close(conn);
+		}
+	}
+
+
+	// ---------------------- plan ----------------------
+
+	/**
+	 * partitions from the day, until "ahead" partitions after the current one
+	 */
+	static List<Partition> planPartitions(LocalDate fromDay, LocalDate today, JobLogPartitionTypeEnum partitionType) {
+		LocalDate endDay = partitionType.periodStart(today);
+		for (int i = 0; i <= partitionType.getAhead(); i++) {
+			endDay = partitionType.nextStart(endDay);
+		}
+
+		List<Partition> partitionList = new ArrayList<Partition>();
+		LocalDate startDay = fromDay;
+		while (startDay.isBefore(endDay)) {
+			LocalDate lessThan = partitionType.nextStart(startDay);
+			partitionList.add(new Partition(partitionName(startDay), lessThan));
+			startDay = lessThan;
+		}
+		return partitionList;
+	}
+
+	/**
+	 * partitions to create, after the last bounded one
+	 */
+	static List<Partition> planAhead(List<Partition> partitionList, LocalDate today, JobLogPartitionTypeEnum partitionType) {
+		LocalDate lastLessThan = null;
+		for (Partition partition : partitionList) {
+			if (partition.getLessThan() != null) {
+				lastLessThan = partition.getLessThan();
+			}
+		}
+		LocalDate fromDay = lastLessThan != null ? lastLessThan : partitionType.periodStart(today);
+		return planPartitions(fromDay, today, partitionType);
+	}
+
+	/**
+	 * partitions with all log before the day; one is kept at least
+	 */
+	static List<Partition> planDrop(List<Partition> partitionList, LocalDate clearBeforeDay) {
+		List<Partition> dropList = new ArrayList<Partition>();
+		for (Partition partition : partitionList) {
+			if (partition.getLessThan() != null && !partition.getLessThan().isAfter(clearBeforeDay)) {
+				dropList.add(partition);
+			}
+		}
+		if (!dropList.isEmpty() && dropList.size() == partitionList.size()) {
+			dropList.remove(dropList.size() - 1);
+		}
+		return dropList;
+	}
+
+	static String partitionName(LocalDate startDay) {
+		return "p".concat(startDay.format(NAME_FORMAT));
+	}
+
+
+	// ---------------------- sql ----------------------
+
+	/**
+	 * partitions of table, by ordinal; empty if not partitioned by range of trigger_time
+	 */
+	static List<Partition> loadPartitions(Connection conn, String tableName) throws SQLException {
+		List<Partition> partitionList = new ArrayList<Partition>();
+		PreparedStatement preparedStatement = conn.prepareStatement("SELECT PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION, PARTITION_DESCRIPTION " +
+				"FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY PARTITION_ORDINAL_POSITION");
+		try {
+			preparedStatement.setString(1, tableName);
+			ResultSet resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				String name = resultSet.getString(1);
+				String method = resultSet.getString(2);
+				String expression = resultSet.getString(3);
+				String description = resultSet.getString(4);
+				if (name == null || !"RANGE".equalsIgnoreCase(method) || expression == null
+						|| !expression.toLowerCase().replace("`", "").equals("to_days(trigger_time)")) {
+					partitionList.clear();
+					break;
+				}
+				LocalDate lessThan = "MAXVALUE".equalsIgnoreCase(description) ? null : LocalDate.ofEpochDay(Long.parseLong(description) - TO_DAYS_EPOCH);
+				partitionList.add(new Partition(name, lessThan));
+			}
+			resultSet.close();
+		} finally {
+			preparedStatement.close();
+		}
+		return partitionList;
+	}
+
+	/**
+	 * "PARTITION p20221018 VALUES LESS THAN (TO_DAYS('2022-10-19')), ..., PARTITION pmax VALUES LESS THAN MAXVALUE"
+	 */
+	static String partitionDefinitions(List<Partition> partitionList, boolean withMaxPartition) {
+		StringBuilder sql = new StringBuilder();
+		for (Partition partition : partitionList) {
+			sql.append(sql.length() > 0 ? ", " : "")
+					.append("PARTITION ").append(partition.getName())
+					.append(" VALUES LESS THAN (TO_DAYS('").append(partition.getLessThan()).append("'))");
+		}
+		if (withMaxPartition) {
+			sql.append(sql.length() > 0 ? ", " : "")
+					.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN MAXVALUE");
+		}
+		return sql.toString();
+	}
+
+	static String addPartitionSql(String tableName, List<Partition> partitionList, List<Partition> aheadList) {
+		Partition last = partitionList.get(partitionList.size() - 1);
+		if (last.getLessThan() == null) {
+			// split the max partition, empty if created ahead in time
+			return "ALTER TABLE " + tableName + " REORGANIZE PARTITION " + last.getName() + " INTO (" + partitionDefinitions(aheadList, true) + ")";
+		}
+		return "ALTER TABLE " + tableName + " ADD PARTITION (" + partitionDefinitions(aheadList, false) + ")";
+	}
+
+	static String dropPartitionSql(String tableName, List<Partition> dropList) {
+		StringBuilder sql = new StringBuilder("ALTER TABLE ").append(tableName).append(" DROP PARTITION ");
+		for (int i = 0; i < dropList.size(); i++) {
+			sql.append(i > 0 ? ", " : "").append(dropList.get(i).getName());
+		}
+		return sql.toString();
+	}
+
+	static LocalDate currentDate(Connection conn) throws SQLException {
+		Statement statement = conn.createStatement();
+		try {
+			ResultSet resultSet = statement.executeQuery("SELECT TO_DAYS(CURDATE())");
+			resultSet.next();
+			return LocalDate.ofEpochDay(resultSet.getLong(1) - TO_DAYS_EPOCH);
+		} finally {
+			statement.close();
+		}
+	}
+
+	static void execute(Connection conn, String sql) throws SQLException {
+		Statement statement = conn.createStatement();
+		try {
+			statement.execute(sql);
+		} finally {
+			statement.close();
+		}
+	}
+
+	private static void close(Connection conn) {
+		if (conn != null) {
+			try {
+				conn.close();
+			} catch (SQLException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	static class Partition {
+		private final String name;
+		private final LocalDate lessThan;       // exclusive; null for MAXVALUE
+
+		Partition(String name, LocalDate lessThan) {
+			this.name = name;
+			this.lessThan = lessThan;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public LocalDate getLessThan() {
+			return lessThan;
+		}
+	}
+
+}
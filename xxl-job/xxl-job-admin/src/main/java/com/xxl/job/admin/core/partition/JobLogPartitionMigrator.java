@@ -0,0 +1,197 @@
+package com.xxl.job.admin.core.partition;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * migrate xxl_job_log to the partitioned table, by JDBC, out of the admin:
+ *
+ *     java -cp xxl-job-admin-{version}.jar -Dloader.main=com.xxl.job.admin.core.partition.JobLogPartitionMigrator \
+ *          org.springframework.boot.loader.PropertiesLauncher {copy|swap} {jdbcUrl} {username} {password} [DAY|WEEK]
+ *
+ * 1、copy: create "xxl_job_log_partitioned" (primary key "id, trigger_time", partitioned by TO_DAYS(trigger_time)), and copy log
+ *    by id range, with admin running; resumable from the max id copied, run it again to copy log written meanwhile;
+ * 2、swap: with admin stopped (executor keeps the callback and retries it), copy the rest, copy again the log which may be changed
+ *    after copied (triggered in RECOPY_HOURS, running, fail not handled), then rename in one statement:
+ *    xxl_job_log -> xxl_job_log_unpartitioned, xxl_job_log_partitioned -> xxl_job_log;
+ *
+ * then set "xxl.job.logpartition" and start admin; drop "xxl_job_log_unpartitioned" after checked.
+ */
+public class JobLogPartitionMigrator {
+
+	private static final String NEW_TABLE = "xxl_job_log_partitioned";
+	private static final String OLD_TABLE = "xxl_job_log_unpartitioned";
+	private static final String LOG_TABLE = JobLogPartitionHelper.LOG_TABLE;
+
+	private static final int COPY_STEP = 10000;     // id range per batch
+	private static final int RECOPY_HOURS = 24;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 4 || !("copy".equals(args[0]) || "swap".equals(args[0]))) {
+			System.out.println("usage: JobLogPartitionMigrator {copy|swap} {jdbcUrl} {username} {password} [DAY|WEEK]");
+			System.exit(1);
+		}
+		JobLogPartitionTypeEnum partitionType = JobLogPartitionTypeEnum.match(args.length > 4 ? args[4] : null, JobLogPartitionTypeEnum.DAY);
+		if (partitionType == JobLogPartitionTypeEnum.NONE) {
+			partitionType = JobLogPartitionTypeEnum.DAY;
+		}
+
+		Connection conn = DriverManager.getConnection(args[1], args[2], args[3]);
+		try {
+			if (!JobLogPartitionHelper.loadPartitions(conn, LOG_TABLE).isEmpty()) {
+				System.out.println(LOG_TABLE + " is partitioned already.");
+				return;
+			}
+			if ("copy".equals(args[0])) {
+				create(conn, partitionType);
+				copy(conn);
+			} else {
+				create(conn, partitionType);
+				copy(conn);
+				recopy(conn);
+				JobLogPartitionHelper.execute(conn, "RENAME TABLE " + LOG_TABLE + " TO " + OLD_TABLE + ", " + NEW_TABLE + " TO " + LOG_TABLE);
+				System.out.println("swapped, " + LOG_TABLE + " is partitioned; the old one is " + OLD_TABLE + ", drop it after checked.");
+			}
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * create the partitioned table, if not exists: partitions from the day of the min trigger_time
+	 */
+	private static void create(Connection conn, JobLogPartitionTypeEnum partitionType) throws SQLException {
+		if (queryLong(conn, "SELECT COUNT(1) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + NEW_TABLE + "'") > 0) {
+			return;
+		}
+
+		LocalDate today = JobLogPartitionHelper.currentDate(conn);
+		long minDays = queryLong(conn, "SELECT IFNULL(MIN(TO_DAYS(trigger_time)), TO_DAYS(CURDATE())) FROM " + LOG_TABLE);
+		LocalDate fromDay = partitionType.periodStart(LocalDate.ofEpochDay(minDays - JobLogPartitionHelper.TO_DAYS_EPOCH));
+		List<JobLogPartitionHelper.Partition> partitionList = JobLogPartitionHelper.planPartitions(fromDay, today, partitionType);
+
+		JobLogPartitionHelper.execute(conn, "CREATE TABLE " + NEW_TABLE + " LIKE " + LOG_TABLE);
+		// partition column is in every unique key
+		JobLogPartitionHelper.execute(conn, "ALTER TABLE " + NEW_TABLE + " MODIFY `trigger_time` datetime NOT NULL COMMENT '调度-时间', " +
+				"DROP PRIMARY KEY, ADD PRIMARY KEY (`id`, `trigger_time`)");
+		JobLogPartitionHelper.execute(conn, "ALTER TABLE " + NEW_TABLE + " PARTITION BY RANGE (TO_DAYS(`trigger_time`)) (" +
+				JobLogPartitionHelper.partitionDefinitions(partitionList, true) + ")");
+		System.out.println(NEW_TABLE + " created, " + partitionList.size() + " partitions from " + partitionList.get(0).getName());
+	}
+
+	/**
+	 * copy log by id range, from the max id copied
+	 */
+	private static void copy(Connection conn) throws SQLException {
+		long fromId = queryLong(conn, "SELECT IFNULL(MAX(id), 0) FROM " + NEW_TABLE);
+		long maxId = queryLong(conn, "SELECT IFNULL(MAX(id), 0) FROM " + LOG_TABLE);
+		long copyCount = 0;
+		for (int batch = 1; fromId < maxId; batch++) {
+			long toId = Math.min(fromId + COPY_STEP, maxId);
+			copyCount += update(conn, "INSERT INTO " + NEW_TABLE + " SELECT * FROM " + LOG_TABLE + " WHERE id > ? AND id <= ?", fromId, toId);
+			fromId = toId;
+			if (batch % 100 == 0) {
+				System.out.println("copied " + copyCount + ", to id " + toId + " of " + maxId);
+			}
+		}
+		System.out.println("copied " + copyCount + ", to id " + maxId);
+	}
+
+	/**
+	 * copy again the log which may be changed after copied; delete first, trigger_time (in primary key) may be changed
+	 */
+	private static void recopy(Connection conn) throws SQLException {
+		// triggered recently
+		PreparedStatement preparedStatement = conn.prepareStatement("SELECT IFNULL(MIN(id), 0) FROM " + LOG_TABLE + " WHERE trigger_time >= ?");
+		long recentId;
+		try {
+			preparedStatement.setTimestamp(1, new Timestamp(System.currentTimeMillis() - RECOPY_HOURS * 60 * 60 * 1000L));
+			ResultSet resultSet = preparedStatement.executeQuery();
+			resultSet.next();
+			recentId = resultSet.getLong(1);
+		} finally {
+			preparedStatement.close();
+		}
+		long maxId = queryLong(conn, "SELECT IFNULL(MAX(id), 0) FROM " + LOG_TABLE);
+		long recopyCount = 0;
+		for (long fromId = recentId - 1; recentId > 0 && fromId < maxId; fromId += COPY_STEP) {
+			long toId = Math.min(fromId + COPY_STEP, maxId);
+			recopyCount += recopy(conn, "id > " + fromId + " AND id <= " + toId);
+		}
+
+		// running, and fail not handled
+		List<Long> logIds = queryIds(conn, "SELECT id FROM " + NEW_TABLE + " WHERE handle_code = 0 AND id < " + recentId);
+		logIds.addAll(queryIds(conn, "SELECT log_id FROM xxl_job_fail_outbox"));
+		for (int i = 0; i < logIds.size(); i += 1000) {
+			StringBuilder idIn = new StringBuilder();
+			for (Long logId : logIds.subList(i, Math.min(i + 1000, logIds.size()))) {
+				idIn.append(idIn.length() > 0 ? "," : "").append(logId);
+			}
+			recopyCount += recopy(conn, "id IN (" + idIn + ")");
+		}
+		System.out.println("copied again " + recopyCount);
+	}
+
+	private static int recopy(Connection conn, String condition) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try {
+			update(conn, "DELETE FROM " + NEW_TABLE + " WHERE " + condition);
+			int ret = update(conn, "INSERT INTO " + NEW_TABLE + " SELECT * FROM " + LOG_TABLE + " WHERE " + condition);
+			conn.commit();
+			return ret;
+		} catch (SQLException e) {
+			conn.rollback();
+			throw e;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+
+	// ---------------------- jdbc ----------------------
+
+	private static int update(Connection conn, String sql, Object... params) throws SQLException {
+		PreparedStatement preparedStatement = conn.prepareStatement(sql);
+		try {
+			for (int i = 0; i < params.length; i++) {
+				preparedStatement.setObject(i + 1, params[i]);
+			}
+			return preparedStatement.executeUpdate();
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	private static long queryLong(Connection conn, String sql) throws SQLException {
+		PreparedStatement preparedStatement = conn.prepareStatement(sql);
+		try {
+			ResultSet resultSet = preparedStatement.executeQuery();
+			return resultSet.next() ? resultSet.getLong(1) : 0;
+		} finally {
+			preparedStatement.close();
+		}
+	}
+
+	private static List<Long> queryIds(Connection conn, String sql) throws SQLException {
+		List<Long> ids = new ArrayList<Long>();
+		PreparedStatement preparedStatement = conn.prepareStatement(sql);
+		try {
+			ResultSet resultSet = preparedStatement.executeQuery();
+			while (resultSet.next()) {
+				ids.add(resultSet.getLong(1));
+			}
+		} finally {
+			preparedStatement.close();
+		}
+		return ids;
+	}
+
+}
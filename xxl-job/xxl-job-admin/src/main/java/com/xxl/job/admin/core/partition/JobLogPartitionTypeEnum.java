@@ -0,0 +1,71 @@
+package com.xxl.job.admin.core.partition;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * partition type of xxl_job_log, by trigger_time
+ */
+public enum JobLogPartitionTypeEnum {
+
+	/**
+	 * not partitioned, expired log is deleted by id
+	 */
+	NONE(0),
+
+	/**
+	 * one partition per day, 7 days created ahead
+	 */
+	DAY(7),
+
+	/**
+	 * one partition per week (from monday), 4 weeks created ahead
+	 */
+	WEEK(4);
+
+	private final int ahead;
+
+	JobLogPartitionTypeEnum(int ahead) {
+		this.ahead = ahead;
+	}
+
+	/**
+	 * partitions created ahead of the current one
+	 */
+	public int getAhead() {
+		return ahead;
+	}
+
+	/**
+	 * start day of the partition the day is in
+	 */
+	public LocalDate periodStart(LocalDate day) {
+		if (this == WEEK) {
+			return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+		}
+		return day;
+	}
+
+	/**
+	 * start day of the partition after the one the day is in
+	 */
+	public LocalDate nextStart(LocalDate day) {
+		if (this == WEEK) {
+			return periodStart(day).plusWeeks(1);
+		}
+		return day.plusDays(1);
+	}
+
+	public static JobLogPartitionTypeEnum match(String name, JobLogPartitionTypeEnum defaultItem) {
+		if (name != null) {
+			for (JobLogPartitionTypeEnum item : JobLogPartitionTypeEnum.values()) {
+				if (item.name().equals(name)) {
+					return item;
+				}
+			}
+		}
+		return defaultItem;
+	}
+
+}
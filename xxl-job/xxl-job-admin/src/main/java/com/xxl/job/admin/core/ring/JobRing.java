@@ -0,0 +1,56 @@
+package com.xxl.job.admin.core.ring;
+
+import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
+import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job time-ring, hold pre-read jobs until their trigger time
+ *
+ * 调度线程预读出的任务先放入时间轮，到达触发时间后由时间轮推送至触发线程池
+ */
+public abstract class JobRing {
+	protected static Logger logger = LoggerFactory.getLogger(JobRing.class);
+
+	// lateness = fire time - trigger time
+	private static final Timer LATENESS = Timer.builder("xxl.job.ring.lateness")
+			.description("delay between job trigger-next-time and the time-ring firing it")
+			.publishPercentileHistogram()
+			.register(Metrics.globalRegistry);
+
+	public abstract void start();
+
+	public abstract void toStop();
+
+	/**
+	 * push job into ring
+	 *
+	 * @param jobId
+	 * @param triggerTime trigger time, in ms
+	 */
+	public abstract void push(int jobId, long triggerTime);
+
+	/**
+	 * @return true if no job waits in ring
+	 */
+	public abstract boolean isEmpty();
+
+	/**
+	 * fire job, when trigger time arrived
+	 *
+	 * @param jobId
+	 * @param triggerTime
+	 */
+	protected void trigger(int jobId, long triggerTime) {
+		long lateness = System.currentTimeMillis() - triggerTime;
+		LATENESS.record(lateness > 0 ? lateness : 0, TimeUnit.MILLISECONDS);
+
+		JobTriggerPoolHelper.trigger(jobId, TriggerTypeEnum.CRON, -1, null, null, null);
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.xxl.job.admin.core.ring;
+
+/**
+ * time-ring type
+ */
+public enum JobRingTypeEnum {
+
+	/**
+	 * 60 slots, one slot per second; trigger aligned to second
+	 */
+	SECOND,
+
+	/**
+	 * hierarchical timing wheel (ms / second / minute tier); trigger at real trigger time
+	 */
+	WHEEL;
+
+	public static JobRingTypeEnum match(String name, JobRingTypeEnum defaultItem) {
+		if (name != null) {
+			for (JobRingTypeEnum item : JobRingTypeEnum.values()) {
+				if (item.name().equals(name)) {
+					return item;
+				}
+			}
+		}
+		return defaultItem;
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.xxl.job.admin.core.ring.impl;
+
+import com.xxl.job.admin.core.ring.JobRing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * second time-ring, key 0-59 (second of minute), value job id list
+ *
+ * 时间轮，key 0-59，value 任务ID列表；触发时间对齐到秒
+ */
+public class JobSecondRing extends JobRing {
+
+	private final Map<Integer, List<Integer>> ringData = new ConcurrentHashMap<>();
+	private Thread ringThread;
+	private volatile boolean ringThreadToStop = false;
+
+	public JobSecondRing() {
+		Gauge.builder("xxl.job.ring.depth", this, JobSecondRing::size)
+				.tag("tier", "second")
+				.description("jobs waiting in time-ring")
+				.register(Metrics.globalRegistry);
+	}
+
+	@Override
+	public void start() {
+		// ring thread
+		// 1秒执行一次，从ringData中获取最近0秒和1秒将要执行的任务，进行远程触发。
+		ringThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+
+				while (!ringThreadToStop) {
+
+					// align second
+					// 时间对齐，对齐至秒
+					try {
+						TimeUnit.MILLISECONDS.sleep(1000 - System.currentTimeMillis() % 1000);
+					} catch (InterruptedException e) {
+						if (!ringThreadToStop) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+
+					try {
+						// second data
+						long nowSecondTime = System.currentTimeMillis() / 1000 * 1000;
+						int nowSecond = (int) ((nowSecondTime / 1000) % 60);   // 避免处理耗时太长，跨过刻度，向前校验一个刻度；
+						for (int i = 0; i < 2; i++) {
+							List<Integer> ringItemData = ringData.remove((nowSecond + 60 - i) % 60);
+
+							// ring trigger
+							if (ringItemData != null && ringItemData.size() > 0) {
+								logger.debug(">>>>>>>>>>> xxl-job, time-ring beat : " + nowSecond + " = " + Arrays.asList(ringItemData));
+								for (int jobId : ringItemData) {
+									trigger(jobId, nowSecondTime - i * 1000L);
+								}
+							}
+						}
+					} catch (Exception e) {
+						if (!ringThreadToStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobSecondRing#ringThread error:{}", e);
+						}
+					}
+				}
+				logger.info(">>>>>>>>>>> xxl-job, JobSecondRing#ringThread stop");
+			}
+		});
+		ringThread.setDaemon(true);
+		ringThread.setName("xxl-job, admin JobScheduleHelper#ringThread");
+		ringThread.start();
+	}
+
+	@Override
+	public void toStop() {
+		ringThreadToStop = true;
+		try {
+			TimeUnit.SECONDS.sleep(1);
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+		if (ringThread.getState() != Thread.State.TERMINATED) {
+			// interrupt and wait
+			ringThread.interrupt();
+			try {
+				ringThread.join();
+			} catch (InterruptedException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	@Override
+	public void push(int jobId, long triggerTime) {
+		int ringSecond = (int) ((triggerTime / 1000) % 60);
+
+		// compute is atomic with the ring thread remove, the slot list is never lost or shared
+		ringData.compute(ringSecond, (second, ringItemData) -> {
+			if (ringItemData == null) {
+				ringItemData = new ArrayList<Integer>();
+			}
+			ringItemData.add(jobId);
+			return ringItemData;
+		});
+
+		logger.debug(">>>>>>>>>>> xxl-job, schedule push time-ring : " + ringSecond + " = " + jobId);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	private int size() {
+		int size = 0;
+		for (Integer second : ringData.keySet()) {
+			List<Integer> ringItemData = ringData.get(second);
+			if (ringItemData != null) {
+				size += ringItemData.size();
+			}
+		}
+		return size;
+	}
+
+}
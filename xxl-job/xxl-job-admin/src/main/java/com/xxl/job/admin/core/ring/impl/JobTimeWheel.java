@@ -0,0 +1,226 @@
+package com.xxl.job.admin.core.ring.impl;
+
+import com.xxl.job.admin.core.ring.JobRing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * hierarchical timing wheel, ms / second / minute tier
+ *
+ * 1、push: lock-free, job is pushed to the pending stack (CAS), no slot is touched by the caller;
+ * 2、tick: the wheel thread moves pending job to its tier, cascades minute > second > ms slot on boundary, and fires the ms slot;
+ *
+ * ms tier     : [now + tick, now + 1s), slot = triggerTime / tickMs
+ * second tier : [now + 1s, now + 60s),  slot = second of triggerTime
+ * minute tier : [now + 60s, ...),       slot = minute of triggerTime, re-placed if more than one hour ahead
+ */
+public class JobTimeWheel extends JobRing {
+
+	private static final int SECOND_SLOTS = 60;
+	private static final int MINUTE_SLOTS = 60;
+
+	private final long tickMs;
+	private final int msSlots;
+
+	// slot, only accessed by wheel thread
+	private final Node[] msSlot;
+	private final Node[] secondSlot = new Node[SECOND_SLOTS];
+	private final Node[] minuteSlot = new Node[MINUTE_SLOTS];
+
+	// pending, pushed by schedule thread (Treiber stack)
+	private final AtomicReference<Node> pending = new AtomicReference<>();
+	private final AtomicInteger pendingDepth = new AtomicInteger();
+
+	// metrics, written by wheel thread only
+	private volatile int msDepth = 0;
+	private volatile int secondDepth = 0;
+	private volatile int minuteDepth = 0;
+	private volatile int lastSlotDepth = 0;
+
+	private Thread wheelThread;
+	private volatile boolean wheelThreadToStop = false;
+
+	/**
+	 * @param tickMs tick of ms tier, must divide 1000
+	 */
+	public JobTimeWheel(long tickMs) {
+		if (tickMs < 1 || tickMs > 1000 || 1000 % tickMs != 0) {
+			throw new IllegalArgumentException("xxl-job time-wheel tickMs invalid, must divide 1000: " + tickMs);
+		}
+		this.tickMs = tickMs;
+		this.msSlots = (int) (1000 / tickMs);
+		this.msSlot = new Node[msSlots];
+
+		Gauge.builder("xxl.job.ring.depth", pendingDepth, AtomicInteger::get).tag("tier", "pending").register(Metrics.globalRegistry);
+		Gauge.builder("xxl.job.ring.depth", this, wheel -> wheel.msDepth).tag("tier", "ms").register(Metrics.globalRegistry);
+		Gauge.builder("xxl.job.ring.depth", this, wheel -> wheel.secondDepth).tag("tier", "second").register(Metrics.globalRegistry);
+		Gauge.builder("xxl.job.ring.depth", this, wheel -> wheel.minuteDepth).tag("tier", "minute").register(Metrics.globalRegistry);
+		Gauge.builder("xxl.job.ring.slot.depth", this, wheel -> wheel.lastSlotDepth)
+				.description("jobs fired by the last ms slot")
+				.register(Metrics.globalRegistry);
+	}
+
+	@Override
+	public void start() {
+		wheelThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+
+				long tick = System.currentTimeMillis() / tickMs;
+				while (!wheelThreadToStop) {
+					long tickTime = tick * tickMs;
+
+					// wait tick
+					long waitMs = tickTime - System.currentTimeMillis();
+					if (waitMs > 0) {
+						try {
+							TimeUnit.MILLISECONDS.sleep(waitMs);
+						} catch (InterruptedException e) {
+							if (!wheelThreadToStop) {
+								logger.error(e.getMessage(), e);
+							}
+						}
+						continue;
+					}
+
+					// tick, never skipped: when behind (gc, clock jump), catch up tick by tick
+					try {
+						advance(tickTime);
+					} catch (Exception e) {
+						if (!wheelThreadToStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobTimeWheel#wheelThread error:{}", e);
+						}
+					}
+					tick++;
+				}
+				logger.info(">>>>>>>>>>> xxl-job, JobTimeWheel#wheelThread stop");
+			}
+		});
+		wheelThread.setDaemon(true);
+		wheelThread.setName("xxl-job, admin JobScheduleHelper#wheelThread");
+		wheelThread.start();
+	}
+
+	@Override
+	public void toStop() {
+		wheelThreadToStop = true;
+		wheelThread.interrupt();
+		try {
+			wheelThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void push(int jobId, long triggerTime) {
+		Node node = new Node(jobId, triggerTime);
+		Node head;
+		do {
+			head = pending.get();
+			node.next = head;
+		} while (!pending.compareAndSet(head, node));
+		pendingDepth.incrementAndGet();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return pendingDepth.get() == 0 && msDepth + secondDepth + minuteDepth == 0;
+	}
+
+	/**
+	 * advance one tick, only called by wheel thread
+	 */
+	void advance(long tickTime) {
+
+		// 1、pending > tier
+		Node node = pending.getAndSet(null);
+		int count = 0;
+		while (node != null) {
+			Node next = node.next;
+			place(node, tickTime);
+			node = next;
+			count++;
+		}
+		if (count > 0) {
+			pendingDepth.addAndGet(-count);
+		}
+
+		// 2、cascade: minute > second > ms
+		if (tickTime % 60000 == 0) {
+			int index = (int) ((tickTime / 60000) % MINUTE_SLOTS);
+			node = minuteSlot[index];
+			minuteSlot[index] = null;
+			while (node != null) {
+				Node next = node.next;
+				minuteDepth--;
+				place(node, tickTime);
+				node = next;
+			}
+		}
+		if (tickTime % 1000 == 0) {
+			int index = (int) ((tickTime / 1000) % SECOND_SLOTS);
+			node = secondSlot[index];
+			secondSlot[index] = null;
+			while (node != null) {
+				Node next = node.next;
+				secondDepth--;
+				place(node, tickTime);
+				node = next;
+			}
+		}
+
+		// 3、fire ms slot
+		int index = (int) ((tickTime / tickMs) % msSlots);
+		node = msSlot[index];
+		msSlot[index] = null;
+		count = 0;
+		while (node != null) {
+			Node next = node.next;
+			trigger(node.jobId, node.triggerTime);
+			node = next;
+			count++;
+		}
+		msDepth -= count;
+		lastSlotDepth = count;
+	}
+
+	private void place(Node node, long tickTime) {
+		long triggerTime = node.triggerTime;
+		if (triggerTime < tickTime + tickMs) {
+			// due in this tick, or expired
+			trigger(node.jobId, triggerTime);
+		} else if (triggerTime < tickTime + 1000) {
+			int index = (int) ((triggerTime / tickMs) % msSlots);
+			node.next = msSlot[index];
+			msSlot[index] = node;
+			msDepth++;
+		} else if (triggerTime < tickTime + 60000) {
+			int index = (int) ((triggerTime / 1000) % SECOND_SLOTS);
+			node.next = secondSlot[index];
+			secondSlot[index] = node;
+			secondDepth++;
+		} else {
+			int index = (int) ((triggerTime / 60000) % MINUTE_SLOTS);
+			node.next = minuteSlot[index];
+			minuteSlot[index] = node;
+			minuteDepth++;
+		}
+	}
+
+	private static final class Node {
+		private final int jobId;
+		private final long triggerTime;
+		private Node next;
+
+		private Node(int jobId, long triggerTime) {
+			this.jobId = jobId;
+			this.triggerTime = triggerTime;
+		}
+	}
+
+}
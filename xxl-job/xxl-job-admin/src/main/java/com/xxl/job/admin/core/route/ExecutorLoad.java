@@ -0,0 +1,80 @@
+package com.xxl.job.admin.core.route;
+
+import com.xxl.job.core.biz.model.RegistryParam;
+
+/**
+ * executor load, reported with registry beat; stored in xxl_job_registry.registry_load as "runningCount,queueSize,cpuLoad"
+ */
+public class ExecutorLoad {
+
+	private final int runningCount;     // job thread running
+	private final int queueSize;        // trigger queued, not run yet
+	private final double cpuLoad;       // system load average per processor, -1 if not available
+	private final long beatTime;        // beat reporting it
+
+	public ExecutorLoad(int runningCount, int queueSize, double cpuLoad, long beatTime) {
+		this.runningCount = runningCount;
+		this.queueSize = queueSize;
+		this.cpuLoad = cpuLoad;
+		this.beatTime = beatTime;
+	}
+
+	/**
+	 * @return null if not reported (older executor)
+	 */
+	public static ExecutorLoad of(RegistryParam registryParam, long beatTime) {
+		if (registryParam.getRunningCount() == null || registryParam.getQueueSize() == null) {
+			return null;
+		}
+		return new ExecutorLoad(registryParam.getRunningCount(),
+				registryParam.getQueueSize(),
+				registryParam.getCpuLoad() != null ? registryParam.getCpuLoad() : -1,
+				beatTime);
+	}
+
+	/**
+	 * @return null if empty or invalid
+	 */
+	public static ExecutorLoad parse(String registryLoad, long beatTime) {
+		if (registryLoad == null || registryLoad.trim().length() == 0) {
+			return null;
+		}
+		String[] loadArr = registryLoad.split(",");
+		if (loadArr.length != 3) {
+			return null;
+		}
+		try {
+			return new ExecutorLoad(Integer.parseInt(loadArr[0]), Integer.parseInt(loadArr[1]), Double.parseDouble(loadArr[2]), beatTime);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String format() {
+		return runningCount + "," + queueSize + "," + cpuLoad;
+	}
+
+	/**
+	 * job thread running and trigger queued
+	 */
+	public int getPending() {
+		return runningCount + queueSize;
+	}
+
+	public int getRunningCount() {
+		return runningCount;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public double getCpuLoad() {
+		return cpuLoad;
+	}
+
+	public long getBeatTime() {
+		return beatTime;
+	}
+
+}
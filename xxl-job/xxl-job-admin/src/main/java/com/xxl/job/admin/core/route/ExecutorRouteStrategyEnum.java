@@ -17,6 +17,7 @@ public enum ExecutorRouteStrategyEnum {
 	LEAST_RECENTLY_USED(I18nUtil.getString("jobconf_route_lru"), new ExecutorRouteLRU()),
 	FAILOVER(I18nUtil.getString("jobconf_route_failover"), new ExecutorRouteFailover()),
 	BUSYOVER(I18nUtil.getString("jobconf_route_busyover"), new ExecutorRouteBusyover()),
+	LEAST_LOADED(I18nUtil.getString("jobconf_route_leastloaded"), new ExecutorRouteLeastLoaded()),
 	SHARDING_BROADCAST(I18nUtil.getString("jobconf_route_shard"), null);
 
 	// 策略名
@@ -19,14 +19,16 @@ import java.util.List;
 public class ExecutorRouteBusyover extends ExecutorRouter {
 
 	public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+
+		// idleBeat in order, stop at the first idle one: one idleBeat per trigger while the first address is idle
 		StringBuffer idleBeatResultSB = new StringBuffer();
 		for (String address : addressList) {
-			// beat
+			// idle beat
 			ReturnT<String> idleBeatResult = null;
 			try {
 				ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
 				// 调度接口查看是否忙碌
-				idleBeatResult = executorBiz.idleBeat(new IdleBeatParam(triggerParam.getJobId()));
+				idleBeatResult = executorBiz.idleBeatAsync(new IdleBeatParam(triggerParam.getJobId())).join();
 			} catch (Exception e) {
 				logger.error(e.getMessage(), e);
 				idleBeatResult = new ReturnT<String>(ReturnT.FAIL_CODE, "" + e);
@@ -19,6 +19,7 @@ public class ExecutorRouteFailover extends ExecutorRouter {
 
 	public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
 
+		// beat in order, stop at the first alive one: one beat per trigger while the first address is alive
 		StringBuffer beatResultSB = new StringBuffer();
 		for (String address : addressList) {
 			// beat
@@ -26,7 +27,7 @@ public class ExecutorRouteFailover extends ExecutorRouter {
 			try {
 				ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
 				// 通过调度接口的形式检查机器是否存活
-				beatResult = executorBiz.beat();
+				beatResult = executorBiz.beatAsync().join();
 			} catch (Exception e) {
 				logger.error(e.getMessage(), e);
 				beatResult = new ReturnT<String>(ReturnT.FAIL_CODE, "" + e);
@@ -0,0 +1,103 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
+import com.xxl.job.admin.core.route.ExecutorLoad;
+import com.xxl.job.admin.core.route.ExecutorRouter;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.enums.RegistryConfig;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 最小负载：按执行器随心跳上报的负载（运行中任务线程数 + 排队触发数，CPU负载）选择，触发时不发起网络请求
+ *
+ * 1、power of two choices: two address at random, the one with less load; not all trigger to the least one;
+ * 2、load is up to a beat old, trigger routed to the address since its load reported is counted in;
+ * 3、address without load reported (older executor) counts by trigger routed in the beat only;
+ */
+public class ExecutorRouteLeastLoaded extends ExecutorRouter {
+
+	// address -> trigger routed since its load reported
+	private static ConcurrentMap<String, Routed> routedMap = new ConcurrentHashMap<String, Routed>();
+	private static long CACHE_VALID_TIME = 0;
+
+	@Override
+	public ReturnT<String> route(TriggerParam triggerParam, List<String> addressList) {
+		if (System.currentTimeMillis() > CACHE_VALID_TIME) {
+			// 超过一天后重置缓存，移除无效的地址
+			routedMap.clear();
+			CACHE_VALID_TIME = System.currentTimeMillis() + 1000 * 60 * 60 * 24;
+		}
+
+		String address = addressList.get(0);
+		if (addressList.size() > 1) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int first = random.nextInt(addressList.size());
+			int second = random.nextInt(addressList.size() - 1);
+			if (second >= first) {
+				second++;
+			}
+			address = choose(addressList.get(first), addressList.get(second));
+		}
+
+		routed(address).incrementAndGet();
+		return new ReturnT<String>(address);
+	}
+
+	/**
+	 * the one with less job thread running and trigger queued, then less cpu load
+	 */
+	static String choose(String address1, String address2) {
+		long pending1 = pending(address1);
+		long pending2 = pending(address2);
+		if (pending1 != pending2) {
+			return pending1 < pending2 ? address1 : address2;
+		}
+		return cpuLoad(address2) < cpuLoad(address1) ? address2 : address1;
+	}
+
+	private static long pending(String address) {
+		ExecutorLoad load = XxlJobRegistryCache.getInstance().getLoad(address);
+		Routed routed = routedMap.get(address);
+		int routedCount = (routed != null && routed.loadTime == loadTime(load)) ? routed.count.get() : 0;
+		return (load != null ? load.getPending() : 0) + routedCount;
+	}
+
+	private static double cpuLoad(String address) {
+		ExecutorLoad load = XxlJobRegistryCache.getInstance().getLoad(address);
+		return (load != null && load.getCpuLoad() >= 0) ? load.getCpuLoad() : 0;
+	}
+
+	private static AtomicInteger routed(String address) {
+		long loadTime = loadTime(XxlJobRegistryCache.getInstance().getLoad(address));
+		Routed routed = routedMap.get(address);
+		if (routed == null || routed.loadTime != loadTime) {
+			// load reported again, trigger routed before is in it
+			routed = new Routed(loadTime);
+			routedMap.put(address, routed);
+		}
+		return routed.count;
+	}
+
+	/**
+	 * beat time of the load; beat period if not reported
+	 */
+	private static long loadTime(ExecutorLoad load) {
+		return load != null ? load.getBeatTime() : System.currentTimeMillis() / (RegistryConfig.BEAT_TIMEOUT * 1000L);
+	}
+
+	private static class Routed {
+		private final long loadTime;
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		private Routed(long loadTime) {
+			this.loadTime = loadTime;
+		}
+	}
+
+}
@@ -6,6 +6,7 @@ import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.client.ExecutorBizClient;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
+import com.xxl.job.core.util.XxlJobRemotingClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +53,14 @@ public class XxlJobScheduler {
 		// init i18n
 		initI18n();
 
+		// admin log writer start
+		// 调度日志批量写入
+		JobLogWriteHelper.getInstance().start();
+
+		// admin trigger batch start
+		// 同一执行器的调度请求按窗口合并发送
+		JobTriggerBatchHelper.getInstance().start();
+
 		// admin trigger pool start
 		// 初始化触发器线程池，初始化快慢两个线程池
 		JobTriggerPoolHelper.toStart();
@@ -73,7 +82,11 @@ public class XxlJobScheduler {
 		// 统计一些失败成功报表（按天进行统计）,删除过期日志
 		JobLogReportHelper.getInstance().start();
 
-		// start-schedule  ( depend on JobTriggerPoolHelper )
+		// schedule shard lease start
+		// 调度分片租约，多节点按分片并行调度
+		JobShardHelper.getInstance().start();
+
+		// start-schedule  ( depend on JobTriggerPoolHelper, JobShardHelper )
 		// 执行调度器
 		JobScheduleHelper.getInstance().start();
 
@@ -85,6 +98,9 @@ public class XxlJobScheduler {
 		// stop-schedule
 		JobScheduleHelper.getInstance().toStop();
 
+		// schedule shard lease stop
+		JobShardHelper.getInstance().toStop();
+
 		// admin log report stop
 		JobLogReportHelper.getInstance().toStop();
 
@@ -100,6 +116,15 @@ public class XxlJobScheduler {
 		// admin trigger pool stop
 		JobTriggerPoolHelper.toStop();
 
+		// admin trigger batch stop
+		JobTriggerBatchHelper.getInstance().toStop();
+
+		// admin remoting client stop ( fail in-flight call, before log writer flush )
+		XxlJobRemotingClient.shutdown();
+
+		// admin log writer stop ( flush remaining )
+		JobLogWriteHelper.getInstance().toStop();
+
 	}
 
 	private void initI18n() {
@@ -2,7 +2,6 @@ package com.xxl.job.admin.core.thread;
 
 import com.xxl.job.admin.core.complete.XxlJobCompleter;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
-import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.core.biz.model.HandleCallbackParam;
 import com.xxl.job.core.biz.model.ReturnT;
@@ -10,20 +9,28 @@ import com.xxl.job.core.util.DateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * job lose-monitor instance
  *
+ * callback: applied in batch before return (XxlJobCompleter), the executor keeps the callback until it is accepted;
+ * concurrent batches are bounded by CALLBACK_CONCURRENCY, callback over it fails fast and is retried by the executor;
+ *
  * @author xuxueli 2015-9-1 18:05:56
  */
 public class JobCompleteHelper {
 	private static Logger logger = LoggerFactory.getLogger(JobCompleteHelper.class);
 
 	private static JobCompleteHelper instance = new JobCompleteHelper();
-	private ThreadPoolExecutor callbackThreadPool = null;
+
+	private static final int CALLBACK_CONCURRENCY = 20;
+	private static final long CALLBACK_WAIT = 1000;     // ms, wait for a permit
+	private final Semaphore callbackPermits = new Semaphore(CALLBACK_CONCURRENCY);
 
 	// ---------------------- monitor ----------------------
 	private Thread monitorThread;
@@ -35,29 +42,6 @@ public class JobCompleteHelper {
 
 	public void start() {
 
-		// for callback
-		// 针对回调函数处理的线程池
-		callbackThreadPool = new ThreadPoolExecutor(
-				2,
-				20,
-				30L,
-				TimeUnit.SECONDS,
-				new LinkedBlockingQueue<Runnable>(3000),
-				new ThreadFactory() {
-					@Override
-					public Thread newThread(Runnable r) {
-						return new Thread(r, "xxl-job, admin JobLosedMonitorHelper-callbackThreadPool-" + r.hashCode());
-					}
-				},
-				new RejectedExecutionHandler() {
-					@Override
-					public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-						r.run();
-						logger.warn(">>>>>>>>>>> xxl-job, callback too fast, match threadpool rejected handler(run now).");
-					}
-				});
-
-
 		// for monitor
 		monitorThread = new Thread(new Runnable() {
 
@@ -78,23 +62,18 @@ public class JobCompleteHelper {
 					try {
 						// 任务结果丢失处理：调度记录停留在 "运行中" 状态超过10min，且对应执行器心跳注册失败不在线，则将本地调度主动标记失败；
 						// 1、判断日志触发时间已经超过10分钟了 2、job_registry中没有该jobId了
+						// 3、或调度结果未写入（trigger_code=0，调度结果异步写入前调度中心宕机），超过10分钟同样标记失败
 						Date losedTime = DateUtil.addMinutes(new Date(), -10);
 						List<Long> losedJobIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findLostJobIds(losedTime);
 
 						if (losedJobIds != null && losedJobIds.size() > 0) {
+							List<HandleCallbackParam> handleParamList = new ArrayList<HandleCallbackParam>();
 							for (Long logId : losedJobIds) {
-
-								XxlJobLog jobLog = new XxlJobLog();
-								jobLog.setId(logId);
-
-								jobLog.setHandleTime(new Date());
-								jobLog.setHandleCode(ReturnT.FAIL_CODE);
-								jobLog.setHandleMsg(I18nUtil.getString("joblog_lost_fail"));
-
-								//更改日志，并且若父任务正常结束，则触发子任务
-								XxlJobCompleter.updateHandleInfoAndFinish(jobLog);
+								handleParamList.add(new HandleCallbackParam(logId, 0, ReturnT.FAIL_CODE, I18nUtil.getString("joblog_lost_fail")));
 							}
 
+							//更改日志，已处理的日志跳过
+							XxlJobCompleter.updateHandleInfoAndFinish(handleParamList);
 						}
 					} catch (Exception e) {
 						if (!toStop) {
@@ -124,9 +103,6 @@ public class JobCompleteHelper {
 	public void toStop() {
 		toStop = true;
 
-		// stop registryOrRemoveThreadPool
-		callbackThreadPool.shutdownNow();
-
 		// stop monitorThread (interrupt and wait)
 		monitorThread.interrupt();
 		try {
@@ -140,52 +116,32 @@ public class JobCompleteHelper {
 	// ---------------------- helper ----------------------
 
 	public ReturnT<String> callback(List<HandleCallbackParam> callbackParamList) {
+		if (callbackParamList == null || callbackParamList.isEmpty()) {
+			return ReturnT.SUCCESS;
+		}
 
-		callbackThreadPool.execute(new Runnable() {
-			@Override
-			public void run() {
-				for (HandleCallbackParam handleCallbackParam : callbackParamList) {
-					ReturnT<String> callbackResult = callback(handleCallbackParam);
-					logger.debug(">>>>>>>>> JobApiController.callback {}, handleCallbackParam={}, callbackResult={}",
-							(callbackResult.getCode() == ReturnT.SUCCESS_CODE ? "success" : "fail"), handleCallbackParam, callbackResult);
-				}
+		// bound concurrent batch
+		try {
+			if (!callbackPermits.tryAcquire(CALLBACK_WAIT, TimeUnit.MILLISECONDS)) {
+				logger.warn(">>>>>>>>>>> xxl-job, callback too fast, retried by executor later, size:{}", callbackParamList.size());
+				return new ReturnT<String>(ReturnT.FAIL_CODE, "callback too fast, retry later.");
 			}
-		});
-
-		return ReturnT.SUCCESS;
-	}
-
-	private ReturnT<String> callback(HandleCallbackParam handleCallbackParam) {
-		// valid log item
-		// 加载log
-		XxlJobLog log = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().load(handleCallbackParam.getLogId());
-		if (log == null) {
-			// 日志没找到返回异常
-			return new ReturnT<String>(ReturnT.FAIL_CODE, "log item not found.");
-		}
-		if (log.getHandleCode() > 0) {
-			// 说明重复执行
-			return new ReturnT<String>(ReturnT.FAIL_CODE, "log repeate callback.");     // avoid repeat callback, trigger child job etc
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ReturnT<String>(ReturnT.FAIL_CODE, "callback interrupted.");
 		}
 
-		// handle msg
-		StringBuffer handleMsg = new StringBuffer();
-		if (log.getHandleMsg() != null) {
-			handleMsg.append(log.getHandleMsg()).append("<br>");
-		}
-		if (handleCallbackParam.getHandleMsg() != null) {
-			handleMsg.append(handleCallbackParam.getHandleMsg());
+		// apply in batch; log not found or handled already (repeat callback) is skipped
+		try {
+			int ret = XxlJobCompleter.updateHandleInfoAndFinish(callbackParamList);
+			logger.debug(">>>>>>>>> JobApiController.callback, size={}, handled={}", callbackParamList.size(), ret);
+			return ReturnT.SUCCESS;
+		} catch (Exception e) {
+			logger.error(">>>>>>>>>>> xxl-job, callback fail, retried by executor later, size:{}", callbackParamList.size(), e);
+			return new ReturnT<String>(ReturnT.FAIL_CODE, "callback fail: " + e.getMessage());
+		} finally {
+			callbackPermits.release();
 		}
-
-		// success, save log  更改
-		log.setHandleTime(new Date());
-		// 更改处理状态,200正常,500错误
-		log.setHandleCode(handleCallbackParam.getHandleCode());
-		log.setHandleMsg(handleMsg.toString());
-		XxlJobCompleter.updateHandleInfoAndFinish(log);
-
-		return ReturnT.SUCCESS;
 	}
 
-
 }
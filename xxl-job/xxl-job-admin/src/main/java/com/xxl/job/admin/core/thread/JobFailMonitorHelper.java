@@ -5,15 +5,25 @@ import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.util.I18nUtil;
+import com.xxl.job.core.biz.model.ReturnT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 /**
  * job monitor instance
  *
+ * 1、publish: fail log (trigger fail, handle fail) is published when it is written, saved to the outbox (xxl_job_fail_outbox)
+ *    and put to the fail queue, the monitor thread retries and alarms at once;
+ * 2、safety net: outbox event not handled in time (fail queue full, admin crashed, etc) is scanned every SCAN_INTERVAL,
+ *    by any admin node; fail log before upgrade is scanned once at startup;
+ * 3、handle: locked by alarm_status (0 -> -1), only once in the cluster; the outbox event is deleted after handled;
+ *
  * @author xuxueli 2015-9-1 18:05:56
  */
 public class JobFailMonitorHelper {
@@ -29,6 +39,12 @@ public class JobFailMonitorHelper {
 		return instance;
 	}
 
+	private static final int FAIL_QUEUE_SIZE = 10000;
+	private static final long SCAN_INTERVAL = 60 * 1000;     // ms, safety net
+	private static final long SCAN_DELAY = 30 * 1000;        // ms, outbox event older than it is scanned, newer one is in the fail queue
+
+	private final LinkedBlockingQueue<Long> failQueue = new LinkedBlockingQueue<Long>(FAIL_QUEUE_SIZE);
+
 	/**
 	 * 检测失败日志，然后根据失败日志的jobId重新执行触发器，然后根据执行结果更新日志
 	 */
@@ -38,62 +54,58 @@ public class JobFailMonitorHelper {
 			@Override
 			public void run() {
 
+				// fail log before upgrade (no outbox event), once at startup
+				try {
+					List<Long> failLogIds = null;
+					do {
+						failLogIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findFailJobLogIds(1000);
+						if (failLogIds != null) {
+							for (long failLogId : failLogIds) {
+								handleFailLog(failLogId);
+							}
+						}
+					} while (!toStop && failLogIds != null && failLogIds.size() >= 1000);
+				} catch (Exception e) {
+					if (!toStop) {
+						logger.error(">>>>>>>>>>> xxl-job, job fail monitor thread error:{}", e);
+					}
+				}
+
 				// monitor
+				long nextScanTime = System.currentTimeMillis() + SCAN_INTERVAL;
 				while (!toStop) {
 					try {
-						// 获取执行失败的日志 调度日志表： 用于保存XXL-JOB任务调度的历史信息，如调度结果、执行结果、调度入参、调度机器和执行器等等；
-						List<Long> failLogIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findFailJobLogIds(1000);
-						if (failLogIds != null && !failLogIds.isEmpty()) {
-							for (long failLogId : failLogIds) {
-
-								// lock log 加锁，乐观修改alarm_status=-1
-								int lockRet = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateAlarmStatus(failLogId, 0, -1);
-								if (lockRet < 1) {
-									continue;
-								}
-								XxlJobLog log = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().load(failLogId);
-								// 根据这个日志的jobId去查询这个job
-								XxlJobInfo info = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(log.getJobId());
-
-								// 1、fail retry monitor
-								if (log.getExecutorFailRetryCount() > 0) {
-									// 若可重试次数>0,则再次执行触发器
-									JobTriggerPoolHelper.trigger(log.getJobId(), TriggerTypeEnum.RETRY, (log.getExecutorFailRetryCount() - 1), log.getExecutorShardingParam(), log.getExecutorParam(), null);
-									String retryMsg = "<br><br><span style=\"color:#F39C12;\" > >>>>>>>>>>>" + I18nUtil.getString("jobconf_trigger_type_retry") + "<<<<<<<<<<< </span><br>";
-									log.setTriggerMsg(log.getTriggerMsg() + retryMsg);
-									// 更新log
-									XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(log);
-								}
-
-								// 2、fail alarm monitor 失败警告监视器
-								int newAlarmStatus = 0;        // 告警状态：0-默认、-1=锁定状态、1-无需告警、2-告警成功、3-告警失败
-								if (info != null) {
-									boolean alarmResult = XxlJobAdminConfig.getAdminConfig().getJobAlarmer().alarm(info, log);
-									newAlarmStatus = alarmResult ? 2 : 3;
-								} else {
-									// 没设置报警邮箱，则更改状态为不需要告警
-									newAlarmStatus = 1;
-								}
-
-								// 释放锁
-								XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateAlarmStatus(failLogId, -1, newAlarmStatus);
+						// 1、fail queue: published fail log
+						Long failLogId = failQueue.poll(Math.max(nextScanTime - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+						if (failLogId != null) {
+							List<Long> failLogIds = new ArrayList<Long>();
+							failLogIds.add(failLogId);
+							failQueue.drainTo(failLogIds, 999);
+							for (long item : failLogIds) {
+								handleFailLog(item);
 							}
 						}
 
-					} catch (Exception e) {
-						if (!toStop) {
-							logger.error(">>>>>>>>>>> xxl-job, job fail monitor thread error:{}", e);
+						// 2、safety net: outbox event not handled in time; page until drained (backlog of a fail storm, or fail queue full),
+						//    the outbox event is deleted once handled
+						if (System.currentTimeMillis() >= nextScanTime) {
+							Date addTimeTo = new Date(System.currentTimeMillis() - SCAN_DELAY);
+							List<Long> failLogIds = null;
+							do {
+								failLogIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findFailOutbox(addTimeTo, 1000);
+								if (failLogIds != null) {
+									for (long item : failLogIds) {
+										handleFailLog(item);
+									}
+								}
+							} while (!toStop && failLogIds != null && failLogIds.size() >= 1000);
+							nextScanTime = System.currentTimeMillis() + SCAN_INTERVAL;
 						}
-					}
-
-					try {
-						TimeUnit.SECONDS.sleep(10);
 					} catch (Exception e) {
 						if (!toStop) {
-							logger.error(e.getMessage(), e);
+							logger.error(">>>>>>>>>>> xxl-job, job fail monitor thread error:{}", e);
 						}
 					}
-
 				}
 
 				logger.info(">>>>>>>>>>> xxl-job, job fail monitor thread stop");
@@ -107,7 +119,7 @@ public class JobFailMonitorHelper {
 
 	public void toStop() {
 		toStop = true;
-		// interrupt and wait
+		// interrupt and wait; fail log in the queue is kept by the outbox
 		monitorThread.interrupt();
 		try {
 			monitorThread.join();
@@ -116,4 +128,84 @@ public class JobFailMonitorHelper {
 		}
 	}
 
+
+	// ---------------------- publish ----------------------
+
+	/**
+	 * publish fail log, after the log is written; log not fail is ignored
+	 */
+	public void publish(List<XxlJobLog> jobLogList) {
+		List<Long> failLogIds = new ArrayList<Long>();
+		for (XxlJobLog jobLog : jobLogList) {
+			if (isFail(jobLog)) {
+				failLogIds.add(jobLog.getId());
+			}
+		}
+		if (failLogIds.isEmpty()) {
+			return;
+		}
+
+		// durable, handled by the safety net if lost in memory
+		try {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveFailOutbox(failLogIds);
+		} catch (Exception e) {
+			logger.error(">>>>>>>>>>> xxl-job, job fail outbox save fail, logIds:{}", failLogIds, e);
+		}
+
+		for (Long failLogId : failLogIds) {
+			if (!failQueue.offer(failLogId)) {
+				logger.warn(">>>>>>>>>>> xxl-job, job fail queue full, handled by the safety net later, logId:{}", failLogId);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * same as "findFailJobLogIds": not (running or success)
+	 */
+	private static boolean isFail(XxlJobLog jobLog) {
+		boolean running = (jobLog.getTriggerCode() == 0 || jobLog.getTriggerCode() == ReturnT.SUCCESS_CODE) && jobLog.getHandleCode() == 0;
+		boolean success = jobLog.getHandleCode() == ReturnT.SUCCESS_CODE;
+		return !(running || success);
+	}
+
+
+	// ---------------------- handle ----------------------
+
+	private void handleFailLog(long failLogId) {
+		// lock log 加锁，乐观修改alarm_status=-1
+		int lockRet = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateAlarmStatus(failLogId, 0, -1);
+		if (lockRet >= 1) {
+			XxlJobLog log = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().load(failLogId);
+			// 根据这个日志的jobId去查询这个job
+			XxlJobInfo info = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(log.getJobId());
+
+			// 1、fail retry monitor
+			if (log.getExecutorFailRetryCount() > 0) {
+				// 若可重试次数>0,则再次执行触发器
+				JobTriggerPoolHelper.trigger(log.getJobId(), TriggerTypeEnum.RETRY, (log.getExecutorFailRetryCount() - 1), log.getExecutorShardingParam(), log.getExecutorParam(), null);
+				String retryMsg = "<br><br><span style=\"color:#F39C12;\" > >>>>>>>>>>>" + I18nUtil.getString("jobconf_trigger_type_retry") + "<<<<<<<<<<< </span><br>";
+				log.setTriggerMsg(log.getTriggerMsg() + retryMsg);
+				// 更新log
+				XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(log);
+			}
+
+			// 2、fail alarm monitor 失败警告监视器
+			int newAlarmStatus = 0;        // 告警状态：0-默认、-1=锁定状态、1-无需告警、2-告警成功、3-告警失败
+			if (info != null) {
+				boolean alarmResult = XxlJobAdminConfig.getAdminConfig().getJobAlarmer().alarm(info, log);
+				newAlarmStatus = alarmResult ? 2 : 3;
+			} else {
+				// 没设置报警邮箱，则更改状态为不需要告警
+				newAlarmStatus = 1;
+			}
+
+			// 释放锁
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateAlarmStatus(failLogId, -1, newAlarmStatus);
+		}
+
+		// handled, or by other admin node
+		XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().deleteFailOutbox(failLogId);
+	}
+
 }
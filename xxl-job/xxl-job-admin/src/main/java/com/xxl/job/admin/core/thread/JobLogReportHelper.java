@@ -1,19 +1,34 @@
 package com.xxl.job.admin.core.thread;
 
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.model.XxlJobLogReport;
+import com.xxl.job.admin.core.partition.JobLogPartitionHelper;
+import com.xxl.job.core.biz.model.ReturnT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * job log report helper
  *
+ * 1、count: running / success / fail count of each trigger day is counted in memory, when the log is triggered and handled,
+ *    and added to xxl_job_log_report every minute, no scan of xxl_job_log;
+ * 2、refresh: full refresh of the last 3 days by scan of xxl_job_log, at startup and once each day, reconciles the count
+ *    (log cleared, admin crashed before count added, etc);
+ * 3、clean: expired log is deleted once each day, by id; or dropped by partition, if the log table is partitioned;
+ *
  * @author xuxueli 2019-11-22
  */
 public class JobLogReportHelper {
@@ -37,68 +52,93 @@ public class JobLogReportHelper {
 				// 记录上次清除日志时间
 				long lastCleanLogTime = 0;
 
+				// last refresh log-report day
+				long lastRefreshDay = -1;
+
+				// last log partition maintain day
+				long lastPartitionDay = -1;
+
 
 				while (!toStop) {
 
-					// 1、log-report refresh: refresh log report in 3 days
+					// 1、log-report count: add report count every minute
 					try {
+						addReportCount();
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, job log report thread error:{}", e);
+						}
+					}
+
+					// 2、log-report refresh: refresh log report in 3 days, at startup and once each day
+					long today = toReportDay(System.currentTimeMillis());
+					if (today != lastRefreshDay) {
+						try {
+
+							for (int i = 0; i < 3; i++) {
+
+								// 分别统计今天,昨天,前天0~24点的数据
+								Calendar itemDay = Calendar.getInstance();
+								itemDay.add(Calendar.DAY_OF_MONTH, -i);
+								itemDay.set(Calendar.HOUR_OF_DAY, 0);
+								itemDay.set(Calendar.MINUTE, 0);
+								itemDay.set(Calendar.SECOND, 0);
+								itemDay.set(Calendar.MILLISECOND, 0);
+
+								Date todayFrom = itemDay.getTime();
+
+								itemDay.set(Calendar.HOUR_OF_DAY, 23);
+								itemDay.set(Calendar.MINUTE, 59);
+								itemDay.set(Calendar.SECOND, 59);
+								itemDay.set(Calendar.MILLISECOND, 999);
+
+								Date todayTo = itemDay.getTime();
 
-						for (int i = 0; i < 3; i++) {
-
-							// 分别统计今天,昨天,前天0~24点的数据
-							Calendar itemDay = Calendar.getInstance();
-							itemDay.add(Calendar.DAY_OF_MONTH, -i);
-							itemDay.set(Calendar.HOUR_OF_DAY, 0);
-							itemDay.set(Calendar.MINUTE, 0);
-							itemDay.set(Calendar.SECOND, 0);
-							itemDay.set(Calendar.MILLISECOND, 0);
-
-							Date todayFrom = itemDay.getTime();
-
-							itemDay.set(Calendar.HOUR_OF_DAY, 23);
-							itemDay.set(Calendar.MINUTE, 59);
-							itemDay.set(Calendar.SECOND, 59);
-							itemDay.set(Calendar.MILLISECOND, 999);
-
-							Date todayTo = itemDay.getTime();
-
-							// refresh log-report every minute
-							// 设置默认值
-							XxlJobLogReport xxlJobLogReport = new XxlJobLogReport();
-							xxlJobLogReport.setTriggerDay(todayFrom);
-							xxlJobLogReport.setRunningCount(0);
-							xxlJobLogReport.setSucCount(0);
-							xxlJobLogReport.setFailCount(0);
-
-							// 查询失败, 成功，总的调用次数
-							Map<String, Object> triggerCountMap = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findLogReport(todayFrom, todayTo);
-							if (triggerCountMap != null && triggerCountMap.size() > 0) {
-								int triggerDayCount = triggerCountMap.containsKey("triggerDayCount") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCount"))) : 0;
-								int triggerDayCountRunning = triggerCountMap.containsKey("triggerDayCountRunning") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCountRunning"))) : 0;
-								int triggerDayCountSuc = triggerCountMap.containsKey("triggerDayCountSuc") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCountSuc"))) : 0;
-								int triggerDayCountFail = triggerDayCount - triggerDayCountRunning - triggerDayCountSuc;
-
-								xxlJobLogReport.setRunningCount(triggerDayCountRunning);
-								xxlJobLogReport.setSucCount(triggerDayCountSuc);
-								xxlJobLogReport.setFailCount(triggerDayCountFail);
+								// refresh log-report once each day, reconcile the count
+								// 设置默认值
+								XxlJobLogReport xxlJobLogReport = new XxlJobLogReport();
+								xxlJobLogReport.setTriggerDay(todayFrom);
+								xxlJobLogReport.setRunningCount(0);
+								xxlJobLogReport.setSucCount(0);
+								xxlJobLogReport.setFailCount(0);
+
+								// 查询失败, 成功，总的调用次数
+								Map<String, Object> triggerCountMap = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findLogReport(todayFrom, todayTo);
+								if (triggerCountMap != null && triggerCountMap.size() > 0) {
+									int triggerDayCount = triggerCountMap.containsKey("triggerDayCount") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCount"))) : 0;
+									int triggerDayCountRunning = triggerCountMap.containsKey("triggerDayCountRunning") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCountRunning"))) : 0;
+									int triggerDayCountSuc = triggerCountMap.containsKey("triggerDayCountSuc") ? Integer.valueOf(String.valueOf(triggerCountMap.get("triggerDayCountSuc"))) : 0;
+									int triggerDayCountFail = triggerDayCount - triggerDayCountRunning - triggerDayCountSuc;
+
+									xxlJobLogReport.setRunningCount(triggerDayCountRunning);
+									xxlJobLogReport.setSucCount(triggerDayCountSuc);
+									xxlJobLogReport.setFailCount(triggerDayCountFail);
+								}
+
+								// do refresh
+								// 更新logReport表调用次数,若找不到则插入表中
+								int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().update(xxlJobLogReport);
+								if (ret < 1) {
+									// 没数据则保存
+									XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().save(xxlJobLogReport);
+								}
 							}
 
-							// do refresh
-							// 更新logReport表调用次数,若找不到则插入表中
-							int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().update(xxlJobLogReport);
-							if (ret < 1) {
-								// 没数据则保存
-								XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().save(xxlJobLogReport);
+							lastRefreshDay = today;
+						} catch (Exception e) {
+							if (!toStop) {
+								logger.error(">>>>>>>>>>> xxl-job, job log report thread error:{}", e);
 							}
 						}
+					}
 
-					} catch (Exception e) {
-						if (!toStop) {
-							logger.error(">>>>>>>>>>> xxl-job, job log report thread error:{}", e);
-						}
+					// 3、log-partition: create partitions ahead, at startup and once each day
+					if (today != lastPartitionDay) {
+						JobLogPartitionHelper.getInstance().maintain();
+						lastPartitionDay = today;
 					}
 
-					// 2、log-clean: switch open & once each day
+					// 4、log-clean: switch open & once each day
 					// 设置了保留日志天数且日志保留了24小时，则进入
 					if (XxlJobAdminConfig.getAdminConfig().getLogretentiondays() > 0
 							&& System.currentTimeMillis() - lastCleanLogTime > 24 * 60 * 60 * 1000) {
@@ -113,16 +153,21 @@ public class JobLogReportHelper {
 						expiredDay.set(Calendar.MILLISECOND, 0);
 						Date clearBeforeTime = expiredDay.getTime();
 
-						// clean expired log
-						List<Long> logIds = null;
-						do {
-							// 这里传了3个0表示查询所有,而不是单个任务id
-							logIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findClearLogIds(0, 0, clearBeforeTime, 0, 1000);
-							// 删除过期数据
-							if (logIds != null && logIds.size() > 0) {
-								XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().clearLog(logIds);
-							}
-						} while (logIds != null && logIds.size() > 0);
+						if (JobLogPartitionHelper.getInstance().isPartitioned()) {
+							// drop expired partition as a whole; log of the partition partly expired is kept until it expires wholly
+							JobLogPartitionHelper.getInstance().dropBefore(clearBeforeTime);
+						} else {
+							// clean expired log
+							List<Long> logIds = null;
+							do {
+								// 这里传了3个0表示查询所有,而不是单个任务id
+								logIds = XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().findClearLogIds(0, 0, clearBeforeTime, 0, 1000);
+								// 删除过期数据
+								if (logIds != null && logIds.size() > 0) {
+									XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().clearLog(logIds);
+								}
+							} while (logIds != null && logIds.size() > 0);
+						}
 
 						// update clean time
 						lastCleanLogTime = System.currentTimeMillis();
@@ -138,6 +183,13 @@ public class JobLogReportHelper {
 
 				}
 
+				// add remaining count
+				try {
+					addReportCount();
+				} catch (Exception e) {
+					logger.error(">>>>>>>>>>> xxl-job, job log report thread error:{}", e);
+				}
+
 				logger.info(">>>>>>>>>>> xxl-job, job log report thread stop");
 
 			}
@@ -158,4 +210,99 @@ public class JobLogReportHelper {
 		}
 	}
 
+
+	// ---------------------- report count ----------------------
+
+	private static final int RUNNING = 0;
+	private static final int SUC = 1;
+	private static final int FAIL = 2;
+	private static final int COUNT_DAYS = 3;
+
+	// trigger day (epoch day) : count of RUNNING, SUC, FAIL
+	private final ConcurrentMap<Long, AtomicIntegerArray> reportCountMap = new ConcurrentHashMap<>();
+
+	/**
+	 * count trigger, the log is triggered: running, or fail (trigger fail)
+	 */
+	public void countTrigger(XxlJobLog jobLog) {
+		if (jobLog.getTriggerTime() == null) {
+			return;
+		}
+		loadReportCount(jobLog.getTriggerTime()).incrementAndGet(status(jobLog.getTriggerCode(), 0));
+	}
+
+	/**
+	 * count handle, the unfinished log (handle code 0) is handled
+	 */
+	public void countHandle(XxlJobLog jobLog) {
+		if (jobLog.getTriggerTime() == null) {
+			return;
+		}
+		AtomicIntegerArray reportCount = loadReportCount(jobLog.getTriggerTime());
+		reportCount.decrementAndGet(status(jobLog.getTriggerCode(), 0));
+		reportCount.incrementAndGet(status(jobLog.getTriggerCode(), jobLog.getHandleCode()));
+	}
+
+	/**
+	 * same as "findLogReport": running = trigger in (0, 200) and handle 0, success = handle 200, fail = the other
+	 */
+	private static int status(int triggerCode, int handleCode) {
+		if (handleCode == ReturnT.SUCCESS_CODE) {
+			return SUC;
+		}
+		if (handleCode == 0 && (triggerCode == 0 || triggerCode == ReturnT.SUCCESS_CODE)) {
+			return RUNNING;
+		}
+		return FAIL;
+	}
+
+	private AtomicIntegerArray loadReportCount(Date triggerTime) {
+		return reportCountMap.computeIfAbsent(toReportDay(triggerTime.getTime()), k -> new AtomicIntegerArray(3));
+	}
+
+	/**
+	 * add count to xxl_job_log_report, by increment (count of other admin node is kept)
+	 */
+	private void addReportCount() {
+		long today = toReportDay(System.currentTimeMillis());
+		for (Map.Entry<Long, AtomicIntegerArray> item : reportCountMap.entrySet()) {
+			AtomicIntegerArray reportCount = item.getValue();
+			int runningCount = reportCount.getAndSet(RUNNING, 0);
+			int sucCount = reportCount.getAndSet(SUC, 0);
+			int failCount = reportCount.getAndSet(FAIL, 0);
+
+			if (runningCount == 0 && sucCount == 0 && failCount == 0) {
+				if (item.getKey() <= today - COUNT_DAYS) {
+					reportCountMap.remove(item.getKey(), reportCount);
+				}
+				continue;
+			}
+
+			XxlJobLogReport xxlJobLogReport = new XxlJobLogReport();
+			xxlJobLogReport.setTriggerDay(Date.from(LocalDate.ofEpochDay(item.getKey()).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+			xxlJobLogReport.setRunningCount(runningCount);
+			xxlJobLogReport.setSucCount(sucCount);
+			xxlJobLogReport.setFailCount(failCount);
+			try {
+				int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().updateIncrement(xxlJobLogReport);
+				if (ret < 1) {
+					XxlJobAdminConfig.getAdminConfig().getXxlJobLogReportDao().save(xxlJobLogReport);
+				}
+			} catch (Exception e) {
+				// add back, retry next time
+				reportCount.addAndGet(RUNNING, runningCount);
+				reportCount.addAndGet(SUC, sucCount);
+				reportCount.addAndGet(FAIL, failCount);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * epoch day of local date
+	 */
+	private static long toReportDay(long time) {
+		return Instant.ofEpochMilli(time).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+	}
+
 }
@@ -0,0 +1,474 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.exception.XxlJobException;
+import com.xxl.job.admin.core.model.XxlJobLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * job log writer, for trigger
+ *
+ * 1、log id: pre-allocated by segment (xxl_job_id_segment, 1000 ids per db round-trip), log insert no longer waits for the auto-increment id;
+ * 2、save: group commit, concurrent trigger's insert is coalesced into one multi-row insert; the caller waits until its row is written,
+ *    so the log row is durable before the executor is called (executor callback may arrive at once), same as the former sync insert;
+ *    a save timed out before written is cancelled and skipped by the writer, no "running" log left for the aborted trigger;
+ *    a log complete at once (e.g. misfire log) is built and saved on the writer thread, the caller (time-ring / schedule thread) never waits on db;
+ * 3、trigger-info update: async, coalesced into one multi-row update, flushed by size (BATCH_SIZE) or time (FLUSH_INTERVAL);
+ *    lost on admin crash, the log left with trigger_code 0 is marked lost-fail by JobCompleteHelper after 10 min, never "running" forever;
+ */
+public class JobLogWriteHelper {
+	private static Logger logger = LoggerFactory.getLogger(JobLogWriteHelper.class);
+
+	private static JobLogWriteHelper instance = new JobLogWriteHelper();
+
+	public static JobLogWriteHelper getInstance() {
+		return instance;
+	}
+
+	private static final String ID_BIZ_TAG = "log";
+	private static final int ID_SEGMENT_STEP = 1000;
+
+	private static final int BATCH_SIZE = 500;
+	private static final long FLUSH_INTERVAL = 100;     // ms, trigger-info update
+	private static final long SAVE_TIMEOUT = 10;        // s
+
+
+	// ---------------------- log id ----------------------
+
+	private long segmentId = 0;
+	private long segmentMaxId = 0;
+
+	/**
+	 * next log id, allocate a new segment when current one is used up
+	 */
+	public synchronized long nextId() {
+		if (segmentId >= segmentMaxId) {
+			allocateSegment();
+		}
+		return ++segmentId;
+	}
+
+	/**
+	 * allocate segment (start, start + step], start is "max(segment max_id, log max id)", safe for multi admin node
+	 */
+	private void allocateSegment() {
+		Connection conn = null;
+		Boolean connAutoCommit = null;
+		PreparedStatement preparedStatement = null;
+		try {
+			conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
+			connAutoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			// init segment
+			preparedStatement = conn.prepareStatement("insert ignore into xxl_job_id_segment (biz_tag, max_id) values (?, 0)");
+			preparedStatement.setString(1, ID_BIZ_TAG);
+			preparedStatement.executeUpdate();
+			preparedStatement.close();
+
+			// lock segment
+			preparedStatement = conn.prepareStatement("select max_id from xxl_job_id_segment where biz_tag = ? for update");
+			preparedStatement.setString(1, ID_BIZ_TAG);
+			ResultSet resultSet = preparedStatement.executeQuery();
+			long maxId = resultSet.next() ? resultSet.getLong(1) : 0;
+			resultSet.close();
+			preparedStatement.close();
+
+			// skip id written by auto-increment (old version admin)
+			preparedStatement = conn.prepareStatement("select ifnull(max(id), 0) from xxl_job_log");
+			resultSet = preparedStatement.executeQuery();
+			long logMaxId = resultSet.next() ? resultSet.getLong(1) : 0;
+			resultSet.close();
+			preparedStatement.close();
+
+			long start = Math.max(maxId, logMaxId);
+			preparedStatement = conn.prepareStatement("update xxl_job_id_segment set max_id = ?, update_time = now() where biz_tag = ?");
+			preparedStatement.setLong(1, start + ID_SEGMENT_STEP);
+			preparedStatement.setString(2, ID_BIZ_TAG);
+			preparedStatement.executeUpdate();
+
+			conn.commit();
+
+			segmentId = start;
+			segmentMaxId = start + ID_SEGMENT_STEP;
+		} catch (SQLException e) {
+			if (conn != null) {
+				try {
+					conn.rollback();
+				} catch (SQLException e2) {
+					logger.error(e2.getMessage(), e2);
+				}
+			}
+			throw new XxlJobException("xxl-job, job log id segment allocate fail: " + e.getMessage());
+		} finally {
+			if (preparedStatement != null) {
+				try {
+					preparedStatement.close();
+				} catch (SQLException e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
+			if (conn != null) {
+				try {
+					conn.setAutoCommit(connAutoCommit);
+				} catch (SQLException e) {
+					logger.error(e.getMessage(), e);
+				}
+				try {
+					conn.close();
+				} catch (SQLException e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+
+	// ---------------------- writer ----------------------
+
+	private LinkedBlockingQueue<SaveRequest> saveQueue = new LinkedBlockingQueue<SaveRequest>();
+	private LinkedBlockingQueue<XxlJobLog> updateQueue = new LinkedBlockingQueue<XxlJobLog>();
+
+	private Thread saveThread;
+	private Thread updateThread;
+	private volatile boolean toStop = false;
+	private volatile boolean running = false;
+
+	public void start() {
+
+		// save thread: group commit
+		saveThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!toStop) {
+					try {
+						SaveRequest request = saveQueue.poll(1, TimeUnit.SECONDS);
+						if (request == null) {
+							continue;
+						}
+						List<SaveRequest> batch = new ArrayList<SaveRequest>();
+						batch.add(request);
+						saveQueue.drainTo(batch, BATCH_SIZE - 1);
+						flushSave(batch);
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobLogWriteHelper#saveThread error:{}", e);
+						}
+					}
+				}
+
+				// flush remaining
+				List<SaveRequest> batch = new ArrayList<SaveRequest>();
+				while (saveQueue.drainTo(batch, BATCH_SIZE) > 0) {
+					flushSave(batch);
+					batch.clear();
+				}
+				logger.info(">>>>>>>>>>> xxl-job, JobLogWriteHelper#saveThread stop");
+			}
+		});
+		saveThread.setDaemon(true);
+		saveThread.setName("xxl-job, admin JobLogWriteHelper#saveThread");
+		saveThread.start();
+
+		// update thread: flush by size or time
+		updateThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				List<XxlJobLog> batch = new ArrayList<XxlJobLog>();
+				long flushTime = System.currentTimeMillis() + FLUSH_INTERVAL;
+				while (!toStop) {
+					try {
+						XxlJobLog jobLog = updateQueue.poll(Math.max(flushTime - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+						if (jobLog != null) {
+							batch.add(jobLog);
+							updateQueue.drainTo(batch, BATCH_SIZE - batch.size());
+						}
+						if (batch.size() >= BATCH_SIZE || System.currentTimeMillis() >= flushTime) {
+							flushUpdate(batch);
+							batch.clear();
+							flushTime = System.currentTimeMillis() + FLUSH_INTERVAL;
+						}
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobLogWriteHelper#updateThread error:{}", e);
+						}
+					}
+				}
+
+				// flush remaining
+				updateQueue.drainTo(batch);
+				for (int i = 0; i < batch.size(); i += BATCH_SIZE) {
+					flushUpdate(batch.subList(i, Math.min(i + BATCH_SIZE, batch.size())));
+				}
+				logger.info(">>>>>>>>>>> xxl-job, JobLogWriteHelper#updateThread stop");
+			}
+		});
+		updateThread.setDaemon(true);
+		updateThread.setName("xxl-job, admin JobLogWriteHelper#updateThread");
+		updateThread.start();
+
+		running = true;
+	}
+
+	public void toStop() {
+		// write directly from now on
+		running = false;
+		toStop = true;
+
+		// wait writer thread, they flush remaining before exit
+		try {
+			saveThread.join();
+			updateThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// queued after writer thread exit
+		List<SaveRequest> batch = new ArrayList<SaveRequest>();
+		saveQueue.drainTo(batch);
+		if (!batch.isEmpty()) {
+			flushSave(batch);
+		}
+		List<XxlJobLog> updateBatch = new ArrayList<XxlJobLog>();
+		updateQueue.drainTo(updateBatch);
+		if (!updateBatch.isEmpty()) {
+			flushUpdate(updateBatch);
+		}
+	}
+
+	/**
+	 * save log, with pre-allocated id; return after the row is written
+	 */
+	public void save(XxlJobLog jobLog) {
+		jobLog.setId(nextId());
+		if (!running) {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveBatch(Collections.singletonList(jobLog));
+			return;
+		}
+
+		SaveRequest request = new SaveRequest(jobLog);
+		saveQueue.add(request);
+		request.await();
+	}
+
+	/**
+	 * save logs, with pre-allocated id; return after all rows are written, coalesced by the group commit
+	 *
+	 * @return log saved; log fail to save is logged and excluded
+	 */
+	public List<XxlJobLog> saveBatch(List<XxlJobLog> jobLogList) {
+		for (XxlJobLog jobLog : jobLogList) {
+			jobLog.setId(nextId());
+		}
+		if (!running) {
+			for (int i = 0; i < jobLogList.size(); i += BATCH_SIZE) {
+				XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveBatch(jobLogList.subList(i, Math.min(i + BATCH_SIZE, jobLogList.size())));
+			}
+			return jobLogList;
+		}
+
+		List<SaveRequest> requestList = new ArrayList<SaveRequest>(jobLogList.size());
+		for (XxlJobLog jobLog : jobLogList) {
+			requestList.add(new SaveRequest(jobLog));
+		}
+		saveQueue.addAll(requestList);
+
+		List<XxlJobLog> savedList = new ArrayList<XxlJobLog>(jobLogList.size());
+		for (SaveRequest request : requestList) {
+			try {
+				request.await();
+				savedList.add(request.jobLog);
+			} catch (XxlJobException e) {
+				logger.error(">>>>>>>>>>> xxl-job, {}", e.getMessage());
+			}
+		}
+		return savedList;
+	}
+
+	/**
+	 * save log, not wait, for log complete at once (e.g. misfire log);
+	 * the log is built (may read db) and its id allocated on the writer thread, null to skip
+	 */
+	public void saveAsync(Supplier<XxlJobLog> jobLogSupplier) {
+		if (!running) {
+			XxlJobLog jobLog = jobLogSupplier.get();
+			if (jobLog != null) {
+				jobLog.setId(nextId());
+				XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveBatch(Collections.singletonList(jobLog));
+				JobFailMonitorHelper.getInstance().publish(Collections.singletonList(jobLog));
+			}
+			return;
+		}
+		saveQueue.add(new SaveRequest(jobLogSupplier));
+	}
+
+	/**
+	 * update trigger info, async
+	 */
+	public void updateTriggerInfo(XxlJobLog jobLog) {
+		if (!running) {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(jobLog);
+			JobFailMonitorHelper.getInstance().publish(Collections.singletonList(jobLog));
+			return;
+		}
+		updateQueue.add(jobLog);
+	}
+
+	private void flushSave(List<SaveRequest> requestList) {
+		// skip cancelled (caller timeout), the trigger is aborted
+		List<SaveRequest> batch = new ArrayList<SaveRequest>(requestList.size());
+		List<XxlJobLog> logList = new ArrayList<XxlJobLog>(requestList.size());
+		for (SaveRequest request : requestList) {
+			if (request.take() && request.build()) {
+				batch.add(request);
+				logList.add(request.jobLog);
+			}
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveBatch(logList);
+			for (SaveRequest request : batch) {
+				request.complete(null);
+			}
+			// written fail log (e.g. misfire log)
+			JobFailMonitorHelper.getInstance().publish(logList);
+		} catch (Exception e) {
+			// fallback: row by row, fail only the bad one
+			logger.warn(">>>>>>>>>>> xxl-job, job log batch save fail, fallback to single save: {}", e.getMessage());
+			for (SaveRequest request : batch) {
+				try {
+					XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().saveBatch(Collections.singletonList(request.jobLog));
+					request.complete(null);
+					JobFailMonitorHelper.getInstance().publish(Collections.singletonList(request.jobLog));
+				} catch (Exception e2) {
+					logger.error(">>>>>>>>>>> xxl-job, job log save fail, logId:{}", request.jobLog.getId(), e2);
+					request.complete(e2);
+				}
+			}
+		}
+	}
+
+	private void flushUpdate(List<XxlJobLog> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfoBatch(batch);
+			// written fail log (trigger fail)
+			JobFailMonitorHelper.getInstance().publish(batch);
+		} catch (Exception e) {
+			// fallback: row by row
+			logger.warn(">>>>>>>>>>> xxl-job, job log batch update fail, fallback to single update: {}", e.getMessage());
+			for (XxlJobLog jobLog : batch) {
+				try {
+					XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(jobLog);
+					JobFailMonitorHelper.getInstance().publish(Collections.singletonList(jobLog));
+				} catch (Exception e2) {
+					logger.error(">>>>>>>>>>> xxl-job, job log update trigger info fail, logId:{}", jobLog.getId(), e2);
+				}
+			}
+		}
+	}
+
+	private static class SaveRequest {
+		private static final int PENDING = 0;
+		private static final int TAKEN = 1;
+		private static final int CANCELLED = 2;
+
+		private volatile XxlJobLog jobLog;
+		private final Supplier<XxlJobLog> jobLogSupplier;
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private final AtomicInteger state = new AtomicInteger(PENDING);
+		private volatile Exception error;
+
+		private SaveRequest(XxlJobLog jobLog) {
+			this.jobLog = jobLog;
+			this.jobLogSupplier = null;
+		}
+
+		private SaveRequest(Supplier<XxlJobLog> jobLogSupplier) {
+			this.jobLogSupplier = jobLogSupplier;
+		}
+
+		/**
+		 * build the log of an async save, on the writer thread; false to skip
+		 */
+		private boolean build() {
+			if (jobLogSupplier == null) {
+				return true;
+			}
+			try {
+				jobLog = jobLogSupplier.get();
+				if (jobLog == null) {
+					return false;
+				}
+				jobLog.setId(instance.nextId());
+				return true;
+			} catch (Exception e) {
+				logger.error(">>>>>>>>>>> xxl-job, job log build fail.", e);
+				return false;
+			}
+		}
+
+		/**
+		 * taken by the writer; false if cancelled by the caller
+		 */
+		private boolean take() {
+			return state.compareAndSet(PENDING, TAKEN);
+		}
+
+		private void complete(Exception error) {
+			this.error = error;
+			latch.countDown();
+		}
+
+		private void await() {
+			boolean interrupted = false;
+			try {
+				latch.await(SAVE_TIMEOUT, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+			if (latch.getCount() > 0) {
+				// not written yet: cancel, never written later, the trigger is aborted
+				if (state.compareAndSet(PENDING, CANCELLED)) {
+					if (interrupted) {
+						Thread.currentThread().interrupt();
+					}
+					throw new XxlJobException("xxl-job, job log save " + (interrupted ? "interrupted" : "timeout") + ", logId:" + jobLog.getId());
+				}
+				// being written: wait until it lands, then the trigger goes on
+				while (latch.getCount() > 0) {
+					try {
+						latch.await();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (error != null) {
+				throw new XxlJobException("xxl-job, job log save fail, logId:" + jobLog.getId() + ", " + error.getMessage());
+			}
+		}
+	}
+
+}
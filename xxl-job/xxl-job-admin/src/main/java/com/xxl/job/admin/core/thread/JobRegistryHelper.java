@@ -1,8 +1,12 @@
 package com.xxl.job.admin.core.thread;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.model.XxlJobRegistryEvent;
+import com.xxl.job.admin.core.route.ExecutorLoad;
 import com.xxl.job.core.biz.model.RegistryParam;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.enums.RegistryConfig;
@@ -30,6 +34,12 @@ public class JobRegistryHelper {
 		return instance;
 	}
 
+	private static final long EVENT_KEEP_TIME = 10 * 60 * 1000;     // ms, registry event polled by all admin node in it
+	private static final int BEAT_BATCH_SIZE = 500;
+
+	// registry id beaten -> load reported ("" if not), update_time and registry_load written in batch every second
+	private final ConcurrentMap<Integer, String> beatLoads = new ConcurrentHashMap<Integer, String>();
+
 	public void start() {
 
 		// for registry or remove
@@ -57,17 +67,21 @@ public class JobRegistryHelper {
 				});
 
 		// for monitor
-		// 启动了一个守护的监听线程，用于监听服务心跳和绑定执行器。
-		// 30秒执行一次,维护registry表信息， 从注册表中删除超时（90秒）的机器
-		// 其实就是从group表中读到所有的appName，然后从jobRegistry中读到所有的在线机器，然后组合起来，写回group表中
+		// 启动了一个守护的监听线程，每秒执行一次，维护内存注册表（XxlJobRegistryCache）
+		// 1、每 BEAT_TIMEOUT 从注册表加载一次快照，并删除超时（90秒）的机器；2、每秒增量拉取其他调度中心节点的注册/摘除事件；
+		// 3、时间轮剔除超时机器；4、批量写入心跳时间；5、执行器地址变化时才写回group表
 		registryMonitorThread = new Thread(new Runnable() {
 			@Override
 			public void run() {
+				long nextSnapshotTime = 0;
 				while (!toStop) {
 					try {
-						// auto registry group
-						List<XxlJobGroup> groupList = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().findByAddressType(0);
-						if (groupList != null && !groupList.isEmpty()) {
+						long nowTime = System.currentTimeMillis();
+						boolean snapshot = nowTime >= nextSnapshotTime;
+
+						// snapshot, versioned by the max event id read before it
+						if (snapshot) {
+							Long maxEventId = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().findMaxEventId();
 
 							// remove dead address (admin/executor)
 							// 从注册表中删除超时的机器
@@ -76,62 +90,54 @@ public class JobRegistryHelper {
 								XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().removeDead(ids);
 							}
 
-							// fresh online address (admin/executor)
-							// 获取所有在线机器, 存储注册表注册key和注册value
-							HashMap<String, List<String>> appAddressMap = new HashMap<String, List<String>>();
+							// 获取所有在线机器
 							List<XxlJobRegistry> list = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().findAll(RegistryConfig.DEAD_TIMEOUT, new Date());
-							if (list != null) {
-								for (XxlJobRegistry item : list) {
-									// 将注册类型为EXECUTOR的XxlJobRegistry集合改装成appname：触发器的ip地址
-									if (RegistryConfig.RegistType.EXECUTOR.name().equals(item.getRegistryGroup())) {
-										String appname = item.getRegistryKey();
-										List<String> registryList = appAddressMap.get(appname);
-										if (registryList == null) {
-											registryList = new ArrayList<String>();
-										}
-
-										if (!registryList.contains(item.getRegistryValue())) {
-											registryList.add(item.getRegistryValue());
-										}
-										appAddressMap.put(appname, registryList);
-									}
-								}
-							}
+							XxlJobRegistryCache.getInstance().applySnapshot(list, maxEventId != null ? maxEventId : 0, nowTime);
+
+							XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().clearEvent(new Date(nowTime - EVENT_KEEP_TIME));
+							nextSnapshotTime = nowTime + RegistryConfig.BEAT_TIMEOUT * 1000L;
+						}
 
-							// fresh group address
-							// 更新xxl_job_group执行器地址列表
-							for (XxlJobGroup group : groupList) {
-								List<String> registryList = appAddressMap.get(group.getAppname());
-								// 将所有配置触发器的ip地址，使用,拼接
-								String addressListStr = null;
-								if (registryList != null && !registryList.isEmpty()) {
-									Collections.sort(registryList);
-									StringBuilder addressListSB = new StringBuilder();
-									for (String item : registryList) {
-										addressListSB.append(item).append(",");
-									}
-									addressListStr = addressListSB.toString();
-									addressListStr = addressListStr.substring(0, addressListStr.length() - 1);
-								}
-								group.setAddressList(addressListStr);
-								group.setUpdateTime(new Date());
-
-								XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().update(group);
+						// delta, registry or remove on other admin node
+						List<XxlJobRegistryEvent> eventList = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().findEvent(XxlJobRegistryCache.getInstance().version(), 1000);
+						if (eventList != null) {
+							for (XxlJobRegistryEvent event : eventList) {
+								XxlJobRegistryCache.getInstance().applyEvent(event);
 							}
 						}
+
+						// expire, not beaten in DEAD_TIMEOUT
+						XxlJobRegistryCache.getInstance().expire(System.currentTimeMillis());
+
+						// beat
+						flushBeat();
+
+						// fresh group address, on change
+						// 更新xxl_job_group执行器地址列表
+						Set<String> changedAppnames = XxlJobRegistryCache.getInstance().drainChanged();
+						if (snapshot || !changedAppnames.isEmpty()) {
+							freshGroupAddress(changedAppnames, snapshot);
+						}
 					} catch (Exception e) {
 						if (!toStop) {
 							logger.error(">>>>>>>>>>> xxl-job, job registry monitor thread error:{}", e);
 						}
 					}
 					try {
-						TimeUnit.SECONDS.sleep(RegistryConfig.BEAT_TIMEOUT);
+						TimeUnit.SECONDS.sleep(1);
 					} catch (InterruptedException e) {
 						if (!toStop) {
 							logger.error(">>>>>>>>>>> xxl-job, job registry monitor thread error:{}", e);
 						}
 					}
 				}
+
+				// beat, remaining
+				try {
+					flushBeat();
+				} catch (Exception e) {
+					logger.error(e.getMessage(), e);
+				}
 				logger.info(">>>>>>>>>>> xxl-job, job registry monitor thread stop");
 			}
 		});
@@ -168,6 +174,16 @@ public class JobRegistryHelper {
 			return new ReturnT<String>(ReturnT.FAIL_CODE, "Illegal Argument.");
 		}
 
+		// executor, in-memory registry at once; known registry is written in batch
+		if (RegistryConfig.RegistType.EXECUTOR.name().equals(registryParam.getRegistryGroup())) {
+			ExecutorLoad load = ExecutorLoad.of(registryParam, System.currentTimeMillis());
+			int registryId = XxlJobRegistryCache.getInstance().beat(registryParam.getRegistryKey(), registryParam.getRegistryValue(), System.currentTimeMillis(), load);
+			if (registryId > 0) {
+				beatLoads.put(registryId, load != null ? load.format() : "");
+				return ReturnT.SUCCESS;
+			}
+		}
+
 		// async execute
 		// 使用线程池执行
 		registryOrRemoveThreadPool.execute(new Runnable() {
@@ -180,8 +196,8 @@ public class JobRegistryHelper {
 					XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registrySave(registryParam.getRegistryGroup(), registryParam.getRegistryKey(), registryParam.getRegistryValue(), new Date());
 
 					// fresh
-					// 刷新注册信息，暂时没用到，是个空方法
-					freshGroupRegistryInfo(registryParam);
+					// 通知其他调度中心节点
+					freshGroupRegistryInfo(registryParam, XxlJobRegistryEvent.EVENT_REGISTRY);
 				}
 			}
 		});
@@ -199,6 +215,11 @@ public class JobRegistryHelper {
 			return new ReturnT<String>(ReturnT.FAIL_CODE, "Illegal Argument.");
 		}
 
+		// executor, removed from in-memory registry at once, not routed any more
+		if (RegistryConfig.RegistType.EXECUTOR.name().equals(registryParam.getRegistryGroup())) {
+			XxlJobRegistryCache.getInstance().remove(registryParam.getRegistryKey(), registryParam.getRegistryValue());
+		}
+
 		// async execute
 		registryOrRemoveThreadPool.execute(new Runnable() {
 			@Override
@@ -207,8 +228,8 @@ public class JobRegistryHelper {
 				int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryDelete(registryParam.getRegistryGroup(), registryParam.getRegistryKey(), registryParam.getRegistryValue());
 				if (ret > 0) {
 					// fresh
-					// 刷新注册信息，暂时没用到，是个空方法
-					freshGroupRegistryInfo(registryParam);
+					// 通知其他调度中心节点
+					freshGroupRegistryInfo(registryParam, XxlJobRegistryEvent.EVENT_REMOVE);
 				}
 			}
 		});
@@ -216,8 +237,91 @@ public class JobRegistryHelper {
 		return ReturnT.SUCCESS;
 	}
 
-	private void freshGroupRegistryInfo(RegistryParam registryParam) {
-		// Under consideration, prevent affecting core tables
+	/**
+	 * registry event, applied by other admin node in the next poll (1s)
+	 */
+	private void freshGroupRegistryInfo(RegistryParam registryParam, int eventType) {
+		XxlJobRegistryEvent registryEvent = new XxlJobRegistryEvent();
+		registryEvent.setRegistryGroup(registryParam.getRegistryGroup());
+		registryEvent.setRegistryKey(registryParam.getRegistryKey());
+		registryEvent.setRegistryValue(registryParam.getRegistryValue());
+		registryEvent.setEventType(eventType);
+		registryEvent.setAddTime(new Date());
+		XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().saveEvent(registryEvent);
+	}
+
+	/**
+	 * write update_time (and registry_load if reported) of registry beaten, in batch
+	 */
+	private void flushBeat() {
+		if (beatLoads.isEmpty()) {
+			return;
+		}
+		List<Integer> ids = new ArrayList<Integer>();
+		List<XxlJobRegistry> loadList = new ArrayList<XxlJobRegistry>();
+		for (Integer id : new ArrayList<Integer>(beatLoads.keySet())) {
+			String load = beatLoads.remove(id);
+			if (load == null) {
+				continue;
+			}
+			if (load.isEmpty()) {
+				ids.add(id);
+			} else {
+				XxlJobRegistry registry = new XxlJobRegistry();
+				registry.setId(id);
+				registry.setRegistryLoad(load);
+				loadList.add(registry);
+			}
+		}
+
+		Date updateTime = new Date();
+		for (int i = 0; i < ids.size(); i += BEAT_BATCH_SIZE) {
+			List<Integer> batchIds = ids.subList(i, Math.min(i + BEAT_BATCH_SIZE, ids.size()));
+			int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryUpdateBatch(batchIds, updateTime);
+			if (ret < batchIds.size()) {
+				// removed by other admin node (dead, or removed and registry again), saved again by the next beat
+				XxlJobRegistryCache.getInstance().clearId(batchIds);
+			}
+		}
+		for (int i = 0; i < loadList.size(); i += BEAT_BATCH_SIZE) {
+			List<XxlJobRegistry> batchList = loadList.subList(i, Math.min(i + BEAT_BATCH_SIZE, loadList.size()));
+			int ret = XxlJobAdminConfig.getAdminConfig().getXxlJobRegistryDao().registryUpdateLoadBatch(batchList, updateTime);
+			if (ret < batchList.size()) {
+				List<Integer> batchIds = new ArrayList<Integer>(batchList.size());
+				for (XxlJobRegistry registry : batchList) {
+					batchIds.add(registry.getId());
+				}
+				XxlJobRegistryCache.getInstance().clearId(batchIds);
+			}
+		}
+	}
+
+	/**
+	 * write address_list of auto registry group, only if changed
+	 */
+	private void freshGroupAddress(Set<String> changedAppnames, boolean all) {
+		if (!XxlJobRegistryCache.getInstance().isLoaded()) {
+			return;
+		}
+		List<XxlJobGroup> groupList = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().findByAddressType(0);
+		if (groupList == null) {
+			return;
+		}
+		for (XxlJobGroup group : groupList) {
+			if (!all && !changedAppnames.contains(group.getAppname())) {
+				continue;
+			}
+			String addressListStr = XxlJobRegistryCache.getInstance().getAddressList(group.getAppname());
+			String oldAddressListStr = StringUtils.hasText(group.getAddressList()) ? group.getAddressList() : null;
+			if (Objects.equals(oldAddressListStr, addressListStr)) {
+				continue;
+			}
+			group.setAddressList(addressListStr);
+			group.setUpdateTime(new Date());
+
+			XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().update(group);
+			XxlJobCache.getInstance().invalidateGroup(group.getId());
+		}
 	}
 
 
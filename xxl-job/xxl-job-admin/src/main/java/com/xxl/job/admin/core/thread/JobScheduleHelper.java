@@ -1,19 +1,29 @@
 package com.xxl.job.admin.core.thread;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
-import com.xxl.job.admin.core.cron.CronExpression;
+import com.xxl.job.admin.core.cron.CompiledCronExpression;
 import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.ring.JobRing;
+import com.xxl.job.admin.core.ring.JobRingTypeEnum;
+import com.xxl.job.admin.core.ring.impl.JobSecondRing;
+import com.xxl.job.admin.core.ring.impl.JobTimeWheel;
 import com.xxl.job.admin.core.scheduler.MisfireStrategyEnum;
 import com.xxl.job.admin.core.scheduler.ScheduleTypeEnum;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import com.xxl.job.admin.dao.XxlJobInfoDao;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -22,14 +32,19 @@ import java.util.concurrent.TimeUnit;
 public class JobScheduleHelper {
 	// 任务间隔大小
 	public static final long PRE_READ_MS = 5000;    // pre read
+	// rows per multi-row schedule update, keep bind params far below the jdbc limit (65535)
+	private static final int SCHEDULE_UPDATE_BATCH_SIZE = 1000;
+	// schedule_lock hold time: from "select for update" to commit
+	private static final Timer LOCK_HOLD = Timer.builder("xxl.job.schedule.lock.hold")
+			.description("schedule_lock hold time of each pre-read scan")
+			.publishPercentileHistogram()
+			.register(Metrics.globalRegistry);
 	private static Logger logger = LoggerFactory.getLogger(JobScheduleHelper.class);
 	private static JobScheduleHelper instance = new JobScheduleHelper();
-	// 时间轮，key 0-59，value 任务ID列表，两个线程同时处理这个对象
-	private volatile static Map<Integer, List<Integer>> ringData = new ConcurrentHashMap<>();
+	// 时间轮，调度线程写入，时间轮线程到点触发
+	private JobRing ring;
 	private Thread scheduleThread;
-	private Thread ringThread;
 	private volatile boolean scheduleThreadToStop = false;
-	private volatile boolean ringThreadToStop = false;
 
 	public static JobScheduleHelper getInstance() {
 		return instance;
@@ -41,9 +56,9 @@ public class JobScheduleHelper {
 		ScheduleTypeEnum scheduleTypeEnum = ScheduleTypeEnum.match(jobInfo.getScheduleType(), null);
 		if (ScheduleTypeEnum.CRON == scheduleTypeEnum) {
 			//通过CRON，触发任务调度；
-			//通过cron表达式,获取下一次执行时间
-			Date nextValidTime = new CronExpression(jobInfo.getScheduleConf()).getNextValidTimeAfter(fromTime);
-			return nextValidTime;
+			//通过cron表达式,获取下一次执行时间（编译后缓存）
+			long nextValidTime = CompiledCronExpression.compile(jobInfo.getScheduleConf()).getNextValidTimeAfter(fromTime.getTime());
+			return nextValidTime >= 0 ? new Date(nextValidTime) : null;
 		} else if (ScheduleTypeEnum.FIX_RATE == scheduleTypeEnum /*|| ScheduleTypeEnum.FIX_DELAY == scheduleTypeEnum*/) {
 			//以固定速度，触发任务调度；按照固定的间隔时间，周期性触发；
 			return new Date(fromTime.getTime() + Integer.valueOf(jobInfo.getScheduleConf()) * 1000);
@@ -54,6 +69,16 @@ public class JobScheduleHelper {
 
 	public void start() {
 
+		// time ring, default WHEEL
+		JobRingTypeEnum ringType = JobRingTypeEnum.match(XxlJobAdminConfig.getAdminConfig().getTimeRingType(), JobRingTypeEnum.WHEEL);
+		if (JobRingTypeEnum.WHEEL == ringType) {
+			ring = new JobTimeWheel(XxlJobAdminConfig.getAdminConfig().getTimeRingTickMs());
+		} else {
+			ring = new JobSecondRing();
+		}
+		ring.start();
+		logger.info(">>>>>>>>> xxl-job admin time-ring start, type:{}", ringType);
+
 		// schedule thread
 		// 初始化一个调度线程，5秒执行一次，查询 当前时间 + 5000 毫秒，就是接下来 5 秒 《之前》 要执行的所有任务，
 		// 如果触发时间小于now，即本该以及执行的任务，则直接远程调度，如果是将来要执行的任务，则放入ringData中
@@ -81,161 +106,7 @@ public class JobScheduleHelper {
 					// Scan Job
 					long start = System.currentTimeMillis();
 
-					Connection conn = null;
-					Boolean connAutoCommit = null;
-					PreparedStatement preparedStatement = null;
-
-					boolean preReadSuc = true;
-					try {
-
-						conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
-						connAutoCommit = conn.getAutoCommit();
-						conn.setAutoCommit(false);
-
-						// 分布式下获取锁
-						preparedStatement = conn.prepareStatement("select * from xxl_job_lock where lock_name = 'schedule_lock' for update");
-						preparedStatement.execute();
-
-						// tx start
-
-						long nowTime = System.currentTimeMillis();
-						// 1、查询 当前时间 + 5000 毫秒，就是接下来 5 秒 《之前》 要执行的所有任务
-						List<XxlJobInfo> scheduleList = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleJobQuery(nowTime + PRE_READ_MS, preReadCount);
-						if (scheduleList != null && scheduleList.size() > 0) {
-							// 2、push time-ring
-							for (XxlJobInfo jobInfo : scheduleList) {
-
-								// time-ring jump
-								// |----任务在这里----|---------------------|-------------------------|
-								// ---------------now-5s------------------now---------------------now+5s
-								// if jobInfo.getTriggerNextTime() < nowTime - 5s
-								if (nowTime > jobInfo.getTriggerNextTime() + PRE_READ_MS) {
-									// 2.1、trigger-expire > 5s：pass && make next-trigger-time
-									logger.warn(">>>>>>>>>>> xxl-job, schedule misfire, jobId = " + jobInfo.getId());
-
-									// 1、misfire match
-									// 如果每次都有执行则立即触发执行
-									// 忽略:调度过期后,忽略过期的任务,从当前时间开始重新计算下次触发时间;
-									// 立即执行一次,调度过期后,立即地行一次,并1当前时间开始重新计算下次触发时间:
-									MisfireStrategyEnum misfireStrategyEnum = MisfireStrategyEnum.match(jobInfo.getMisfireStrategy(), MisfireStrategyEnum.DO_NOTHING);
-									if (MisfireStrategyEnum.FIRE_ONCE_NOW == misfireStrategyEnum) {
-										// 若过期策略为FIRE ONCE NOW,则立即执行一次
-										// FIRE_ONCE_NOW 》 trigger 执行出发器
-										JobTriggerPoolHelper.trigger(jobInfo.getId(), TriggerTypeEnum.MISFIRE, -1, null, null, null);
-										logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId());
-									}
-
-									// 2、fresh next
-									// 刷新接下来要执行时间
-									refreshNextValidTime(jobInfo, new Date());
-
-								} else if (nowTime > jobInfo.getTriggerNextTime()) {
-									// |---------------|------任务在这里--------|-------------------------|
-									// ---------------now-5s------------------now---------------------now+5s
-									// 2.2、trigger-expire < 5s：direct-trigger && make next-trigger-time
-
-									// 1、trigger
-									// 如果当前时间大于接下来要执行到时间则立即触发执行
-									JobTriggerPoolHelper.trigger(jobInfo.getId(), TriggerTypeEnum.CRON, -1, null, null, null);
-									logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId());
-
-									// 2、fresh next
-									// 刷新下次执行时间
-									refreshNextValidTime(jobInfo, new Date());
-
-									// next-trigger-time in 5s, pre-read again
-									// |---------------|----------------------|---------任务在这里----------|
-									// ---------------now-5s------------------now---------------------now+5s
-									if (jobInfo.getTriggerStatus() == 1 && nowTime + PRE_READ_MS > jobInfo.getTriggerNextTime()) {
-
-										// 1、make ring second
-										// 如果接下来 5 秒内还执行则直接放到时间轮中
-										int ringSecond = (int) ((jobInfo.getTriggerNextTime() / 1000) % 60);
-
-										// 2、push time ring
-										pushTimeRing(ringSecond, jobInfo.getId());
-
-										// 3、fresh next
-										// 刷新下次执行时间
-										refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
-
-									}
-
-								} else {
-									// |---------------|----------------------|---------任务在这里----------|
-									// ---------------now-5s------------------now---------------------now+5s
-									// 2.3、trigger-pre-read：time-ring trigger && make next-trigger-time
-
-									// 1、make ring second
-									// 任务还没有到执行时间则直接放到时间轮中
-									int ringSecond = (int) ((jobInfo.getTriggerNextTime() / 1000) % 60);
-
-									// 2、push time ring
-									pushTimeRing(ringSecond, jobInfo.getId());
-
-									// 3、fresh next
-									// 刷新下次执行时间
-									refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
-
-								}
-
-							}
-
-							// 3、update trigger info
-							for (XxlJobInfo jobInfo : scheduleList) {
-								// 更新任务信息
-								XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleUpdate(jobInfo);
-							}
-
-						} else {
-							preReadSuc = false;
-						}
-
-						// tx stop
-
-
-					} catch (Exception e) {
-						if (!scheduleThreadToStop) {
-							logger.error(">>>>>>>>>>> xxl-job, JobScheduleHelper#scheduleThread error:{}", e);
-						}
-					} finally {
-
-						// commit
-						if (conn != null) {
-							try {
-								conn.commit();
-							} catch (SQLException e) {
-								if (!scheduleThreadToStop) {
-									logger.error(e.getMessage(), e);
-								}
-							}
-							try {
-								conn.setAutoCommit(connAutoCommit);
-							} catch (SQLException e) {
-								if (!scheduleThreadToStop) {
-									logger.error(e.getMessage(), e);
-								}
-							}
-							try {
-								conn.close();
-							} catch (SQLException e) {
-								if (!scheduleThreadToStop) {
-									logger.error(e.getMessage(), e);
-								}
-							}
-						}
-
-						// close PreparedStatement
-						if (null != preparedStatement) {
-							try {
-								preparedStatement.close();
-							} catch (SQLException e) {
-								if (!scheduleThreadToStop) {
-									logger.error(e.getMessage(), e);
-								}
-							}
-						}
-					}
+					boolean preReadSuc = preRead(ring, preReadCount);
 					long cost = System.currentTimeMillis() - start;
 
 
@@ -260,62 +131,198 @@ public class JobScheduleHelper {
 		scheduleThread.setName("xxl-job, admin JobScheduleHelper#scheduleThread");
 		scheduleThread.start();
 
+	}
 
-		// ring thread
-		// 初始化一个时间轮线程，1秒执行一次，主要工作为：从ringData中获取最近0秒和1秒将要执行的任务，进行远程触发。
-		ringThread = new Thread(new Runnable() {
-			@Override
-			public void run() {
-
-				while (!ringThreadToStop) {
+	/**
+	 * pre-read once: lock, read jobs to trigger in PRE_READ_MS, push them into the ring, and refresh their next trigger time
+	 *
+	 * @return false if no job read, the schedule thread skips a pre-read period
+	 */
+	public boolean preRead(JobRing ring, int preReadCount) {
+		Connection conn = null;
+		Boolean connAutoCommit = null;
+		PreparedStatement preparedStatement = null;
+
+		boolean preReadSuc = true;
+		long lockTime = 0;
+		try {
 
-					// align second
-					// 时间对齐，对齐至秒
-					try {
-						TimeUnit.MILLISECONDS.sleep(1000 - System.currentTimeMillis() % 1000);
-					} catch (InterruptedException e) {
-						if (!ringThreadToStop) {
-							logger.error(e.getMessage(), e);
-						}
+			conn = XxlJobAdminConfig.getAdminConfig().getDataSource().getConnection();
+			connAutoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			// 分布式下获取锁
+			List<Integer> shardIds = null;
+			if (JobShardHelper.getInstance().isSharded()) {
+				// 分片调度：只锁定本节点持有的分片（按主键行锁），各节点并行扫描各自分片
+				shardIds = new ArrayList<>();
+				List<Integer> ownShardIds = JobShardHelper.getInstance().getShardIds();
+				if (!ownShardIds.isEmpty()) {
+					StringBuilder lockSql = new StringBuilder("select shard_id from xxl_job_shard_lease where owner = ? and shard_id in (");
+					for (int i = 0; i < ownShardIds.size(); i++) {
+						lockSql.append(i == 0 ? "?" : ", ?");
 					}
+					lockSql.append(") for update");
 
-					try {
-						// second data
-						// 时间轮数据处理
-						List<Integer> ringItemData = new ArrayList<>();
-						int nowSecond = Calendar.getInstance().get(Calendar.SECOND);   // 避免处理耗时太长，跨过刻度，向前校验一个刻度；
-						// 获取前1秒和2秒要执行到任务
-						for (int i = 0; i < 2; i++) {
-							List<Integer> tmpData = ringData.remove((nowSecond + 60 - i) % 60);
-							if (tmpData != null) {
-								ringItemData.addAll(tmpData);
-							}
+					preparedStatement = conn.prepareStatement(lockSql.toString());
+					preparedStatement.setString(1, JobShardHelper.getInstance().getNodeId());
+					for (int i = 0; i < ownShardIds.size(); i++) {
+						preparedStatement.setInt(i + 2, ownShardIds.get(i));
+					}
+					ResultSet shardResult = preparedStatement.executeQuery();
+					while (shardResult.next()) {
+						shardIds.add(shardResult.getInt(1));
+					}
+					shardResult.close();
+				}
+			} else {
+				preparedStatement = conn.prepareStatement("select * from xxl_job_lock where lock_name = 'schedule_lock' for update");
+				preparedStatement.execute();
+			}
+			lockTime = System.nanoTime();
+
+			// tx start
+
+			long nowTime = System.currentTimeMillis();
+			long cacheVersion = XxlJobCache.getInstance().version();
+			// 1、查询 当前时间 + 5000 毫秒，就是接下来 5 秒 《之前》 要执行的所有任务（分片调度时，无持有分片则跳过）
+			List<XxlJobInfo> scheduleList = (shardIds != null && shardIds.isEmpty())
+					? null
+					: XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().scheduleJobQuery(nowTime + PRE_READ_MS, preReadCount, shardIds);
+			if (scheduleList != null && scheduleList.size() > 0) {
+				// 刷新任务缓存，触发时无需再次查询任务信息
+				XxlJobCache.getInstance().refreshJobInfo(scheduleList, cacheVersion);
+
+				// 2、push time-ring
+				for (XxlJobInfo jobInfo : scheduleList) {
+
+					// time-ring jump
+					// |----任务在这里----|---------------------|-------------------------|
+					// ---------------now-5s------------------now---------------------now+5s
+					// if jobInfo.getTriggerNextTime() < nowTime - 5s
+					if (nowTime > jobInfo.getTriggerNextTime() + PRE_READ_MS) {
+						// 2.1、trigger-expire > 5s：pass && make next-trigger-time
+						logger.warn(">>>>>>>>>>> xxl-job, schedule misfire, jobId = " + jobInfo.getId());
+
+						// 1、misfire match
+						// 如果每次都有执行则立即触发执行
+						// 忽略:调度过期后,忽略过期的任务,从当前时间开始重新计算下次触发时间;
+						// 立即执行一次,调度过期后,立即地行一次,并1当前时间开始重新计算下次触发时间:
+						MisfireStrategyEnum misfireStrategyEnum = MisfireStrategyEnum.match(jobInfo.getMisfireStrategy(), MisfireStrategyEnum.DO_NOTHING);
+						if (MisfireStrategyEnum.FIRE_ONCE_NOW == misfireStrategyEnum) {
+							// 若过期策略为FIRE ONCE NOW,则立即执行一次
+							// FIRE_ONCE_NOW 》 trigger 执行出发器
+							JobTriggerPoolHelper.trigger(jobInfo.getId(), TriggerTypeEnum.MISFIRE, -1, null, null, null);
+							logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId());
 						}
 
-						// ring trigger
-						logger.debug(">>>>>>>>>>> xxl-job, time-ring beat : " + nowSecond + " = " + Arrays.asList(ringItemData));
-						if (ringItemData.size() > 0) {
-							// do trigger
-							for (int jobId : ringItemData) {
-								// do trigger
-								// 执行任务
-								JobTriggerPoolHelper.trigger(jobId, TriggerTypeEnum.CRON, -1, null, null, null);
-							}
-							// clear
-							ringItemData.clear();
-						}
-					} catch (Exception e) {
-						if (!ringThreadToStop) {
-							logger.error(">>>>>>>>>>> xxl-job, JobScheduleHelper#ringThread error:{}", e);
+						// 2、fresh next
+						// 刷新接下来要执行时间
+						refreshNextValidTime(jobInfo, new Date());
+
+					} else if (nowTime > jobInfo.getTriggerNextTime()) {
+						// |---------------|------任务在这里--------|-------------------------|
+						// ---------------now-5s------------------now---------------------now+5s
+						// 2.2、trigger-expire < 5s：direct-trigger && make next-trigger-time
+
+						// 1、trigger
+						// 如果当前时间大于接下来要执行到时间则立即触发执行
+						JobTriggerPoolHelper.trigger(jobInfo.getId(), TriggerTypeEnum.CRON, -1, null, null, null);
+						logger.debug(">>>>>>>>>>> xxl-job, schedule push trigger : jobId = " + jobInfo.getId());
+
+						// 2、fresh next
+						// 刷新下次执行时间
+						refreshNextValidTime(jobInfo, new Date());
+
+						// next-trigger-time in 5s, pre-read again
+						// |---------------|----------------------|---------任务在这里----------|
+						// ---------------now-5s------------------now---------------------now+5s
+						if (jobInfo.getTriggerStatus() == 1 && nowTime + PRE_READ_MS > jobInfo.getTriggerNextTime()) {
+
+							// 1、push time ring
+							// 如果接下来 5 秒内还执行则直接放到时间轮中
+							ring.push(jobInfo.getId(), jobInfo.getTriggerNextTime());
+
+							// 2、fresh next
+							// 刷新下次执行时间
+							refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
+
 						}
+
+					} else {
+						// |---------------|----------------------|---------任务在这里----------|
+						// ---------------now-5s------------------now---------------------now+5s
+						// 2.3、trigger-pre-read：time-ring trigger && make next-trigger-time
+
+						// 1、push time ring
+						// 任务还没有到执行时间则直接放到时间轮中
+						ring.push(jobInfo.getId(), jobInfo.getTriggerNextTime());
+
+						// 2、fresh next
+						// 刷新下次执行时间
+						refreshNextValidTime(jobInfo, new Date(jobInfo.getTriggerNextTime()));
+
+					}
+
+				}
+
+				// 3、update trigger info
+				// 批量更新任务信息，缩短锁持有时间
+				scheduleUpdate(scheduleList);
+
+			} else {
+				preReadSuc = false;
+			}
+
+			// tx stop
+
+
+		} catch (Exception e) {
+			if (!scheduleThreadToStop) {
+				logger.error(">>>>>>>>>>> xxl-job, JobScheduleHelper#scheduleThread error:{}", e);
+			}
+		} finally {
+
+			// commit
+			if (conn != null) {
+				try {
+					conn.commit();
+				} catch (SQLException e) {
+					if (!scheduleThreadToStop) {
+						logger.error(e.getMessage(), e);
+					}
+				}
+				if (lockTime > 0) {
+					LOCK_HOLD.record(System.nanoTime() - lockTime, TimeUnit.NANOSECONDS);
+				}
+				try {
+					conn.setAutoCommit(connAutoCommit);
+				} catch (SQLException e) {
+					if (!scheduleThreadToStop) {
+						logger.error(e.getMessage(), e);
+					}
+				}
+				try {
+					conn.close();
+				} catch (SQLException e) {
+					if (!scheduleThreadToStop) {
+						logger.error(e.getMessage(), e);
 					}
 				}
-				logger.info(">>>>>>>>>>> xxl-job, JobScheduleHelper#ringThread stop");
 			}
-		});
-		ringThread.setDaemon(true);
-		ringThread.setName("xxl-job, admin JobScheduleHelper#ringThread");
-		ringThread.start();
+
+			// close PreparedStatement
+			if (null != preparedStatement) {
+				try {
+					preparedStatement.close();
+				} catch (SQLException e) {
+					if (!scheduleThreadToStop) {
+						logger.error(e.getMessage(), e);
+					}
+				}
+			}
+		}
+		return preReadSuc;
 	}
 
 	private void refreshNextValidTime(XxlJobInfo jobInfo, Date fromTime) throws Exception {
@@ -332,17 +339,24 @@ public class JobScheduleHelper {
 		}
 	}
 
-	// ringSecond 下一次执行的时间 % 60
-	private void pushTimeRing(int ringSecond, int jobId) {
-		// push async ring
-		List<Integer> ringItemData = ringData.get(ringSecond);
-		if (ringItemData == null) {
-			ringItemData = new ArrayList<Integer>();
-			ringData.put(ringSecond, ringItemData);
+	/**
+	 * update trigger info of pre-read jobs, in multi-row batch; fall back to per-row update only when the batch fails
+	 *
+	 * @param scheduleList
+	 */
+	private void scheduleUpdate(List<XxlJobInfo> scheduleList) {
+		XxlJobInfoDao xxlJobInfoDao = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao();
+		for (int from = 0; from < scheduleList.size(); from += SCHEDULE_UPDATE_BATCH_SIZE) {
+			List<XxlJobInfo> batchList = scheduleList.subList(from, Math.min(from + SCHEDULE_UPDATE_BATCH_SIZE, scheduleList.size()));
+			try {
+				xxlJobInfoDao.scheduleUpdateBatch(batchList);
+			} catch (Exception e) {
+				logger.warn(">>>>>>>>>>> xxl-job, schedule batch update fail, fallback to per-row update, size = {}", batchList.size(), e);
+				for (XxlJobInfo jobInfo : batchList) {
+					xxlJobInfoDao.scheduleUpdate(jobInfo);
+				}
+			}
 		}
-		ringItemData.add(jobId);
-
-		logger.debug(">>>>>>>>>>> xxl-job, schedule push time-ring : " + ringSecond + " = " + Arrays.asList(ringItemData));
 	}
 
 	public void toStop() {
@@ -365,17 +379,7 @@ public class JobScheduleHelper {
 		}
 
 		// if has ring data
-		boolean hasRingData = false;
-		if (!ringData.isEmpty()) {
-			for (int second : ringData.keySet()) {
-				List<Integer> tmpData = ringData.get(second);
-				if (tmpData != null && tmpData.size() > 0) {
-					hasRingData = true;
-					break;
-				}
-			}
-		}
-		if (hasRingData) {
+		if (!ring.isEmpty()) {
 			try {
 				TimeUnit.SECONDS.sleep(8);
 			} catch (InterruptedException e) {
@@ -384,21 +388,7 @@ public class JobScheduleHelper {
 		}
 
 		// stop ring (wait job-in-memory stop)
-		ringThreadToStop = true;
-		try {
-			TimeUnit.SECONDS.sleep(1);
-		} catch (InterruptedException e) {
-			logger.error(e.getMessage(), e);
-		}
-		if (ringThread.getState() != Thread.State.TERMINATED) {
-			// interrupt and wait
-			ringThread.interrupt();
-			try {
-				ringThread.join();
-			} catch (InterruptedException e) {
-				logger.error(e.getMessage(), e);
-			}
-		}
+		ring.toStop();
 
 		logger.info(">>>>>>>>>>> xxl-job, JobScheduleHelper stop");
 	}
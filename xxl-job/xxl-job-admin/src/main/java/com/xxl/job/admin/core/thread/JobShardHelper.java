@@ -0,0 +1,217 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobShardLease;
+import com.xxl.job.admin.dao.XxlJobShardLeaseDao;
+import com.xxl.job.core.util.IpUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * schedule shard helper
+ *
+ * 任务按 "jobId % shardTotal" 划分分片（存于 xxl_job_info.shard_id 并建索引，新增任务时写入、启动时按分片总数校正），
+ * 调度中心各节点通过 xxl_job_shard_lease 租约表心跳持有分片；
+ * 各节点在 xxl_job_shard_node 表心跳登记（未持有分片的节点同样可见），节点按 "分片总数 / 存活节点数" 均分分片，
+ * 多出的主动释放，不足的认领空闲或过期分片；节点宕机后租约过期，分片由其他节点接管。
+ *
+ * @see JobScheduleHelper, each node only locks and scans its own shards
+ */
+public class JobShardHelper {
+	private static Logger logger = LoggerFactory.getLogger(JobShardHelper.class);
+
+	private static JobShardHelper instance = new JobShardHelper();
+
+	public static JobShardHelper getInstance() {
+		return instance;
+	}
+
+	public static final int BEAT_TIMEOUT = 10;
+	public static final int LEASE_TIMEOUT = BEAT_TIMEOUT * 3;
+
+	private final String nodeId;
+	private int shardTotal = 1;
+	private volatile List<Integer> shardIds = Collections.emptyList();
+
+	private Thread leaseThread;
+	private volatile boolean toStop = false;
+
+	public JobShardHelper() {
+		this(IpUtil.getIp() + "-" + UUID.randomUUID().toString().replace("-", "").substring(0, 8), 1);
+	}
+
+	JobShardHelper(String nodeId, int shardTotal) {
+		this.nodeId = nodeId;
+		this.shardTotal = shardTotal;
+	}
+
+	public void start() {
+		shardTotal = XxlJobAdminConfig.getAdminConfig().getScheduleShardTotal();
+		if (shardTotal <= 1) {
+			// not sharded, schedule by the global "schedule_lock"
+			return;
+		}
+
+		// init shard lease
+		for (int shardId = 0; shardId < shardTotal; shardId++) {
+			XxlJobAdminConfig.getAdminConfig().getXxlJobShardLeaseDao().save(shardId);
+		}
+
+		// job shard id, by the shard total (changed, or job added by old version)
+		int refreshCount = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().refreshShardId(shardTotal);
+		if (refreshCount > 0) {
+			logger.info(">>>>>>>>>>> xxl-job, job shard id refreshed, shardTotal:{}, count:{}", shardTotal, refreshCount);
+		}
+
+		// lease thread: heartbeat, claim and rebalance
+		leaseThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!toStop) {
+					try {
+						beat();
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, job shard lease thread error:{}", e);
+						}
+					}
+					try {
+						TimeUnit.SECONDS.sleep(BEAT_TIMEOUT);
+					} catch (InterruptedException e) {
+						if (!toStop) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+				}
+				logger.info(">>>>>>>>>>> xxl-job, job shard lease thread stop");
+			}
+		});
+		leaseThread.setDaemon(true);
+		leaseThread.setName("xxl-job, admin JobShardHelper#leaseThread");
+		leaseThread.start();
+	}
+
+	public void toStop() {
+		if (leaseThread == null) {
+			return;
+		}
+		toStop = true;
+
+		// stop lease thread (interrupt and wait)
+		leaseThread.interrupt();
+		try {
+			leaseThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// release own shard and node beat, let other node take over at once
+		List<Integer> ownShardIds = shardIds;
+		shardIds = Collections.emptyList();
+		try {
+			XxlJobShardLeaseDao shardLeaseDao = XxlJobAdminConfig.getAdminConfig().getXxlJobShardLeaseDao();
+			if (!ownShardIds.isEmpty()) {
+				shardLeaseDao.release(nodeId, ownShardIds);
+			}
+			shardLeaseDao.nodeRemove(nodeId);
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+
+	// ---------------------- helper ----------------------
+
+	public boolean isSharded() {
+		return shardTotal > 1;
+	}
+
+	public int getShardTotal() {
+		return shardTotal;
+	}
+
+	/**
+	 * shard of the job, stored as "xxl_job_info.shard_id"
+	 */
+	public int shardOf(int jobId) {
+		return jobId % shardTotal;
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	/**
+	 * @return shard ids held by this node, sorted
+	 */
+	public List<Integer> getShardIds() {
+		return shardIds;
+	}
+
+	private void beat() {
+		beat(XxlJobAdminConfig.getAdminConfig().getXxlJobShardLeaseDao(), System.currentTimeMillis());
+	}
+
+	void beat(XxlJobShardLeaseDao shardLeaseDao, long nowTime) {
+		long expireTime = nowTime - LEASE_TIMEOUT * 1000L;
+
+		// 1、node beat (visible to other nodes even if holding no shard), and renew own shard
+		if (shardLeaseDao.nodeBeat(nodeId, nowTime) < 1) {
+			shardLeaseDao.nodeSave(nodeId, nowTime);
+		}
+		List<Integer> ownShardIds = shardIds;
+		if (!ownShardIds.isEmpty()) {
+			shardLeaseDao.renew(nodeId, ownShardIds, nowTime);
+		}
+
+		// 2、collect alive node (node beat, or unexpired lease), own shard (lost if taken over after lease expired), free shard
+		shardLeaseDao.nodeRemoveDead(expireTime);
+		Set<String> aliveNodes = new HashSet<>();
+		aliveNodes.add(nodeId);
+		List<String> nodeList = shardLeaseDao.findAliveNode(expireTime);
+		if (nodeList != null) {
+			aliveNodes.addAll(nodeList);
+		}
+		List<Integer> newShardIds = new ArrayList<>();
+		List<Integer> freeShardIds = new ArrayList<>();
+		List<XxlJobShardLease> leaseList = shardLeaseDao.findAll(shardTotal);
+		if (leaseList != null) {
+			for (XxlJobShardLease lease : leaseList) {
+				if (nodeId.equals(lease.getOwner())) {
+					newShardIds.add(lease.getShardId());
+				} else if (lease.getOwner() != null && lease.getLeaseTime() >= expireTime) {
+					aliveNodes.add(lease.getOwner());
+				} else {
+					freeShardIds.add(lease.getShardId());
+				}
+			}
+		}
+
+		// 3、rebalance: release surplus, or claim up to fair share
+		int fairShare = (shardTotal + aliveNodes.size() - 1) / aliveNodes.size();
+		if (newShardIds.size() > fairShare) {
+			List<Integer> releaseShardIds = new ArrayList<>(newShardIds.subList(fairShare, newShardIds.size()));
+			shardLeaseDao.release(nodeId, releaseShardIds);
+			newShardIds.removeAll(releaseShardIds);
+		} else {
+			for (int shardId : freeShardIds) {
+				if (newShardIds.size() >= fairShare) {
+					break;
+				}
+				if (shardLeaseDao.claim(shardId, nodeId, nowTime, expireTime) > 0) {
+					newShardIds.add(shardId);
+				}
+			}
+		}
+
+		Collections.sort(newShardIds);
+		if (!newShardIds.equals(ownShardIds)) {
+			logger.info(">>>>>>>>>>> xxl-job, job shard rebalance, node:{}, aliveNodes:{}, shardIds:{}", nodeId, aliveNodes.size(), newShardIds);
+		}
+		shardIds = Collections.unmodifiableList(newShardIds);
+	}
+
+}
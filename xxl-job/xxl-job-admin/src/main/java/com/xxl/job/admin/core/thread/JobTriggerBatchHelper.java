@@ -0,0 +1,241 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.util.ThrowableUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * job trigger batch helper
+ *
+ * 1、coalesce: run request to the same executor address within a window (xxl.job.triggerbatch.windowms) is sent as one "/runBatch" call,
+ *    flushed by the flush thread every window, or at once by the caller when BATCH_MAX_SIZE is reached;
+ * 2、result: per item, in order, each trigger completes with its own result;
+ * 3、old executor (no "/runBatch" uri-mapping): fallback to "/run" one by one, and the address is not batched for UNSUPPORTED_TIMEOUT;
+ * 4、queue per address: removed once drained and empty, not grown by address churn (redeploy, autoscaling);
+ *    item queued to a removed queue, or after stop, is flushed by its caller;
+ *
+ * window 0 disables batch, every trigger is sent by "/run" at once.
+ */
+public class JobTriggerBatchHelper {
+	private static Logger logger = LoggerFactory.getLogger(JobTriggerBatchHelper.class);
+
+	private static JobTriggerBatchHelper instance = new JobTriggerBatchHelper();
+
+	public static JobTriggerBatchHelper getInstance() {
+		return instance;
+	}
+
+	private static final int BATCH_MAX_SIZE = 100;
+	private static final long UNSUPPORTED_TIMEOUT = 5 * 60 * 1000;       // ms, re-probe the executor after it
+
+	private final ConcurrentMap<String, LinkedBlockingQueue<BatchItem>> batchQueueMap = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Long> unsupportedAddressMap = new ConcurrentHashMap<>();
+
+	private long windowMs = 0;
+	private Thread flushThread;
+	private volatile boolean toStop = false;
+	private volatile boolean running = false;
+
+	public void start() {
+		windowMs = XxlJobAdminConfig.getAdminConfig().getTriggerBatchWindowMs();
+		if (windowMs <= 0) {
+			// not batched
+			return;
+		}
+
+		// flush thread: flush every window
+		flushThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!toStop) {
+					try {
+						TimeUnit.MILLISECONDS.sleep(windowMs);
+					} catch (InterruptedException e) {
+						if (!toStop) {
+							logger.error(e.getMessage(), e);
+						}
+					}
+					try {
+						flushAll();
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobTriggerBatchHelper#flushThread error:{}", e);
+						}
+					}
+				}
+				logger.info(">>>>>>>>>>> xxl-job, JobTriggerBatchHelper#flushThread stop");
+			}
+		});
+		flushThread.setDaemon(true);
+		flushThread.setName("xxl-job, admin JobTriggerBatchHelper#flushThread");
+		flushThread.start();
+
+		running = true;
+	}
+
+	public void toStop() {
+		if (flushThread == null) {
+			return;
+		}
+		// send directly from now on
+		running = false;
+		toStop = true;
+
+		// stop flush thread (interrupt and wait)
+		flushThread.interrupt();
+		try {
+			flushThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// flush remaining
+		flushAll();
+
+		// not flushed (should not happen), complete, the trigger never hangs
+		for (LinkedBlockingQueue<BatchItem> batchQueue : batchQueueMap.values()) {
+			List<BatchItem> batch = new ArrayList<>();
+			batchQueue.drainTo(batch);
+			completeAll(batch, new ReturnT<String>(ReturnT.FAIL_CODE, "trigger batch stopped."));
+		}
+	}
+
+
+	// ---------------------- run ----------------------
+
+	/**
+	 * run, coalesced by address
+	 *
+	 * @return future of run result, never completed exceptionally
+	 */
+	public CompletableFuture<ReturnT<String>> run(String address, TriggerParam triggerParam) {
+		if (!running || address == null || isUnsupported(address)) {
+			return runOne(address, triggerParam);
+		}
+
+		BatchItem item = new BatchItem(triggerParam);
+		LinkedBlockingQueue<BatchItem> batchQueue = batchQueueMap.computeIfAbsent(address, k -> new LinkedBlockingQueue<BatchItem>());
+		batchQueue.add(item);
+		if (batchQueue.size() >= BATCH_MAX_SIZE
+				|| !running
+				|| batchQueueMap.get(address) != batchQueue) {
+			// full, not wait for the window; or stopped / queue removed after "add", not flushed by the flush thread
+			flush(address, batchQueue);
+		}
+		return item.future;
+	}
+
+	private void flushAll() {
+		for (Map.Entry<String, LinkedBlockingQueue<BatchItem>> entry : batchQueueMap.entrySet()) {
+			String address = entry.getKey();
+			LinkedBlockingQueue<BatchItem> batchQueue = entry.getValue();
+			if (!batchQueue.isEmpty()) {
+				flush(address, batchQueue);
+			} else if (batchQueueMap.remove(address, batchQueue) && !batchQueue.isEmpty()) {
+				// idle for a window, removed; item added meanwhile
+				flush(address, batchQueue);
+			}
+		}
+	}
+
+	private void flush(String address, LinkedBlockingQueue<BatchItem> batchQueue) {
+		List<BatchItem> batch = new ArrayList<>();
+		while (batchQueue.drainTo(batch, BATCH_MAX_SIZE) > 0) {
+			send(address, batch);
+			batch = new ArrayList<>();
+		}
+	}
+
+	private void send(final String address, final List<BatchItem> batch) {
+		if (batch.size() == 1) {
+			BatchItem item = batch.get(0);
+			runOne(address, item.triggerParam).thenAccept(item.future::complete);
+			return;
+		}
+
+		List<TriggerParam> triggerParamList = new ArrayList<>(batch.size());
+		for (BatchItem item : batch) {
+			triggerParamList.add(item.triggerParam);
+		}
+
+		CompletableFuture<ReturnT<List<ReturnT<String>>>> batchFuture;
+		try {
+			ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
+			batchFuture = executorBiz.runBatchAsync(triggerParamList);
+		} catch (Exception e) {
+			logger.error(">>>>>>>>>>> xxl-job trigger error, please check if the executor[{}] is running.", address, e);
+			completeAll(batch, new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e)));
+			return;
+		}
+
+		batchFuture.whenComplete((batchResult, e) -> {
+			if (e != null) {
+				completeAll(batch, new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e)));
+			} else if (batchResult.getCode() == ReturnT.SUCCESS_CODE
+					&& batchResult.getContent() != null
+					&& batchResult.getContent().size() == batch.size()) {
+				for (int i = 0; i < batch.size(); i++) {
+					ReturnT<String> result = batchResult.getContent().get(i);
+					batch.get(i).future.complete(result != null ? result : new ReturnT<String>(ReturnT.FAIL_CODE, "run result empty."));
+				}
+			} else if (batchResult.getMsg() != null && batchResult.getMsg().contains("uri-mapping")) {
+				// old executor, not run at all; run one by one
+				logger.info(">>>>>>>>>>> xxl-job, executor[{}] not support runBatch, run one by one.", address);
+				unsupportedAddressMap.put(address, System.currentTimeMillis() + UNSUPPORTED_TIMEOUT);
+				for (BatchItem item : batch) {
+					runOne(address, item.triggerParam).thenAccept(item.future::complete);
+				}
+			} else {
+				completeAll(batch, new ReturnT<String>(batchResult.getCode(), batchResult.getMsg()));
+			}
+		});
+	}
+
+	private CompletableFuture<ReturnT<String>> runOne(String address, TriggerParam triggerParam) {
+		try {
+			ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
+			return executorBiz.runAsync(triggerParam);
+		} catch (Exception e) {
+			logger.error(">>>>>>>>>>> xxl-job trigger error, please check if the executor[{}] is running.", address, e);
+			return CompletableFuture.completedFuture(new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e)));
+		}
+	}
+
+	private boolean isUnsupported(String address) {
+		Long expireTime = unsupportedAddressMap.get(address);
+		if (expireTime == null) {
+			return false;
+		}
+		if (expireTime < System.currentTimeMillis()) {
+			unsupportedAddressMap.remove(address, expireTime);
+			return false;
+		}
+		return true;
+	}
+
+	private static void completeAll(List<BatchItem> batch, ReturnT<String> result) {
+		for (BatchItem item : batch) {
+			item.future.complete(result);
+		}
+	}
+
+	private static class BatchItem {
+		private final TriggerParam triggerParam;
+		private final CompletableFuture<ReturnT<String>> future = new CompletableFuture<>();
+
+		private BatchItem(TriggerParam triggerParam) {
+			this.triggerParam = triggerParam;
+		}
+	}
+
+}
@@ -1,17 +1,33 @@
 package com.xxl.job.admin.core.thread;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
 import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
 import com.xxl.job.admin.core.trigger.XxlJobTrigger;
+import com.xxl.job.admin.core.util.I18nUtil;
+import com.xxl.job.core.biz.model.ReturnT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * job trigger thread pool helper
  *
+ * 1、tier: fast / slow pool, thread max and queue bound configurable; trigger goes to fast tier by default;
+ * 2、route: by per-job EWMA of trigger cost, job moves to slow tier when EWMA exceeds "slow.threshold", and back when below half of it,
+ *    so a burst of slow trigger moves the job away in a few triggers, and it recovers as soon as the executor is fast again;
+ *    cost is measured until the trigger completes (executor responded), trigger is async; cost of removed / stopped / idle job is evicted;
+ * 3、rejection: tier queue full, a misfire log (trigger fail) is written instead of throwing to the submitting thread (time-ring / schedule thread),
+ *    built on the log writer thread, the submitting thread never reads db; fail monitor alarms it;
+ *
  * @author xuxueli 2018-07-03 21:08:07
  */
 public class JobTriggerPoolHelper {
@@ -20,12 +36,16 @@ public class JobTriggerPoolHelper {
 
 	// ---------------------- trigger pool ----------------------
 	private static JobTriggerPoolHelper helper = new JobTriggerPoolHelper();
-	// fast/slow thread pool
-	private ThreadPoolExecutor fastTriggerPool = null;
-	private ThreadPoolExecutor slowTriggerPool = null;
-	// job timeout count
-	private volatile long minTim = System.currentTimeMillis() / 60000;     // ms > min
-	private volatile ConcurrentMap<Integer, AtomicInteger> jobTimeoutCountMap = new ConcurrentHashMap<>();
+	// fast/slow tier
+	private TriggerTier fastTier = null;
+	private TriggerTier slowTier = null;
+	// job trigger cost, ewma
+	private static final double COST_EWMA_ALPHA = 0.2;
+	private static final long COST_EXPIRE = 24 * 60 * 60 * 1000;       // ms, job not triggered in it (e.g. removed on other admin node)
+	private static final long COST_SWEEP_INTERVAL = 60 * 60 * 1000;    // ms
+	private volatile long slowThreshold = 500;      // ms
+	private final ConcurrentMap<Integer, JobCost> jobCostMap = new ConcurrentHashMap<>();
+	private volatile long nextSweepTime = System.currentTimeMillis() + COST_SWEEP_INTERVAL;
 
 	public static void toStart() {
 		helper.start();
@@ -52,50 +72,37 @@ public class JobTriggerPoolHelper {
 	}
 
 	/**
-	 * 这里分别初始化了2个线程池，一个快一个慢，优先选择快，当一分钟以内任务超过10次执行时间超过500ms，则加入慢线程池执行。
+	 * job removed or stopped, evict its trigger cost
+	 */
+	public static void removeJob(int jobId) {
+		helper.jobCostMap.remove(jobId);
+	}
+
+	/**
+	 * 这里分别初始化了2个线程池，一个快一个慢，优先选择快，任务触发耗时 EWMA 超过阈值时，则加入慢线程池执行。
 	 */
 	public void start() {
-		//最大200线程，最多处理1000任务
-		fastTriggerPool = new ThreadPoolExecutor(
-				10,
-				XxlJobAdminConfig.getAdminConfig().getTriggerPoolFastMax(),
-				60L,
-				TimeUnit.SECONDS,
-				new LinkedBlockingQueue<Runnable>(1000),
-				new ThreadFactory() {
-					@Override
-					public Thread newThread(Runnable r) {
-						return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-fastTriggerPool-" + r.hashCode());
-					}
-				});
-
-		//最大100线程，最多处理2000任务
-		//一分钟内超时10次，则采用慢触发器执行
-		slowTriggerPool = new ThreadPoolExecutor(
-				10,
-				XxlJobAdminConfig.getAdminConfig().getTriggerPoolSlowMax(),
-				60L,
-				TimeUnit.SECONDS,
-				new LinkedBlockingQueue<Runnable>(2000),
-				new ThreadFactory() {
-					@Override
-					public Thread newThread(Runnable r) {
-						return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-slowTriggerPool-" + r.hashCode());
-					}
-				});
+		XxlJobAdminConfig adminConfig = XxlJobAdminConfig.getAdminConfig();
+		slowThreshold = adminConfig.getTriggerPoolSlowThreshold();
+
+		//默认最大200线程，最多处理1000任务
+		fastTier = new TriggerTier("fast", adminConfig.getTriggerPoolFastMax(), adminConfig.getTriggerPoolFastQueue());
+
+		//默认最大100线程，最多处理2000任务
+		slowTier = new TriggerTier("slow", adminConfig.getTriggerPoolSlowMax(), adminConfig.getTriggerPoolSlowQueue());
 	}
 
 	public void stop() {
 		//triggerPool.shutdown();
-		fastTriggerPool.shutdownNow();
-		slowTriggerPool.shutdownNow();
+		fastTier.pool.shutdownNow();
+		slowTier.pool.shutdownNow();
 		logger.info(">>>>>>>>> xxl-job trigger thread pool shutdown success.");
 	}
 
 	/**
 	 * add trigger
-	 * 执行任务时，首先判断这个任务是否是个慢任务，如果是个慢任务且慢执行的次数超过了10次将会使用slowTriggerPool慢线程池，
-	 * 它的统计周期为60秒，这里是个优化点，当有大量的任务被执行时，为了防止任务被阻塞，尽可能的会先让执行快的任务优先执行。
+	 * 执行任务时，首先判断这个任务是否是个慢任务（触发耗时 EWMA 超过阈值），如果是则使用slowTriggerPool慢线程池，
+	 * 当有大量的任务被执行时，为了防止任务被阻塞，尽可能的会先让执行快的任务优先执行。
 	 */
 	public void addTrigger(final int jobId, // 任务id
 						   final TriggerTypeEnum triggerType, // 执行来源
@@ -104,52 +111,175 @@ public class JobTriggerPoolHelper {
 						   final String executorParam,   // 执行入参
 						   final String addressList) {  // 可用执行器的地址，用逗号分割
 
-		// choose thread pool
-		// 默认使用fastTriggerPool
-		ThreadPoolExecutor triggerPool_ = fastTriggerPool;
-		AtomicInteger jobTimeoutCount = jobTimeoutCountMap.get(jobId);
-		// 如果发现任务一分钟内有大于10次的慢执行，换slowTriggerPool线程池
-		if (jobTimeoutCount != null && jobTimeoutCount.get() > 10) {      // job-timeout 10 times in 1 min
-			triggerPool_ = slowTriggerPool;
-		}
+		// choose tier
+		// 默认使用fastTriggerPool，慢任务换slowTriggerPool线程池
+		JobCost jobCost = jobCostMap.get(jobId);
+		TriggerTier tier = (jobCost != null && jobCost.slow) ? slowTier : fastTier;
 
 		// trigger
-		// 线程池执行
-		triggerPool_.execute(new Runnable() {
-			@Override
-			public void run() {
-				long start = System.currentTimeMillis();
-
-				try {
-					// do trigger
-					// 触发
-					XxlJobTrigger.trigger(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList);
-				} catch (Exception e) {
-					logger.error(e.getMessage(), e);
-				} finally {
-
-					// check timeout-count-map
-					// 到达下一个周期则清理上一个周期数据
-					long minTim_now = System.currentTimeMillis() / 60000;
-					if (minTim != minTim_now) {
-						minTim = minTim_now;
-						jobTimeoutCountMap.clear();
-					}
-
-					// incr timeout-count-map
-					// 记录慢任务执行次数
-					long cost = System.currentTimeMillis() - start;
-					if (cost > 500) {       // ob-timeout threshold 500ms
-						AtomicInteger timeoutCount = jobTimeoutCountMap.putIfAbsent(jobId, new AtomicInteger(1));
-						if (timeoutCount != null) {
-							timeoutCount.incrementAndGet();
-						}
-					}
+		// 线程池执行，队列满时由 rejectedExecution 记录 misfire 日志
+		tier.pool.execute(new TriggerTask(tier, jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList));
+	}
 
-				}
+	/**
+	 * record trigger cost
+	 */
+	private void recordCost(int jobId, long cost) {
+		JobCost jobCost = jobCostMap.get(jobId);
+		if (jobCost == null) {
+			jobCostMap.putIfAbsent(jobId, new JobCost());
+			jobCost = jobCostMap.get(jobId);
+		}
+		long nowTime = System.currentTimeMillis();
+		jobCost.record(cost, slowThreshold, nowTime);
+
+		// evict idle job, at most once per sweep interval
+		if (nowTime >= nextSweepTime) {
+			nextSweepTime = nowTime + COST_SWEEP_INTERVAL;
+			jobCostMap.values().removeIf(item -> item.recordTime < nowTime - COST_EXPIRE);
+		}
+	}
 
+	/**
+	 * tier queue full, write misfire log
+	 *
+	 * runs on the submitting thread (rejection handler): time-ring / schedule thread, or a manual trigger;
+	 * job info (may read db) is loaded by the log writer thread, not here
+	 */
+	private void misfire(TriggerTask task) {
+		task.tier.rejected.increment();
+		logger.warn(">>>>>>>>>>> xxl-job, trigger pool[{}] rejected, jobId:{}, triggerType:{}", task.tier.name, task.jobId, task.triggerType);
+
+		final Date triggerTime = new Date();
+		JobLogWriteHelper.getInstance().saveAsync(() -> {
+			XxlJobInfo jobInfo = XxlJobCache.getInstance().loadJobInfo(task.jobId);
+			if (jobInfo == null) {
+				return null;
 			}
+
+			XxlJobLog jobLog = new XxlJobLog();
+			jobLog.setJobGroup(jobInfo.getJobGroup());
+			jobLog.setJobId(jobInfo.getId());
+			jobLog.setTriggerTime(triggerTime);
+			jobLog.setExecutorAddress(task.addressList);
+			jobLog.setExecutorHandler(jobInfo.getExecutorHandler());
+			jobLog.setExecutorParam(task.executorParam != null ? task.executorParam : jobInfo.getExecutorParam());
+			jobLog.setExecutorShardingParam(task.executorShardingParam);
+			jobLog.setTriggerCode(ReturnT.FAIL_CODE);
+			jobLog.setTriggerMsg(I18nUtil.getString("jobconf_trigger_type") + "：" + task.triggerType.getTitle()
+					+ "<br>" + I18nUtil.getString("jobconf_trigger_pool_rejected") + "：" + task.tier.name);
+
+			JobLogReportHelper.getInstance().countTrigger(jobLog);
+			return jobLog;
 		});
 	}
 
+
+	// ---------------------- tier ----------------------
+
+	private class TriggerTier {
+		private final String name;
+		private final ThreadPoolExecutor pool;
+		private final Timer waitTimer;
+		private final Counter rejected;
+
+		private TriggerTier(final String name, int maxSize, int queueSize) {
+			this.name = name;
+			this.pool = new ThreadPoolExecutor(
+					10,
+					maxSize,
+					60L,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(queueSize),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							return new Thread(r, "xxl-job, admin JobTriggerPoolHelper-" + name + "TriggerPool-" + r.hashCode());
+						}
+					},
+					new RejectedExecutionHandler() {
+						@Override
+						public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+							if (executor.isShutdown()) {
+								return;
+							}
+							misfire((TriggerTask) r);
+						}
+					});
+
+			this.waitTimer = Timer.builder("xxl.job.trigger.pool.wait")
+					.description("time from trigger submit to start")
+					.tag("tier", name)
+					.register(Metrics.globalRegistry);
+			this.rejected = Counter.builder("xxl.job.trigger.pool.rejected")
+					.tag("tier", name)
+					.register(Metrics.globalRegistry);
+			Gauge.builder("xxl.job.trigger.pool.queue", pool, executor -> executor.getQueue().size())
+					.tag("tier", name)
+					.strongReference(true)
+					.register(Metrics.globalRegistry);
+			Gauge.builder("xxl.job.trigger.pool.active", pool, ThreadPoolExecutor::getActiveCount)
+					.tag("tier", name)
+					.strongReference(true)
+					.register(Metrics.globalRegistry);
+		}
+	}
+
+	private class TriggerTask implements Runnable {
+		private final TriggerTier tier;
+		private final int jobId;
+		private final TriggerTypeEnum triggerType;
+		private final int failRetryCount;
+		private final String executorShardingParam;
+		private final String executorParam;
+		private final String addressList;
+		private final long submitTime = System.nanoTime();
+
+		private TriggerTask(TriggerTier tier, int jobId, TriggerTypeEnum triggerType, int failRetryCount, String executorShardingParam, String executorParam, String addressList) {
+			this.tier = tier;
+			this.jobId = jobId;
+			this.triggerType = triggerType;
+			this.failRetryCount = failRetryCount;
+			this.executorShardingParam = executorShardingParam;
+			this.executorParam = executorParam;
+			this.addressList = addressList;
+		}
+
+		@Override
+		public void run() {
+			final long start = System.nanoTime();
+			tier.waitTimer.record(start - submitTime, TimeUnit.NANOSECONDS);
+
+			try {
+				// do trigger
+				// 触发（异步），执行器响应后记录触发耗时，含执行器往返
+				XxlJobTrigger.trigger(jobId, triggerType, failRetryCount, executorShardingParam, executorParam, addressList)
+						.whenComplete((result, e) -> recordCost(jobId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+			} catch (Exception e) {
+				logger.error(e.getMessage(), e);
+				// 记录触发耗时
+				recordCost(jobId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			}
+		}
+	}
+
+	/**
+	 * EWMA of trigger cost, with hysteresis: slow when above threshold, fast again when below half of it
+	 */
+	private static class JobCost {
+		private double ewma = 0;
+		private volatile boolean slow = false;
+		private volatile long recordTime;
+
+		private synchronized void record(long cost, long threshold, long nowTime) {
+			recordTime = nowTime;
+			ewma = ewma + COST_EWMA_ALPHA * (cost - ewma);
+			if (!slow && ewma > threshold) {
+				slow = true;
+			} else if (slow && ewma < threshold / 2.0) {
+				slow = false;
+			}
+		}
+	}
+
 }
@@ -1,22 +1,30 @@
 package com.xxl.job.admin.core.trigger;
 
-import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.cache.XxlJobCache;
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobInfo;
 import com.xxl.job.admin.core.model.XxlJobLog;
 import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
-import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.admin.core.thread.JobLogReportHelper;
+import com.xxl.job.admin.core.thread.JobLogWriteHelper;
+import com.xxl.job.admin.core.thread.JobTriggerBatchHelper;
 import com.xxl.job.admin.core.util.I18nUtil;
-import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.ReturnT;
 import com.xxl.job.core.biz.model.TriggerParam;
 import com.xxl.job.core.enums.ExecutorBlockStrategyEnum;
 import com.xxl.job.core.util.IpUtil;
-import com.xxl.job.core.util.ThrowableUtil;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * xxl-job trigger
@@ -25,6 +33,13 @@ import java.util.Date;
 public class XxlJobTrigger {
 	private static Logger logger = LoggerFactory.getLogger(XxlJobTrigger.class);
 
+	private static final int BROADCAST_FANOUT = 64;             // shards in flight of one broadcast, at most
+	private static final long BROADCAST_TIMEOUT = 10 * 1000;    // shard not started in it fails, ms
+	private static final Timer BROADCAST_SPREAD = Timer.builder("xxl.job.trigger.broadcast.spread")
+			.description("time from the first shard start to the last shard start of a sharding broadcast")
+			.publishPercentileHistogram()
+			.register(Metrics.globalRegistry);
+
 	/**
 	 * trigger job
 	 *
@@ -37,8 +52,9 @@ public class XxlJobTrigger {
 	 *                              not null: cover job param
 	 * @param addressList           null: use executor addressList
 	 *                              not null: cover
+	 * @return completes when the trigger is done (executor responded or trigger failed, trigger info saved)
 	 */
-	public static void trigger(int jobId,   // 任务id
+	public static CompletableFuture<Void> trigger(int jobId,   // 任务id
 							   TriggerTypeEnum triggerType,  // 执行来源
 							   int failRetryCount,   // 失败重试次数
 							   String executorShardingParam,    // 分片广播参数
@@ -46,11 +62,11 @@ public class XxlJobTrigger {
 							   String addressList) {  // 可用执行器的地址，用逗号分割
 
 		// load data
-		// 从JobInfo表中获取任务信息
-		XxlJobInfo jobInfo = XxlJobAdminConfig.getAdminConfig().getXxlJobInfoDao().loadById(jobId);
+		// 获取任务信息（缓存，未命中时从JobInfo表加载）
+		XxlJobInfo jobInfo = XxlJobCache.getInstance().loadJobInfo(jobId);
 		if (jobInfo == null) {
 			logger.warn(">>>>>>>>>>>> trigger fail, jobId invalid，jobId={}", jobId);
-			return;
+			return CompletableFuture.completedFuture(null);
 		}
 		// 设置任务入参
 		if (executorParam != null) {
@@ -59,7 +75,12 @@ public class XxlJobTrigger {
 		int finalFailRetryCount = failRetryCount >= 0 ? failRetryCount : jobInfo.getExecutorFailRetryCount();
 		// 根据任务的分组信息找到分组，分组中存在服务器的IP和端口地址等
 		// 获得执行器
-		XxlJobGroup group = XxlJobAdminConfig.getAdminConfig().getXxlJobGroupDao().load(jobInfo.getJobGroup());
+		XxlJobGroup group = XxlJobCache.getInstance().loadGroup(jobInfo.getJobGroup());
+
+		// auto registry, address from in-memory registry; address_list of the group row before it is loaded
+		if (group != null && group.getAddressType() == 0 && XxlJobRegistryCache.getInstance().isLoaded()) {
+			group.setAddressList(XxlJobRegistryCache.getInstance().getAddressList(group.getAppname()));
+		}
 
 		// cover addressList
 		// 录入执行器地址
@@ -84,16 +105,14 @@ public class XxlJobTrigger {
 		if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null)
 				&& group.getRegistryList() != null && !group.getRegistryList().isEmpty()
 				&& shardingParam == null) {
-			for (int i = 0; i < group.getRegistryList().size(); i++) {
-				// 分片广播会通知每一个执行器
-				processTrigger(group, jobInfo, finalFailRetryCount, triggerType, i, group.getRegistryList().size());
-			}
+			// 分片广播会通知每一个执行器，并行触发
+			return processBroadcastTrigger(group, jobInfo, finalFailRetryCount, triggerType);
 		} else {
 			if (shardingParam == null) {
 				shardingParam = new int[]{0, 1};
 			}
 			// do 其他执行策略
-			processTrigger(group, jobInfo, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1]);
+			return processTrigger(group, jobInfo, finalFailRetryCount, triggerType, shardingParam[0], shardingParam[1]);
 		}
 
 	}
@@ -115,105 +134,277 @@ public class XxlJobTrigger {
 	 * @param index               sharding index
 	 * @param total               sharding total
 	 */
-	private static void processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total) {
-
-		// param
-		// 阻塞策略(先判断并行还是串行)
-		ExecutorBlockStrategyEnum blockStrategy = ExecutorBlockStrategyEnum.match(jobInfo.getExecutorBlockStrategy(), ExecutorBlockStrategyEnum.SERIAL_EXECUTION);  // block strategy
-		// 获取路由策略,默认first
-		ExecutorRouteStrategyEnum executorRouteStrategyEnum = ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null);    // route strategy
-		// 分片广播参数
-		String shardingParam = (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) ? String.valueOf(index).concat("/").concat(String.valueOf(total)) : null;
+	private static CompletableFuture<Void> processTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total) {
 
 		// 1、save log-id
-		// 存储任务执行日志
+		// 存储任务执行日志（预分配日志ID，批量写入，写入完成后再触发执行器）
+		XxlJobLog jobLog = newJobLog(jobInfo, new Date());
+		JobLogWriteHelper.getInstance().save(jobLog);
+		logger.debug(">>>>>>>>>>> xxl-job trigger start, jobId:{}", jobLog.getId());
+
+		// 2~6、trigger, then save log trigger-info
+		final ShardTrigger shardTrigger = new ShardTrigger(group, jobInfo, finalFailRetryCount, triggerType, index, total, jobLog);
+		return shardTrigger.run().thenAccept(shardTrigger::finish).exceptionally(e -> {
+			logger.error(">>>>>>>>>>> xxl-job trigger finish error, jobLogId:{}", jobLog.getId(), e);
+			return null;
+		});
+	}
+
+	/**
+	 * sharding broadcast, to every executor of the group, in parallel
+	 *
+	 * 1、log: logs of all shards are saved by one group commit, before any executor is called;
+	 * 2、fan-out: BROADCAST_FANOUT shards in flight at most, the next shard starts when one completes;
+	 * 3、deadline: shard not started in BROADCAST_TIMEOUT fails without being sent, in flight one is bounded by the remoting timeout;
+	 * 4、result: each shard log is updated as it completes, the summary is logged when all complete;
+	 */
+	private static CompletableFuture<Void> processBroadcastTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType) {
+		int total = group.getRegistryList().size();
+
+		// 1、save log-id of all shards
+		Date triggerTime = new Date();
+		List<XxlJobLog> jobLogList = new ArrayList<XxlJobLog>(total);
+		for (int i = 0; i < total; i++) {
+			jobLogList.add(newJobLog(jobInfo, triggerTime));
+		}
+		List<XxlJobLog> savedList = JobLogWriteHelper.getInstance().saveBatch(jobLogList);
+
+		List<ShardTrigger> shardList = new ArrayList<ShardTrigger>(total);
+		for (int i = 0; i < total; i++) {
+			// shard fail to save is not triggered, as a single trigger fail to save
+			if (savedList.size() == total || savedList.contains(jobLogList.get(i))) {
+				shardList.add(new ShardTrigger(group, jobInfo, finalFailRetryCount, triggerType, i, total, jobLogList.get(i)));
+			}
+		}
+		if (shardList.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		logger.debug(">>>>>>>>>>> xxl-job broadcast trigger start, jobId:{}, total:{}", jobInfo.getId(), total);
+
+		// 2、run shards
+		BroadcastTrigger broadcastTrigger = new BroadcastTrigger(jobInfo.getId(), shardList);
+		for (int i = 0; i < Math.min(BROADCAST_FANOUT, shardList.size()); i++) {
+			broadcastTrigger.dispatch();
+		}
+		return broadcastTrigger.done;
+	}
+
+	private static XxlJobLog newJobLog(XxlJobInfo jobInfo, Date triggerTime) {
 		XxlJobLog jobLog = new XxlJobLog();
 		jobLog.setJobGroup(jobInfo.getJobGroup());
 		jobLog.setJobId(jobInfo.getId());
-		jobLog.setTriggerTime(new Date());
-		XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().save(jobLog);
-		logger.debug(">>>>>>>>>>> xxl-job trigger start, jobId:{}", jobLog.getId());
+		jobLog.setTriggerTime(triggerTime);
+		return jobLog;
+	}
+
+	/**
+	 * trigger of one shard, with its log saved
+	 */
+	private static class ShardTrigger {
+		private final XxlJobGroup group;
+		private final XxlJobInfo jobInfo;
+		private final int finalFailRetryCount;
+		private final TriggerTypeEnum triggerType;
+		private final int index;
+		private final int total;
+		private final XxlJobLog jobLog;
+
+		private final ExecutorRouteStrategyEnum executorRouteStrategyEnum;
+		private final String shardingParam;
+		private volatile String address;
+		private volatile ReturnT<String> routeAddressResult;
+
+		private ShardTrigger(XxlJobGroup group, XxlJobInfo jobInfo, int finalFailRetryCount, TriggerTypeEnum triggerType, int index, int total, XxlJobLog jobLog) {
+			this.group = group;
+			this.jobInfo = jobInfo;
+			this.finalFailRetryCount = finalFailRetryCount;
+			this.triggerType = triggerType;
+			this.index = index;
+			this.total = total;
+			this.jobLog = jobLog;
+
+			// 获取路由策略,默认first
+			this.executorRouteStrategyEnum = ExecutorRouteStrategyEnum.match(jobInfo.getExecutorRouteStrategy(), null);    // route strategy
+			// 分片广播参数
+			this.shardingParam = (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) ? String.valueOf(index).concat("/").concat(String.valueOf(total)) : null;
+		}
+
+		/**
+		 * route, and trigger remote executor
+		 */
+		private CompletableFuture<ReturnT<String>> run() {
+
+			// 2、init trigger-param
+			// 初始化请求参数
+			TriggerParam triggerParam = new TriggerParam();
+			triggerParam.setJobId(jobInfo.getId());
+			triggerParam.setExecutorHandler(jobInfo.getExecutorHandler());
+			triggerParam.setExecutorParams(jobInfo.getExecutorParam());
+			triggerParam.setExecutorBlockStrategy(jobInfo.getExecutorBlockStrategy());
+			triggerParam.setExecutorTimeout(jobInfo.getExecutorTimeout());
+			triggerParam.setLogId(jobLog.getId());
+			triggerParam.setLogDateTime(jobLog.getTriggerTime().getTime());
+			triggerParam.setGlueType(jobInfo.getGlueType());
+			triggerParam.setGlueSource(jobInfo.getGlueSource());
+			triggerParam.setGlueUpdatetime(jobInfo.getGlueUpdatetime().getTime());
+			triggerParam.setBroadcastIndex(index);
+			triggerParam.setBroadcastTotal(total);
 
-		// 2、init trigger-param
-		// 初始化请求参数
-		TriggerParam triggerParam = new TriggerParam();
-		triggerParam.setJobId(jobInfo.getId());
-		triggerParam.setExecutorHandler(jobInfo.getExecutorHandler());
-		triggerParam.setExecutorParams(jobInfo.getExecutorParam());
-		triggerParam.setExecutorBlockStrategy(jobInfo.getExecutorBlockStrategy());
-		triggerParam.setExecutorTimeout(jobInfo.getExecutorTimeout());
-		triggerParam.setLogId(jobLog.getId());
-		triggerParam.setLogDateTime(jobLog.getTriggerTime().getTime());
-		triggerParam.setGlueType(jobInfo.getGlueType());
-		triggerParam.setGlueSource(jobInfo.getGlueSource());
-		triggerParam.setGlueUpdatetime(jobInfo.getGlueUpdatetime().getTime());
-		triggerParam.setBroadcastIndex(index);
-		triggerParam.setBroadcastTotal(total);
-
-		// 3、init address
-		// 决策路由执行地址
-		String address = null;
-		ReturnT<String> routeAddressResult = null;
-		if (group.getRegistryList() != null && !group.getRegistryList().isEmpty()) {
-			if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) {
-				// 分片广播逻辑
-				if (index < group.getRegistryList().size()) {
-					address = group.getRegistryList().get(index);
+			// 3、init address
+			// 决策路由执行地址
+			if (group.getRegistryList() != null && !group.getRegistryList().isEmpty()) {
+				if (ExecutorRouteStrategyEnum.SHARDING_BROADCAST == executorRouteStrategyEnum) {
+					// 分片广播逻辑
+					if (index < group.getRegistryList().size()) {
+						address = group.getRegistryList().get(index);
+					} else {
+						address = group.getRegistryList().get(0);
+					}
 				} else {
-					address = group.getRegistryList().get(0);
+					// 通过我们指定的策略选择地址
+					routeAddressResult = executorRouteStrategyEnum.getRouter().route(triggerParam, group.getRegistryList());
+					if (routeAddressResult.getCode() == ReturnT.SUCCESS_CODE) {
+						address = routeAddressResult.getContent();
+					}
 				}
 			} else {
-				// 通过我们指定的策略选择地址
-				routeAddressResult = executorRouteStrategyEnum.getRouter().route(triggerParam, group.getRegistryList());
-				if (routeAddressResult.getCode() == ReturnT.SUCCESS_CODE) {
-					address = routeAddressResult.getContent();
+				routeAddressResult = new ReturnT<String>(ReturnT.FAIL_CODE, I18nUtil.getString("jobconf_trigger_address_empty"));
+			}
+
+			// do 4、trigger remote executor
+			// 触发远程执行：异步调用，触发线程不等待执行器响应，响应后再完成 5、6
+			if (address != null) {
+				return runExecutorAsync(triggerParam, address);
+			}
+			return CompletableFuture.completedFuture(new ReturnT<String>(ReturnT.FAIL_CODE, null));
+		}
+
+		/**
+		 * collect trigger info, and save log
+		 */
+		private void finish(ReturnT<String> triggerResult) {
+			// 阻塞策略(先判断并行还是串行)
+			ExecutorBlockStrategyEnum blockStrategy = ExecutorBlockStrategyEnum.match(jobInfo.getExecutorBlockStrategy(), ExecutorBlockStrategyEnum.SERIAL_EXECUTION);  // block strategy
+
+			// 5、collection trigger info
+			// 日志信息拼接
+			StringBuffer triggerMsgSb = new StringBuffer();
+			triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_type")).append("：").append(triggerType.getTitle());
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_admin_adress")).append("：").append(IpUtil.getIp());
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regtype")).append("：")
+					.append((group.getAddressType() == 0) ? I18nUtil.getString("jobgroup_field_addressType_0") : I18nUtil.getString("jobgroup_field_addressType_1"));
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regaddress")).append("：").append(group.getRegistryList());
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorRouteStrategy")).append("：").append(executorRouteStrategyEnum.getTitle());
+			if (shardingParam != null) {
+				triggerMsgSb.append("(" + shardingParam + ")");
+			}
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorBlockStrategy")).append("：").append(blockStrategy.getTitle());
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_timeout")).append("：").append(jobInfo.getExecutorTimeout());
+			triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorFailRetryCount")).append("：").append(finalFailRetryCount);
+
+			triggerMsgSb.append("<br><br><span style=\"color:#00c0ef;\" > >>>>>>>>>>>" + I18nUtil.getString("jobconf_trigger_run") + "<<<<<<<<<<< </span><br>")
+					.append((routeAddressResult != null && routeAddressResult.getMsg() != null) ? routeAddressResult.getMsg() + "<br><br>" : "").append(triggerResult.getMsg() != null ? triggerResult.getMsg() : "");
+
+			// 6、save log trigger-info
+			// 存储任务执行日志信息（异步批量更新）
+			jobLog.setExecutorAddress(address);
+			jobLog.setExecutorHandler(jobInfo.getExecutorHandler());
+			jobLog.setExecutorParam(jobInfo.getExecutorParam());
+			jobLog.setExecutorShardingParam(shardingParam);
+			jobLog.setExecutorFailRetryCount(finalFailRetryCount);
+			//jobLog.setTriggerTime();
+			jobLog.setTriggerCode(triggerResult.getCode());
+			jobLog.setTriggerMsg(triggerMsgSb.toString());
+			JobLogWriteHelper.getInstance().updateTriggerInfo(jobLog);
+			JobLogReportHelper.getInstance().countTrigger(jobLog);
+
+			logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+		}
+	}
+
+	/**
+	 * shards of one broadcast; each "dispatch" runs shards one after another, the next one when the previous completes
+	 */
+	private static class BroadcastTrigger {
+		private final int jobId;
+		private final List<ShardTrigger> shardList;
+		private final long startNanos = System.nanoTime();
+		private final long deadline = System.currentTimeMillis() + BROADCAST_TIMEOUT;
+
+		private final AtomicInteger nextShard = new AtomicInteger(0);
+		private final AtomicInteger successCount = new AtomicInteger(0);
+		private final AtomicInteger failCount = new AtomicInteger(0);
+		private final AtomicInteger timeoutCount = new AtomicInteger(0);
+		private final AtomicInteger completeCount = new AtomicInteger(0);
+		private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+
+		private BroadcastTrigger(int jobId, List<ShardTrigger> shardList) {
+			this.jobId = jobId;
+			this.shardList = shardList;
+		}
+
+		private void dispatch() {
+			while (true) {
+				int next = nextShard.getAndIncrement();
+				if (next >= shardList.size()) {
+					return;
+				}
+				final ShardTrigger shardTrigger = shardList.get(next);
+
+				CompletableFuture<ReturnT<String>> triggerFuture;
+				if (System.currentTimeMillis() > deadline) {
+					timeoutCount.incrementAndGet();
+					triggerFuture = CompletableFuture.completedFuture(new ReturnT<String>(ReturnT.FAIL_CODE,
+							"broadcast timeout, shard not started in " + BROADCAST_TIMEOUT + "ms"));
+				} else {
+					if (next == shardList.size() - 1) {
+						BROADCAST_SPREAD.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+					}
+					try {
+						triggerFuture = shardTrigger.run();
+					} catch (Exception e) {
+						logger.error(">>>>>>>>>>> xxl-job broadcast trigger error, jobLogId:{}", shardTrigger.jobLog.getId(), e);
+						triggerFuture = CompletableFuture.completedFuture(new ReturnT<String>(ReturnT.FAIL_CODE, e.getMessage()));
+					}
 				}
+
+				if (!triggerFuture.isDone()) {
+					// continue on completion, on the remoting event loop
+					triggerFuture.thenAccept(triggerResult -> {
+						complete(shardTrigger, triggerResult);
+						dispatch();
+					});
+					return;
+				}
+				// completed already (route fail, timeout), the next one in this loop
+				complete(shardTrigger, triggerFuture.join());
 			}
-		} else {
-			routeAddressResult = new ReturnT<String>(ReturnT.FAIL_CODE, I18nUtil.getString("jobconf_trigger_address_empty"));
 		}
 
-		// do 4、trigger remote executor
-		// 触发远程执行
-		ReturnT<String> triggerResult = null;
-		if (address != null) {
-			triggerResult = runExecutor(triggerParam, address);
-		} else {
-			triggerResult = new ReturnT<String>(ReturnT.FAIL_CODE, null);
-		}
-
-		// 5、collection trigger info
-		// 日志信息拼接
-		StringBuffer triggerMsgSb = new StringBuffer();
-		triggerMsgSb.append(I18nUtil.getString("jobconf_trigger_type")).append("：").append(triggerType.getTitle());
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_admin_adress")).append("：").append(IpUtil.getIp());
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regtype")).append("：")
-				.append((group.getAddressType() == 0) ? I18nUtil.getString("jobgroup_field_addressType_0") : I18nUtil.getString("jobgroup_field_addressType_1"));
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobconf_trigger_exe_regaddress")).append("：").append(group.getRegistryList());
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorRouteStrategy")).append("：").append(executorRouteStrategyEnum.getTitle());
-		if (shardingParam != null) {
-			triggerMsgSb.append("(" + shardingParam + ")");
-		}
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorBlockStrategy")).append("：").append(blockStrategy.getTitle());
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_timeout")).append("：").append(jobInfo.getExecutorTimeout());
-		triggerMsgSb.append("<br>").append(I18nUtil.getString("jobinfo_field_executorFailRetryCount")).append("：").append(finalFailRetryCount);
-
-		triggerMsgSb.append("<br><br><span style=\"color:#00c0ef;\" > >>>>>>>>>>>" + I18nUtil.getString("jobconf_trigger_run") + "<<<<<<<<<<< </span><br>")
-				.append((routeAddressResult != null && routeAddressResult.getMsg() != null) ? routeAddressResult.getMsg() + "<br><br>" : "").append(triggerResult.getMsg() != null ? triggerResult.getMsg() : "");
-
-		// 6、save log trigger-info
-		// 存储任务执行日志信息
-		jobLog.setExecutorAddress(address);
-		jobLog.setExecutorHandler(jobInfo.getExecutorHandler());
-		jobLog.setExecutorParam(jobInfo.getExecutorParam());
-		jobLog.setExecutorShardingParam(shardingParam);
-		jobLog.setExecutorFailRetryCount(finalFailRetryCount);
-		//jobLog.setTriggerTime();
-		jobLog.setTriggerCode(triggerResult.getCode());
-		jobLog.setTriggerMsg(triggerMsgSb.toString());
-		XxlJobAdminConfig.getAdminConfig().getXxlJobLogDao().updateTriggerInfo(jobLog);
-
-		logger.debug(">>>>>>>>>>> xxl-job trigger end, jobId:{}", jobLog.getId());
+		private void complete(ShardTrigger shardTrigger, ReturnT<String> triggerResult) {
+			try {
+				shardTrigger.finish(triggerResult);
+			} catch (Exception e) {
+				logger.error(">>>>>>>>>>> xxl-job trigger finish error, jobLogId:{}", shardTrigger.jobLog.getId(), e);
+			}
+
+			if (triggerResult.getCode() == ReturnT.SUCCESS_CODE) {
+				successCount.incrementAndGet();
+			} else {
+				failCount.incrementAndGet();
+			}
+			if (completeCount.incrementAndGet() == shardList.size()) {
+				if (failCount.get() > 0) {
+					logger.warn(">>>>>>>>>>> xxl-job broadcast trigger end, jobId:{}, total:{}, success:{}, fail:{} (timeout:{}), cost:{}ms",
+							jobId, shardList.size(), successCount.get(), failCount.get(), timeoutCount.get(),
+							TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+				} else {
+					logger.debug(">>>>>>>>>>> xxl-job broadcast trigger end, jobId:{}, total:{}, cost:{}ms",
+							jobId, shardList.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+				}
+				done.complete(null);
+			}
+		}
 	}
 
 	/**
@@ -224,25 +415,31 @@ public class XxlJobTrigger {
 	 * @return
 	 */
 	public static ReturnT<String> runExecutor(TriggerParam triggerParam, String address) {
-		ReturnT<String> runResult = null;
-		try {
-			// 获取业务执行器地址,就执行器地址后面拼接token
-			ExecutorBiz executorBiz = XxlJobScheduler.getExecutorBiz(address);
-			// 这里是Server，Server调用的是 ExecutorBizClient.run()
-			// client端执行的是 ExecutorBizImpl.run()
-			runResult = executorBiz.run(triggerParam);
-		} catch (Exception e) {
-			logger.error(">>>>>>>>>>> xxl-job trigger error, please check if the executor[{}] is running.", address, e);
-			runResult = new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e));
-		}
-
-		StringBuffer runResultSB = new StringBuffer(I18nUtil.getString("jobconf_trigger_run") + "：");
-		runResultSB.append("<br>address：").append(address);
-		runResultSB.append("<br>code：").append(runResult.getCode());
-		runResultSB.append("<br>msg：").append(runResult.getMsg());
-
-		runResult.setMsg(runResultSB.toString());
-		return runResult;
+		return runExecutorAsync(triggerParam, address).join();
 	}
 
+	/**
+	 * run executor, async; the future is completed on the remoting event loop, never exceptionally
+	 *
+	 * @param triggerParam 调用的所有参数
+	 * @param address      client的地址
+	 * @return
+	 */
+	public static CompletableFuture<ReturnT<String>> runExecutorAsync(TriggerParam triggerParam, final String address) {
+		// 同一执行器地址的调度请求在窗口内合并为一次 "/runBatch" 调用，Server调用的是 ExecutorBizClient.runBatchAsync()，连接池复用长连接
+		// client端执行的是 ExecutorBizImpl.run()
+		CompletableFuture<ReturnT<String>> runFuture = JobTriggerBatchHelper.getInstance().run(address, triggerParam);
+
+		return runFuture.thenApply(runResult -> {
+			StringBuffer runResultSB = new StringBuffer(I18nUtil.getString("jobconf_trigger_run") + "：");
+			runResultSB.append("<br>address：").append(address);
+			runResultSB.append("<br>code：").append(runResult.getCode());
+			runResultSB.append("<br>msg：").append(runResult.getMsg());
+
+			runResult.setMsg(runResultSB.toString());
+			return runResult;
+		});
+	}
+
+
 }
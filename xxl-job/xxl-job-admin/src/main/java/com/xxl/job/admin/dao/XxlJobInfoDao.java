@@ -43,9 +43,20 @@ public interface XxlJobInfoDao {
 
 	public int findAllCount();
 
-	public List<XxlJobInfo> scheduleJobQuery(@Param("maxNextTime") long maxNextTime, @Param("pagesize") int pagesize);
+	public List<XxlJobInfo> scheduleJobQuery(@Param("maxNextTime") long maxNextTime,
+											 @Param("pagesize") int pagesize,
+											 @Param("shardIds") List<Integer> shardIds);
+
+	public int updateShardId(@Param("id") int id, @Param("shardId") int shardId);
+
+	/**
+	 * set "shard_id" of every job to "id % shardTotal", for shard total changed or job added by old version
+	 */
+	public int refreshShardId(@Param("shardTotal") int shardTotal);
 
 	public int scheduleUpdate(XxlJobInfo xxlJobInfo);
 
+	public int scheduleUpdateBatch(@Param("list") List<XxlJobInfo> list);
+
 
 }
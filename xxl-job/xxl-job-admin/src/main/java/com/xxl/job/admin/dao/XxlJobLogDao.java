@@ -39,8 +39,25 @@ public interface XxlJobLogDao {
 
 	public int updateTriggerInfo(XxlJobLog xxlJobLog);
 
+	/**
+	 * insert with pre-allocated id, multi-row
+	 */
+	public int saveBatch(@Param("list") List<XxlJobLog> list);
+
+	public int updateTriggerInfoBatch(@Param("list") List<XxlJobLog> list);
+
 	public int updateHandleInfo(XxlJobLog xxlJobLog);
 
+	/**
+	 * log not handled (handle_code = 0), locked "for update"
+	 */
+	public List<XxlJobLog> loadForHandle(@Param("logIds") List<Long> logIds);
+
+	/**
+	 * multi-row, only log not handled (handle_code = 0)
+	 */
+	public int updateHandleInfoBatch(@Param("list") List<XxlJobLog> list);
+
 	public int delete(@Param("jobId") int jobId);
 
 	public Map<String, Object> findLogReport(@Param("from") Date from,
@@ -62,4 +79,11 @@ public interface XxlJobLogDao {
 
 	public List<Long> findLostJobIds(@Param("losedTime") Date losedTime);
 
+	public int saveFailOutbox(@Param("logIds") List<Long> logIds);
+
+	public List<Long> findFailOutbox(@Param("addTimeTo") Date addTimeTo,
+									 @Param("pagesize") int pagesize);
+
+	public int deleteFailOutbox(@Param("logId") long logId);
+
 }
@@ -19,6 +19,8 @@ public interface XxlJobLogReportDao {
 
 	public int update(XxlJobLogReport xxlJobLogReport);
 
+	public int updateIncrement(XxlJobLogReport xxlJobLogReport);
+
 	public List<XxlJobLogReport> queryLogReport(@Param("triggerDayFrom") Date triggerDayFrom,
 												@Param("triggerDayTo") Date triggerDayTo);
 
@@ -1,6 +1,7 @@
 package com.xxl.job.admin.dao;
 
 import com.xxl.job.admin.core.model.XxlJobRegistry;
+import com.xxl.job.admin.core.model.XxlJobRegistryEvent;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -35,4 +36,24 @@ public interface XxlJobRegistryDao {
 							  @Param("registryKey") String registryKey,
 							  @Param("registryValue") String registryValue);
 
+	public int registryUpdateBatch(@Param("ids") List<Integer> ids,
+								   @Param("updateTime") Date updateTime);
+
+	/**
+	 * update_time, and registry_load of each registry
+	 */
+	public int registryUpdateLoadBatch(@Param("registryList") List<XxlJobRegistry> registryList,
+									   @Param("updateTime") Date updateTime);
+
+	// ---------------------- registry event ----------------------
+
+	public int saveEvent(XxlJobRegistryEvent registryEvent);
+
+	public List<XxlJobRegistryEvent> findEvent(@Param("fromId") long fromId,
+											   @Param("pagesize") int pagesize);
+
+	public Long findMaxEventId();
+
+	public int clearEvent(@Param("addTimeTo") Date addTimeTo);
+
 }
@@ -0,0 +1,45 @@
+package com.xxl.job.admin.dao;
+
+import com.xxl.job.admin.core.model.XxlJobShardLease;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * schedule shard lease
+ */
+@Mapper
+public interface XxlJobShardLeaseDao {
+
+	public int save(@Param("shardId") int shardId);
+
+	public List<XxlJobShardLease> findAll(@Param("shardTotal") int shardTotal);
+
+	public int renew(@Param("owner") String owner,
+					 @Param("shardIds") List<Integer> shardIds,
+					 @Param("leaseTime") long leaseTime);
+
+	public int claim(@Param("shardId") int shardId,
+					 @Param("owner") String owner,
+					 @Param("leaseTime") long leaseTime,
+					 @Param("expireTime") long expireTime);
+
+	public int release(@Param("owner") String owner,
+					   @Param("shardIds") List<Integer> shardIds);
+
+	// ---------------------- node ----------------------
+
+	public int nodeBeat(@Param("nodeId") String nodeId,
+						@Param("beatTime") long beatTime);
+
+	public int nodeSave(@Param("nodeId") String nodeId,
+						@Param("beatTime") long beatTime);
+
+	public List<String> findAliveNode(@Param("expireTime") long expireTime);
+
+	public int nodeRemove(@Param("nodeId") String nodeId);
+
+	public int nodeRemoveDead(@Param("expireTime") long expireTime);
+
+}
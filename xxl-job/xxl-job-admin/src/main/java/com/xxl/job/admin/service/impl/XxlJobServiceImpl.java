@@ -1,5 +1,6 @@
 package com.xxl.job.admin.service.impl;
 
+import com.xxl.job.admin.core.cache.XxlJobCache;
 import com.xxl.job.admin.core.cron.CronExpression;
 import com.xxl.job.admin.core.model.XxlJobGroup;
 import com.xxl.job.admin.core.model.XxlJobInfo;
@@ -8,6 +9,8 @@ import com.xxl.job.admin.core.route.ExecutorRouteStrategyEnum;
 import com.xxl.job.admin.core.scheduler.MisfireStrategyEnum;
 import com.xxl.job.admin.core.scheduler.ScheduleTypeEnum;
 import com.xxl.job.admin.core.thread.JobScheduleHelper;
+import com.xxl.job.admin.core.thread.JobShardHelper;
+import com.xxl.job.admin.core.thread.JobTriggerPoolHelper;
 import com.xxl.job.admin.core.util.I18nUtil;
 import com.xxl.job.admin.dao.*;
 import com.xxl.job.admin.service.XxlJobService;
@@ -152,6 +155,10 @@ public class XxlJobServiceImpl implements XxlJobService {
 		if (jobInfo.getId() < 1) {
 			return new ReturnT<String>(ReturnT.FAIL_CODE, (I18nUtil.getString("jobinfo_field_add") + I18nUtil.getString("system_fail")));
 		}
+		if (JobShardHelper.getInstance().isSharded()) {
+			// shard by id, known after insert
+			xxlJobInfoDao.updateShardId(jobInfo.getId(), JobShardHelper.getInstance().shardOf(jobInfo.getId()));
+		}
 
 		return new ReturnT<String>(String.valueOf(jobInfo.getId()));
 	}
@@ -282,6 +289,7 @@ public class XxlJobServiceImpl implements XxlJobService {
 
 		exists_jobInfo.setUpdateTime(new Date());
 		xxlJobInfoDao.update(exists_jobInfo);
+		XxlJobCache.getInstance().invalidateJobInfo(exists_jobInfo.getId());
 
 
 		return ReturnT.SUCCESS;
@@ -295,6 +303,8 @@ public class XxlJobServiceImpl implements XxlJobService {
 		}
 
 		xxlJobInfoDao.delete(id);
+		XxlJobCache.getInstance().invalidateJobInfo(id);
+		JobTriggerPoolHelper.removeJob(id);
 		xxlJobLogDao.delete(id);
 		xxlJobLogGlueDao.deleteByJobId(id);
 		return ReturnT.SUCCESS;
@@ -329,6 +339,7 @@ public class XxlJobServiceImpl implements XxlJobService {
 
 		xxlJobInfo.setUpdateTime(new Date());
 		xxlJobInfoDao.update(xxlJobInfo);
+		XxlJobCache.getInstance().invalidateJobInfo(xxlJobInfo.getId());
 		return ReturnT.SUCCESS;
 	}
 
@@ -342,6 +353,8 @@ public class XxlJobServiceImpl implements XxlJobService {
 
 		xxlJobInfo.setUpdateTime(new Date());
 		xxlJobInfoDao.update(xxlJobInfo);
+		XxlJobCache.getInstance().invalidateJobInfo(xxlJobInfo.getId());
+		JobTriggerPoolHelper.removeJob(xxlJobInfo.getId());
 		return ReturnT.SUCCESS;
 	}
 
@@ -9,13 +9,16 @@ $(function() {
 
     // pull log
     var fromLineNum = 1;    // [from, to], start as 1
+    var fromOffset = 0;     // byte offset, -1 if the executor not support (read by line num)
     var pullFailCount = 0;
+    var logStopped = false;
     function pullLog() {
         // pullFailCount, max=20
         if (pullFailCount++ > 20) {
             logRunStop('<span style="color: red;">'+ I18n.joblog_rolling_log_failoften +'</span>');
-            return;
+            return false;
         }
+        var pullMore = false;
 
         // load
         console.log("pullLog, fromLineNum:" + fromLineNum);
@@ -28,7 +31,8 @@ $(function() {
                 "executorAddress":executorAddress,
                 "triggerTime":triggerTime,
                 "logId":logId,
-                "fromLineNum":fromLineNum
+                "fromLineNum":fromLineNum,
+                "fromOffset":fromOffset
             },
             dataType : "json",
             success : function(data){
@@ -42,12 +46,13 @@ $(function() {
                         console.log('pullLog fromLineNum not match');
                         return;
                     }
-                    if (fromLineNum > data.content.toLineNum ) {
+                    // no complete line read; a line longer than one read is appended by offset, counted by the read of its line end
+                    if (fromLineNum > data.content.toLineNum && !(data.content.toOffset > fromOffset)) {
                         console.log('pullLog already line-end');
 
                         // valid end
                         if (data.content.end) {
-                            logRunStop('<br><span style="color: green;">[Rolling Log Finish]</span>');
+                            logRunStop('<br><span style="color: green;">' + (handleCode > 0 ? '[Load Log Finish]' : '[Rolling Log Finish]') + '</span>');
                             return;
                         }
 
@@ -56,8 +61,10 @@ $(function() {
 
                     // append content
                     fromLineNum = data.content.toLineNum + 1;
+                    fromOffset = data.content.toOffset;
                     $('#logConsole').append(data.content.logContent);
                     pullFailCount = 0;
+                    pullMore = true;
 
                     // scroll to bottom
                     scrollTo(0, document.body.scrollHeight);        // $('#logConsolePre').scrollTop( document.body.scrollHeight + 300 );
@@ -67,22 +74,39 @@ $(function() {
                 }
             }
         });
+        return pullMore;
     }
 
-    // pull first page
-    pullLog();
+    // pull by chunk, until no more content (max 10 chunk once)
+    function pullLogChunks(maxCount) {
+        for (var i = 0; i < maxCount; i++) {
+            if (!pullLog()) {
+                return;
+            }
+        }
+    }
 
-    // handler already callback, end
+    // handler already callback, pull all and end
     if (handleCode > 0) {
-        logRunStop('<br><span style="color: green;">[Load Log Finish]</span>');
+        pullLogChunks(Number.MAX_VALUE);
+        if (!logStopped) {
+            logRunStop('<br><span style="color: green;">[Load Log Finish]</span>');
+        }
+        return;
+    }
+
+    // pull first page
+    pullLogChunks(10);
+    if (logStopped) {
         return;
     }
 
     // round until end
     var logRun = setInterval(function () {
-        pullLog()
+        pullLogChunks(10)
     }, 3000);
     function logRunStop(content){
+        logStopped = true;
         $('#logConsoleRunning').hide();
         logRun = window.clearInterval(logRun);
         $('#logConsole').append(content);
@@ -0,0 +1,178 @@
+package com.xxl.job.admin.core.cron;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * randomized equivalence of CompiledCronExpression and CronExpression, over the cron syntax and time zones
+ */
+public class CompiledCronExpressionTest {
+
+    private static final String[] TIME_ZONES = {"UTC", "Asia/Shanghai", "America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kathmandu"};
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private static final long FROM_TIME = 946684800000L;        // 2000-01-01
+    private static final long TO_TIME = 2871763200000L;         // 2061-01-01
+
+    @Test
+    public void shouldMatchCronExpression() throws ParseException {
+        Random random = new Random(20221018L);
+        for (int i = 0; i < 20000; i++) {
+            String cron = randomCron(random);
+            TimeZone timeZone = TimeZone.getTimeZone(TIME_ZONES[random.nextInt(TIME_ZONES.length)]);
+
+            CronExpression expression;
+            try {
+                expression = new CronExpression(cron);
+            } catch (ParseException e) {
+                continue;
+            }
+            expression.setTimeZone(timeZone);
+            CronExpression compiledExpression = new CronExpression(cron);
+            compiledExpression.setTimeZone(timeZone);
+            CompiledCronExpression compiled = new CompiledCronExpression(compiledExpression);
+
+            // "W" of CronExpression compares with the wall-clock millisecond, whole second only
+            int millisecond = cron.contains("W") ? 1000 : 1;
+            long time = FROM_TIME + (long) (random.nextDouble() * (TO_TIME - FROM_TIME)) / millisecond * millisecond;
+            for (int step = 0; step < 5; step++) {
+                Date expected = next(expression, time);
+                Date actual = next(compiled, time);
+                assertEquals(expected, actual, cron + " @" + timeZone.getID() + " after " + time);
+                if (expected == null) {
+                    break;
+                }
+                time = expected.getTime() + random.nextInt(3) * 500 / millisecond * millisecond;
+            }
+        }
+    }
+
+    @Test
+    public void shouldCacheCompiled() throws ParseException {
+        assertSame(CompiledCronExpression.compile("0 0/5 * * * ?"), CompiledCronExpression.compile("0 0/5 * * * ?"));
+    }
+
+    private static Date next(CronExpression expression, long time) {
+        try {
+            return expression.getNextValidTimeAfter(new Date(time));
+        } catch (UnsupportedOperationException e) {
+            return new Date(Long.MIN_VALUE);
+        }
+    }
+
+    private static Date next(CompiledCronExpression compiled, long time) {
+        try {
+            return compiled.getNextValidTimeAfter(new Date(time));
+        } catch (UnsupportedOperationException e) {
+            return new Date(Long.MIN_VALUE);
+        }
+    }
+
+
+    // ---------------------- random cron ----------------------
+
+    private static String randomCron(Random random) {
+        String second = randomField(random, 0, 59, null);
+        String minute = randomField(random, 0, 59, null);
+        String hour = randomField(random, 0, 23, null);
+        String month = randomField(random, 1, 12, MONTH_NAMES);
+
+        String dayOfMonth;
+        String dayOfWeek;
+        int dayRule = random.nextInt(10);
+        if (dayRule < 5) {
+            dayOfMonth = randomDayOfMonth(random);
+            dayOfWeek = "?";
+        } else if (dayRule < 9) {
+            dayOfMonth = "?";
+            dayOfWeek = randomDayOfWeek(random);
+        } else {
+            // both, not supported
+            dayOfMonth = randomField(random, 1, 31, null);
+            dayOfWeek = randomField(random, 1, 7, DAY_NAMES);
+        }
+
+        String cron = second + " " + minute + " " + hour + " " + dayOfMonth + " " + month + " " + dayOfWeek;
+        switch (random.nextInt(4)) {
+            case 0:
+                return cron + " *";
+            case 1:
+                int year = 2000 + random.nextInt(70);
+                return cron + " " + year + (random.nextBoolean() ? "-" + (year + random.nextInt(20)) : "/" + (1 + random.nextInt(5)));
+            default:
+                return cron;
+        }
+    }
+
+    private static String randomDayOfMonth(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return "L";
+            case 1:
+                return "L-" + random.nextInt(31);
+            case 2:
+                return "LW";
+            case 3:
+                return (1 + random.nextInt(31)) + "W";
+            default:
+                return randomField(random, 1, 31, null);
+        }
+    }
+
+    private static String randomDayOfWeek(Random random) {
+        int day = 1 + random.nextInt(7);
+        String dayStr = random.nextBoolean() ? String.valueOf(day) : DAY_NAMES[day - 1];
+        switch (random.nextInt(8)) {
+            case 0:
+                return dayStr + "L";
+            case 1:
+                return "L";
+            case 2:
+                return dayStr + "#" + (1 + random.nextInt(5));
+            default:
+                return randomField(random, 1, 7, DAY_NAMES);
+        }
+    }
+
+    /**
+     * "*", value, range (may wrap), step, list
+     */
+    private static String randomField(Random random, int min, int max, String[] names) {
+        switch (random.nextInt(7)) {
+            case 0:
+                return "*";
+            case 1:
+                return randomValue(random, min, max, names);
+            case 2:
+                return randomValue(random, min, max, names) + "-" + randomValue(random, min, max, names);
+            case 3:
+                return (random.nextBoolean() ? "*" : String.valueOf(min + random.nextInt(max - min + 1))) + "/" + (1 + random.nextInt(max - min + 1));
+            case 4:
+                return randomValue(random, min, max, null) + "-" + randomValue(random, min, max, null) + "/" + (1 + random.nextInt(max - min + 1));
+            default:
+                StringBuilder list = new StringBuilder(randomValue(random, min, max, names));
+                int size = 1 + random.nextInt(4);
+                for (int i = 0; i < size; i++) {
+                    list.append(",").append(randomValue(random, min, max, names));
+                }
+                return list.toString();
+        }
+    }
+
+    private static String randomValue(Random random, int min, int max, String[] names) {
+        int value = min + random.nextInt(max - min + 1);
+        if (names != null && random.nextBoolean()) {
+            return names[value - min];
+        }
+        return String.valueOf(value);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.xxl.job.admin.core.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JobLogPartitionHelperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2022, 10, 18);     // tuesday
+
+    @Test
+    public void shouldPlanDayPartitionsAhead() {
+        List<JobLogPartitionHelper.Partition> partitionList = JobLogPartitionHelper.planPartitions(TODAY.minusDays(2), TODAY, JobLogPartitionTypeEnum.DAY);
+
+        // 2 days before, today, 7 days ahead
+        assertEquals(10, partitionList.size());
+        assertEquals("p20221016", partitionList.get(0).getName());
+        assertEquals(LocalDate.of(2022, 10, 17), partitionList.get(0).getLessThan());
+        assertEquals("p20221025", partitionList.get(9).getName());
+        assertEquals(LocalDate.of(2022, 10, 26), partitionList.get(9).getLessThan());
+    }
+
+    @Test
+    public void shouldPlanWeekPartitionsFromMonday() {
+        List<JobLogPartitionHelper.Partition> partitionList = JobLogPartitionHelper.planPartitions(
+                JobLogPartitionTypeEnum.WEEK.periodStart(TODAY), TODAY, JobLogPartitionTypeEnum.WEEK);
+
+        // this week, 4 weeks ahead
+        assertEquals(5, partitionList.size());
+        assertEquals("p20221017", partitionList.get(0).getName());
+        assertEquals(LocalDate.of(2022, 10, 24), partitionList.get(0).getLessThan());
+        assertEquals(LocalDate.of(2022, 11, 21), partitionList.get(4).getLessThan());
+    }
+
+    @Test
+    public void shouldPlanAheadAfterLastPartition() {
+        List<JobLogPartitionHelper.Partition> partitionList = new ArrayList<JobLogPartitionHelper.Partition>(
+                JobLogPartitionHelper.planPartitions(TODAY.minusDays(3), TODAY.minusDays(3), JobLogPartitionTypeEnum.DAY));
+        partitionList.add(new JobLogPartitionHelper.Partition(JobLogPartitionHelper.MAX_PARTITION, null));
+
+        List<JobLogPartitionHelper.Partition> aheadList = JobLogPartitionHelper.planAhead(partitionList, TODAY, JobLogPartitionTypeEnum.DAY);
+        assertEquals("p20221023", aheadList.get(0).getName());
+        assertEquals("p20221025", aheadList.get(aheadList.size() - 1).getName());
+
+        // up to date
+        partitionList.addAll(partitionList.size() - 1, aheadList);
+        assertTrue(JobLogPartitionHelper.planAhead(partitionList, TODAY, JobLogPartitionTypeEnum.DAY).isEmpty());
+
+        // changed to week: partial week first
+        aheadList = JobLogPartitionHelper.planAhead(partitionList, TODAY.plusDays(7), JobLogPartitionTypeEnum.WEEK);
+        assertEquals("p20221026", aheadList.get(0).getName());
+        assertEquals(LocalDate.of(2022, 10, 31), aheadList.get(0).getLessThan());
+        assertEquals("p20221031", aheadList.get(1).getName());
+    }
+
+    @Test
+    public void shouldDropWholeExpiredPartitions() {
+        List<JobLogPartitionHelper.Partition> partitionList = new ArrayList<JobLogPartitionHelper.Partition>(
+                JobLogPartitionHelper.planPartitions(LocalDate.of(2022, 9, 26), TODAY, JobLogPartitionTypeEnum.WEEK));
+        partitionList.add(new JobLogPartitionHelper.Partition(JobLogPartitionHelper.MAX_PARTITION, null));
+
+        // 10-05 is in the week from 10-03, kept
+        List<JobLogPartitionHelper.Partition> dropList = JobLogPartitionHelper.planDrop(partitionList, LocalDate.of(2022, 10, 5));
+        assertEquals(1, dropList.size());
+        assertEquals("p20220926", dropList.get(0).getName());
+
+        // the max partition is never dropped
+        dropList = JobLogPartitionHelper.planDrop(partitionList, LocalDate.of(2030, 1, 1));
+        assertEquals(partitionList.size() - 1, dropList.size());
+    }
+
+    @Test
+    public void shouldBuildPartitionSql() {
+        List<JobLogPartitionHelper.Partition> aheadList = Arrays.asList(
+                new JobLogPartitionHelper.Partition("p20221018", LocalDate.of(2022, 10, 19)),
+                new JobLogPartitionHelper.Partition("p20221019", LocalDate.of(2022, 10, 20)));
+
+        List<JobLogPartitionHelper.Partition> partitionList = Arrays.asList(
+                new JobLogPartitionHelper.Partition("p20221017", LocalDate.of(2022, 10, 18)),
+                new JobLogPartitionHelper.Partition(JobLogPartitionHelper.MAX_PARTITION, null));
+        assertEquals("ALTER TABLE xxl_job_log REORGANIZE PARTITION pmax INTO (" +
+                        "PARTITION p20221018 VALUES LESS THAN (TO_DAYS('2022-10-19')), " +
+                        "PARTITION p20221019 VALUES LESS THAN (TO_DAYS('2022-10-20')), " +
+                        "PARTITION pmax VALUES LESS THAN MAXVALUE)",
+                JobLogPartitionHelper.addPartitionSql("xxl_job_log", partitionList, aheadList));
+
+        assertEquals("ALTER TABLE xxl_job_log ADD PARTITION (" +
+                        "PARTITION p20221018 VALUES LESS THAN (TO_DAYS('2022-10-19')), " +
+                        "PARTITION p20221019 VALUES LESS THAN (TO_DAYS('2022-10-20')))",
+                JobLogPartitionHelper.addPartitionSql("xxl_job_log", partitionList.subList(0, 1), aheadList));
+
+        assertEquals("ALTER TABLE xxl_job_log DROP PARTITION p20221018, p20221019",
+                JobLogPartitionHelper.dropPartitionSql("xxl_job_log", aheadList));
+    }
+
+}
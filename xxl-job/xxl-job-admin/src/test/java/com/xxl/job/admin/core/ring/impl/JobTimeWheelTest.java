@@ -0,0 +1,51 @@
+package com.xxl.job.admin.core.ring.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JobTimeWheelTest {
+
+    @Test
+    public void shouldFireAtTriggerTick() {
+        //given
+        final long tickMs = 10;
+        final long startTime = 1700000040000L;     // minute aligned
+        final Map<Integer, Long> fireTime = new HashMap<>();
+        final long[] now = new long[1];
+        JobTimeWheel wheel = new JobTimeWheel(tickMs) {
+            @Override
+            protected void trigger(int jobId, long triggerTime) {
+                fireTime.put(jobId, now[0]);
+            }
+        };
+
+        wheel.push(1, startTime - 100);            // expired
+        wheel.push(2, startTime + 5);              // ms tier, current tick
+        wheel.push(3, startTime + 15);             // ms tier
+        wheel.push(4, startTime + 1500);           // second tier
+        wheel.push(5, startTime + 59999);          // second tier, last slot
+        wheel.push(6, startTime + 70020);          // minute tier
+        wheel.push(7, startTime + 3 * 3600 * 1000L + 30);   // minute tier, more than one hour ahead
+
+        //when
+        for (now[0] = startTime; now[0] <= startTime + 3 * 3600 * 1000L + 1000; now[0] += tickMs) {
+            wheel.advance(now[0]);
+        }
+
+        //then
+        assertEquals(startTime, (long) fireTime.get(1));
+        assertEquals(startTime, (long) fireTime.get(2));
+        assertEquals(startTime + 10, (long) fireTime.get(3));
+        assertEquals(startTime + 1500, (long) fireTime.get(4));
+        assertEquals(startTime + 59990, (long) fireTime.get(5));
+        assertEquals(startTime + 70020, (long) fireTime.get(6));
+        assertEquals(startTime + 3 * 3600 * 1000L + 30, (long) fireTime.get(7));
+        assertTrue(wheel.isEmpty());
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.xxl.job.admin.core.route.strategy;
+
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
+import com.xxl.job.admin.core.route.ExecutorLoad;
+import com.xxl.job.core.biz.model.TriggerParam;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExecutorRouteLeastLoadedTest {
+
+    @Test
+    public void shouldParseReportedLoad() {
+        ExecutorLoad load = ExecutorLoad.parse(new ExecutorLoad(2, 3, 0.45, 1000).format(), 2000);
+        assertEquals(5, load.getPending());
+        assertEquals(0.45, load.getCpuLoad());
+        assertEquals(2000, load.getBeatTime());
+
+        assertNull(ExecutorLoad.parse("", 2000));
+        assertNull(ExecutorLoad.parse("1,x,0.1", 2000));
+    }
+
+    @Test
+    public void shouldRouteToLeastLoadedCountingRoutedTrigger() {
+        long beatTime = System.currentTimeMillis();
+        XxlJobRegistryCache.getInstance().beat("least-loaded-app", "http://127.0.0.1:19991/", beatTime, new ExecutorLoad(4, 3, 0.2, beatTime));
+        XxlJobRegistryCache.getInstance().beat("least-loaded-app", "http://127.0.0.1:19992/", beatTime, new ExecutorLoad(0, 0, 0.9, beatTime));
+        List<String> addressList = Arrays.asList("http://127.0.0.1:19991/", "http://127.0.0.1:19992/");
+
+        // idle one, until trigger routed to it catch up with the load of the other
+        ExecutorRouteLeastLoaded router = new ExecutorRouteLeastLoaded();
+        for (int i = 0; i < 7; i++) {
+            assertEquals("http://127.0.0.1:19992/", router.route(new TriggerParam(), addressList).getContent());
+        }
+        // same pending, less cpu load
+        assertEquals("http://127.0.0.1:19991/", router.route(new TriggerParam(), addressList).getContent());
+
+        // load reported again, routed trigger is in it
+        long nextBeatTime = beatTime + 1;
+        XxlJobRegistryCache.getInstance().beat("least-loaded-app", "http://127.0.0.1:19992/", nextBeatTime, new ExecutorLoad(9, 0, 0.9, nextBeatTime));
+        assertEquals("http://127.0.0.1:19991/", ExecutorRouteLeastLoaded.choose("http://127.0.0.1:19991/", "http://127.0.0.1:19992/"));
+    }
+
+}
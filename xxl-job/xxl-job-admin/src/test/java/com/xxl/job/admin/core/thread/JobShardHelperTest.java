@@ -0,0 +1,199 @@
+package com.xxl.job.admin.core.thread;
+
+import com.xxl.job.admin.core.model.XxlJobShardLease;
+import com.xxl.job.admin.dao.XxlJobShardLeaseDao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JobShardHelperTest {
+
+    private static final long BEAT_MS = JobShardHelper.BEAT_TIMEOUT * 1000L;
+
+    @Test
+    public void shouldRebalanceToLaterStartedNode() {
+        MemoryShardLeaseDao dao = new MemoryShardLeaseDao(4);
+        JobShardHelper nodeA = new JobShardHelper("node-a", 4);
+        JobShardHelper nodeB = new JobShardHelper("node-b", 4);
+        long nowTime = 1000000;
+
+        // rolling start: A alone claims every shard
+        nodeA.beat(dao, nowTime);
+        assertEquals(4, nodeA.getShardIds().size());
+
+        // B holds no shard yet, but is visible to A by its node beat
+        nowTime += BEAT_MS;
+        nodeB.beat(dao, nowTime);
+        assertEquals(0, nodeB.getShardIds().size());
+        nodeA.beat(dao, nowTime);
+        assertEquals(2, nodeA.getShardIds().size());
+        nodeB.beat(dao, nowTime);
+        assertEquals(2, nodeB.getShardIds().size());
+
+        assertDisjointCover(4, nodeA, nodeB);
+    }
+
+    @Test
+    public void shouldBalanceThreeNodesAndTakeOverDeadNode() {
+        MemoryShardLeaseDao dao = new MemoryShardLeaseDao(6);
+        JobShardHelper nodeA = new JobShardHelper("node-a", 6);
+        JobShardHelper nodeB = new JobShardHelper("node-b", 6);
+        JobShardHelper nodeC = new JobShardHelper("node-c", 6);
+        long nowTime = 1000000;
+
+        nodeA.beat(dao, nowTime);
+        for (int round = 0; round < 3; round++) {
+            nowTime += BEAT_MS;
+            nodeB.beat(dao, nowTime);
+            nodeC.beat(dao, nowTime);
+            nodeA.beat(dao, nowTime);
+        }
+        assertEquals(2, nodeA.getShardIds().size());
+        assertEquals(2, nodeB.getShardIds().size());
+        assertEquals(2, nodeC.getShardIds().size());
+        assertDisjointCover(6, nodeA, nodeB, nodeC);
+
+        // C stops beating, its lease expires and is taken over
+        for (int round = 0; round < JobShardHelper.LEASE_TIMEOUT / JobShardHelper.BEAT_TIMEOUT + 2; round++) {
+            nowTime += BEAT_MS;
+            nodeA.beat(dao, nowTime);
+            nodeB.beat(dao, nowTime);
+        }
+        assertEquals(3, nodeA.getShardIds().size());
+        assertEquals(3, nodeB.getShardIds().size());
+        assertDisjointCover(6, nodeA, nodeB);
+        assertTrue(!dao.nodeMap.containsKey("node-c"));
+    }
+
+    private static void assertDisjointCover(int shardTotal, JobShardHelper... nodes) {
+        Set<Integer> all = new HashSet<>();
+        int count = 0;
+        for (JobShardHelper node : nodes) {
+            all.addAll(node.getShardIds());
+            count += node.getShardIds().size();
+        }
+        assertEquals(shardTotal, count);
+        assertEquals(shardTotal, all.size());
+    }
+
+    /**
+     * shard lease and node beat table, in memory
+     */
+    private static class MemoryShardLeaseDao implements XxlJobShardLeaseDao {
+        private final Map<Integer, XxlJobShardLease> leaseMap = new TreeMap<>();
+        private final Map<String, Long> nodeMap = new HashMap<>();
+
+        MemoryShardLeaseDao(int shardTotal) {
+            for (int shardId = 0; shardId < shardTotal; shardId++) {
+                save(shardId);
+            }
+        }
+
+        @Override
+        public int save(int shardId) {
+            if (leaseMap.containsKey(shardId)) {
+                return 0;
+            }
+            XxlJobShardLease lease = new XxlJobShardLease();
+            lease.setShardId(shardId);
+            leaseMap.put(shardId, lease);
+            return 1;
+        }
+
+        @Override
+        public List<XxlJobShardLease> findAll(int shardTotal) {
+            List<XxlJobShardLease> list = new ArrayList<>();
+            for (XxlJobShardLease lease : leaseMap.values()) {
+                if (lease.getShardId() < shardTotal) {
+                    XxlJobShardLease copy = new XxlJobShardLease();
+                    copy.setShardId(lease.getShardId());
+                    copy.setOwner(lease.getOwner());
+                    copy.setLeaseTime(lease.getLeaseTime());
+                    list.add(copy);
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public int renew(String owner, List<Integer> shardIds, long leaseTime) {
+            int count = 0;
+            for (int shardId : shardIds) {
+                XxlJobShardLease lease = leaseMap.get(shardId);
+                if (owner.equals(lease.getOwner())) {
+                    lease.setLeaseTime(leaseTime);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int claim(int shardId, String owner, long leaseTime, long expireTime) {
+            XxlJobShardLease lease = leaseMap.get(shardId);
+            if (lease.getOwner() == null || lease.getLeaseTime() < expireTime) {
+                lease.setOwner(owner);
+                lease.setLeaseTime(leaseTime);
+                return 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public int release(String owner, List<Integer> shardIds) {
+            int count = 0;
+            for (int shardId : shardIds) {
+                XxlJobShardLease lease = leaseMap.get(shardId);
+                if (owner.equals(lease.getOwner())) {
+                    lease.setOwner(null);
+                    lease.setLeaseTime(0);
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int nodeBeat(String nodeId, long beatTime) {
+            return nodeMap.replace(nodeId, beatTime) != null ? 1 : 0;
+        }
+
+        @Override
+        public int nodeSave(String nodeId, long beatTime) {
+            return nodeMap.putIfAbsent(nodeId, beatTime) == null ? 1 : 0;
+        }
+
+        @Override
+        public List<String> findAliveNode(long expireTime) {
+            List<String> list = new ArrayList<>();
+            for (Map.Entry<String, Long> item : nodeMap.entrySet()) {
+                if (item.getValue() >= expireTime) {
+                    list.add(item.getKey());
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public int nodeRemove(String nodeId) {
+            return nodeMap.remove(nodeId) != null ? 1 : 0;
+        }
+
+        @Override
+        public int nodeRemoveDead(long expireTime) {
+            int size = nodeMap.size();
+            nodeMap.values().removeIf(beatTime -> beatTime < expireTime);
+            return size - nodeMap.size();
+        }
+    }
+
+}
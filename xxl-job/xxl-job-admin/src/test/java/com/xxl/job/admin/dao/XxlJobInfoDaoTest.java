@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -75,6 +76,11 @@ public class XxlJobInfoDaoTest {
 		info2.setUpdateTime(new Date());
 		int item2 = xxlJobInfoDao.update(info2);
 
+		info2.setTriggerStatus(1);
+		info2.setTriggerLastTime(System.currentTimeMillis());
+		info2.setTriggerNextTime(System.currentTimeMillis() + 1000);
+		int ret4 = xxlJobInfoDao.scheduleUpdateBatch(Arrays.asList(info2));
+
 		xxlJobInfoDao.delete(info2.getId());
 
 		List<XxlJobInfo> list2 = xxlJobInfoDao.getJobsByGroup(1);
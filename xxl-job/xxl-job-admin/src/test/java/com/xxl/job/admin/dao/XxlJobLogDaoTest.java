@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -35,6 +36,18 @@ public class XxlJobLogDaoTest {
         ret1 = xxlJobLogDao.updateTriggerInfo(log);
         dto = xxlJobLogDao.load(log.getId());
 
+        log.setTriggerMsg("2");
+        ret1 = xxlJobLogDao.updateTriggerInfoBatch(Arrays.asList(log));
+        dto = xxlJobLogDao.load(log.getId());
+
+        List<XxlJobLog> handleList = xxlJobLogDao.loadForHandle(Arrays.asList(log.getId()));
+        log.setHandleTime(new Date());
+        log.setHandleCode(200);
+        log.setHandleMsg("1");
+        ret1 = xxlJobLogDao.updateHandleInfoBatch(Arrays.asList(log));
+        ret1 = xxlJobLogDao.updateHandleInfoBatch(Arrays.asList(log));     // handled, 0
+        dto = xxlJobLogDao.load(log.getId());
+
 
         log.setHandleTime(new Date());
         log.setHandleCode(2);
@@ -8,6 +8,10 @@ import com.xxl.job.core.glue.GlueTypeEnum;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * executor api test
  *
@@ -71,6 +75,53 @@ public class ExecutorBizTest {
         Assertions.assertNotNull(retval);
     }
 
+    @Test
+    public void runBatch(){
+        ExecutorBiz executorBiz = new ExecutorBizClient(addressUrl, accessToken);
+
+        // trigger data
+        List<TriggerParam> triggerParamList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final TriggerParam triggerParam = new TriggerParam();
+            triggerParam.setJobId(1);
+            triggerParam.setExecutorHandler("demoJobHandler");
+            triggerParam.setExecutorParams(null);
+            triggerParam.setExecutorBlockStrategy(ExecutorBlockStrategyEnum.SERIAL_EXECUTION.name());
+            triggerParam.setGlueType(GlueTypeEnum.BEAN.name());
+            triggerParam.setGlueSource(null);
+            triggerParam.setGlueUpdatetime(System.currentTimeMillis());
+            triggerParam.setLogId(1 + i);
+            triggerParam.setLogDateTime(System.currentTimeMillis());
+            triggerParamList.add(triggerParam);
+        }
+
+        // Act
+        final ReturnT<List<ReturnT<String>>> retval = executorBiz.runBatch(triggerParamList);
+
+        // Assert result: one result per trigger param
+        Assertions.assertNotNull(retval);
+        Assertions.assertEquals(200, retval.getCode());
+        Assertions.assertEquals(triggerParamList.size(), retval.getContent().size());
+    }
+
+    @Test
+    public void beatAsync() throws Exception {
+        ExecutorBiz executorBiz = new ExecutorBizClient(addressUrl, accessToken);
+
+        // Act: concurrent call share the pooled keep-alive connection
+        List<CompletableFuture<ReturnT<String>>> futureList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futureList.add(executorBiz.beatAsync());
+        }
+
+        // Assert result
+        for (CompletableFuture<ReturnT<String>> future : futureList) {
+            final ReturnT<String> retval = future.get();
+            Assertions.assertNotNull(retval);
+            Assertions.assertEquals(200, retval.getCode());
+        }
+    }
+
     @Test
     public void kill(){
         ExecutorBiz executorBiz = new ExecutorBizClient(addressUrl, accessToken);
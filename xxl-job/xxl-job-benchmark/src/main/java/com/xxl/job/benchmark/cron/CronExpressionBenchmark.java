@@ -0,0 +1,57 @@
+package com.xxl.job.benchmark.cron;
+
+import com.xxl.job.admin.core.cron.CompiledCronExpression;
+import com.xxl.job.admin.core.cron.CronExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * next fire time: CronExpression (parsed per call, as JobScheduleHelper did; and parsed once) vs CompiledCronExpression
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronExpressionBenchmark {
+
+	@Param({"0/5 * * * * ?", "0 0 2 * * ?", "0 15 10 ? * MON-FRI", "0 0 12 L * ?", "0 0 9 ? * 6#3"})
+	private String cron;
+
+	private CronExpression expression;
+	private long fromTime;
+	private long step;
+
+	@Setup
+	public void setup() throws ParseException {
+		expression = new CronExpression(cron);
+		CompiledCronExpression.compile(cron);
+		fromTime = System.currentTimeMillis();
+	}
+
+	private long nextFromTime() {
+		// move on, not served by the same time
+		step = (step + 7919) % (30L * 24 * 3600 * 1000);
+		return fromTime + step;
+	}
+
+	@Benchmark
+	public Date cronExpressionParsePerCall() throws ParseException {
+		return new CronExpression(cron).getNextValidTimeAfter(new Date(nextFromTime()));
+	}
+
+	@Benchmark
+	public Date cronExpression() {
+		return expression.getNextValidTimeAfter(new Date(nextFromTime()));
+	}
+
+	@Benchmark
+	public long compiledCronExpression() throws ParseException {
+		return CompiledCronExpression.compile(cron).getNextValidTimeAfter(nextFromTime());
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.xxl.job.benchmark.handler;
+
+import com.xxl.job.core.handler.annotation.XxlJob;
+import com.xxl.job.core.handler.impl.MethodInvoker;
+import com.xxl.job.core.handler.impl.MethodJobHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bean job method call: reflection per call (as MethodJobHandler did) vs MethodInvoker, reflection and compiled (LambdaMetafactory)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodJobHandlerBenchmark {
+
+	public static class SampleJob {
+		private long count;
+
+		@XxlJob("tinyJobHandler")
+		public void tinyJobHandler() {
+			count++;
+		}
+	}
+
+	private SampleJob target;
+	private Method method;
+	private MethodInvoker reflectInvoker;
+	private MethodInvoker compiledInvoker;
+	private MethodJobHandler jobHandler;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		target = new SampleJob();
+		method = SampleJob.class.getMethod("tinyJobHandler");
+		method.setAccessible(true);
+
+		reflectInvoker = MethodInvoker.reflect(method);
+		compiledInvoker = MethodInvoker.compile(method);
+		if (compiledInvoker == null) {
+			throw new IllegalStateException("job method not linked: " + method);
+		}
+		jobHandler = new MethodJobHandler(target, method, null, null);
+	}
+
+	@Benchmark
+	public long direct() {
+		target.tinyJobHandler();
+		return target.count;
+	}
+
+	@Benchmark
+	public long reflectionPerCall() throws Exception {
+		Class<?>[] paramTypes = method.getParameterTypes();
+		if (paramTypes.length > 0) {
+			method.invoke(target, new Object[paramTypes.length]);
+		} else {
+			method.invoke(target);
+		}
+		return target.count;
+	}
+
+	@Benchmark
+	public long reflectInvoker() throws Exception {
+		reflectInvoker.invoke(target);
+		return target.count;
+	}
+
+	@Benchmark
+	public long compiledInvoker() throws Exception {
+		compiledInvoker.invoke(target);
+		return target.count;
+	}
+
+	@Benchmark
+	public long methodJobHandler() throws Exception {
+		jobHandler.execute();
+		return target.count;
+	}
+
+}
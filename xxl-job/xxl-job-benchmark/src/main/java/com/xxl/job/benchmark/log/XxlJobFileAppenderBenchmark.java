@@ -0,0 +1,103 @@
+package com.xxl.job.benchmark.log;
+
+import com.xxl.job.core.biz.model.LogResult;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import com.xxl.job.core.thread.JobLogFileAppendThread;
+import com.xxl.job.core.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job log file: append a log line (by the job thread, or buffered for the writer thread), read a page of the log
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XxlJobFileAppenderBenchmark {
+
+	private static final String LOG_LINE = "2023-01-01 00:00:00 [com.xxl.job.core.thread.JobThread#execute]-[123]-[xxl-job, JobThread-1-1672502400000] " +
+			"<br>----------- xxl-job job execute start -----------<br>----------- Param:benchmark";
+	private static final int READ_FILE_LINES = 100000;
+
+	@State(Scope.Benchmark)
+	public static class AppendState {
+
+		// ms, 0: written by the job thread
+		@Param({"0", "100"})
+		private long logFlushInterval;
+
+		private File logPath;
+		private String logFileName;
+
+		@Setup
+		public void setup() throws IOException {
+			logPath = Files.createTempDirectory("xxl-job-benchmark-log").toFile();
+			XxlJobFileAppender.initLogPath(logPath.getPath());
+			JobLogFileAppendThread.getInstance().start(logFlushInterval);
+			logFileName = XxlJobFileAppender.makeLogFileName(new Date(), 1);
+		}
+
+		@TearDown(Level.Iteration)
+		public void clear() {
+			XxlJobFileAppender.flushLog(logFileName);
+			FileUtil.deleteFile(logFileName);
+		}
+
+		@TearDown
+		public void tearDown() {
+			JobLogFileAppendThread.getInstance().toStop();
+			FileUtil.deleteRecursively(logPath);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ReadState {
+
+		private File logPath;
+		private String logFileName;
+
+		@Setup
+		public void setup() throws IOException {
+			logPath = Files.createTempDirectory("xxl-job-benchmark-log").toFile();
+			XxlJobFileAppender.initLogPath(logPath.getPath());
+			logFileName = XxlJobFileAppender.makeLogFileName(new Date(), 2);
+
+			StringBuilder content = new StringBuilder();
+			for (int i = 0; i < READ_FILE_LINES; i++) {
+				content.append(LOG_LINE).append(i).append("\n");
+			}
+			FileUtil.writeFileContent(new File(logFileName), content.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		@TearDown
+		public void tearDown() {
+			FileUtil.deleteRecursively(logPath);
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void appendLog(AppendState state) {
+		XxlJobFileAppender.appendLog(state.logFileName, LOG_LINE);
+	}
+
+	@Benchmark
+	public LogResult readLogHead(ReadState state) {
+		return XxlJobFileAppender.readLog(state.logFileName, 1);
+	}
+
+	@Benchmark
+	public LogResult readLogTail(ReadState state) {
+		// located by the line index
+		return XxlJobFileAppender.readLog(state.logFileName, READ_FILE_LINES - 10);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.xxl.job.benchmark.schedule;
+
+import com.xxl.job.admin.core.ring.JobRing;
+import com.xxl.job.admin.core.thread.JobScheduleHelper;
+import com.xxl.job.benchmark.support.AdminStandIn;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * schedule pre-read: lock, read jobs due in 5s, push into the ring, refresh next trigger time, batch update;
+ * against h2 in memory, every job is due (not misfired) in each pre-read, the ring discards them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobScheduleHelperBenchmark {
+
+	@Param({"100", "1000"})
+	private int jobCount;
+
+	private AdminStandIn adminStandIn;
+	private DiscardRing ring;
+
+	@Setup
+	public void setup() throws Exception {
+		adminStandIn = new AdminStandIn();
+		int groupId = adminStandIn.addGroup("xxl-job-executor-benchmark", "127.0.0.1:9999");
+		for (int i = 0; i < jobCount; i++) {
+			adminStandIn.addJob(groupId, "CRON", "* * * * * ?", "FIRST", 0);
+		}
+		ring = new DiscardRing();
+	}
+
+	@Setup(Level.Invocation)
+	public void due() throws SQLException {
+		// in the pre-read window, pushed into the ring
+		adminStandIn.executeUpdate("UPDATE xxl_job_info SET trigger_next_time = ?", System.currentTimeMillis() + 1000);
+	}
+
+	@TearDown(Level.Iteration)
+	public void check() {
+		if (ring.pushCount == 0) {
+			throw new IllegalStateException("no job pre-read");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		adminStandIn.close();
+	}
+
+	@Benchmark
+	public boolean preRead() {
+		return JobScheduleHelper.getInstance().preRead(ring, jobCount);
+	}
+
+	/**
+	 * ring holding nothing, no job triggered
+	 */
+	private static class DiscardRing extends JobRing {
+		private long pushCount;
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void toStop() {
+		}
+
+		@Override
+		public void push(int jobId, long triggerTime) {
+			pushCount++;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return true;
+		}
+	}
+
+}
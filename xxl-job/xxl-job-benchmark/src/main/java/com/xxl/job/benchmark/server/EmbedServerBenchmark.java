@@ -0,0 +1,162 @@
+package com.xxl.job.benchmark.server;
+
+import com.xxl.job.benchmark.support.StubExecutorBiz;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.server.EmbedServer;
+import com.xxl.job.core.util.GsonTool;
+import com.xxl.job.core.util.XxlJobRemotingUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * executor request: http decode, json decode (GsonTool), dispatch, json encode, http encode;
+ * the pipeline of EmbedServer on an EmbeddedChannel, biz run by the caller, in-process
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbedServerBenchmark {
+
+	private static final String ACCESS_TOKEN = "default_token";
+	private static final int BATCH_SIZE = 10;
+
+	private EmbeddedChannel channel;
+	private String runJson;
+	private String resultJson;
+	private byte[] beatRequest;
+	private byte[] runRequest;
+	private byte[] runBatchRequest;
+
+	@Setup
+	public void setup() {
+		// biz run by the caller, as the channel event loop
+		ThreadPoolExecutor callerRuns = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>()) {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+		channel = new EmbeddedChannel(
+				new HttpServerCodec(),
+				new HttpObjectAggregator(5 * 1024 * 1024),
+				new EmbedServer.EmbedHttpServerHandler(new StubExecutorBiz(), ACCESS_TOKEN, callerRuns));
+
+		List<TriggerParam> triggerParamList = new ArrayList<TriggerParam>();
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			triggerParamList.add(triggerParam(i + 1));
+		}
+		runJson = GsonTool.toJson(triggerParamList.get(0));
+		resultJson = GsonTool.toJson(ReturnT.SUCCESS);
+
+		beatRequest = httpRequest("/beat", "");
+		runRequest = httpRequest("/run", runJson);
+		runBatchRequest = httpRequest("/runBatch", GsonTool.toJson(triggerParamList));
+	}
+
+	@TearDown
+	public void tearDown() {
+		channel.finishAndReleaseAll();
+	}
+
+	@Benchmark
+	public int beat() {
+		return roundTrip(beatRequest);
+	}
+
+	@Benchmark
+	public int run() {
+		return roundTrip(runRequest);
+	}
+
+	@Benchmark
+	public int runBatch() {
+		return roundTrip(runBatchRequest);
+	}
+
+	@Benchmark
+	public TriggerParam decodeTriggerParam() {
+		return GsonTool.fromJson(runJson, TriggerParam.class);
+	}
+
+	@Benchmark
+	public String encodeReturnT() {
+		return GsonTool.toJson(ReturnT.SUCCESS);
+	}
+
+	@Benchmark
+	public ReturnT<String> decodeReturnT() {
+		// admin side, by ExecutorBizClient
+		return GsonTool.fromJson(resultJson, ReturnT.class, String.class);
+	}
+
+	/**
+	 * @return response bytes
+	 */
+	private int roundTrip(byte[] request) {
+		channel.writeInbound(Unpooled.wrappedBuffer(request));
+
+		int responseBytes = 0;
+		ByteBuf response;
+		while ((response = channel.readOutbound()) != null) {
+			responseBytes += response.readableBytes();
+			response.release();
+		}
+		if (responseBytes == 0) {
+			throw new IllegalStateException("no response");
+		}
+		return responseBytes;
+	}
+
+	private static TriggerParam triggerParam(long logId) {
+		TriggerParam triggerParam = new TriggerParam();
+		triggerParam.setJobId(1);
+		triggerParam.setExecutorHandler("demoJobHandler");
+		triggerParam.setExecutorParams("");
+		triggerParam.setExecutorBlockStrategy("SERIAL_EXECUTION");
+		triggerParam.setExecutorTimeout(0);
+		triggerParam.setLogId(logId);
+		triggerParam.setLogDateTime(System.currentTimeMillis());
+		triggerParam.setGlueType("BEAN");
+		triggerParam.setGlueSource("");
+		triggerParam.setGlueUpdatetime(System.currentTimeMillis());
+		triggerParam.setBroadcastIndex(0);
+		triggerParam.setBroadcastTotal(1);
+		return triggerParam;
+	}
+
+	/**
+	 * request as sent by ExecutorBizClient, keep-alive
+	 */
+	private static byte[] httpRequest(String uri, String body) {
+		byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+		String head = "POST " + uri + " HTTP/1.1\r\n"
+				+ "Host: 127.0.0.1:9999\r\n"
+				+ "Connection: keep-alive\r\n"
+				+ "Content-Type: application/json;charset=UTF-8\r\n"
+				+ XxlJobRemotingUtil.XXL_JOB_ACCESS_TOKEN + ": " + ACCESS_TOKEN + "\r\n"
+				+ "Content-Length: " + bodyBytes.length + "\r\n"
+				+ "\r\n";
+		byte[] headBytes = head.getBytes(StandardCharsets.UTF_8);
+
+		byte[] request = new byte[headBytes.length + bodyBytes.length];
+		System.arraycopy(headBytes, 0, request, 0, headBytes.length);
+		System.arraycopy(bodyBytes, 0, request, headBytes.length, bodyBytes.length);
+		return request;
+	}
+
+}
@@ -0,0 +1,247 @@
+package com.xxl.job.benchmark.simulator;
+
+import com.xxl.job.admin.XxlJobAdminApplication;
+import com.xxl.job.admin.core.cache.XxlJobRegistryCache;
+import com.xxl.job.admin.core.model.XxlJobInfo;
+import com.xxl.job.admin.core.thread.JobScheduleHelper;
+import com.xxl.job.benchmark.support.AdminStandIn;
+import com.xxl.job.core.biz.client.ExecutorBizClient;
+import com.xxl.job.core.executor.impl.XxlJobSimpleExecutor;
+import com.xxl.job.core.server.EmbedServer;
+import com.xxl.job.core.util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * load simulator, end-to-end in one jvm, no external service:
+ *
+ * 1、admin: xxl-job-admin (spring boot) against h2 in memory (MySQL mode);
+ * 2、executors: N embed servers with no-op / sleep job handler, registered by ExecutorRegistryThread;
+ * 3、jobs: M jobs of CRON / FIX_RATE mix, spread over the executor groups;
+ * 4、report: triggers per second, schedule lateness, trigger latency and callback lag percentiles (SimulatorMetrics);
+ *
+ * run: java -cp xxl-job-benchmark/target/benchmarks.jar -Dsim.executors=1000 -Dsim.jobs=10000 com.xxl.job.benchmark.simulator.LoadSimulator
+ * options: see SimulatorConfig
+ *
+ * simulated executors share the executor state of the jvm (job handler, job thread), a job runs serially across them.
+ */
+public class LoadSimulator {
+	private static final String JDBC_URL = "jdbc:h2:mem:xxl_job_sim;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final String JDBC_USER = "sa";
+	private static final String SCHEMA = "db/tables_xxl_job_h2.sql";
+	private static final String ACCESS_TOKEN = "default_token";
+	private static final String LOG_CONFIG = "logback-simulator.xml";
+	private static final String APPNAME_PREFIX = "xxl-job-sim-";
+	private static final long REGISTRY_TIMEOUT = 120 * 1000;       // ms
+	private static final long JOB_START_DELAY = 5 * 1000;           // ms, first trigger after seeded
+
+	static {
+		// console only, not the file log of the admin ("logback.xml" of xxl-job-admin); before any logger
+		System.setProperty("logback.configurationFile", LOG_CONFIG);
+	}
+	private static Logger logger = LoggerFactory.getLogger(LoadSimulator.class);
+
+	public static void main(String[] args) throws Exception {
+		SimulatorConfig config = new SimulatorConfig();
+		config.valid();
+		logger.info(">>>>>>>>>>> xxl-job sim, start: {}", config);
+
+		SimulatorMetrics.start(config.getReportInterval());
+		File logPath = Files.createTempDirectory("xxl-job-sim").toFile();
+
+		ConfigurableApplicationContext admin = null;
+		XxlJobSimpleExecutor executor = null;
+		List<EmbedServer> serverList = new ArrayList<EmbedServer>();
+		try {
+			// admin
+			admin = startAdmin(config);
+
+			// executors
+			executor = startExecutors(config, logPath, serverList);
+			awaitRegistry(config);
+
+			// jobs
+			long startTime = seedJobs(config);
+			logger.info(">>>>>>>>>>> xxl-job sim, {} jobs seeded, first trigger at {}", config.getJobs(), new Date(startTime));
+
+			// run and report
+			long endTime = System.currentTimeMillis() + config.getDuration() * 1000L;
+			while (System.currentTimeMillis() < endTime) {
+				TimeUnit.SECONDS.sleep(config.getReportInterval());
+				SimulatorMetrics.report();
+			}
+			logger.info(">>>>>>>>>>> xxl-job sim, end.");
+		} finally {
+			for (EmbedServer server : serverList) {
+				server.stop();
+			}
+			if (executor != null) {
+				executor.destroy();
+			}
+			if (admin != null) {
+				admin.close();
+			}
+			SimulatorMetrics.stop();
+			FileUtil.deleteRecursively(logPath);
+		}
+		System.exit(0);
+	}
+
+	// ---------------------- admin ----------------------
+
+	private static ConfigurableApplicationContext startAdmin(SimulatorConfig config) throws Exception {
+		// schema and groups, before the admin reads them
+		try (Connection conn = DriverManager.getConnection(JDBC_URL, JDBC_USER, "")) {
+			AdminStandIn.executeScript(conn, SCHEMA);
+			try (PreparedStatement preparedStatement = conn.prepareStatement(
+					"INSERT INTO xxl_job_group (id, app_name, title, address_type, address_list, update_time) VALUES (?, ?, ?, 0, NULL, ?)")) {
+				for (int i = 0; i < config.getGroups(); i++) {
+					preparedStatement.setInt(1, i + 1);
+					preparedStatement.setString(2, APPNAME_PREFIX + i);
+					preparedStatement.setString(3, "sim-" + i);
+					preparedStatement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+					preparedStatement.addBatch();
+				}
+				preparedStatement.executeBatch();
+			}
+		}
+
+		// admin, callback lag recorded by SimulatorAdminBizProcessor
+		SpringApplication application = new SpringApplication(XxlJobAdminApplication.class, SimulatorAdminBizProcessor.class);
+		return application.run(
+				"--server.port=" + config.getAdminPort(),
+				"--spring.datasource.url=" + JDBC_URL,
+				"--spring.datasource.username=" + JDBC_USER,
+				"--spring.datasource.password=",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--xxl.job.accessToken=" + ACCESS_TOKEN,
+				"--xxl.job.i18n=en",
+				"--logging.config=classpath:" + LOG_CONFIG);
+	}
+
+	// ---------------------- executor ----------------------
+
+	private static XxlJobSimpleExecutor startExecutors(SimulatorConfig config, File logPath, List<EmbedServer> serverList) {
+		// executor client of the admin, trigger time recorded
+		for (int i = 0; i < config.getExecutors(); i++) {
+			String address = address(config, i);
+			AdminStandIn.stubExecutor(address, SimulatorMetrics.recordTrigger(new ExecutorBizClient(address, ACCESS_TOKEN)));
+		}
+
+		// executor 0: the executor of the jvm (admin client, job handler, job thread, callback)
+		XxlJobSimpleExecutor executor = new XxlJobSimpleExecutor();
+		executor.setAdminAddresses("http://127.0.0.1:" + config.getAdminPort() + "/xxl-job-admin");
+		executor.setAccessToken(ACCESS_TOKEN);
+		executor.setAppname(APPNAME_PREFIX + 0);
+		executor.setAddress(address(config, 0));
+		executor.setPort(config.getExecutorPort());
+		executor.setLogPath(logPath.getPath());
+		executor.setLogRetentionDays(-1);
+		executor.setJobThreadMode(config.getJobThreadMode());
+		executor.setXxlJobBeanList(Collections.<Object>singletonList(new SimulatorJobHandler()));
+		executor.start();
+
+		// executor 1 ~ N-1: embed server only
+		for (int i = 1; i < config.getExecutors(); i++) {
+			EmbedServer server = new EmbedServer();
+			server.start(address(config, i), config.getExecutorPort() + i, APPNAME_PREFIX + (i % config.getGroups()), ACCESS_TOKEN);
+			serverList.add(server);
+		}
+		return executor;
+	}
+
+	private static String address(SimulatorConfig config, int index) {
+		return "http://127.0.0.1:" + (config.getExecutorPort() + index) + "/";
+	}
+
+	/**
+	 * wait until every executor is in the registry of the admin
+	 */
+	private static void awaitRegistry(SimulatorConfig config) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + REGISTRY_TIMEOUT;
+		int registered = 0;
+		while (System.currentTimeMillis() < timeout) {
+			registered = 0;
+			for (int i = 0; i < config.getGroups(); i++) {
+				String addressList = XxlJobRegistryCache.getInstance().getAddressList(APPNAME_PREFIX + i);
+				if (addressList != null && addressList.trim().length() > 0) {
+					registered += addressList.split(",").length;
+				}
+			}
+			if (registered >= config.getExecutors()) {
+				logger.info(">>>>>>>>>>> xxl-job sim, {} executors registered.", registered);
+				return;
+			}
+			TimeUnit.SECONDS.sleep(1);
+		}
+		logger.warn(">>>>>>>>>>> xxl-job sim, registry timeout, {}/{} executors registered.", registered, config.getExecutors());
+	}
+
+	// ---------------------- job ----------------------
+
+	/**
+	 * @return first trigger time
+	 */
+	private static long seedJobs(SimulatorConfig config) throws Exception {
+		long startTime = (System.currentTimeMillis() + JOB_START_DELAY) / 1000 * 1000;
+		int cronJobs = (int) Math.round(config.getJobs() * config.getCronRatio());
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+
+		try (Connection conn = DriverManager.getConnection(JDBC_URL, JDBC_USER, "");
+			 PreparedStatement preparedStatement = conn.prepareStatement(
+					 "INSERT INTO xxl_job_info (job_group, job_desc, add_time, update_time, author, schedule_type, schedule_conf, misfire_strategy, " +
+							 "executor_route_strategy, executor_handler, executor_param, executor_block_strategy, glue_type, glue_source, glue_updatetime, " +
+							 "trigger_status, trigger_next_time) VALUES (?, ?, ?, ?, 'sim', ?, ?, 'DO_NOTHING', ?, ?, ?, 'SERIAL_EXECUTION', 'BEAN', '', ?, 1, ?)")) {
+			for (int i = 0; i < config.getJobs(); i++) {
+				XxlJobInfo jobInfo = new XxlJobInfo();
+				long triggerNextTime;
+				if (i < cronJobs) {
+					jobInfo.setScheduleType("CRON");
+					jobInfo.setScheduleConf(config.getCronList().get(i % config.getCronList().size()));
+					triggerNextTime = JobScheduleHelper.generateNextValidTime(jobInfo, new Date(startTime)).getTime();
+				} else {
+					jobInfo.setScheduleType("FIX_RATE");
+					jobInfo.setScheduleConf(config.getFixRateList().get(i % config.getFixRateList().size()));
+					// spread over the rate, as jobs added at different time
+					triggerNextTime = startTime + (i % Integer.parseInt(jobInfo.getScheduleConf())) * 1000L;
+				}
+
+				preparedStatement.setInt(1, i % config.getGroups() + 1);
+				preparedStatement.setString(2, "sim-job-" + i);
+				preparedStatement.setTimestamp(3, now);
+				preparedStatement.setTimestamp(4, now);
+				preparedStatement.setString(5, jobInfo.getScheduleType());
+				preparedStatement.setString(6, jobInfo.getScheduleConf());
+				preparedStatement.setString(7, config.getRouteStrategy());
+				preparedStatement.setString(8, SimulatorJobHandler.HANDLER);
+				preparedStatement.setString(9, String.valueOf(config.getSleepMs()));
+				preparedStatement.setTimestamp(10, now);
+				preparedStatement.setLong(11, triggerNextTime);
+				preparedStatement.addBatch();
+				if ((i + 1) % 1000 == 0) {
+					preparedStatement.executeBatch();
+				}
+			}
+			preparedStatement.executeBatch();
+		} catch (SQLException e) {
+			throw new IllegalStateException("seed jobs fail", e);
+		}
+		return startTime;
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.xxl.job.benchmark.simulator;
+
+import com.xxl.job.core.biz.AdminBiz;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * admin biz of the simulated admin, callback lag recorded
+ */
+public class SimulatorAdminBizProcessor implements BeanPostProcessor {
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof AdminBiz) {
+			return SimulatorMetrics.recordCallback((AdminBiz) bean);
+		}
+		return bean;
+	}
+
+}
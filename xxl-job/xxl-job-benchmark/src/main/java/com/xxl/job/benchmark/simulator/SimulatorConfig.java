@@ -0,0 +1,133 @@
+package com.xxl.job.benchmark.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * load simulator options, by system property (-Dsim.xxx=...)
+ */
+public class SimulatorConfig {
+
+	// admin http port
+	private final int adminPort = Integer.getInteger("sim.adminport", 18080);
+	// executor embed server port, the i-th executor listens on "executorport + i"
+	private final int executorPort = Integer.getInteger("sim.executorport", 19000);
+	// executor count, spread over the groups (appname "xxl-job-sim-{i % groups}")
+	private final int executors = Integer.getInteger("sim.executors", 100);
+	private final int groups = Integer.getInteger("sim.groups", 10);
+
+	// job count, "cronratio" of them CRON, the rest FIX_RATE; schedule conf taken round-robin
+	private final int jobs = Integer.getInteger("sim.jobs", 1000);
+	private final double cronRatio = Double.parseDouble(System.getProperty("sim.cronratio", "0.5"));
+	private final List<String> cronList = split(System.getProperty("sim.cron", "0/5 * * * * ?"));
+	private final List<String> fixRateList = split(System.getProperty("sim.fixrate", "5"));
+	private final String routeStrategy = System.getProperty("sim.route", "ROUND");
+	// handler sleep, ms; 0 means no-op
+	private final int sleepMs = Integer.getInteger("sim.sleepms", 0);
+	// executor job thread mode, THREAD / POOL / VIRTUAL
+	private final String jobThreadMode = System.getProperty("sim.jobthreadmode", "POOL");
+
+	// run time after the jobs are seeded, and report interval, s
+	private final int duration = Integer.getInteger("sim.duration", 300);
+	private final int reportInterval = Integer.getInteger("sim.reportinterval", 10);
+
+	public void valid() {
+		if (executors < 1 || groups < 1 || groups > executors) {
+			throw new IllegalArgumentException("sim.executors must be >= sim.groups >= 1");
+		}
+		if (jobs < 1 || cronRatio < 0 || cronRatio > 1) {
+			throw new IllegalArgumentException("sim.jobs must be >= 1, sim.cronratio in [0, 1]");
+		}
+		if ((cronRatio > 0 && cronList.isEmpty()) || (cronRatio < 1 && fixRateList.isEmpty())) {
+			throw new IllegalArgumentException("sim.cron / sim.fixrate is empty");
+		}
+		if (duration < 1 || reportInterval < 1) {
+			throw new IllegalArgumentException("sim.duration and sim.reportinterval must be >= 1");
+		}
+	}
+
+	/**
+	 * split by ";", cron expression contains "," and " "
+	 */
+	private static List<String> split(String value) {
+		List<String> list = new ArrayList<String>();
+		for (String item : value.split(";")) {
+			if (item.trim().length() > 0) {
+				list.add(item.trim());
+			}
+		}
+		return list;
+	}
+
+	public int getAdminPort() {
+		return adminPort;
+	}
+
+	public int getExecutorPort() {
+		return executorPort;
+	}
+
+	public int getExecutors() {
+		return executors;
+	}
+
+	public int getGroups() {
+		return groups;
+	}
+
+	public int getJobs() {
+		return jobs;
+	}
+
+	public double getCronRatio() {
+		return cronRatio;
+	}
+
+	public List<String> getCronList() {
+		return cronList;
+	}
+
+	public List<String> getFixRateList() {
+		return fixRateList;
+	}
+
+	public String getRouteStrategy() {
+		return routeStrategy;
+	}
+
+	public int getSleepMs() {
+		return sleepMs;
+	}
+
+	public String getJobThreadMode() {
+		return jobThreadMode;
+	}
+
+	public int getDuration() {
+		return duration;
+	}
+
+	public int getReportInterval() {
+		return reportInterval;
+	}
+
+	@Override
+	public String toString() {
+		return "SimulatorConfig{" +
+				"adminPort=" + adminPort +
+				", executorPort=" + executorPort +
+				", executors=" + executors +
+				", groups=" + groups +
+				", jobs=" + jobs +
+				", cronRatio=" + cronRatio +
+				", cronList=" + cronList +
+				", fixRateList=" + fixRateList +
+				", routeStrategy='" + routeStrategy + '\'' +
+				", sleepMs=" + sleepMs +
+				", jobThreadMode='" + jobThreadMode + '\'' +
+				", duration=" + duration +
+				", reportInterval=" + reportInterval +
+				'}';
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.xxl.job.benchmark.simulator;
+
+import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.handler.annotation.XxlJob;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job handler of the simulated executors: no-op, or sleep "executor_param" ms
+ */
+public class SimulatorJobHandler {
+
+	public static final String HANDLER = "simJobHandler";
+
+	@XxlJob(HANDLER)
+	public void execute() throws Exception {
+		long logId = logId(XxlJobHelper.getJobLogFileName());
+		SimulatorMetrics.handleStart(logId, System.currentTimeMillis());
+
+		String param = XxlJobHelper.getJobParam();
+		long sleepMs = param != null && param.trim().length() > 0 ? Long.parseLong(param.trim()) : 0;
+		if (sleepMs > 0) {
+			TimeUnit.MILLISECONDS.sleep(sleepMs);
+		}
+
+		SimulatorMetrics.handleEnd(logId, System.currentTimeMillis());
+	}
+
+	/**
+	 * log id, by the log filename "logPath/yyyy-MM-dd/9999.log"
+	 */
+	private static long logId(String logFileName) {
+		String name = new File(logFileName).getName();
+		return Long.parseLong(name.substring(0, name.length() - ".log".length()));
+	}
+
+}
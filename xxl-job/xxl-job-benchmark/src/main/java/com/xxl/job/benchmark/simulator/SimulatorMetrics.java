@@ -0,0 +1,215 @@
+package com.xxl.job.benchmark.simulator;
+
+import com.xxl.job.core.biz.AdminBiz;
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.xxl.job.core.biz.model.HandleCallbackParam;
+import com.xxl.job.core.biz.model.TriggerParam;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.text.DecimalFormat;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * load simulator metrics, percentiles over the last report interval:
+ *
+ * 1、schedule lateness: job trigger-next-time > fired by the time-ring, by the admin ("xxl.job.ring.lateness");
+ * 2、trigger latency: trigger (log time of the admin) > handler start on the executor;
+ * 3、callback lag: handler end > callback received by the admin;
+ *
+ * admin and executors run in one jvm, on the same clock.
+ */
+public class SimulatorMetrics {
+	private static Logger logger = LoggerFactory.getLogger(SimulatorMetrics.class);
+
+	private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+	private static final long PENDING_EXPIRE = 5 * 60 * 1000;        // ms, trigger never run or never called back
+
+	private static SimpleMeterRegistry registry;
+	private static Timer triggerLatency;
+	private static Timer callbackLag;
+
+	// log id -> trigger time / handler end time
+	private static final Map<Long, Long> triggerTimeMap = new ConcurrentHashMap<Long, Long>();
+	private static final Map<Long, Long> handleEndMap = new ConcurrentHashMap<Long, Long>();
+
+	// last report
+	private static long lastReportTime;
+	private static long lastFiredCount;
+	private static long lastRunCount;
+	private static double lastRejectedCount;
+
+	/**
+	 * registry added to the global one, before the admin meters are used
+	 */
+	public static void start(int reportInterval) {
+		registry = new SimpleMeterRegistry();
+		registry.config().meterFilter(new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				if (!id.getName().startsWith("xxl.job.")) {
+					return config;
+				}
+				return DistributionStatisticConfig.builder()
+						.percentiles(PERCENTILES)
+						.expiry(Duration.ofSeconds(reportInterval))
+						.bufferLength(2)
+						.build()
+						.merge(config);
+			}
+		});
+		Metrics.globalRegistry.add(registry);
+
+		triggerLatency = Timer.builder("xxl.job.sim.trigger.latency").register(registry);
+		callbackLag = Timer.builder("xxl.job.sim.callback.lag").register(registry);
+		lastReportTime = System.currentTimeMillis();
+	}
+
+	public static void stop() {
+		if (registry != null) {
+			Metrics.globalRegistry.remove(registry);
+			registry.close();
+		}
+	}
+
+	// ---------------------- record ----------------------
+
+	/**
+	 * executor client of the admin, recording the trigger time of each run
+	 */
+	public static ExecutorBiz recordTrigger(final ExecutorBiz executorBiz) {
+		return (ExecutorBiz) Proxy.newProxyInstance(ExecutorBiz.class.getClassLoader(), new Class<?>[]{ExecutorBiz.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				// run / runAsync / runBatch / runBatchAsync
+				if (args != null && args.length == 1) {
+					if (args[0] instanceof TriggerParam) {
+						triggered((TriggerParam) args[0]);
+					} else if (args[0] instanceof List) {
+						for (Object item : (List<?>) args[0]) {
+							if (item instanceof TriggerParam) {
+								triggered((TriggerParam) item);
+							}
+						}
+					}
+				}
+				return invokeTarget(executorBiz, method, args);
+			}
+		});
+	}
+
+	/**
+	 * admin biz of the admin, recording the callback lag of each log
+	 */
+	public static AdminBiz recordCallback(final AdminBiz adminBiz) {
+		return (AdminBiz) Proxy.newProxyInstance(AdminBiz.class.getClassLoader(), new Class<?>[]{AdminBiz.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("callback".equals(method.getName()) && args != null && args[0] instanceof List) {
+					long now = System.currentTimeMillis();
+					for (Object item : (List<?>) args[0]) {
+						if (item instanceof HandleCallbackParam) {
+							Long handleEndTime = handleEndMap.remove(((HandleCallbackParam) item).getLogId());
+							if (handleEndTime != null) {
+								callbackLag.record(Math.max(now - handleEndTime, 0), TimeUnit.MILLISECONDS);
+							}
+						}
+					}
+				}
+				return invokeTarget(adminBiz, method, args);
+			}
+		});
+	}
+
+	public static void handleStart(long logId, long startTime) {
+		Long triggerTime = triggerTimeMap.remove(logId);
+		if (triggerTime != null) {
+			triggerLatency.record(Math.max(startTime - triggerTime, 0), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public static void handleEnd(long logId, long endTime) {
+		handleEndMap.put(logId, endTime);
+	}
+
+	private static void triggered(TriggerParam triggerParam) {
+		triggerTimeMap.put(triggerParam.getLogId(), triggerParam.getLogDateTime());
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	// ---------------------- report ----------------------
+
+	/**
+	 * log one report line: throughput since the last report, and latency percentiles
+	 */
+	public static void report() {
+		long now = System.currentTimeMillis();
+		double seconds = Math.max(now - lastReportTime, 1) / 1000.0;
+
+		Timer lateness = registry.find("xxl.job.ring.lateness").timer();
+		long firedCount = lateness != null ? lateness.count() : 0;
+		long runCount = triggerLatency.count();
+		double rejectedCount = 0;
+		for (Counter counter : registry.find("xxl.job.trigger.pool.rejected").counters()) {
+			rejectedCount += counter.count();
+		}
+
+		logger.info(">>>>>>>>>>> xxl-job sim, fired {}/s, run {}/s, pool rejected {}, pending trigger {}, pending callback {}",
+				String.format("%.1f", (firedCount - lastFiredCount) / seconds),
+				String.format("%.1f", (runCount - lastRunCount) / seconds),
+				(long) (rejectedCount - lastRejectedCount),
+				triggerTimeMap.size(),
+				handleEndMap.size());
+		logger.info(">>>>>>>>>>> xxl-job sim, schedule lateness {}", format(lateness));
+		logger.info(">>>>>>>>>>> xxl-job sim, trigger latency   {}", format(triggerLatency));
+		logger.info(">>>>>>>>>>> xxl-job sim, callback lag      {}", format(callbackLag));
+
+		lastReportTime = now;
+		lastFiredCount = firedCount;
+		lastRunCount = runCount;
+		lastRejectedCount = rejectedCount;
+
+		// never run (e.g. trigger fail) or never called back, not kept forever
+		long expireTime = now - PENDING_EXPIRE;
+		triggerTimeMap.values().removeIf(time -> time < expireTime);
+		handleEndMap.values().removeIf(time -> time < expireTime);
+	}
+
+	private static String format(Timer timer) {
+		if (timer == null) {
+			return "-";
+		}
+		HistogramSnapshot snapshot = timer.takeSnapshot();
+		StringBuilder line = new StringBuilder("(ms)");
+		for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+			line.append(" p").append(new DecimalFormat("0.#").format(percentile.percentile() * 100)).append("=").append(Math.round(percentile.value(TimeUnit.MILLISECONDS)));
+		}
+		line.append(" max=").append(Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+		return line.toString();
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.xxl.job.benchmark.support;
+
+import com.xxl.job.admin.core.conf.XxlJobAdminConfig;
+import com.xxl.job.admin.core.scheduler.XxlJobScheduler;
+import com.xxl.job.admin.dao.XxlJobGroupDao;
+import com.xxl.job.admin.dao.XxlJobInfoDao;
+import com.xxl.job.admin.dao.XxlJobLogDao;
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * in-process stand-in of the admin: h2 database (MySQL mode) with the real mybatis mappers, and XxlJobAdminConfig wired by hand;
+ * no spring context, no scheduler thread started, no network
+ */
+public class AdminStandIn {
+
+	private static final String JDBC_URL = "jdbc:h2:mem:xxl_job;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+	private static final String SCHEMA = "db/tables_xxl_job_h2.sql";
+	private static final String[] MAPPERS = {
+			"mybatis-mapper/XxlJobInfoMapper.xml",
+			"mybatis-mapper/XxlJobGroupMapper.xml",
+			"mybatis-mapper/XxlJobLogMapper.xml"
+	};
+
+	private final HikariDataSource dataSource;
+
+	public AdminStandIn() throws Exception {
+		// datasource, pooled as the admin
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl(JDBC_URL);
+		config.setMaximumPoolSize(10);
+		config.setPoolName("benchmark");
+		dataSource = new HikariDataSource(config);
+		try (Connection conn = dataSource.getConnection()) {
+			executeScript(conn, SCHEMA);
+		}
+
+		// dao, by the mappers of xxl-job-admin
+		Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+		for (String mapper : MAPPERS) {
+			try (InputStream inputStream = Resources.getResourceAsStream(mapper)) {
+				new XMLMapperBuilder(inputStream, configuration, mapper, configuration.getSqlFragments()).parse();
+			}
+		}
+		SqlSessionManager sqlSessionManager = SqlSessionManager.newInstance(new SqlSessionFactoryBuilder().build(configuration));
+
+		// admin config, as "afterPropertiesSet" without starting the scheduler
+		XxlJobAdminConfig adminConfig = new XxlJobAdminConfig();
+		ReflectionUtil.setField(adminConfig, XxlJobAdminConfig.class, "dataSource", dataSource);
+		ReflectionUtil.setField(adminConfig, XxlJobAdminConfig.class, "xxlJobInfoDao", sqlSessionManager.getMapper(XxlJobInfoDao.class));
+		ReflectionUtil.setField(adminConfig, XxlJobAdminConfig.class, "xxlJobGroupDao", sqlSessionManager.getMapper(XxlJobGroupDao.class));
+		ReflectionUtil.setField(adminConfig, XxlJobAdminConfig.class, "xxlJobLogDao", sqlSessionManager.getMapper(XxlJobLogDao.class));
+		ReflectionUtil.setField(adminConfig, XxlJobAdminConfig.class, "i18n", "en");
+		ReflectionUtil.setField(null, XxlJobAdminConfig.class, "adminConfig", adminConfig);
+	}
+
+	public void close() {
+		ReflectionUtil.setField(null, XxlJobAdminConfig.class, "adminConfig", null);
+		try {
+			executeUpdate("SHUTDOWN");
+		} catch (SQLException e) {
+			// closed
+		}
+		dataSource.close();
+	}
+
+	/**
+	 * executor group, address registered by hand
+	 *
+	 * @return group id
+	 */
+	public int addGroup(String appname, String addressList) throws SQLException {
+		return insert("INSERT INTO xxl_job_group (app_name, title, address_type, address_list, update_time) VALUES (?, ?, 1, ?, ?)",
+				appname, "benchmark", addressList, new Timestamp(System.currentTimeMillis()));
+	}
+
+	/**
+	 * running bean job
+	 *
+	 * @return job id
+	 */
+	public int addJob(int groupId, String scheduleType, String scheduleConf, String routeStrategy, long triggerNextTime) throws SQLException {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		return insert("INSERT INTO xxl_job_info (job_group, job_desc, add_time, update_time, author, schedule_type, schedule_conf, misfire_strategy, " +
+						"executor_route_strategy, executor_handler, executor_param, executor_block_strategy, glue_type, glue_source, glue_updatetime, " +
+						"trigger_status, trigger_next_time) VALUES (?, 'benchmark', ?, ?, 'benchmark', ?, ?, 'DO_NOTHING', ?, 'benchmarkJobHandler', '', " +
+						"'SERIAL_EXECUTION', 'BEAN', '', ?, 1, ?)",
+				groupId, now, now, scheduleType, scheduleConf, routeStrategy, now, triggerNextTime);
+	}
+
+	public int executeUpdate(String sql, Object... params) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+			 PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+			for (int i = 0; i < params.length; i++) {
+				preparedStatement.setObject(i + 1, params[i]);
+			}
+			return preparedStatement.executeUpdate();
+		}
+	}
+
+	/**
+	 * executor client of the address, instead of the http one
+	 */
+	@SuppressWarnings("unchecked")
+	public static void stubExecutor(String address, ExecutorBiz executorBiz) {
+		((Map<String, ExecutorBiz>) ReflectionUtil.getField(null, XxlJobScheduler.class, "executorBizRepository")).put(address, executorBiz);
+	}
+
+	private int insert(String sql, Object... params) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+			 PreparedStatement preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			for (int i = 0; i < params.length; i++) {
+				preparedStatement.setObject(i + 1, params[i]);
+			}
+			preparedStatement.executeUpdate();
+			try (ResultSet resultSet = preparedStatement.getGeneratedKeys()) {
+				resultSet.next();
+				return resultSet.getInt(1);
+			}
+		}
+	}
+
+	/**
+	 * execute sql script of the classpath, ";" separated, "--" line comment
+	 */
+	public static void executeScript(Connection conn, String resource) throws IOException, SQLException {
+		String script;
+		try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int len;
+			while ((len = inputStream.read(buffer)) != -1) {
+				data.write(buffer, 0, len);
+			}
+			script = new String(data.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		try (Statement statement = conn.createStatement()) {
+			for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+				if (sql.trim().length() > 0) {
+					statement.execute(sql);
+				}
+			}
+		}
+	}
+
+}
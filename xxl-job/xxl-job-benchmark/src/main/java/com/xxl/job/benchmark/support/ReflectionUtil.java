@@ -0,0 +1,30 @@
+package com.xxl.job.benchmark.support;
+
+import java.lang.reflect.Field;
+
+/**
+ * private field access, to wire the stand-in without changing the code measured
+ */
+public class ReflectionUtil {
+
+	public static void setField(Object target, Class<?> clazz, String name, Object value) {
+		try {
+			Field field = clazz.getDeclaredField(name);
+			field.setAccessible(true);
+			field.set(target, value);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("field not found: " + clazz.getName() + "#" + name, e);
+		}
+	}
+
+	public static Object getField(Object target, Class<?> clazz, String name) {
+		try {
+			Field field = clazz.getDeclaredField(name);
+			field.setAccessible(true);
+			return field.get(target);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("field not found: " + clazz.getName() + "#" + name, e);
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.xxl.job.benchmark.support;
+
+import com.xxl.job.core.biz.ExecutorBiz;
+import com.xxl.job.core.biz.model.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * executor accepting every request at once, in-process
+ */
+public class StubExecutorBiz implements ExecutorBiz {
+
+	private final AtomicLong runCount = new AtomicLong();
+
+	public long getRunCount() {
+		return runCount.get();
+	}
+
+	@Override
+	public ReturnT<String> beat() {
+		return ReturnT.SUCCESS;
+	}
+
+	@Override
+	public ReturnT<String> idleBeat(IdleBeatParam idleBeatParam) {
+		return ReturnT.SUCCESS;
+	}
+
+	@Override
+	public ReturnT<String> run(TriggerParam triggerParam) {
+		runCount.incrementAndGet();
+		return ReturnT.SUCCESS;
+	}
+
+	@Override
+	public ReturnT<String> kill(KillParam killParam) {
+		return ReturnT.SUCCESS;
+	}
+
+	@Override
+	public ReturnT<LogResult> log(LogParam logParam) {
+		return new ReturnT<LogResult>(new LogResult(logParam.getFromLineNum(), logParam.getFromLineNum(), "", true));
+	}
+
+	@Override
+	public ReturnT<String> glueWarmup(GlueWarmupParam glueWarmupParam) {
+		return ReturnT.SUCCESS;
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.xxl.job.benchmark.thread;
+
+import com.xxl.job.benchmark.support.ReflectionUtil;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.biz.model.TriggerParam;
+import com.xxl.job.core.enums.JobThreadModeEnum;
+import com.xxl.job.core.handler.IJobHandler;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import com.xxl.job.core.thread.JobLogFileAppendThread;
+import com.xxl.job.core.thread.JobThread;
+import com.xxl.job.core.thread.JobThreadPool;
+import com.xxl.job.core.thread.TriggerCallbackThread;
+import com.xxl.job.core.util.FileUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job thread hand-off: push a trigger into the queue, until the handler runs on the job thread (THREAD) or the shared pool (POOL);
+ * the job log and callback as executed, the callback is not sent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobThreadBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+	private static final int LOG_ID_RANGE = 1024;
+
+	@Param({"THREAD", "POOL"})
+	private String threadMode;
+
+	private File logPath;
+	private JobThread jobThread;
+	private final Semaphore executed = new Semaphore(0);
+	private long triggerSeq;
+
+	@Setup
+	public void setup() throws IOException {
+		logPath = Files.createTempDirectory("xxl-job-benchmark-log").toFile();
+		XxlJobFileAppender.initLogPath(logPath.getPath());
+		JobLogFileAppendThread.getInstance().start(100);
+		JobThreadPool.getInstance().start(JobThreadModeEnum.match(threadMode, JobThreadModeEnum.THREAD), 8);
+
+		jobThread = new JobThread(1, new IJobHandler() {
+			@Override
+			public void execute() throws Exception {
+				executed.release();
+			}
+		});
+		jobThread.start();
+	}
+
+	@TearDown(Level.Iteration)
+	public void clear() {
+		// callback not sent, drop it
+		((Collection<?>) ReflectionUtil.getField(TriggerCallbackThread.getInstance(), TriggerCallbackThread.class, "callBackQueue")).clear();
+	}
+
+	@TearDown
+	public void tearDown() {
+		jobThread.toStop("benchmark end");
+		JobThreadPool.getInstance().toStop();
+		JobLogFileAppendThread.getInstance().toStop();
+		FileUtil.deleteRecursively(logPath);
+	}
+
+	@Benchmark
+	public void handOff() throws InterruptedException {
+		push();
+		executed.acquire();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void handOffBatch() throws InterruptedException {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			push();
+		}
+		executed.acquire(BATCH_SIZE);
+	}
+
+	private void push() {
+		// log id reused in a small range, one log file per id, not repeated in the queue
+		TriggerParam triggerParam = new TriggerParam();
+		triggerParam.setJobId(1);
+		triggerParam.setExecutorHandler("benchmarkJobHandler");
+		triggerParam.setExecutorParams("");
+		triggerParam.setExecutorBlockStrategy("SERIAL_EXECUTION");
+		triggerParam.setLogId(triggerSeq++ % LOG_ID_RANGE + 1);
+		triggerParam.setLogDateTime(System.currentTimeMillis());
+		triggerParam.setGlueType("BEAN");
+		triggerParam.setBroadcastIndex(0);
+		triggerParam.setBroadcastTotal(1);
+
+		if (jobThread.pushTriggerQueue(triggerParam).getCode() != ReturnT.SUCCESS_CODE) {
+			throw new IllegalStateException("trigger refused, logId:" + triggerParam.getLogId());
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.xxl.job.benchmark.trigger;
+
+import com.xxl.job.admin.core.thread.JobLogWriteHelper;
+import com.xxl.job.admin.core.trigger.TriggerTypeEnum;
+import com.xxl.job.admin.core.trigger.XxlJobTrigger;
+import com.xxl.job.benchmark.support.AdminStandIn;
+import com.xxl.job.benchmark.support.StubExecutorBiz;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * trigger one job: load job and group (cache), save log, route, run on the executor, save log trigger-info;
+ * against h2 in memory, the executor is a stub accepting the run at once
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XxlJobTriggerBenchmark {
+
+	private static final String[] ADDRESS_LIST = {"127.0.0.1:9901", "127.0.0.1:9902", "127.0.0.1:9903"};
+
+	@Param({"FIRST", "ROUND", "LEAST_LOADED"})
+	private String routeStrategy;
+
+	// log saved by the group commit writer, or by the trigger thread
+	@Param({"true", "false"})
+	private boolean logWriter;
+
+	private AdminStandIn adminStandIn;
+	private StubExecutorBiz executorBiz;
+	private int jobId;
+
+	@Setup
+	public void setup() throws Exception {
+		adminStandIn = new AdminStandIn();
+		executorBiz = new StubExecutorBiz();
+		for (String address : ADDRESS_LIST) {
+			AdminStandIn.stubExecutor(address, executorBiz);
+		}
+		int groupId = adminStandIn.addGroup("xxl-job-executor-benchmark", String.join(",", ADDRESS_LIST));
+		jobId = adminStandIn.addJob(groupId, "NONE", null, routeStrategy, 0);
+
+		if (logWriter) {
+			JobLogWriteHelper.getInstance().start();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearLog() throws SQLException {
+		if (executorBiz.getRunCount() == 0) {
+			throw new IllegalStateException("no job run on the executor");
+		}
+		adminStandIn.executeUpdate("DELETE FROM xxl_job_log");
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (logWriter) {
+			JobLogWriteHelper.getInstance().toStop();
+		}
+		adminStandIn.close();
+	}
+
+	@Benchmark
+	public void trigger() {
+		XxlJobTrigger.trigger(jobId, TriggerTypeEnum.MANUAL, 0, null, null, null);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void triggerConcurrent() {
+		XxlJobTrigger.trigger(jobId, TriggerTypeEnum.MANUAL, 0, null, null, null);
+	}
+
+}
@@ -0,0 +1,152 @@
+-- admin tables for the benchmarks and the load simulator, h2 (MySQL mode); columns as doc/db/tables_xxl_job.sql
+-- index names are unique per schema in h2, prefixed by the table
+
+CREATE TABLE `xxl_job_info` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `job_group` int(11) NOT NULL,
+  `job_desc` varchar(255) NOT NULL,
+  `add_time` datetime DEFAULT NULL,
+  `update_time` datetime DEFAULT NULL,
+  `author` varchar(64) DEFAULT NULL,
+  `alarm_email` varchar(255) DEFAULT NULL,
+  `schedule_type` varchar(50) NOT NULL DEFAULT 'NONE',
+  `schedule_conf` varchar(128) DEFAULT NULL,
+  `misfire_strategy` varchar(50) NOT NULL DEFAULT 'DO_NOTHING',
+  `executor_route_strategy` varchar(50) DEFAULT NULL,
+  `executor_handler` varchar(255) DEFAULT NULL,
+  `executor_param` varchar(512) DEFAULT NULL,
+  `executor_block_strategy` varchar(50) DEFAULT NULL,
+  `executor_timeout` int(11) NOT NULL DEFAULT '0',
+  `executor_fail_retry_count` int(11) NOT NULL DEFAULT '0',
+  `glue_type` varchar(50) NOT NULL,
+  `glue_source` mediumtext,
+  `glue_remark` varchar(128) DEFAULT NULL,
+  `glue_updatetime` datetime DEFAULT NULL,
+  `child_jobid` varchar(255) DEFAULT NULL,
+  `trigger_status` tinyint(4) NOT NULL DEFAULT '0',
+  `trigger_last_time` bigint(13) NOT NULL DEFAULT '0',
+  `trigger_next_time` bigint(13) NOT NULL DEFAULT '0',
+  `shard_id` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`)
+);
+CREATE INDEX `i_schedule` ON `xxl_job_info` (`trigger_status`, `shard_id`, `trigger_next_time`);
+
+CREATE TABLE `xxl_job_log` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `job_group` int(11) NOT NULL,
+  `job_id` int(11) NOT NULL,
+  `executor_address` varchar(255) DEFAULT NULL,
+  `executor_handler` varchar(255) DEFAULT NULL,
+  `executor_param` varchar(512) DEFAULT NULL,
+  `executor_sharding_param` varchar(20) DEFAULT NULL,
+  `executor_fail_retry_count` int(11) NOT NULL DEFAULT '0',
+  `trigger_time` datetime DEFAULT NULL,
+  `trigger_code` int(11) NOT NULL,
+  `trigger_msg` text,
+  `handle_time` datetime DEFAULT NULL,
+  `handle_code` int(11) NOT NULL,
+  `handle_msg` text,
+  `alarm_status` tinyint(4) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`)
+);
+CREATE INDEX `I_trigger_time` ON `xxl_job_log` (`trigger_time`);
+CREATE INDEX `I_handle_code` ON `xxl_job_log` (`handle_code`);
+
+CREATE TABLE `xxl_job_group` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `app_name` varchar(64) NOT NULL,
+  `title` varchar(12) NOT NULL,
+  `address_type` tinyint(4) NOT NULL DEFAULT '0',
+  `address_list` text,
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+
+CREATE TABLE `xxl_job_lock` (
+  `lock_name` varchar(50) NOT NULL,
+  PRIMARY KEY (`lock_name`)
+);
+
+CREATE TABLE `xxl_job_id_segment` (
+  `biz_tag` varchar(64) NOT NULL,
+  `max_id` bigint(20) NOT NULL DEFAULT '0',
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`biz_tag`)
+);
+
+CREATE TABLE `xxl_job_log_report` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `trigger_day` datetime DEFAULT NULL,
+  `running_count` int(11) NOT NULL DEFAULT '0',
+  `suc_count` int(11) NOT NULL DEFAULT '0',
+  `fail_count` int(11) NOT NULL DEFAULT '0',
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+CREATE UNIQUE INDEX `i_log_report_trigger_day` ON `xxl_job_log_report` (`trigger_day`);
+
+CREATE TABLE `xxl_job_logglue` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `job_id` int(11) NOT NULL,
+  `glue_type` varchar(50) DEFAULT NULL,
+  `glue_source` mediumtext,
+  `glue_remark` varchar(128) NOT NULL,
+  `add_time` datetime DEFAULT NULL,
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+
+CREATE TABLE `xxl_job_registry` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `registry_group` varchar(50) NOT NULL,
+  `registry_key` varchar(255) NOT NULL,
+  `registry_value` varchar(255) NOT NULL,
+  `registry_load` varchar(64) DEFAULT NULL,
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+CREATE INDEX `i_registry_g_k_v` ON `xxl_job_registry` (`registry_group`, `registry_key`, `registry_value`);
+
+CREATE TABLE `xxl_job_user` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `username` varchar(50) NOT NULL,
+  `password` varchar(50) NOT NULL,
+  `role` tinyint(4) NOT NULL,
+  `permission` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+CREATE UNIQUE INDEX `i_user_username` ON `xxl_job_user` (`username`);
+
+CREATE TABLE `xxl_job_shard_lease` (
+  `shard_id` int(11) NOT NULL,
+  `owner` varchar(128) DEFAULT NULL,
+  `lease_time` bigint(13) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`shard_id`)
+);
+
+CREATE TABLE `xxl_job_shard_node` (
+  `node_id` varchar(128) NOT NULL,
+  `beat_time` bigint(13) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`node_id`)
+);
+
+CREATE TABLE `xxl_job_fail_outbox` (
+  `log_id` bigint(20) NOT NULL,
+  `add_time` datetime NOT NULL,
+  PRIMARY KEY (`log_id`)
+);
+CREATE INDEX `i_fail_outbox_add_time` ON `xxl_job_fail_outbox` (`add_time`);
+
+CREATE TABLE `xxl_job_registry_event` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `registry_group` varchar(50) NOT NULL,
+  `registry_key` varchar(255) NOT NULL,
+  `registry_value` varchar(255) NOT NULL,
+  `event_type` tinyint(4) NOT NULL,
+  `add_time` datetime NOT NULL,
+  PRIMARY KEY (`id`)
+);
+CREATE INDEX `i_registry_event_add_time` ON `xxl_job_registry_event` (`add_time`);
+
+INSERT INTO `xxl_job_user` (`username`, `password`, `role`, `permission`) VALUES ('admin', 'e10adc3949ba59abbe56e057f20f883e', 1, NULL);
+INSERT INTO `xxl_job_lock` (`lock_name`) VALUES ('schedule_lock');
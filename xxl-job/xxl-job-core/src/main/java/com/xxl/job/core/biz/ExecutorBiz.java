@@ -1,6 +1,11 @@
 package com.xxl.job.core.biz;
 
 import com.xxl.job.core.biz.model.*;
+import com.xxl.job.core.util.ThrowableUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by xuxueli on 17/3/1.
@@ -30,6 +35,26 @@ public interface ExecutorBiz {
 	 */
 	public ReturnT<String> run(TriggerParam triggerParam);
 
+	/**
+	 * run batch; default run one by one
+	 *
+	 * @param triggerParamList
+	 * @return one result per trigger param, in the same order
+	 */
+	default ReturnT<List<ReturnT<String>>> runBatch(List<TriggerParam> triggerParamList) {
+		List<ReturnT<String>> resultList = new ArrayList<>();
+		for (TriggerParam triggerParam : triggerParamList) {
+			ReturnT<String> result;
+			try {
+				result = run(triggerParam);
+			} catch (Exception e) {
+				result = new ReturnT<String>(ReturnT.FAIL_CODE, ThrowableUtil.toString(e));
+			}
+			resultList.add(result);
+		}
+		return new ReturnT<List<ReturnT<String>>>(resultList);
+	}
+
 	/**
 	 * kill
 	 *
@@ -46,4 +71,67 @@ public interface ExecutorBiz {
 	 */
 	public ReturnT<LogResult> log(LogParam logParam);
 
+	/**
+	 * glue warm-up, compile glue source in background; return at once;
+	 * default not supported, glue is compiled when the job runs (implementation of ExecutorBiz before warm-up keeps compiling)
+	 *
+	 * @param glueWarmupParam
+	 * @return
+	 */
+	default ReturnT<String> glueWarmup(GlueWarmupParam glueWarmupParam) {
+		return new ReturnT<String>(ReturnT.FAIL_CODE, "glue warm-up not supported.");
+	}
+
+
+	// ---------------------- async ----------------------
+
+	/**
+	 * beat, async; default run on the caller thread
+	 *
+	 * @return
+	 */
+	default CompletableFuture<ReturnT<String>> beatAsync() {
+		return CompletableFuture.completedFuture(beat());
+	}
+
+	/**
+	 * idle beat, async; default run on the caller thread
+	 *
+	 * @param idleBeatParam
+	 * @return
+	 */
+	default CompletableFuture<ReturnT<String>> idleBeatAsync(IdleBeatParam idleBeatParam) {
+		return CompletableFuture.completedFuture(idleBeat(idleBeatParam));
+	}
+
+	/**
+	 * run, async; default run on the caller thread
+	 *
+	 * @param triggerParam
+	 * @return
+	 */
+	default CompletableFuture<ReturnT<String>> runAsync(TriggerParam triggerParam) {
+		return CompletableFuture.completedFuture(run(triggerParam));
+	}
+
+	/**
+	 * run batch, async; default run on the caller thread
+	 *
+	 * @param triggerParamList
+	 * @return
+	 */
+	default CompletableFuture<ReturnT<List<ReturnT<String>>>> runBatchAsync(List<TriggerParam> triggerParamList) {
+		return CompletableFuture.completedFuture(runBatch(triggerParamList));
+	}
+
+	/**
+	 * glue warm-up, async; default run on the caller thread
+	 *
+	 * @param glueWarmupParam
+	 * @return
+	 */
+	default CompletableFuture<ReturnT<String>> glueWarmupAsync(GlueWarmupParam glueWarmupParam) {
+		return CompletableFuture.completedFuture(glueWarmup(glueWarmupParam));
+	}
+
 }
@@ -2,7 +2,11 @@ package com.xxl.job.core.biz.client;
 
 import com.xxl.job.core.biz.ExecutorBiz;
 import com.xxl.job.core.biz.model.*;
-import com.xxl.job.core.util.XxlJobRemotingUtil;
+import com.xxl.job.core.util.XxlJobRemotingClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * admin api test
@@ -28,27 +32,79 @@ public class ExecutorBizClient implements ExecutorBiz {
 
 	@Override
 	public ReturnT<String> beat() {
-		return XxlJobRemotingUtil.postBody(addressUrl + "beat", accessToken, timeout, "", String.class);
+		return XxlJobRemotingClient.postBodySync(addressUrl + "beat", accessToken, timeout, "", String.class);
 	}
 
 	@Override
 	public ReturnT<String> idleBeat(IdleBeatParam idleBeatParam) {
-		return XxlJobRemotingUtil.postBody(addressUrl + "idleBeat", accessToken, timeout, idleBeatParam, String.class);
+		return XxlJobRemotingClient.postBodySync(addressUrl + "idleBeat", accessToken, timeout, idleBeatParam, String.class);
 	}
 
 	@Override
 	public ReturnT<String> run(TriggerParam triggerParam) {
-		return XxlJobRemotingUtil.postBody(addressUrl + "run", accessToken, timeout, triggerParam, String.class);
+		return XxlJobRemotingClient.postBodySync(addressUrl + "run", accessToken, timeout, triggerParam, String.class);
+	}
+
+	@Override
+	public ReturnT<List<ReturnT<String>>> runBatch(List<TriggerParam> triggerParamList) {
+		return toResultList(XxlJobRemotingClient.postBodySync(addressUrl + "runBatch", accessToken, timeout, triggerParamList, ReturnT[].class));
 	}
 
 	@Override
 	public ReturnT<String> kill(KillParam killParam) {
-		return XxlJobRemotingUtil.postBody(addressUrl + "kill", accessToken, timeout, killParam, String.class);
+		return XxlJobRemotingClient.postBodySync(addressUrl + "kill", accessToken, timeout, killParam, String.class);
 	}
 
 	@Override
 	public ReturnT<LogResult> log(LogParam logParam) {
-		return XxlJobRemotingUtil.postBody(addressUrl + "log", accessToken, timeout, logParam, LogResult.class);
+		return XxlJobRemotingClient.postBodySync(addressUrl + "log", accessToken, timeout, logParam, LogResult.class);
+	}
+
+	@Override
+	public ReturnT<String> glueWarmup(GlueWarmupParam glueWarmupParam) {
+		return XxlJobRemotingClient.postBodySync(addressUrl + "glueWarmup", accessToken, timeout, glueWarmupParam, String.class);
+	}
+
+	@Override
+	public CompletableFuture<ReturnT<String>> beatAsync() {
+		return XxlJobRemotingClient.postBody(addressUrl + "beat", accessToken, timeout, "", String.class);
+	}
+
+	@Override
+	public CompletableFuture<ReturnT<String>> idleBeatAsync(IdleBeatParam idleBeatParam) {
+		return XxlJobRemotingClient.postBody(addressUrl + "idleBeat", accessToken, timeout, idleBeatParam, String.class);
+	}
+
+	@Override
+	public CompletableFuture<ReturnT<String>> runAsync(TriggerParam triggerParam) {
+		return XxlJobRemotingClient.postBody(addressUrl + "run", accessToken, timeout, triggerParam, String.class);
+	}
+
+	@Override
+	public CompletableFuture<ReturnT<List<ReturnT<String>>>> runBatchAsync(List<TriggerParam> triggerParamList) {
+		return XxlJobRemotingClient.postBody(addressUrl + "runBatch", accessToken, timeout, triggerParamList, ReturnT[].class)
+				.thenApply(ExecutorBizClient::toResultList);
+	}
+
+	@Override
+	public CompletableFuture<ReturnT<String>> glueWarmupAsync(GlueWarmupParam glueWarmupParam) {
+		return XxlJobRemotingClient.postBody(addressUrl + "glueWarmup", accessToken, timeout, glueWarmupParam, String.class);
+	}
+
+	/**
+	 * batch result: parsed as array (content of each item is a string), to list
+	 */
+	@SuppressWarnings("unchecked")
+	private static ReturnT<List<ReturnT<String>>> toResultList(ReturnT<ReturnT[]> batchResult) {
+		ReturnT<List<ReturnT<String>>> result = new ReturnT<List<ReturnT<String>>>(batchResult.getCode(), batchResult.getMsg());
+		if (batchResult.getContent() != null) {
+			List<ReturnT<String>> resultList = new ArrayList<>();
+			for (ReturnT item : batchResult.getContent()) {
+				resultList.add((ReturnT<String>) item);
+			}
+			result.setContent(resultList);
+		}
+		return result;
 	}
 
 }
@@ -180,8 +180,17 @@ public class ExecutorBizImpl implements ExecutorBiz {
 		// 获得日志文件名
 		String logFileName = XxlJobFileAppender.makeLogFileName(new Date(logParam.getLogDateTim()), logParam.getLogId());
 		// 读取流信息
-		LogResult logResult = XxlJobFileAppender.readLog(logFileName, logParam.getFromLineNum());
+		LogResult logResult = XxlJobFileAppender.readLog(logFileName, logParam.getFromLineNum(), logParam.getFromOffset());
 		return new ReturnT<LogResult>(logResult);
 	}
 
+	@Override
+	public ReturnT<String> glueWarmup(GlueWarmupParam glueWarmupParam) {
+		// groovy only; script is written to file at run, nothing to compile
+		if (GlueTypeEnum.GLUE_GROOVY == GlueTypeEnum.match(glueWarmupParam.getGlueType())) {
+			GlueFactory.getInstance().precompile(glueWarmupParam.getJobId(), glueWarmupParam.getGlueUpdatetime(), glueWarmupParam.getGlueSource());
+		}
+		return ReturnT.SUCCESS;
+	}
+
 }
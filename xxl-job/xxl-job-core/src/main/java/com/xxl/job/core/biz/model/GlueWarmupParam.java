@@ -0,0 +1,58 @@
+package com.xxl.job.core.biz.model;
+
+import java.io.Serializable;
+
+/**
+ * glue source pushed by admin when saved, compiled by executor in background
+ */
+public class GlueWarmupParam implements Serializable {
+	private static final long serialVersionUID = 42L;
+
+	private int jobId;
+	private String glueType;
+	private String glueSource;
+	private long glueUpdatetime;
+
+	public GlueWarmupParam() {
+	}
+
+	public GlueWarmupParam(int jobId, String glueType, String glueSource, long glueUpdatetime) {
+		this.jobId = jobId;
+		this.glueType = glueType;
+		this.glueSource = glueSource;
+		this.glueUpdatetime = glueUpdatetime;
+	}
+
+	public int getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(int jobId) {
+		this.jobId = jobId;
+	}
+
+	public String getGlueType() {
+		return glueType;
+	}
+
+	public void setGlueType(String glueType) {
+		this.glueType = glueType;
+	}
+
+	public String getGlueSource() {
+		return glueSource;
+	}
+
+	public void setGlueSource(String glueSource) {
+		this.glueSource = glueSource;
+	}
+
+	public long getGlueUpdatetime() {
+		return glueUpdatetime;
+	}
+
+	public void setGlueUpdatetime(long glueUpdatetime) {
+		this.glueUpdatetime = glueUpdatetime;
+	}
+
+}
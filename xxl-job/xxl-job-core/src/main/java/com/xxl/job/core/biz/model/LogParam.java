@@ -10,6 +10,7 @@ public class LogParam implements Serializable {
 	private long logDateTim;
 	private long logId;
 	private int fromLineNum;
+	private long fromOffset = -1;       // byte offset to read from, -1 means read from "fromLineNum" (old admin)
 	public LogParam() {
 	}
 	public LogParam(long logDateTim, long logId, int fromLineNum) {
@@ -17,6 +18,12 @@ public class LogParam implements Serializable {
 		this.logId = logId;
 		this.fromLineNum = fromLineNum;
 	}
+	public LogParam(long logDateTim, long logId, int fromLineNum, long fromOffset) {
+		this.logDateTim = logDateTim;
+		this.logId = logId;
+		this.fromLineNum = fromLineNum;
+		this.fromOffset = fromOffset;
+	}
 
 	public long getLogDateTim() {
 		return logDateTim;
@@ -42,4 +49,12 @@ public class LogParam implements Serializable {
 		this.fromLineNum = fromLineNum;
 	}
 
+	public long getFromOffset() {
+		return fromOffset;
+	}
+
+	public void setFromOffset(long fromOffset) {
+		this.fromOffset = fromOffset;
+	}
+
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ public class LogResult implements Serializable {
 	private int toLineNum;
 	private String logContent;
 	private boolean isEnd;
+	private long fromOffset = -1;
+	private long toOffset = -1;         // byte offset to read next time, -1 if not supported (old executor)
 	public LogResult() {
 	}
 	public LogResult(int fromLineNum, int toLineNum, String logContent, boolean isEnd) {
@@ -19,6 +21,14 @@ public class LogResult implements Serializable {
 		this.logContent = logContent;
 		this.isEnd = isEnd;
 	}
+	public LogResult(int fromLineNum, int toLineNum, String logContent, boolean isEnd, long fromOffset, long toOffset) {
+		this.fromLineNum = fromLineNum;
+		this.toLineNum = toLineNum;
+		this.logContent = logContent;
+		this.isEnd = isEnd;
+		this.fromOffset = fromOffset;
+		this.toOffset = toOffset;
+	}
 
 	public int getFromLineNum() {
 		return fromLineNum;
@@ -51,4 +61,20 @@ public class LogResult implements Serializable {
 	public void setEnd(boolean end) {
 		isEnd = end;
 	}
+
+	public long getFromOffset() {
+		return fromOffset;
+	}
+
+	public void setFromOffset(long fromOffset) {
+		this.fromOffset = fromOffset;
+	}
+
+	public long getToOffset() {
+		return toOffset;
+	}
+
+	public void setToOffset(long toOffset) {
+		this.toOffset = toOffset;
+	}
 }
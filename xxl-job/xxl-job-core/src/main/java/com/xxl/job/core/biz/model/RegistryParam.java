@@ -12,6 +12,11 @@ public class RegistryParam implements Serializable {
 	private String registryKey;
 	private String registryValue;
 
+	// executor load, reported with beat; null if not reported (registry remove, or older executor)
+	private Integer runningCount;       // job thread running
+	private Integer queueSize;          // trigger queued, not run yet
+	private Double cpuLoad;             // system load average per processor
+
 	public RegistryParam() {
 	}
 
@@ -45,12 +50,39 @@ public class RegistryParam implements Serializable {
 		this.registryValue = registryValue;
 	}
 
+	public Integer getRunningCount() {
+		return runningCount;
+	}
+
+	public void setRunningCount(Integer runningCount) {
+		this.runningCount = runningCount;
+	}
+
+	public Integer getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(Integer queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public Double getCpuLoad() {
+		return cpuLoad;
+	}
+
+	public void setCpuLoad(Double cpuLoad) {
+		this.cpuLoad = cpuLoad;
+	}
+
 	@Override
 	public String toString() {
 		return "RegistryParam{" +
 				"registryGroup='" + registryGroup + '\'' +
 				", registryKey='" + registryKey + '\'' +
 				", registryValue='" + registryValue + '\'' +
+				", runningCount=" + runningCount +
+				", queueSize=" + queueSize +
+				", cpuLoad=" + cpuLoad +
 				'}';
 	}
 }
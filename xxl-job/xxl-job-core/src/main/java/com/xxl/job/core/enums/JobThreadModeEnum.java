@@ -0,0 +1,36 @@
+package com.xxl.job.core.enums;
+
+/**
+ * job thread mode
+ */
+public enum JobThreadModeEnum {
+
+	//独立线程（默认）：每个任务一个常驻线程，轮询触发队列，空闲超时后回收；
+	THREAD("Dedicated thread"),
+	//共享线程池：每个任务一个串行信箱（触发队列），由有界共享线程池调度执行，空闲任务不占用线程；
+	POOL("Shared pool"),
+	//虚拟线程：同共享线程池，信箱由虚拟线程执行，需 JDK 21+，否则降级为共享线程池；
+	VIRTUAL("Virtual thread");
+
+	private String title;
+
+	private JobThreadModeEnum(String title) {
+		this.title = title;
+	}
+
+	public static JobThreadModeEnum match(String name, JobThreadModeEnum defaultItem) {
+		if (name != null) {
+			for (JobThreadModeEnum item : JobThreadModeEnum.values()) {
+				if (item.name().equalsIgnoreCase(name.trim())) {
+					return item;
+				}
+			}
+		}
+		return defaultItem;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+}
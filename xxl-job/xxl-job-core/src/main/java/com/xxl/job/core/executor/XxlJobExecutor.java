@@ -2,13 +2,17 @@ package com.xxl.job.core.executor;
 
 import com.xxl.job.core.biz.AdminBiz;
 import com.xxl.job.core.biz.client.AdminBizClient;
+import com.xxl.job.core.enums.JobThreadModeEnum;
 import com.xxl.job.core.handler.IJobHandler;
 import com.xxl.job.core.handler.annotation.XxlJob;
 import com.xxl.job.core.handler.impl.MethodJobHandler;
 import com.xxl.job.core.log.XxlJobFileAppender;
 import com.xxl.job.core.server.EmbedServer;
+import com.xxl.job.core.thread.JobLogFileAppendThread;
 import com.xxl.job.core.thread.JobLogFileCleanThread;
 import com.xxl.job.core.thread.JobThread;
+import com.xxl.job.core.thread.JobThreadPool;
+import com.xxl.job.core.thread.ScriptProcessThread;
 import com.xxl.job.core.thread.TriggerCallbackThread;
 import com.xxl.job.core.util.IpUtil;
 import com.xxl.job.core.util.NetUtil;
@@ -17,6 +21,7 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -42,6 +47,10 @@ public class XxlJobExecutor {
 	private int port;
 	private String logPath;
 	private int logRetentionDays;
+	private int logFlushInterval;
+	private String jobThreadMode;
+	private int jobThreadPoolSize;
+	private int scriptMaxRunning;
 	// ---------------------- executor-server (rpc provider) ----------------------
 	private EmbedServer embedServer = null;
 
@@ -65,9 +74,8 @@ public class XxlJobExecutor {
 		// 存储jobId与绑定工作的线程
 		JobThread oldJobThread = jobThreadRepository.put(jobId, newJobThread);    // putIfAbsent | oh my god, map's put method return the old value!!!
 		if (oldJobThread != null) {
-			// 中断并删除旧线程
+			// 中断并删除旧线程（toStop 中断运行中的任务）
 			oldJobThread.toStop(removeOldReason);
-			oldJobThread.interrupt();
 		}
 
 		return newJobThread;
@@ -77,7 +85,6 @@ public class XxlJobExecutor {
 		JobThread oldJobThread = jobThreadRepository.remove(jobId);
 		if (oldJobThread != null) {
 			oldJobThread.toStop(removeOldReason);
-			oldJobThread.interrupt();
 
 			return oldJobThread;
 		}
@@ -88,6 +95,10 @@ public class XxlJobExecutor {
 		return jobThreadRepository.get(jobId);
 	}
 
+	public static Collection<JobThread> loadJobThreads() {
+		return jobThreadRepository.values();
+	}
+
 	public void setAdminAddresses(String adminAddresses) {
 		this.adminAddresses = adminAddresses;
 	}
@@ -120,6 +131,22 @@ public class XxlJobExecutor {
 		this.logRetentionDays = logRetentionDays;
 	}
 
+	public void setLogFlushInterval(int logFlushInterval) {
+		this.logFlushInterval = logFlushInterval;
+	}
+
+	public void setJobThreadMode(String jobThreadMode) {
+		this.jobThreadMode = jobThreadMode;
+	}
+
+	public void setJobThreadPoolSize(int jobThreadPoolSize) {
+		this.jobThreadPoolSize = jobThreadPoolSize;
+	}
+
+	public void setScriptMaxRunning(int scriptMaxRunning) {
+		this.scriptMaxRunning = scriptMaxRunning;
+	}
+
 	// ---------------------- start + stop ----------------------
 	public void start() throws Exception {
 
@@ -127,6 +154,10 @@ public class XxlJobExecutor {
 		// 初始化日志路径
 		XxlJobFileAppender.initLogPath(logPath);
 
+		// init JobLogFileAppendThread
+		// 初始化日志异步写入线程，刷盘间隔 <= 0 时同步写入
+		JobLogFileAppendThread.getInstance().start(logFlushInterval);
+
 		// init invoker, admin-client
 		// 初始化xxl-job连接信息
 		initAdminBizList(adminAddresses, accessToken);
@@ -140,6 +171,14 @@ public class XxlJobExecutor {
 		// 初始化回调线程
 		TriggerCallbackThread.getInstance().start();
 
+		// init JobThreadPool
+		// 初始化任务执行模式：独立线程、共享线程池或虚拟线程
+		JobThreadPool.getInstance().start(JobThreadModeEnum.match(jobThreadMode, JobThreadModeEnum.THREAD), jobThreadPoolSize);
+
+		// init ScriptProcessThread
+		// 初始化脚本进程线程：统一读取脚本输出，限制同时运行脚本数
+		ScriptProcessThread.getInstance().start(scriptMaxRunning);
+
 		// init executor-server
 		// 启动netty服务，并注册至admin
 		initEmbedServer(address, ip, port, appname, accessToken);
@@ -166,6 +205,12 @@ public class XxlJobExecutor {
 		}
 		jobHandlerRepository.clear();
 
+		// destroy JobThreadPool
+		JobThreadPool.getInstance().toStop();
+
+		// destroy ScriptProcessThread, kill remaining script
+		ScriptProcessThread.getInstance().toStop();
+
 
 		// destroy JobLogFileCleanThread
 		JobLogFileCleanThread.getInstance().toStop();
@@ -173,6 +218,9 @@ public class XxlJobExecutor {
 		// destroy TriggerCallbackThread
 		TriggerCallbackThread.getInstance().toStop();
 
+		// destroy JobLogFileAppendThread, write remaining log
+		JobLogFileAppendThread.getInstance().toStop();
+
 	}
 
 	// 当存在多个任务调度中心时，创建多个AdminBizClient(adminAddress)
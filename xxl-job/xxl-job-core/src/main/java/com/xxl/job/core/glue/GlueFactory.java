@@ -3,37 +3,79 @@ package com.xxl.job.core.glue;
 import com.xxl.job.core.glue.impl.SpringGlueFactory;
 import com.xxl.job.core.handler.IJobHandler;
 import groovy.lang.GroovyClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
 import java.math.BigInteger;
 import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * glue factory, product class/object by name
  *
+ * 1、cache: glue class by md5 of source, LRU bounded by CLASS_CACHE_SIZE; each class in its own GroovyClassLoader,
+ *    evicted class is unloaded (with its loader) once no job thread uses it;
+ * 2、compile: the same source compiled once at a time, concurrent load waits for it;
+ * 3、warm-up: new glue pushed by admin is compiled in background, not by the first trigger;
+ * 4、stats: compile count and time, eviction, metaspace used; logged on each compile;
+ *
  * @author xuxueli 2016-1-2 20:02:27
  */
 public class GlueFactory {
+	private static Logger logger = LoggerFactory.getLogger(GlueFactory.class);
 
+	private static final int CLASS_CACHE_SIZE = 128;
+	private static final int WARMUP_QUEUE_SIZE = 100;
 
 	private static GlueFactory glueFactory = new GlueFactory();
+
 	/**
-	 * groovy class loader
+	 * parent of the groovy class loader of each glue class
 	 */
-	private GroovyClassLoader groovyClassLoader = new GroovyClassLoader();
-	private ConcurrentMap<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+	private final ClassLoader parentClassLoader;
+	// md5 -> glue class, access order
+	private final LinkedHashMap<String, GlueClass> CLASS_CACHE = new LinkedHashMap<String, GlueClass>(16, 0.75f, true);
+	// md5 -> compile in progress
+	private final ConcurrentMap<String, FutureTask<GlueClass>> compilingMap = new ConcurrentHashMap<String, FutureTask<GlueClass>>();
+	// jobId -> glue version warmed up
+	private final ConcurrentMap<Integer, Long> warmupVersionMap = new ConcurrentHashMap<Integer, Long>();
+	private volatile ThreadPoolExecutor warmupThreadPool;
+
+	private final AtomicLong compileCount = new AtomicLong();
+	private final AtomicLong compileTime = new AtomicLong();        // ms, total
+	private final AtomicLong evictCount = new AtomicLong();
+
+	public GlueFactory() {
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		this.parentClassLoader = contextClassLoader != null ? contextClassLoader : GlueFactory.class.getClassLoader();
+	}
 
 	public static GlueFactory getInstance() {
 		return glueFactory;
 	}
 
 	public static void refreshInstance(int type) {
+		GlueFactory oldGlueFactory = glueFactory;
 		if (type == 0) {
 			glueFactory = new GlueFactory();
 		} else if (type == 1) {
 			glueFactory = new SpringGlueFactory();
 		}
+		if (oldGlueFactory != glueFactory) {
+			oldGlueFactory.stopWarmup();
+		}
 	}
 
 	/**
@@ -62,23 +104,108 @@ public class GlueFactory {
 		throw new IllegalArgumentException(">>>>>>>>>>> xxl-glue, loadNewInstance error, instance is null");
 	}
 
-	private Class<?> getCodeSourceClass(String codeSource) {
+	/**
+	 * compile glue source in background, for the glue version pushed by admin; older or same version is skipped
+	 *
+	 * @return false if skipped, or the warm-up queue is full
+	 */
+	public boolean precompile(int jobId, long glueUpdatetime, final String codeSource) {
+		if (codeSource == null || codeSource.trim().length() == 0) {
+			return false;
+		}
+		Long warmupVersion = warmupVersionMap.get(jobId);
+		if (warmupVersion != null && warmupVersion >= glueUpdatetime) {
+			return false;
+		}
+		warmupVersionMap.put(jobId, glueUpdatetime);
+
 		try {
-			// md5
-			byte[] md5 = MessageDigest.getInstance("MD5").digest(codeSource.getBytes());
-			String md5Str = new BigInteger(1, md5).toString(16);
-
-			Class<?> clazz = CLASS_CACHE.get(md5Str);
-			if (clazz == null) {
-				clazz = groovyClassLoader.parseClass(codeSource);
-				CLASS_CACHE.putIfAbsent(md5Str, clazz);
-			}
-			return clazz;
+			startWarmup().execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						getCodeSourceClass(codeSource);
+					} catch (Throwable e) {
+						// compiled again by the trigger, and failed there
+						logger.warn(">>>>>>>>>>> xxl-glue, precompile fail, jobId:{}, glueUpdatetime:{}, error:{}", jobId, glueUpdatetime, e.getMessage());
+					}
+				}
+			});
+			return true;
 		} catch (Exception e) {
-			return groovyClassLoader.parseClass(codeSource);
+			// rejected, compiled by the trigger
+			logger.warn(">>>>>>>>>>> xxl-glue, precompile rejected, jobId:{}, glueUpdatetime:{}", jobId, glueUpdatetime);
+			warmupVersionMap.remove(jobId, glueUpdatetime);
+			return false;
 		}
 	}
 
+	private Class<?> getCodeSourceClass(String codeSource) throws Exception {
+		String md5Str = md5(codeSource);
+
+		GlueClass glueClass;
+		synchronized (CLASS_CACHE) {
+			glueClass = CLASS_CACHE.get(md5Str);
+		}
+		if (glueClass != null) {
+			return glueClass.clazz;
+		}
+
+		// compile once, concurrent load of the same source waits for it
+		FutureTask<GlueClass> compileTask = new FutureTask<GlueClass>(() -> compile(md5Str, codeSource));
+		FutureTask<GlueClass> existTask = compilingMap.putIfAbsent(md5Str, compileTask);
+		if (existTask == null) {
+			try {
+				compileTask.run();
+			} finally {
+				compilingMap.remove(md5Str, compileTask);
+			}
+		} else {
+			compileTask = existTask;
+		}
+
+		try {
+			return compileTask.get().clazz;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		}
+	}
+
+	private GlueClass compile(String md5Str, String codeSource) {
+		long startTime = System.currentTimeMillis();
+		GroovyClassLoader groovyClassLoader = new GroovyClassLoader(parentClassLoader);
+		GlueClass glueClass = new GlueClass(groovyClassLoader.parseClass(codeSource), groovyClassLoader);
+		long cost = System.currentTimeMillis() - startTime;
+
+		int cacheSize;
+		synchronized (CLASS_CACHE) {
+			CLASS_CACHE.put(md5Str, glueClass);
+			Iterator<Map.Entry<String, GlueClass>> iterator = CLASS_CACHE.entrySet().iterator();
+			while (CLASS_CACHE.size() > CLASS_CACHE_SIZE && iterator.hasNext()) {
+				GlueClass evicted = iterator.next().getValue();
+				iterator.remove();
+				evicted.release();
+				evictCount.incrementAndGet();
+			}
+			cacheSize = CLASS_CACHE.size();
+		}
+
+		compileCount.incrementAndGet();
+		compileTime.addAndGet(cost);
+		logger.info(">>>>>>>>>>> xxl-glue, compiled, class:{}, cost:{}ms, cache size:{}, evicted:{}, metaspace used:{}KB",
+				glueClass.clazz.getName(), cost, cacheSize, evictCount.get(), metaspaceUsed() / 1024);
+		return glueClass;
+	}
+
+	private static String md5(String codeSource) throws Exception {
+		byte[] md5 = MessageDigest.getInstance("MD5").digest(codeSource.getBytes("UTF-8"));
+		return new BigInteger(1, md5).toString(16);
+	}
+
 	/**
 	 * inject service of bean field
 	 *
@@ -88,4 +215,89 @@ public class GlueFactory {
 		// do something
 	}
 
+
+	// ---------------------- warm-up ----------------------
+
+	private ThreadPoolExecutor startWarmup() {
+		if (warmupThreadPool == null) {
+			synchronized (this) {
+				if (warmupThreadPool == null) {
+					ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+							1,
+							1,
+							60L,
+							TimeUnit.SECONDS,
+							new LinkedBlockingQueue<Runnable>(WARMUP_QUEUE_SIZE),
+							r -> {
+								Thread thread = new Thread(r, "xxl-job, GlueFactory-warmupThreadPool-" + r.hashCode());
+								thread.setDaemon(true);
+								return thread;
+							});
+					threadPool.allowCoreThreadTimeOut(true);
+					warmupThreadPool = threadPool;
+				}
+			}
+		}
+		return warmupThreadPool;
+	}
+
+	private void stopWarmup() {
+		if (warmupThreadPool != null) {
+			warmupThreadPool.shutdownNow();
+		}
+	}
+
+
+	// ---------------------- stats ----------------------
+
+	public long getCompileCount() {
+		return compileCount.get();
+	}
+
+	/**
+	 * @return ms, total
+	 */
+	public long getCompileTime() {
+		return compileTime.get();
+	}
+
+	public long getEvictCount() {
+		return evictCount.get();
+	}
+
+	public int getCacheSize() {
+		synchronized (CLASS_CACHE) {
+			return CLASS_CACHE.size();
+		}
+	}
+
+	/**
+	 * @return bytes of metaspace used, -1 if not available
+	 */
+	public static long metaspaceUsed() {
+		for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if ("Metaspace".equals(memoryPool.getName())) {
+				return memoryPool.getUsage().getUsed();
+			}
+		}
+		return -1;
+	}
+
+	private static class GlueClass {
+		private final Class<?> clazz;
+		private final GroovyClassLoader groovyClassLoader;
+
+		private GlueClass(Class<?> clazz, GroovyClassLoader groovyClassLoader) {
+			this.clazz = clazz;
+			this.groovyClassLoader = groovyClassLoader;
+		}
+
+		/**
+		 * drop the loader cache, the class and its loader are unloaded once not referenced by a job handler
+		 */
+		private void release() {
+			groovyClassLoader.clearCache();
+		}
+	}
+
 }
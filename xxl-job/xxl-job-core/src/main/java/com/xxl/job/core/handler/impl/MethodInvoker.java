@@ -0,0 +1,123 @@
+package com.xxl.job.core.handler.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * invoker of job method, linked once at registration
+ *
+ * 1、compiled: public no-arg method of public class, by LambdaMetafactory; a plain interface call, inlined by JIT;
+ * 2、reflection: other method (with param, not public, or not linkable from here), by Method.invoke; param array is built once;
+ *
+ * exception thrown by the method is thrown as it is, not wrapped by InvocationTargetException.
+ */
+public abstract class MethodInvoker {
+	private static Logger logger = LoggerFactory.getLogger(MethodInvoker.class);
+
+	/**
+	 * lambda target, implemented by the class LambdaMetafactory generates
+	 */
+	public interface Invocation {
+		void invoke(Object target) throws Exception;
+	}
+
+	public abstract void invoke(Object target) throws Exception;
+
+	/**
+	 * @return true if linked by LambdaMetafactory
+	 */
+	public abstract boolean isCompiled();
+
+	/**
+	 * compiled if linkable, reflection otherwise
+	 */
+	public static MethodInvoker of(Method method) {
+		MethodInvoker invoker = compile(method);
+		return invoker != null ? invoker : reflect(method);
+	}
+
+	/**
+	 * @return null if not linkable
+	 */
+	public static MethodInvoker compile(Method method) {
+		if (method.getParameterTypes().length > 0
+				|| Modifier.isStatic(method.getModifiers())
+				|| !Modifier.isPublic(method.getModifiers())
+				|| !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			return null;
+		}
+		try {
+			// class visible from here, or the generated class fails at the first call instead of linking
+			Class<?> declaringClass = method.getDeclaringClass();
+			if (Class.forName(declaringClass.getName(), false, MethodInvoker.class.getClassLoader()) != declaringClass) {
+				return null;
+			}
+
+			// access checked as from here ("unreflect" passes private method set accessible)
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle methodHandle = lookup.findVirtual(declaringClass, method.getName(), MethodType.methodType(method.getReturnType()));
+			CallSite callSite = LambdaMetafactory.metafactory(lookup,
+					"invoke",
+					MethodType.methodType(Invocation.class),
+					MethodType.methodType(void.class, Object.class),
+					methodHandle,
+					MethodType.methodType(void.class, declaringClass));
+			final Invocation invocation = (Invocation) callSite.getTarget().invoke();
+			return new MethodInvoker() {
+				@Override
+				public void invoke(Object target) throws Exception {
+					invocation.invoke(target);
+				}
+
+				@Override
+				public boolean isCompiled() {
+					return true;
+				}
+			};
+		} catch (Throwable e) {
+			// e.g. class not accessible, or not visible from the class loader of xxl-job-core
+			logger.debug(">>>>>>>>>>> xxl-job method invoker link fail, use reflection, method:{}", method, e);
+			return null;
+		}
+	}
+
+	public static MethodInvoker reflect(final Method method) {
+		final int paramCount = method.getParameterTypes().length;
+		return new MethodInvoker() {
+			@Override
+			public void invoke(Object target) throws Exception {
+				try {
+					if (paramCount > 0) {
+						method.invoke(target, new Object[paramCount]);       // method-param can not be primitive-types
+					} else {
+						method.invoke(target);
+					}
+				} catch (InvocationTargetException e) {
+					Throwable cause = e.getTargetException();
+					if (cause instanceof Exception) {
+						throw (Exception) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw e;
+				}
+			}
+
+			@Override
+			public boolean isCompiled() {
+				return false;
+			}
+		};
+	}
+
+}
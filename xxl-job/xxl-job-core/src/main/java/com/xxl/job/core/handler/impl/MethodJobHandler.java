@@ -14,35 +14,39 @@ public class MethodJobHandler extends IJobHandler {
 	private Method initMethod;
 	private Method destroyMethod;
 
+	// linked once, by LambdaMetafactory if possible (see MethodInvoker)
+	private final MethodInvoker invoker;
+	private final MethodInvoker initInvoker;
+	private final MethodInvoker destroyInvoker;
+
 	public MethodJobHandler(Object target, Method method, Method initMethod, Method destroyMethod) {
 		this.target = target;
 		this.method = method;
 
 		this.initMethod = initMethod;
 		this.destroyMethod = destroyMethod;
+
+		this.invoker = MethodInvoker.of(method);
+		this.initInvoker = initMethod != null ? MethodInvoker.of(initMethod) : null;
+		this.destroyInvoker = destroyMethod != null ? MethodInvoker.of(destroyMethod) : null;
 	}
 
 	@Override
 	public void execute() throws Exception {
-		Class<?>[] paramTypes = method.getParameterTypes();
-		if (paramTypes.length > 0) {
-			method.invoke(target, new Object[paramTypes.length]);       // method-param can not be primitive-types
-		} else {
-			method.invoke(target);
-		}
+		invoker.invoke(target);
 	}
 
 	@Override
 	public void init() throws Exception {
-		if (initMethod != null) {
-			initMethod.invoke(target);
+		if (initInvoker != null) {
+			initInvoker.invoke(target);
 		}
 	}
 
 	@Override
 	public void destroy() throws Exception {
-		if (destroyMethod != null) {
-			destroyMethod.invoke(target);
+		if (destroyInvoker != null) {
+			destroyInvoker.invoke(target);
 		}
 	}
 
@@ -8,12 +8,17 @@ import com.xxl.job.core.log.XxlJobFileAppender;
 import com.xxl.job.core.util.ScriptUtil;
 
 import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by xuxueli on 17/4/27.
  */
 public class ScriptJobHandler extends IJobHandler {
 
+	// jobId -> glueUpdatetime, old script file cleaned
+	private static final ConcurrentMap<Integer, Long> cleanedVersionMap = new ConcurrentHashMap<Integer, Long>();
+
 	private int jobId;
 	private long glueUpdatetime;
 	private String gluesource;
@@ -25,7 +30,11 @@ public class ScriptJobHandler extends IJobHandler {
 		this.gluesource = gluesource;
 		this.glueType = glueType;
 
-		// clean old script file
+		// clean old script file, once per job version (handler is created again when job thread idle removed)
+		Long cleanedVersion = cleanedVersionMap.put(jobId, glueUpdatetime);
+		if (cleanedVersion != null && cleanedVersion == glueUpdatetime) {
+			return;
+		}
 		File glueSrcPath = new File(XxlJobFileAppender.getGlueSrcPath());
 		if (glueSrcPath.exists()) {
 			File[] glueSrcFileList = glueSrcPath.listFiles();
@@ -0,0 +1,391 @@
+package com.xxl.job.core.log;
+
+import com.xxl.job.core.biz.model.HandleCallbackParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * callback journal, segmented append-only file, for TriggerCallbackThread
+ *
+ * 1、append: callback is appended when pushed (page cache, survives process crash), fsync is batched by "sync";
+ * 2、read + ack: callback is read from the acked position, and acked after admin accepted; not acked callback is read again,
+ *    after admin recovered or executor restarted (admin ignores repeat callback);
+ * 3、segment: rolled at SEGMENT_SIZE, deleted once fully acked; torn record at the end is truncated when opened;
+ * 4、file io: RandomAccessFile, not FileChannel, job thread appending may be interrupted (kill, timeout), which closes a FileChannel for every caller;
+ *
+ * record: int length, int crc32, payload(long logId, long logDateTim, int handleCode, int msgLength, byte[] msg utf-8)
+ * ack file: long segment, long offset
+ */
+public class XxlJobCallbackJournal {
+	private static Logger logger = LoggerFactory.getLogger(XxlJobCallbackJournal.class);
+
+	private static final long SEGMENT_SIZE = 64 * 1024 * 1024;
+	private static final int MAX_RECORD_SIZE = 1024 * 1024;
+	private static final int HEADER_SIZE = 8;
+	private static final String SEGMENT_SUFFIX = ".journal";
+	private static final String ACK_FILE_NAME = "ack";
+
+	private final File journalDir;
+	private final long segmentSize;
+	private final Object lock = new Object();
+
+	private RandomAccessFile writeFile;
+	private long writeSegment;
+	private long writeOffset;
+	private boolean dirty = false;
+
+	private long ackSegment;
+	private long ackOffset;
+
+	public XxlJobCallbackJournal(String journalPath) {
+		this(journalPath, SEGMENT_SIZE);
+	}
+
+	XxlJobCallbackJournal(String journalPath, long segmentSize) {
+		this.journalDir = new File(journalPath);
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * open, recover acked position and write position
+	 */
+	public void open() throws IOException {
+		synchronized (lock) {
+			if (!journalDir.exists()) {
+				journalDir.mkdirs();
+			}
+
+			// acked position
+			File ackFile = new File(journalDir, ACK_FILE_NAME);
+			if (ackFile.exists() && ackFile.length() >= 16) {
+				RandomAccessFile raf = new RandomAccessFile(ackFile, "r");
+				try {
+					ackSegment = raf.readLong();
+					ackOffset = raf.readLong();
+				} finally {
+					raf.close();
+				}
+			}
+
+			// segment, delete acked one
+			long[] segments = listSegments();
+			for (long segment : segments) {
+				if (segment < ackSegment) {
+					segmentFile(segment).delete();
+				}
+			}
+			segments = listSegments();
+			if (segments.length == 0 || segments[0] > ackSegment) {
+				ackSegment = segments.length > 0 ? segments[0] : ackSegment;
+				ackOffset = 0;
+			}
+
+			// write position: end of the last valid record, truncate the torn one
+			writeSegment = segments.length > 0 ? segments[segments.length - 1] : ackSegment;
+			writeFile = new RandomAccessFile(segmentFile(writeSegment), "rw");
+			long validEnd = 0;
+			long fileSize = writeFile.length();
+			while (validEnd < fileSize) {
+				int recordSize = validRecordSize(writeFile, validEnd, fileSize);
+				if (recordSize < 0) {
+					logger.warn(">>>>>>>>>>> xxl-job, callback journal truncated, segment:{}, offset:{}, size:{}", writeSegment, validEnd, fileSize);
+					writeFile.setLength(validEnd);
+					break;
+				}
+				validEnd += recordSize;
+			}
+			writeOffset = validEnd;
+			if (ackSegment == writeSegment && ackOffset > writeOffset) {
+				ackOffset = writeOffset;
+			}
+		}
+	}
+
+	public void close() {
+		synchronized (lock) {
+			if (writeFile == null) {
+				return;
+			}
+			try {
+				writeFile.getFD().sync();
+				writeFile.close();
+			} catch (IOException e) {
+				logger.error(e.getMessage(), e);
+			}
+			writeFile = null;
+		}
+	}
+
+	/**
+	 * reopen after io fail, write position recovered from the file (torn record truncated)
+	 */
+	public void reopen() throws IOException {
+		synchronized (lock) {
+			if (writeFile != null) {
+				try {
+					writeFile.close();
+				} catch (IOException e) {
+					logger.error(e.getMessage(), e);
+				}
+				writeFile = null;
+			}
+			open();
+		}
+	}
+
+
+	// ---------------------- write ----------------------
+
+	/**
+	 * append callback
+	 */
+	public void append(HandleCallbackParam callbackParam) throws IOException {
+		ByteBuffer record = encode(callbackParam);
+		synchronized (lock) {
+			if (writeFile == null) {
+				throw new IOException("callback journal closed.");
+			}
+			if (writeOffset >= segmentSize) {
+				// roll
+				writeFile.getFD().sync();
+				writeFile.close();
+				writeFile = null;
+				writeSegment++;
+				writeOffset = 0;
+				writeFile = new RandomAccessFile(segmentFile(writeSegment), "rw");
+			}
+			writeFile.seek(writeOffset);
+			writeFile.write(record.array(), 0, record.limit());
+			writeOffset += record.limit();
+			dirty = true;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * fsync appended callback, batched
+	 */
+	public void sync() throws IOException {
+		synchronized (lock) {
+			if (dirty && writeFile != null) {
+				writeFile.getFD().sync();
+				dirty = false;
+			}
+		}
+	}
+
+
+	// ---------------------- read ----------------------
+
+	/**
+	 * wait until callback appended, or timeout
+	 */
+	public void await(long timeoutMs) throws InterruptedException {
+		synchronized (lock) {
+			if (ackSegment == writeSegment && ackOffset >= writeOffset) {
+				lock.wait(timeoutMs);
+			}
+		}
+	}
+
+	/**
+	 * read callback from the acked position, not acked
+	 */
+	public ReadBatch read(int maxSize) throws IOException {
+		synchronized (lock) {
+			List<HandleCallbackParam> callbackParamList = new ArrayList<HandleCallbackParam>();
+			long segment = ackSegment;
+			long offset = ackOffset;
+			RandomAccessFile file = null;
+			try {
+				while (callbackParamList.size() < maxSize && writeFile != null) {
+					if (file == null) {
+						if (segment < writeSegment && !segmentFile(segment).exists()) {
+							segment++;
+							offset = 0;
+							continue;
+						}
+						file = (segment == writeSegment) ? writeFile : new RandomAccessFile(segmentFile(segment), "r");
+					}
+					long end = (segment == writeSegment) ? writeOffset : file.length();
+					int recordSize = offset < end ? validRecordSize(file, offset, end) : -1;
+					if (recordSize < 0) {
+						if (segment < writeSegment) {
+							// next segment
+							if (offset < end) {
+								logger.warn(">>>>>>>>>>> xxl-job, callback journal record invalid, skip the rest of segment:{}, offset:{}", segment, offset);
+							}
+							if (file != writeFile) {
+								file.close();
+							}
+							file = null;
+							segment++;
+							offset = 0;
+							continue;
+						}
+						break;
+					}
+					ByteBuffer payload = ByteBuffer.allocate(recordSize - HEADER_SIZE);
+					readFully(file, payload, offset + HEADER_SIZE);
+					callbackParamList.add(decode(payload));
+					offset += recordSize;
+				}
+			} finally {
+				if (file != null && file != writeFile) {
+					file.close();
+				}
+			}
+			return new ReadBatch(callbackParamList, segment, offset);
+		}
+	}
+
+	/**
+	 * ack callback read, delete fully acked segment
+	 */
+	public void ack(ReadBatch batch) throws IOException {
+		synchronized (lock) {
+			long oldAckSegment = ackSegment;
+			ackSegment = batch.segment;
+			ackOffset = batch.offset;
+
+			// not fsync, lost ack only makes repeat callback
+			RandomAccessFile raf = new RandomAccessFile(new File(journalDir, ACK_FILE_NAME), "rw");
+			try {
+				raf.seek(0);
+				raf.writeLong(ackSegment);
+				raf.writeLong(ackOffset);
+			} finally {
+				raf.close();
+			}
+
+			for (long segment = oldAckSegment; segment < ackSegment; segment++) {
+				segmentFile(segment).delete();
+			}
+		}
+	}
+
+	public static class ReadBatch {
+		private final List<HandleCallbackParam> callbackParamList;
+		private final long segment;
+		private final long offset;
+
+		private ReadBatch(List<HandleCallbackParam> callbackParamList, long segment, long offset) {
+			this.callbackParamList = callbackParamList;
+			this.segment = segment;
+			this.offset = offset;
+		}
+
+		public List<HandleCallbackParam> getCallbackParamList() {
+			return callbackParamList;
+		}
+	}
+
+
+	// ---------------------- record ----------------------
+
+	private static ByteBuffer encode(HandleCallbackParam callbackParam) {
+		byte[] msg = callbackParam.getHandleMsg() != null ? callbackParam.getHandleMsg().getBytes(StandardCharsets.UTF_8) : null;
+		if (msg != null && msg.length > MAX_RECORD_SIZE - 64) {
+			msg = Arrays.copyOf(msg, MAX_RECORD_SIZE - 64);
+		}
+		int payloadSize = 8 + 8 + 4 + 4 + (msg != null ? msg.length : 0);
+
+		ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+		record.putInt(payloadSize);
+		record.putInt(0);       // crc, below
+		record.putLong(callbackParam.getLogId());
+		record.putLong(callbackParam.getLogDateTim());
+		record.putInt(callbackParam.getHandleCode());
+		record.putInt(msg != null ? msg.length : -1);
+		if (msg != null) {
+			record.put(msg);
+		}
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(record.array(), HEADER_SIZE, payloadSize);
+		record.putInt(4, (int) crc32.getValue());
+		record.flip();
+		return record;
+	}
+
+	private static HandleCallbackParam decode(ByteBuffer payload) {
+		long logId = payload.getLong();
+		long logDateTim = payload.getLong();
+		int handleCode = payload.getInt();
+		int msgLength = payload.getInt();
+		String handleMsg = null;
+		if (msgLength >= 0) {
+			handleMsg = new String(payload.array(), payload.position(), msgLength, StandardCharsets.UTF_8);
+		}
+		return new HandleCallbackParam(logId, logDateTim, handleCode, handleMsg);
+	}
+
+	/**
+	 * @return record size (header + payload), or -1 if not complete or crc not match
+	 */
+	private static int validRecordSize(RandomAccessFile file, long offset, long end) throws IOException {
+		if (offset + HEADER_SIZE > end) {
+			return -1;
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(file, header, offset);
+		int payloadSize = header.getInt();
+		int crc = header.getInt();
+		if (payloadSize < 24 || payloadSize > MAX_RECORD_SIZE || offset + HEADER_SIZE + payloadSize > end) {
+			return -1;
+		}
+
+		ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+		readFully(file, payload, offset + HEADER_SIZE);
+		CRC32 crc32 = new CRC32();
+		crc32.update(payload.array(), 0, payloadSize);
+		if ((int) crc32.getValue() != crc) {
+			return -1;
+		}
+		return HEADER_SIZE + payloadSize;
+	}
+
+	private static void readFully(RandomAccessFile file, ByteBuffer buffer, long position) throws IOException {
+		// throws EOFException at unexpected end
+		file.seek(position);
+		file.readFully(buffer.array(), 0, buffer.capacity());
+	}
+
+	private long[] listSegments() {
+		File[] files = journalDir.listFiles();
+		List<Long> segments = new ArrayList<Long>();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.endsWith(SEGMENT_SUFFIX)) {
+					try {
+						segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+					} catch (NumberFormatException e) {
+						// not segment
+					}
+				}
+			}
+		}
+		long[] result = new long[segments.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = segments.get(i);
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	private File segmentFile(long segment) {
+		return new File(journalDir, String.format("%020d", segment).concat(SEGMENT_SUFFIX));
+	}
+
+}
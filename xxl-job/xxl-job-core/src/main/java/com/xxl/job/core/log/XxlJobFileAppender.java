@@ -1,12 +1,19 @@
 package com.xxl.job.core.log;
 
 import com.xxl.job.core.biz.model.LogResult;
+import com.xxl.job.core.thread.JobLogFileAppendThread;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * store trigger log in each log-file
@@ -53,6 +60,8 @@ public class XxlJobFileAppender {
 			glueBaseDir.mkdirs();
 		}
 		glueSrcPath = glueBaseDir.getPath();
+
+		logDayPathCache.clear();
 	}
 
 	public static String getLogPath() {
@@ -63,6 +72,10 @@ public class XxlJobFileAppender {
 		return glueSrcPath;
 	}
 
+	private static final long DAY_MS = 24 * 60 * 60 * 1000;
+	private static final int LOG_DAY_PATH_CACHE_MAX = 366;
+	private static final ConcurrentMap<Long, String> logDayPathCache = new ConcurrentHashMap<>();
+
 	/**
 	 * log filename, like "logPath/yyyy-MM-dd/9999.log"
 	 *
@@ -72,15 +85,26 @@ public class XxlJobFileAppender {
 	 */
 	public static String makeLogFileName(Date triggerDate, long logId) {
 
-		// filePath/yyyy-MM-dd
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");    // avoid concurrent problem, can not be static
-		File logFilePath = new File(getLogPath(), sdf.format(triggerDate));
-		if (!logFilePath.exists()) {
-			logFilePath.mkdir();
+		// filePath/yyyy-MM-dd, cached by day, format and mkdir once a day
+		long triggerTime = triggerDate.getTime();
+		long logDay = Math.floorDiv(triggerTime + TimeZone.getDefault().getOffset(triggerTime), DAY_MS);
+		String logDayPath = logDayPathCache.get(logDay);
+		if (logDayPath == null) {
+			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");    // avoid concurrent problem, can not be static
+			File logFilePath = new File(getLogPath(), sdf.format(triggerDate));
+			if (!logFilePath.exists()) {
+				logFilePath.mkdir();
+			}
+			logDayPath = logFilePath.getPath();
+
+			if (logDayPathCache.size() >= LOG_DAY_PATH_CACHE_MAX) {
+				logDayPathCache.clear();
+			}
+			logDayPathCache.put(logDay, logDayPath);
 		}
 
 		// filePath/yyyy-MM-dd/9999.log
-		String logFileName = logFilePath.getPath()
+		String logFileName = logDayPath
 				.concat(File.separator)
 				.concat(String.valueOf(logId))
 				.concat(".log");
@@ -99,6 +123,12 @@ public class XxlJobFileAppender {
 		if (logFileName == null || logFileName.trim().length() == 0) {
 			return;
 		}
+
+		// async, by JobLogFileAppendThread
+		if (JobLogFileAppendThread.getInstance().append(logFileName, appendLog)) {
+			return;
+		}
+
 		File logFile = new File(logFileName);
 
 		if (!logFile.exists()) {
@@ -136,6 +166,56 @@ public class XxlJobFileAppender {
 
 	}
 
+	/**
+	 * append raw data, as it is, no line end added (e.g. script output)
+	 *
+	 * @param logFileName
+	 * @param data
+	 */
+	public static void appendData(String logFileName, byte[] data) {
+		if (logFileName == null || logFileName.trim().length() == 0 || data == null || data.length == 0) {
+			return;
+		}
+
+		// async, by JobLogFileAppendThread
+		if (JobLogFileAppendThread.getInstance().appendData(logFileName, data)) {
+			return;
+		}
+
+		FileOutputStream fos = null;
+		try {
+			fos = new FileOutputStream(logFileName, true);
+			fos.write(data);
+			fos.flush();
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+		} finally {
+			if (fos != null) {
+				try {
+					fos.close();
+				} catch (IOException e) {
+					logger.error(e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * flush log, make sure log appended before is written to the log file (async append)
+	 *
+	 * @param logFileName
+	 */
+	public static void flushLog(String logFileName) {
+		JobLogFileAppendThread.getInstance().flush(logFileName);
+	}
+
+	// ---------------------- read log ----------------------
+
+	private static final int MAX_CHUNK_SIZE = 1024 * 1024;        // byte, max log content of one read
+	private static final int INDEX_LINE_STEP = 1000;              // line index, byte offset of every 1000 lines
+	private static final String INDEX_FILE_SUFFIX = ".idx";
+	private static final ConcurrentMap<String, IndexLock> indexLockMap = new ConcurrentHashMap<>();     // lock of the line index, per log file
+
 	/**
 	 * support read log-file
 	 *
@@ -143,6 +223,18 @@ public class XxlJobFileAppender {
 	 * @return log content
 	 */
 	public static LogResult readLog(String logFileName, int fromLineNum) {
+		return readLog(logFileName, fromLineNum, -1);
+	}
+
+	/**
+	 * support read log-file, incremental, at most MAX_CHUNK_SIZE once
+	 *
+	 * @param logFileName
+	 * @param fromLineNum	line num of the first line read, start as 1
+	 * @param fromOffset	byte offset to read from, "toOffset" of the last read; -1 to locate "fromLineNum" by the line index
+	 * @return log content, of complete line; a line is counted once its line end is read, the partial last line is read next time
+	 */
+	public static LogResult readLog(String logFileName, int fromLineNum, long fromOffset) {
 
 		// valid log file
 		if (logFileName == null || logFileName.trim().length() == 0) {
@@ -153,44 +245,167 @@ public class XxlJobFileAppender {
 		if (!logFile.exists()) {
 			return new LogResult(fromLineNum, 0, "readLog fail, logFile not exists", true);
 		}
+		if (fromLineNum < 1) {
+			fromLineNum = 1;
+		}
 
 		// read file
-		StringBuffer logContentBuffer = new StringBuffer();
-		int toLineNum = 0;
-		LineNumberReader reader = null;
+		FileInputStream fis = null;
 		try {
-			//reader = new LineNumberReader(new FileReader(logFile));
-			reader = new LineNumberReader(new InputStreamReader(new FileInputStream(logFile), "utf-8"));
-			String line = null;
-
-			while ((line = reader.readLine()) != null) {
-				toLineNum = reader.getLineNumber();        // [from, to], start as 1
-				if (toLineNum >= fromLineNum) {
-					logContentBuffer.append(line).append("\n");
+			fis = new FileInputStream(logFile);
+			FileChannel channel = fis.getChannel();
+			long fileSize = channel.size();
+
+			// locate
+			if (fromOffset < 0) {
+				fromOffset = locateLine(logFileName, channel, fromLineNum);
+			}
+			fromOffset = Math.min(fromOffset, fileSize);
+
+			// read chunk
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_CHUNK_SIZE, fileSize - fromOffset));
+			while (buffer.hasRemaining() && channel.read(buffer, fromOffset + buffer.position()) > 0) {
+				// read until full
+			}
+			byte[] data = buffer.array();
+			int length = buffer.position();
+
+			// cut at line end, the partial line (being written) is read next time;
+			// or at char end, if one line is longer than the chunk, the line is counted by the read of its line end
+			int end = lastLineEnd(data, length);
+			if (end <= 0 && length >= MAX_CHUNK_SIZE) {
+				end = lastCharEnd(data, length);
+			}
+
+			int lineCount = 0;
+			for (int i = 0; i < end; i++) {
+				if (data[i] == '\n') {
+					lineCount++;
 				}
 			}
+			String logContent = new String(data, 0, end, StandardCharsets.UTF_8).replace("\r\n", "\n");
+
+			// result
+			return new LogResult(fromLineNum, fromLineNum + lineCount - 1, logContent, false, fromOffset, fromOffset + end);
 		} catch (IOException e) {
 			logger.error(e.getMessage(), e);
+			return new LogResult(fromLineNum, fromLineNum - 1, "", false);
 		} finally {
-			if (reader != null) {
+			if (fis != null) {
 				try {
-					reader.close();
+					fis.close();
 				} catch (IOException e) {
 					logger.error(e.getMessage(), e);
 				}
 			}
 		}
+	}
 
-		// result
-		LogResult logResult = new LogResult(fromLineNum, toLineNum, logContentBuffer.toString(), false);
-		return logResult;
+	/**
+	 * byte offset of the line, by the line index file ("9999.log.idx", offset of line 1001, 2001, ...) beside the log file;
+	 * scan from the nearest indexed line, and index the line passed
+	 *
+	 * @return byte offset, or file size if the file has less lines
+	 */
+	private static long locateLine(String logFileName, FileChannel channel, int lineNum) throws IOException {
+		if (lineNum <= 1) {
+			return 0;
+		}
+		IndexLock indexLock = indexLockMap.compute(logFileName, (key, lock) -> {
+			lock = lock != null ? lock : new IndexLock();
+			lock.refCount++;
+			return lock;
+		});
+		try {
+			synchronized (indexLock) {
+				return locateLine(new File(logFileName + INDEX_FILE_SUFFIX), channel, lineNum);
+			}
+		} finally {
+			// removed when no reader holds it, the map is not grown by the log files read
+			indexLockMap.computeIfPresent(logFileName, (key, lock) -> --lock.refCount > 0 ? lock : null);
+		}
+	}
+
+	private static class IndexLock {
+		private int refCount;     // guarded by indexLockMap.compute, per key
+	}
+
+	private static long locateLine(File indexFile, FileChannel channel, int lineNum) throws IOException {
+		RandomAccessFile index = null;
+		try {
+			long fileSize = channel.size();
+			long position = 0;
+			int line = 1;
+
+			// nearest indexed line; index entry n is the offset of line "n * INDEX_LINE_STEP + 1"
+			int indexCount = 0;
+			if (lineNum > INDEX_LINE_STEP || indexFile.exists()) {
+				index = new RandomAccessFile(indexFile, "rw");
+				indexCount = (int) (index.length() / 8);
+				int entry = Math.min((lineNum - 1) / INDEX_LINE_STEP, indexCount);
+				if (entry > 0) {
+					index.seek((long) (entry - 1) * 8);
+					long entryOffset = index.readLong();
+					if (entryOffset <= fileSize) {
+						position = entryOffset;
+						line = entry * INDEX_LINE_STEP + 1;
+					} else {
+						// not the index of this file, rebuild
+						index.setLength(0);
+						indexCount = 0;
+					}
+				}
+			}
+
+			// scan
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			while (line < lineNum) {
+				buffer.clear();
+				int readSize = channel.read(buffer, position);
+				if (readSize <= 0) {
+					break;
+				}
+				int i = 0;
+				while (i < readSize && line < lineNum) {
+					if (buffer.get(i++) == '\n') {
+						line++;
+						if (index != null && line == (indexCount + 1) * INDEX_LINE_STEP + 1) {
+							index.seek((long) indexCount * 8);
+							index.writeLong(position + i);
+							indexCount++;
+						}
+					}
+				}
+				position += i;
+			}
+			return position;
+		} finally {
+			if (index != null) {
+				index.close();
+			}
+		}
+	}
 
-		/*
-        // it will return the number of characters actually skipped
-        reader.skip(Long.MAX_VALUE);
-        int maxLineNum = reader.getLineNumber();
-        maxLineNum++;	// 最大行号
-        */
+	private static int lastLineEnd(byte[] data, int length) {
+		for (int i = length - 1; i >= 0; i--) {
+			if (data[i] == '\n') {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	private static int lastCharEnd(byte[] data, int length) {
+		// utf-8 continuation byte: 10xxxxxx
+		int end = length;
+		while (end > 0 && (data[end - 1] & 0xC0) == 0x80) {
+			end--;
+		}
+		// lead byte of the cut char
+		if (end > 0 && (data[end - 1] & 0x80) != 0) {
+			end--;
+		}
+		return end > 0 ? end : length;
 	}
 
 	/**
@@ -20,6 +20,7 @@ import io.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.concurrent.*;
 
 /**
@@ -232,6 +233,10 @@ public class EmbedServer {
 						// 运行一个任务
 						TriggerParam triggerParam = GsonTool.fromJson(requestData, TriggerParam.class);
 						return executorBiz.run(triggerParam);
+					case "/runBatch":
+						// 批量运行任务，按顺序逐个返回结果
+						TriggerParam[] triggerParams = GsonTool.fromJson(requestData, TriggerParam[].class);
+						return executorBiz.runBatch(Arrays.asList(triggerParams));
 					case "/kill":
 						// 杀死一个任务
 						KillParam killParam = GsonTool.fromJson(requestData, KillParam.class);
@@ -240,6 +245,10 @@ public class EmbedServer {
 						// 获得客户端记录的日志
 						LogParam logParam = GsonTool.fromJson(requestData, LogParam.class);
 						return executorBiz.log(logParam);
+					case "/glueWarmup":
+						// 预编译新保存的GLUE代码
+						GlueWarmupParam glueWarmupParam = GsonTool.fromJson(requestData, GlueWarmupParam.class);
+						return executorBiz.glueWarmup(glueWarmupParam);
 					default:
 						// 无法解析的业务uri，异常返回
 						return new ReturnT<String>(ReturnT.FAIL_CODE, "invalid request, uri-mapping(" + uri + ") not found.");
@@ -8,6 +8,10 @@ import com.xxl.job.core.executor.XxlJobExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,6 +24,9 @@ public class ExecutorRegistryThread {
 	private Thread registryThread;
 	private volatile boolean toStop = false;
 
+	// address -> appname, registered in this jvm and beaten by the one registry thread (more than one, e.g. the load simulator)
+	private final Map<String, String> registryMap = new ConcurrentHashMap<String, String>();
+
 	public static ExecutorRegistryThread getInstance() {
 		return instance;
 	}
@@ -28,7 +35,7 @@ public class ExecutorRegistryThread {
 	 * 以上代码为服务注册，也是心跳机制（api/registry），当服务停止后stop变量会变为true，这时会通知服务端下线（api/registryRemove），
 	 * 如果服务突然宕机也没有关系，服务端有循环检查机制，当长时间没有收到客户端的心跳，会自动下线。
 	 */
-	public void start(final String appname, final String address) {
+	public synchronized void start(final String appname, final String address) {
 
 		// valid，appname不允许为null
 		if (appname == null || appname.trim().length() == 0) {
@@ -41,6 +48,13 @@ public class ExecutorRegistryThread {
 			return;
 		}
 
+		// beaten by the registry thread; if already running, the first beat at once instead of its next round
+		registryMap.put(address, appname);
+		if (registryThread != null) {
+			registry(new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), appname, address));
+			return;
+		}
+
 		registryThread = new Thread(new Runnable() {
 			@Override
 			public void run() {
@@ -48,25 +62,16 @@ public class ExecutorRegistryThread {
 				// 循环心跳机制
 				while (!toStop) {
 					try {
-						// 构建请求参数
-						RegistryParam registryParam = new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), appname, address);
-						for (AdminBiz adminBiz : XxlJobExecutor.getAdminBizList()) {
-							try {
-								// 服务注册/心跳
-								// 向server注册服务(http请求),注册内容appname,当前服务监听地址
-								ReturnT<String> registryResult = adminBiz.registry(registryParam);
-								// 访问成功
-								if (registryResult != null && ReturnT.SUCCESS_CODE == registryResult.getCode()) {
-									registryResult = ReturnT.SUCCESS;
-									logger.debug(">>>>>>>>>>> xxl-job registry success, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
-									break;
-								} else {
-									logger.info(">>>>>>>>>>> xxl-job registry fail, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
-								}
-							} catch (Exception e) {
-								logger.info(">>>>>>>>>>> xxl-job registry error, registryParam:{}", registryParam, e);
-							}
-
+						// 心跳携带执行器负载，供调度中心"最小负载"路由；同一JVM内的注册共用
+						RegistryParam load = new RegistryParam();
+						fillLoad(load);
+						for (Map.Entry<String, String> item : registryMap.entrySet()) {
+							// 构建请求参数
+							RegistryParam registryParam = new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), item.getValue(), item.getKey());
+							registryParam.setRunningCount(load.getRunningCount());
+							registryParam.setQueueSize(load.getQueueSize());
+							registryParam.setCpuLoad(load.getCpuLoad());
+							registry(registryParam);
 						}
 					} catch (Exception e) {
 						if (!toStop) {
@@ -91,29 +96,13 @@ public class ExecutorRegistryThread {
 				// 当服务停止后，代码就执行到这里了，然后删除注册
 				// registry remove
 				// 服务停止后以下代码服务下线通知
-				try {
-					RegistryParam registryParam = new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), appname, address);
-					for (AdminBiz adminBiz : XxlJobExecutor.getAdminBizList()) {
-						try {
-							ReturnT<String> registryResult = adminBiz.registryRemove(registryParam);
-							if (registryResult != null && ReturnT.SUCCESS_CODE == registryResult.getCode()) {
-								registryResult = ReturnT.SUCCESS;
-								logger.info(">>>>>>>>>>> xxl-job registry-remove success, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
-								break;
-							} else {
-								logger.info(">>>>>>>>>>> xxl-job registry-remove fail, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
-							}
-						} catch (Exception e) {
-							if (!toStop) {
-								logger.info(">>>>>>>>>>> xxl-job registry-remove error, registryParam:{}", registryParam, e);
-							}
-
+				for (Map.Entry<String, String> item : registryMap.entrySet()) {
+					try {
+						registryRemove(new RegistryParam(RegistryConfig.RegistType.EXECUTOR.name(), item.getValue(), item.getKey()));
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(e.getMessage(), e);
 						}
-
-					}
-				} catch (Exception e) {
-					if (!toStop) {
-						logger.error(e.getMessage(), e);
 					}
 				}
 				logger.info(">>>>>>>>>>> xxl-job, executor registry thread destroy.");
@@ -125,6 +114,69 @@ public class ExecutorRegistryThread {
 		registryThread.start();
 	}
 
+	/**
+	 * 服务注册/心跳，任一调度中心成功即可
+	 */
+	private void registry(RegistryParam registryParam) {
+		for (AdminBiz adminBiz : XxlJobExecutor.getAdminBizList()) {
+			try {
+				// 向server注册服务(http请求),注册内容appname,当前服务监听地址
+				ReturnT<String> registryResult = adminBiz.registry(registryParam);
+				// 访问成功
+				if (registryResult != null && ReturnT.SUCCESS_CODE == registryResult.getCode()) {
+					registryResult = ReturnT.SUCCESS;
+					logger.debug(">>>>>>>>>>> xxl-job registry success, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
+					break;
+				} else {
+					logger.info(">>>>>>>>>>> xxl-job registry fail, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
+				}
+			} catch (Exception e) {
+				logger.info(">>>>>>>>>>> xxl-job registry error, registryParam:{}", registryParam, e);
+			}
+		}
+	}
+
+	private void registryRemove(RegistryParam registryParam) {
+		for (AdminBiz adminBiz : XxlJobExecutor.getAdminBizList()) {
+			try {
+				ReturnT<String> registryResult = adminBiz.registryRemove(registryParam);
+				if (registryResult != null && ReturnT.SUCCESS_CODE == registryResult.getCode()) {
+					registryResult = ReturnT.SUCCESS;
+					logger.info(">>>>>>>>>>> xxl-job registry-remove success, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
+					break;
+				} else {
+					logger.info(">>>>>>>>>>> xxl-job registry-remove fail, registryParam:{}, registryResult:{}", new Object[]{registryParam, registryResult});
+				}
+			} catch (Exception e) {
+				if (!toStop) {
+					logger.info(">>>>>>>>>>> xxl-job registry-remove error, registryParam:{}", registryParam, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * executor load: job thread running, trigger queued, system load average per processor
+	 */
+	private void fillLoad(RegistryParam registryParam) {
+		int runningCount = 0;
+		int queueSize = 0;
+		for (JobThread jobThread : XxlJobExecutor.loadJobThreads()) {
+			if (jobThread.isRunning()) {
+				runningCount++;
+			}
+			queueSize += jobThread.getQueueSize();
+		}
+		registryParam.setRunningCount(runningCount);
+		registryParam.setQueueSize(queueSize);
+
+		OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+		double loadAverage = osBean.getSystemLoadAverage();     // negative if not available (e.g. windows)
+		if (loadAverage >= 0) {
+			registryParam.setCpuLoad(Math.round(loadAverage / osBean.getAvailableProcessors() * 100) / 100.0);
+		}
+	}
+
 	public void toStop() {
 		toStop = true;
 
@@ -0,0 +1,316 @@
+package com.xxl.job.core.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * job log file append thread, async appender of XxlJobFileAppender
+ *
+ * 1、buffer: job thread puts the log line to a bounded ring buffer (BUFFER_SIZE), waits only when it is full;
+ * 2、write: the writer drains the buffer every flush interval, encodes and writes each log file once per drain,
+ *    by the open file cache (LRU, MAX_OPEN_FILES), instead of open / write / close per line;
+ * 3、flush: on job end, the job thread waits until its log file is written and closed, before the callback is pushed;
+ * 4、data: raw output (e.g. script output) is appended as it is, in order with the log line, no line end added;
+ *
+ * flush interval 0 disables it, log is written by the job thread directly.
+ */
+public class JobLogFileAppendThread {
+	private static Logger logger = LoggerFactory.getLogger(JobLogFileAppendThread.class);
+
+	private static JobLogFileAppendThread instance = new JobLogFileAppendThread();
+
+	public static JobLogFileAppendThread getInstance() {
+		return instance;
+	}
+
+	private static final int BUFFER_SIZE = 10000;
+	private static final int MAX_OPEN_FILES = 64;
+	private static final long FLUSH_TIMEOUT = 5000;      // ms
+
+	private final ArrayBlockingQueue<LogEvent> logBuffer = new ArrayBlockingQueue<LogEvent>(BUFFER_SIZE);
+
+	// open log file, LRU; written by the writer, and the caller after stop
+	private final LinkedHashMap<String, FileOutputStream> openFiles = new LinkedHashMap<String, FileOutputStream>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FileOutputStream> eldest) {
+			if (size() > MAX_OPEN_FILES) {
+				close(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private long flushInterval;
+	private Thread writerThread;
+	private volatile boolean toStop = false;
+	private volatile boolean running = false;
+
+	public void start(final long flushInterval) {
+		if (flushInterval <= 0) {
+			// write by the job thread
+			return;
+		}
+		this.flushInterval = flushInterval;
+
+		writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (!toStop) {
+					try {
+						LogEvent event = logBuffer.poll(1, TimeUnit.SECONDS);
+						if (event == null) {
+							continue;
+						}
+
+						// collect until the flush interval, or flush request, or half full
+						List<LogEvent> batch = new ArrayList<LogEvent>();
+						batch.add(event);
+						boolean flushNow = event.flushLatch != null;
+						long flushTime = System.currentTimeMillis() + flushInterval;
+						while (!flushNow && !toStop) {
+							long waitMs = flushTime - System.currentTimeMillis();
+							if (waitMs <= 0) {
+								break;
+							}
+							LogEvent next = logBuffer.poll(waitMs, TimeUnit.MILLISECONDS);
+							if (next == null) {
+								break;
+							}
+							batch.add(next);
+							flushNow = next.flushLatch != null || batch.size() >= BUFFER_SIZE / 2;
+						}
+
+						write(batch);
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, JobLogFileAppendThread error:{}", e);
+						}
+					}
+				}
+
+				// write remaining
+				List<LogEvent> batch = new ArrayList<LogEvent>();
+				logBuffer.drainTo(batch);
+				write(batch);
+				logger.info(">>>>>>>>>>> xxl-job, JobLogFileAppendThread stop");
+			}
+		});
+		writerThread.setDaemon(true);
+		writerThread.setName("xxl-job, executor JobLogFileAppendThread");
+		writerThread.start();
+
+		running = true;
+	}
+
+	public void toStop() {
+		if (writerThread == null) {
+			return;
+		}
+		// write by the job thread from now on
+		running = false;
+		toStop = true;
+
+		// interrupt and wait, the writer writes remaining before exit
+		writerThread.interrupt();
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// put after the writer exit
+		List<LogEvent> batch = new ArrayList<LogEvent>();
+		logBuffer.drainTo(batch);
+		write(batch);
+
+		synchronized (openFiles) {
+			for (FileOutputStream fos : openFiles.values()) {
+				close(fos);
+			}
+			openFiles.clear();
+		}
+	}
+
+
+	// ---------------------- append ----------------------
+
+	/**
+	 * append log, async
+	 *
+	 * @return false if not running (or interrupted when the buffer is full), the caller writes it directly
+	 */
+	public boolean append(String logFileName, String appendLog) {
+		if (!running) {
+			return false;
+		}
+		return offer(new LogEvent(logFileName, appendLog, null, null));
+	}
+
+	/**
+	 * append raw data, async
+	 *
+	 * @return false if not running (or interrupted when the buffer is full), the caller writes it directly
+	 */
+	public boolean appendData(String logFileName, byte[] data) {
+		if (!running) {
+			return false;
+		}
+		return offer(new LogEvent(logFileName, null, data, null));
+	}
+
+	private boolean offer(LogEvent event) {
+		if (logBuffer.offer(event)) {
+			return true;
+		}
+
+		// full, wait for the writer
+		try {
+			logBuffer.put(event);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * write and close the log file, wait until log appended before is written
+	 */
+	public void flush(String logFileName) {
+		if (!running || logFileName == null) {
+			return;
+		}
+
+		// flush even if the job is interrupted (killed, timeout), keep the interrupt status
+		boolean interrupted = Thread.interrupted();
+		try {
+			CountDownLatch flushLatch = new CountDownLatch(1);
+			logBuffer.put(new LogEvent(logFileName, null, null, flushLatch));
+			if (!flushLatch.await(FLUSH_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				logger.warn(">>>>>>>>>>> xxl-job, job log file flush timeout, logFileName:{}", logFileName);
+			}
+		} catch (InterruptedException e) {
+			interrupted = true;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	// ---------------------- write ----------------------
+
+	/**
+	 * write batch, in order; one write per log file
+	 */
+	private void write(List<LogEvent> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		Map<String, ByteArrayOutputStream> pending = new LinkedHashMap<String, ByteArrayOutputStream>();
+		for (LogEvent event : batch) {
+			if (event.flushLatch != null) {
+				// flush request: write what is appended before, and close
+				ByteArrayOutputStream data = pending.remove(event.logFileName);
+				if (data != null) {
+					writeFile(event.logFileName, data.toByteArray());
+				}
+				closeFile(event.logFileName);
+				event.flushLatch.countDown();
+				continue;
+			}
+
+			ByteArrayOutputStream data = pending.get(event.logFileName);
+			if (data == null) {
+				data = new ByteArrayOutputStream(256);
+				pending.put(event.logFileName, data);
+			}
+			byte[] bytes = event.data;
+			if (bytes == null) {
+				String appendLog = (event.appendLog != null ? event.appendLog : "") + "\r\n";
+				bytes = appendLog.getBytes(StandardCharsets.UTF_8);
+			}
+			data.write(bytes, 0, bytes.length);
+		}
+		for (Map.Entry<String, ByteArrayOutputStream> item : pending.entrySet()) {
+			writeFile(item.getKey(), item.getValue().toByteArray());
+		}
+	}
+
+	private void writeFile(String logFileName, byte[] data) {
+		synchronized (openFiles) {
+			FileOutputStream fos = openFiles.get(logFileName);
+			try {
+				if (fos == null) {
+					fos = open(logFileName);
+					openFiles.put(logFileName, fos);
+				}
+				fos.write(data);
+			} catch (IOException e) {
+				logger.error(e.getMessage(), e);
+				openFiles.remove(logFileName);
+				close(fos);
+			}
+		}
+	}
+
+	private void closeFile(String logFileName) {
+		synchronized (openFiles) {
+			close(openFiles.remove(logFileName));
+		}
+	}
+
+	/**
+	 * open in append mode, make the day dir if it is cleaned
+	 */
+	private static FileOutputStream open(String logFileName) throws FileNotFoundException {
+		File logFile = new File(logFileName);
+		try {
+			return new FileOutputStream(logFile, true);
+		} catch (FileNotFoundException e) {
+			File parentDir = logFile.getParentFile();
+			if (parentDir == null || parentDir.exists() || !parentDir.mkdirs()) {
+				throw e;
+			}
+			return new FileOutputStream(logFile, true);
+		}
+	}
+
+	private static void close(FileOutputStream fos) {
+		if (fos != null) {
+			try {
+				fos.close();
+			} catch (IOException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	private static class LogEvent {
+		private final String logFileName;
+		private final String appendLog;
+		private final byte[] data;
+		private final CountDownLatch flushLatch;
+
+		private LogEvent(String logFileName, String appendLog, byte[] data, CountDownLatch flushLatch) {
+			this.logFileName = logFileName;
+			this.appendLog = appendLog;
+			this.data = data;
+			this.flushLatch = flushLatch;
+		}
+	}
+
+}
@@ -18,16 +18,26 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
- * handler thread
+ * handler thread, run trigger of one job serially
+ *
+ * 1、THREAD mode: a dedicated thread polls the trigger queue, removed after 30 idle polls;
+ * 2、POOL / VIRTUAL mode: the trigger queue is a mailbox, drained by the shared worker of JobThreadPool when trigger is pushed,
+ *    at most one drain at a time (serial), idle job holds no thread, removed after IDLE_TIMEOUT;
+ * 3、timeout: THREAD mode, the job runs in a FutureTask thread and times out at the deadline even if it ignores the interrupt (as before);
+ *    POOL / VIRTUAL mode, the timer of JobThreadPool interrupts the running job, no thread per run, the job must respond to the interrupt;
  *
  * @author xuxueli 2016-1-16 19:52:47
  */
-public class JobThread extends Thread {
+public class JobThread {
 	private static Logger logger = LoggerFactory.getLogger(JobThread.class);
 
+	private static final int DRAIN_MAX = 100;           // mailbox: trigger run per drain, then give the worker to other job
+	private static final long IDLE_TIMEOUT = 90;        // s, mailbox: same as 30 idle polls of THREAD mode
+
 	private int jobId;
 	private IJobHandler handler;
 	// 存执行任务需要的信息的地方
@@ -35,11 +45,27 @@ public class JobThread extends Thread {
 	private Set<Long> triggerLogIdSet;        // avoid repeat trigger for the same TRIGGER_LOG_ID
 
 	private volatile boolean toStop = false;
-	private String stopReason;
+	private volatile String stopReason;
 
-	private boolean running = false;    // if running job
+	private volatile boolean running = false;    // if running job
 	private int idleTimes = 0;            // idel times
 
+	// THREAD mode
+	private Thread thread;
+
+	// POOL / VIRTUAL mode
+	private final boolean mailbox;
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private final AtomicBoolean idleCheckScheduled = new AtomicBoolean(false);
+	private volatile long lastActiveTime = System.currentTimeMillis();
+
+	// thread running this job now, interrupted on stop
+	private final Object runnerLock = new Object();
+	private Thread runner;
+
+	private boolean inited = false;
+	private final CountDownLatch stopLatch = new CountDownLatch(1);
+
 
 	public JobThread(int jobId, IJobHandler handler) {
 		this.jobId = jobId;
@@ -47,14 +73,36 @@ public class JobThread extends Thread {
 		this.triggerQueue = new LinkedBlockingQueue<TriggerParam>();
 		this.triggerLogIdSet = Collections.synchronizedSet(new HashSet<Long>());
 
-		// assign job thread name
-		this.setName("xxl-job, JobThread-" + jobId + "-" + System.currentTimeMillis());
+		this.mailbox = JobThreadPool.getInstance().isMailbox();
+		if (!mailbox) {
+			// assign job thread name
+			this.thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					runLoop();
+				}
+			});
+			this.thread.setName("xxl-job, JobThread-" + jobId + "-" + System.currentTimeMillis());
+		}
 	}
 
 	public IJobHandler getHandler() {
 		return handler;
 	}
 
+	public void start() {
+		if (thread != null) {
+			thread.start();
+		}
+	}
+
+	/**
+	 * wait until stopped, queued trigger is called back
+	 */
+	public void join() throws InterruptedException {
+		stopLatch.await();
+	}
+
 	/**
 	 * new trigger to queue
 	 * 此处并没有等待任务执行完成，而是放入队列后直接返回触发结果，执行结果会后置通知server端
@@ -73,6 +121,9 @@ public class JobThread extends Thread {
 		triggerLogIdSet.add(triggerParam.getLogId());
 		// 加入待执行队列
 		triggerQueue.add(triggerParam);
+		if (mailbox) {
+			schedule();
+		}
 		return ReturnT.SUCCESS;
 	}
 
@@ -87,8 +138,20 @@ public class JobThread extends Thread {
 		 * 在阻塞出抛出InterruptedException异常,但是并不会终止运行的线程本身；
 		 * 所以需要注意，此处彻底销毁本线程，需要通过共享变量方式；
 		 */
-		this.toStop = true;
 		this.stopReason = stopReason;
+		this.toStop = true;
+
+		// interrupt running job, or the idle poll
+		synchronized (runnerLock) {
+			if (runner != null) {
+				runner.interrupt();
+			}
+		}
+
+		// idle mailbox: drain once, to call back queued trigger and destroy
+		if (mailbox) {
+			schedule();
+		}
 	}
 
 	/**
@@ -100,15 +163,28 @@ public class JobThread extends Thread {
 		return running || triggerQueue.size() > 0;
 	}
 
-	@Override
-	public void run() {
+	/**
+	 * is running job, for executor load
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * trigger queued, not run yet; for executor load
+	 */
+	public int getQueueSize() {
+		return triggerQueue.size();
+	}
+
+
+	// ---------------------- THREAD mode ----------------------
+
+	private void runLoop() {
+		setRunner(Thread.currentThread());
 
 		// init
-		try {
-			handler.init();
-		} catch (Throwable e) {
-			logger.error(e.getMessage(), e);
-		}
+		init();
 
 		// execute
 		while (!toStop) {
@@ -121,131 +197,303 @@ public class JobThread extends Thread {
 				// 将队列中待执行待任务poll出来
 				// to check toStop signal, we need cycle, so wo cannot use queue.take(), instand of poll(timeout)
 				triggerParam = triggerQueue.poll(3L, TimeUnit.SECONDS);
-				if (triggerParam != null) {
-					running = true;
-					idleTimes = 0;
-					triggerLogIdSet.remove(triggerParam.getLogId());
+			} catch (InterruptedException e) {
+				// check toStop
+				continue;
+			}
 
-					// 记录上下文对象，用于数据分片，日志记录等动作
-					// log filename, like "logPath/yyyy-MM-dd/9999.log"
-					String logFileName = XxlJobFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
-					XxlJobContext xxlJobContext = new XxlJobContext(
-							triggerParam.getJobId(),
-							triggerParam.getExecutorParams(),
-							logFileName,
-							triggerParam.getBroadcastIndex(),
-							triggerParam.getBroadcastTotal());
+			if (triggerParam != null) {
+				running = true;
+				idleTimes = 0;
+				execute(triggerParam);
+			} else {
+				if (idleTimes > 30) {
+					if (triggerQueue.size() == 0) {    // avoid concurrent trigger causes jobId-lost
+						// 当空闲次数大于30次且队列中无待执行时移除控制器，释放资源
+						XxlJobExecutor.removeJobThread(jobId, "excutor idel times over limit.");
+					}
+				}
+			}
+		}
+		running = false;
 
-					// init job context
-					XxlJobContext.setXxlJobContext(xxlJobContext);
+		setRunner(null);
+		finish();
+	}
 
-					// execute
-					XxlJobHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + xxlJobContext.getJobParam());
-
-					// 有设置执行时间的话通过FutureTask实现等待超时的动作
-					if (triggerParam.getExecutorTimeout() > 0) {
-						// limit timeout
-						Thread futureThread = null;
-						try {
-							FutureTask<Boolean> futureTask = new FutureTask<Boolean>(new Callable<Boolean>() {
-								@Override
-								public Boolean call() throws Exception {
-									// init job context
-									// 记录上下文对象，用于数据分片，日志记录等动作
-									XxlJobContext.setXxlJobContext(xxlJobContext);
-
-									handler.execute();
-									return true;
-								}
-							});
-							// 创建并执行任务线程
-							futureThread = new Thread(futureTask);
-							futureThread.start();
-
-							Boolean tempResult = futureTask.get(triggerParam.getExecutorTimeout(), TimeUnit.SECONDS);
-						} catch (TimeoutException e) {
-							// 执行超时处理
-							XxlJobHelper.log("<br>----------- xxl-job job execute timeout");
-							XxlJobHelper.log(e);
-
-							// handle result
-							XxlJobHelper.handleTimeout("job execute timeout ");
-						} finally {
-							futureThread.interrupt();
-						}
-					} else {
-						// just execute
-						// 如果没有设置执行超时时间则直接执行
-						handler.execute();
+
+	// ---------------------- POOL / VIRTUAL mode ----------------------
+
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			try {
+				JobThreadPool.getInstance().execute(new Runnable() {
+					@Override
+					public void run() {
+						drain();
 					}
+				});
+			} catch (RejectedExecutionException e) {
+				// pool stopped, drain on the caller
+				drain();
+			}
+		}
+	}
+
+	/**
+	 * drain the mailbox; serial, only one drain is scheduled at a time
+	 */
+	private void drain() {
+		setRunner(Thread.currentThread());
+		try {
+			if (!inited) {
+				init();
+			}
 
-					// valid execute handle data
-					// 校验执行状态
-					if (XxlJobContext.getXxlJobContext().getHandleCode() <= 0) {
-						XxlJobHelper.handleFail("job handle result lost.");
+			TriggerParam triggerParam;
+			int count = 0;
+			while (!toStop
+					&& count++ < DRAIN_MAX
+					&& (triggerParam = triggerQueue.poll()) != null) {
+				running = true;
+				execute(triggerParam);
+				running = false;
+			}
+		} finally {
+			running = false;
+			lastActiveTime = System.currentTimeMillis();
+			setRunner(null);
+			// the worker is shared, clear interrupt of stop
+			Thread.interrupted();
+		}
+
+		if (toStop) {
+			// keep "scheduled", never drain again
+			finish();
+			return;
+		}
+
+		// re-check, trigger (or stop) may come after the last poll
+		scheduled.set(false);
+		if (triggerQueue.size() > 0 || toStop) {
+			schedule();
+		} else {
+			scheduleIdleCheck(IDLE_TIMEOUT * 1000);
+		}
+	}
+
+	private void scheduleIdleCheck(long delayMs) {
+		if (!idleCheckScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			JobThreadPool.getInstance().schedule(new Runnable() {
+				@Override
+				public void run() {
+					idleCheckScheduled.set(false);
+					if (toStop || scheduled.get() || triggerQueue.size() > 0) {
+						// busy, checked again after the drain
+						return;
+					}
+					long idleTime = System.currentTimeMillis() - lastActiveTime;
+					if (idleTime >= IDLE_TIMEOUT * 1000) {
+						// 空闲超时且队列中无待执行时移除控制器，释放资源
+						XxlJobExecutor.removeJobThread(jobId, "excutor idel times over limit.");
 					} else {
-						// 截取日志长度，防止过长影响性能
-						String tempHandleMsg = XxlJobContext.getXxlJobContext().getHandleMsg();
-						tempHandleMsg = (tempHandleMsg != null && tempHandleMsg.length() > 50000)
-								? tempHandleMsg.substring(0, 50000).concat("...")
-								: tempHandleMsg;
-						XxlJobContext.getXxlJobContext().setHandleMsg(tempHandleMsg);
+						scheduleIdleCheck(IDLE_TIMEOUT * 1000 - idleTime);
 					}
-					XxlJobHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
-							+ XxlJobContext.getXxlJobContext().getHandleCode()
-							+ ", handleMsg = "
-							+ XxlJobContext.getXxlJobContext().getHandleMsg()
-					);
+				}
+			}, delayMs, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			idleCheckScheduled.set(false);
+		}
+	}
+
 
+	// ---------------------- execute ----------------------
+
+	private void init() {
+		inited = true;
+		try {
+			handler.init();
+		} catch (Throwable e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+
+	private void setRunner(Thread runner) {
+		synchronized (runnerLock) {
+			this.runner = runner;
+		}
+	}
+
+	/**
+	 * execute one trigger, and push callback
+	 */
+	private void execute(TriggerParam triggerParam) {
+		// log filename, like "logPath/yyyy-MM-dd/9999.log"
+		String logFileName = XxlJobFileAppender.makeLogFileName(new Date(triggerParam.getLogDateTime()), triggerParam.getLogId());
+		try {
+			triggerLogIdSet.remove(triggerParam.getLogId());
+
+			// 记录上下文对象，用于数据分片，日志记录等动作
+			XxlJobContext xxlJobContext = new XxlJobContext(
+					triggerParam.getJobId(),
+					triggerParam.getExecutorParams(),
+					logFileName,
+					triggerParam.getBroadcastIndex(),
+					triggerParam.getBroadcastTotal());
+
+			// init job context
+			XxlJobContext.setXxlJobContext(xxlJobContext);
+
+			// execute
+			XxlJobHelper.log("<br>----------- xxl-job job execute start -----------<br>----------- Param:" + xxlJobContext.getJobParam());
+
+			// 有设置执行时间的话，THREAD 模式通过FutureTask等待超时，POOL / VIRTUAL 模式通过定时器实现超时中断
+			if (triggerParam.getExecutorTimeout() > 0) {
+				if (mailbox) {
+					executeWithTimer(triggerParam.getExecutorTimeout());
 				} else {
-					if (idleTimes > 30) {
-						if (triggerQueue.size() == 0) {    // avoid concurrent trigger causes jobId-lost
-							// 当空闲次数大于30次且队列中无待执行时移除控制器，释放资源
-							XxlJobExecutor.removeJobThread(jobId, "excutor idel times over limit.");
-						}
-					}
-				}
-			} catch (Throwable e) {
-				// 异常，记录错误日志
-				if (toStop) {
-					XxlJobHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+					executeWithFutureTask(xxlJobContext, triggerParam.getExecutorTimeout());
 				}
+			} else {
+				// just execute
+				// 如果没有设置执行超时时间则直接执行
+				handler.execute();
+			}
 
-				// handle result
-				StringWriter stringWriter = new StringWriter();
-				e.printStackTrace(new PrintWriter(stringWriter));
-				String errorMsg = stringWriter.toString();
-
-				XxlJobHelper.handleFail(errorMsg);
-
-				XxlJobHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
-			} finally {
-				// 将执行结果和日志通知给xxl-job
-				if (triggerParam != null) {
-					// callback handler info
-					if (!toStop) {
-						// commonm
-						// 放入回调队列，执行完成后，向Server报备
-						TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-								triggerParam.getLogId(),
-								triggerParam.getLogDateTime(),
-								XxlJobContext.getXxlJobContext().getHandleCode(),
-								XxlJobContext.getXxlJobContext().getHandleMsg())
-						);
-					} else {
-						// 放入回调队列
-						// is killed
-						TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
-								triggerParam.getLogId(),
-								triggerParam.getLogDateTime(),
-								XxlJobContext.HANDLE_CODE_FAIL,
-								stopReason + " [job running, killed]")
-						);
-					}
+			// valid execute handle data
+			// 校验执行状态
+			if (XxlJobContext.getXxlJobContext().getHandleCode() <= 0) {
+				XxlJobHelper.handleFail("job handle result lost.");
+			} else {
+				// 截取日志长度，防止过长影响性能
+				String tempHandleMsg = XxlJobContext.getXxlJobContext().getHandleMsg();
+				tempHandleMsg = (tempHandleMsg != null && tempHandleMsg.length() > 50000)
+						? tempHandleMsg.substring(0, 50000).concat("...")
+						: tempHandleMsg;
+				XxlJobContext.getXxlJobContext().setHandleMsg(tempHandleMsg);
+			}
+			XxlJobHelper.log("<br>----------- xxl-job job execute end(finish) -----------<br>----------- Result: handleCode="
+					+ XxlJobContext.getXxlJobContext().getHandleCode()
+					+ ", handleMsg = "
+					+ XxlJobContext.getXxlJobContext().getHandleMsg()
+			);
+
+		} catch (Throwable e) {
+			// 异常，记录错误日志
+			if (toStop) {
+				XxlJobHelper.log("<br>----------- JobThread toStop, stopReason:" + stopReason);
+			}
+
+			// handle result
+			StringWriter stringWriter = new StringWriter();
+			e.printStackTrace(new PrintWriter(stringWriter));
+			String errorMsg = stringWriter.toString();
+
+			XxlJobHelper.handleFail(errorMsg);
+
+			XxlJobHelper.log("<br>----------- JobThread Exception:" + errorMsg + "<br>----------- xxl-job job execute end(error) -----------");
+		} finally {
+			// log is written before the callback, the admin reads the whole log once the job ends
+			XxlJobFileAppender.flushLog(logFileName);
+
+			// 将执行结果和日志通知给xxl-job
+			// callback handler info
+			if (!toStop) {
+				// commonm
+				// 放入回调队列，执行完成后，向Server报备
+				TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+						triggerParam.getLogId(),
+						triggerParam.getLogDateTime(),
+						XxlJobContext.getXxlJobContext().getHandleCode(),
+						XxlJobContext.getXxlJobContext().getHandleMsg())
+				);
+			} else {
+				// 放入回调队列
+				// is killed
+				TriggerCallbackThread.pushCallBack(new HandleCallbackParam(
+						triggerParam.getLogId(),
+						triggerParam.getLogDateTime(),
+						XxlJobContext.HANDLE_CODE_FAIL,
+						stopReason + " [job running, killed]")
+				);
+			}
+
+			// the worker may be shared by other job
+			XxlJobContext.setXxlJobContext(null);
+		}
+	}
+
+	/**
+	 * THREAD mode: run in a FutureTask thread, timeout result at the deadline even if the job ignores the interrupt
+	 */
+	private void executeWithFutureTask(final XxlJobContext xxlJobContext, int timeoutSeconds) throws Exception {
+		Thread futureThread = null;
+		try {
+			FutureTask<Boolean> futureTask = new FutureTask<Boolean>(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					// init job context
+					// 记录上下文对象，用于数据分片，日志记录等动作
+					XxlJobContext.setXxlJobContext(xxlJobContext);
+
+					handler.execute();
+					return true;
 				}
+			});
+			// 创建并执行任务线程
+			futureThread = new Thread(futureTask);
+			futureThread.start();
+
+			Boolean tempResult = futureTask.get(timeoutSeconds, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			// 执行超时处理
+			XxlJobHelper.log("<br>----------- xxl-job job execute timeout");
+			XxlJobHelper.log(e);
+
+			// handle result
+			XxlJobHelper.handleTimeout("job execute timeout ");
+		} finally {
+			if (futureThread != null) {
+				futureThread.interrupt();
 			}
 		}
+	}
+
+	/**
+	 * POOL / VIRTUAL mode: the timer interrupts the job, no thread per run; timeout result when the job returns
+	 */
+	private void executeWithTimer(int timeoutSeconds) throws Exception {
+		// limit timeout, the timer interrupts the job
+		JobTimeout jobTimeout = new JobTimeout(Thread.currentThread());
+		jobTimeout.schedule(timeoutSeconds);
+		try {
+			handler.execute();
+		} catch (Throwable e) {
+			if (!jobTimeout.isTimeout() || toStop) {
+				throw e;
+			}
+			// interrupted by timeout
+			XxlJobHelper.log(e);
+		} finally {
+			jobTimeout.cancel();
+		}
+
+		if (jobTimeout.isTimeout() && !toStop) {
+			// 执行超时处理
+			XxlJobHelper.log("<br>----------- xxl-job job execute timeout");
 
+			// handle result
+			XxlJobHelper.handleTimeout("job execute timeout ");
+		}
+	}
+
+	/**
+	 * stopped: call back queued trigger, and destroy
+	 */
+	private void finish() {
 		// client停止后
 		// callback trigger request in queue
 		// 将队列中的任务回调标记失败处理
@@ -263,12 +511,60 @@ public class JobThread extends Thread {
 		}
 
 		// destroy
-		try {
-			handler.destroy();
-		} catch (Throwable e) {
-			logger.error(e.getMessage(), e);
+		if (inited) {
+			try {
+				handler.destroy();
+			} catch (Throwable e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+
+		stopLatch.countDown();
+		logger.info(">>>>>>>>>>> xxl-job JobThread stoped, jobId:{}, stopReason:{}", jobId, stopReason);
+	}
+
+	/**
+	 * execute timeout, fired by the timer
+	 */
+	private static class JobTimeout implements Runnable {
+		private final Thread runner;
+		private volatile boolean timeout = false;
+		private boolean done = false;
+		private ScheduledFuture<?> future;
+
+		private JobTimeout(Thread runner) {
+			this.runner = runner;
+		}
+
+		private void schedule(int timeoutSeconds) {
+			future = JobThreadPool.getInstance().schedule(this, timeoutSeconds, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public synchronized void run() {
+			if (!done) {
+				timeout = true;
+				runner.interrupt();
+			}
 		}
 
-		logger.info(">>>>>>>>>>> xxl-job JobThread stoped, hashCode:{}", Thread.currentThread());
+		private boolean isTimeout() {
+			return timeout;
+		}
+
+		/**
+		 * called by the runner, when the job returns
+		 */
+		private void cancel() {
+			synchronized (this) {
+				done = true;
+			}
+			future.cancel(false);
+			if (timeout) {
+				// clear interrupt of timeout, the runner goes on
+				Thread.interrupted();
+			}
+		}
 	}
+
 }
@@ -0,0 +1,145 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.enums.JobThreadModeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+
+/**
+ * job thread pool, shared by JobThread
+ *
+ * 1、worker: POOL / VIRTUAL mode, runs the mailbox of each JobThread, one job at most one worker at a time;
+ * 2、timer: all mode, fires the execute timeout and the mailbox idle check, instead of a thread per run;
+ *
+ * @see JobThread
+ */
+public class JobThreadPool {
+	private static Logger logger = LoggerFactory.getLogger(JobThreadPool.class);
+
+	private static JobThreadPool instance = new JobThreadPool();
+
+	public static JobThreadPool getInstance() {
+		return instance;
+	}
+
+	public static final int DEFAULT_POOL_SIZE = 200;
+
+	private volatile JobThreadModeEnum mode = JobThreadModeEnum.THREAD;
+	private volatile ExecutorService workerPool;
+	private ScheduledThreadPoolExecutor timer;
+
+	public void start(JobThreadModeEnum mode, int poolSize) {
+		if (mode == null) {
+			mode = JobThreadModeEnum.THREAD;
+		}
+
+		// virtual thread, jdk 21+
+		if (mode == JobThreadModeEnum.VIRTUAL) {
+			workerPool = newVirtualThreadExecutor();
+			if (workerPool == null) {
+				logger.warn(">>>>>>>>>>> xxl-job, virtual thread not supported by jvm {}, use shared pool instead.", System.getProperty("java.version"));
+				mode = JobThreadModeEnum.POOL;
+			}
+		}
+
+		// bounded shared pool; queue is bounded by job count, each job queues at most one drain
+		if (mode == JobThreadModeEnum.POOL) {
+			final int size = poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+					size,
+					size,
+					60L,
+					TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							return new Thread(r, "xxl-job, JobThreadPool-worker-" + r.hashCode());
+						}
+					});
+			threadPool.allowCoreThreadTimeOut(true);
+			workerPool = threadPool;
+		}
+
+		this.mode = mode;
+		logger.info(">>>>>>>>>>> xxl-job, JobThreadPool start, mode:{}", mode);
+	}
+
+	public void toStop() {
+		// job thread stopped before, by XxlJobExecutor
+		ExecutorService workerPoolTmp = workerPool;
+		workerPool = null;
+		mode = JobThreadModeEnum.THREAD;
+		if (workerPoolTmp != null) {
+			workerPoolTmp.shutdownNow();
+		}
+
+		synchronized (this) {
+			if (timer != null) {
+				timer.shutdownNow();
+				timer = null;
+			}
+		}
+		logger.info(">>>>>>>>>>> xxl-job, JobThreadPool stop.");
+	}
+
+
+	// ---------------------- helper ----------------------
+
+	/**
+	 * new JobThread runs as a mailbox on the shared worker, or as a dedicated thread
+	 */
+	public boolean isMailbox() {
+		return mode != JobThreadModeEnum.THREAD && workerPool != null;
+	}
+
+	/**
+	 * run on the shared worker
+	 *
+	 * @throws RejectedExecutionException if stopped
+	 */
+	public void execute(Runnable command) {
+		ExecutorService workerPoolTmp = workerPool;
+		if (workerPoolTmp == null) {
+			throw new RejectedExecutionException("xxl-job, JobThreadPool stopped.");
+		}
+		workerPoolTmp.execute(command);
+	}
+
+	/**
+	 * run on the timer, keep it short
+	 */
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+		return getTimer().schedule(command, delay, unit);
+	}
+
+	private synchronized ScheduledThreadPoolExecutor getTimer() {
+		if (timer == null) {
+			timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "xxl-job, JobThreadPool-timer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			timer.setRemoveOnCancelPolicy(true);
+		}
+		return timer;
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor, by reflection, source level is jdk 8
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,238 @@
+package com.xxl.job.core.thread;
+
+import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.log.XxlJobFileAppender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * script process thread, runs the script of ScriptJobHandler
+ *
+ * 1、output: stderr is redirected to stdout, one pipe per script; a single pump thread polls the pipe of all running
+ *    scripts without blocking (by available), and appends the output by the log appender, instead of two copy threads per script;
+ * 2、exit: the pump reaps the script exited, drains its remaining output, and wakes the job thread waiting for it;
+ * 3、limit: scripts running at the same time are limited by maxRunning (> 0), the job thread waits for a slot;
+ *
+ * not started (used without executor), the job thread pumps the output of its own script.
+ */
+public class ScriptProcessThread {
+	private static Logger logger = LoggerFactory.getLogger(ScriptProcessThread.class);
+
+	private static ScriptProcessThread instance = new ScriptProcessThread();
+
+	public static ScriptProcessThread getInstance() {
+		return instance;
+	}
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final long IDLE_WAIT = 20;        // ms, pump waits when no script has output
+
+	private final Queue<ScriptProcess> processList = new ConcurrentLinkedQueue<ScriptProcess>();
+
+	private Semaphore runningLimit;        // null if not limited
+	private Thread pumpThread;
+	private volatile boolean toStop = false;
+	private volatile boolean running = false;
+
+	public void start(int maxRunning) {
+		if (maxRunning > 0) {
+			runningLimit = new Semaphore(maxRunning, true);
+		}
+
+		pumpThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				while (!toStop) {
+					try {
+						// one read per script a round, a script with much output does not hold up the others
+						boolean pumped = false;
+						Iterator<ScriptProcess> iterator = processList.iterator();
+						while (iterator.hasNext()) {
+							ScriptProcess scriptProcess = iterator.next();
+							if (scriptProcess.pump(buffer)) {
+								pumped = true;
+							}
+							if (scriptProcess.isDone()) {
+								iterator.remove();
+							}
+						}
+
+						if (!pumped) {
+							TimeUnit.MILLISECONDS.sleep(IDLE_WAIT);
+						}
+					} catch (Exception e) {
+						if (!toStop) {
+							logger.error(">>>>>>>>>>> xxl-job, ScriptProcessThread error:{}", e);
+						}
+					}
+				}
+
+				// kill remaining, the job thread is not left waiting
+				finishAll();
+				logger.info(">>>>>>>>>>> xxl-job, ScriptProcessThread stop");
+			}
+		});
+		pumpThread.setDaemon(true);
+		pumpThread.setName("xxl-job, executor ScriptProcessThread");
+		pumpThread.start();
+
+		running = true;
+	}
+
+	public void toStop() {
+		if (pumpThread == null) {
+			return;
+		}
+		running = false;
+		toStop = true;
+
+		// interrupt and wait
+		pumpThread.interrupt();
+		try {
+			pumpThread.join();
+		} catch (InterruptedException e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		// put after the pump exit
+		finishAll();
+	}
+
+	private void finishAll() {
+		ScriptProcess scriptProcess;
+		while ((scriptProcess = processList.poll()) != null) {
+			scriptProcess.process.destroy();
+			scriptProcess.finish();
+		}
+	}
+
+
+	// ---------------------- exec ----------------------
+
+	/**
+	 * run the script, wait for it to exit; the output is appended to the log file
+	 *
+	 * the script is killed if the job thread is interrupted (job killed, timeout)
+	 *
+	 * @return exit value
+	 */
+	public int exec(String[] cmdarray, String logFileName) throws IOException, InterruptedException {
+		Semaphore limit = runningLimit;
+		if (limit != null && !limit.tryAcquire()) {
+			XxlJobHelper.log("----------- script running reach the limit, waiting -----------");
+			limit.acquire();
+		}
+		try {
+			Process process = new ProcessBuilder(cmdarray).redirectErrorStream(true).start();
+			ScriptProcess scriptProcess = new ScriptProcess(process, logFileName);
+			try {
+				if (running) {
+					processList.add(scriptProcess);
+					if (toStop) {
+						// added after the pump exit
+						processList.remove(scriptProcess);
+						process.destroy();
+						scriptProcess.finish();
+					}
+					scriptProcess.await();
+				} else {
+					scriptProcess.pumpAll(new byte[BUFFER_SIZE]);
+				}
+				return process.waitFor();      // exit code: 0=success, 1=error
+			} finally {
+				if (process.isAlive()) {
+					process.destroy();
+				}
+			}
+		} finally {
+			if (limit != null) {
+				limit.release();
+			}
+		}
+	}
+
+	private static class ScriptProcess {
+		private final Process process;
+		private final InputStream output;
+		private final String logFileName;
+		private final CountDownLatch doneLatch = new CountDownLatch(1);
+
+		private ScriptProcess(Process process, String logFileName) {
+			this.process = process;
+			this.output = process.getInputStream();
+			this.logFileName = logFileName;
+		}
+
+		/**
+		 * read the output available, without blocking; finish if exited and all read
+		 *
+		 * @return true if output read
+		 */
+		private boolean pump(byte[] buffer) {
+			try {
+				// exited first, output written before exit is all available then
+				boolean exited = !process.isAlive();
+				int available = output.available();
+				if (available > 0) {
+					int len = output.read(buffer, 0, Math.min(available, buffer.length));
+					if (len > 0) {
+						XxlJobFileAppender.appendData(logFileName, Arrays.copyOf(buffer, len));
+						return true;
+					}
+				}
+				if (exited) {
+					finish();
+				}
+			} catch (IOException e) {
+				logger.error(">>>>>>>>>>> xxl-job, script output read error, logFileName:{}", logFileName, e);
+				finish();
+			}
+			return false;
+		}
+
+		/**
+		 * read the output until the end, blocking
+		 */
+		private void pumpAll(byte[] buffer) throws IOException {
+			try {
+				int len;
+				while ((len = output.read(buffer)) != -1) {
+					if (len > 0) {
+						XxlJobFileAppender.appendData(logFileName, Arrays.copyOf(buffer, len));
+					}
+				}
+			} finally {
+				finish();
+			}
+		}
+
+		private void finish() {
+			try {
+				output.close();
+			} catch (IOException e) {
+				logger.error(e.getMessage(), e);
+			}
+			doneLatch.countDown();
+		}
+
+		private boolean isDone() {
+			return doneLatch.getCount() == 0;
+		}
+
+		private void await() throws InterruptedException {
+			doneLatch.await();
+		}
+	}
+
+}
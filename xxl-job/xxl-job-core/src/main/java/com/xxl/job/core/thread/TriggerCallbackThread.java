@@ -7,6 +7,7 @@ import com.xxl.job.core.context.XxlJobContext;
 import com.xxl.job.core.context.XxlJobHelper;
 import com.xxl.job.core.enums.RegistryConfig;
 import com.xxl.job.core.executor.XxlJobExecutor;
+import com.xxl.job.core.log.XxlJobCallbackJournal;
 import com.xxl.job.core.log.XxlJobFileAppender;
 import com.xxl.job.core.util.FileUtil;
 import com.xxl.job.core.util.JdkSerializeTool;
@@ -14,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -29,6 +31,14 @@ public class TriggerCallbackThread {
 	private static TriggerCallbackThread instance = new TriggerCallbackThread();
 	private static String failCallbackFilePath = XxlJobFileAppender.getLogPath().concat(File.separator).concat("callbacklog").concat(File.separator);
 	private static String failCallbackFileName = failCallbackFilePath.concat("xxl-job-callback-{x}").concat(".log");
+	private static final int CALLBACK_BATCH_SIZE = 500;
+	private static final long SYNC_INTERVAL = 100;          // ms, fsync batched
+	private static final long REPLAY_INTERVAL = 100;        // ms, throttle replay of backlog, at most one full batch per interval
+	private static final long RETRY_INTERVAL_MAX = 10;      // s, retry backoff
+	/**
+	 * job results callback journal, durable; null if not opened, use callBackQueue instead
+	 */
+	private volatile XxlJobCallbackJournal callbackJournal;
 	/**
 	 * job results callback queue
 	 */
@@ -45,6 +55,16 @@ public class TriggerCallbackThread {
 	}
 
 	public static void pushCallBack(HandleCallbackParam callback) {
+		XxlJobCallbackJournal journal = getInstance().callbackJournal;
+		if (journal != null) {
+			try {
+				journal.append(callback);
+				logger.debug(">>>>>>>>>>> xxl-job, push callback request, logId:{}", callback.getLogId());
+				return;
+			} catch (IOException e) {
+				logger.error(">>>>>>>>>>> xxl-job, callback journal append fail, use memory queue instead, logId:{}", callback.getLogId(), e);
+			}
+		}
 		getInstance().callBackQueue.add(callback);
 		logger.debug(">>>>>>>>>>> xxl-job, push callback request, logId:{}", callback.getLogId());
 	}
@@ -62,12 +82,29 @@ public class TriggerCallbackThread {
 			return;
 		}
 
+		// open journal, replay callback not acked, and fail-callback file of old version
+		try {
+			XxlJobCallbackJournal journal = new XxlJobCallbackJournal(XxlJobFileAppender.getLogPath().concat(File.separator).concat("callbackjournal"));
+			journal.open();
+			callbackJournal = journal;
+			loadFailCallbackFile();
+		} catch (IOException e) {
+			callbackJournal = null;
+			logger.error(">>>>>>>>>>> xxl-job, callback journal open fail, use memory queue and fail-callback file instead.", e);
+		}
+
 		// callback
 		triggerCallbackThread = new Thread(new Runnable() {
 
 			@Override
 			public void run() {
 
+				// journal callback
+				if (callbackJournal != null) {
+					runJournalCallback();
+					return;
+				}
+
 				// normal callback
 				while (!toStop) {
 					try {
@@ -84,7 +121,9 @@ public class TriggerCallbackThread {
 							// callback, will retry if error
 							// 通知admin
 							if (callbackParamList != null && callbackParamList.size() > 0) {
-								doCallback(callbackParamList);
+								if (!doCallback(callbackParamList)) {
+									appendFailCallbackFile(callbackParamList);
+								}
 							}
 						}
 					} catch (Exception e) {
@@ -99,7 +138,9 @@ public class TriggerCallbackThread {
 					List<HandleCallbackParam> callbackParamList = new ArrayList<HandleCallbackParam>();
 					int drainToNum = getInstance().callBackQueue.drainTo(callbackParamList);
 					if (callbackParamList != null && callbackParamList.size() > 0) {
-						doCallback(callbackParamList);
+						if (!doCallback(callbackParamList)) {
+							appendFailCallbackFile(callbackParamList);
+						}
 					}
 				} catch (Exception e) {
 					if (!toStop) {
@@ -114,6 +155,10 @@ public class TriggerCallbackThread {
 		triggerCallbackThread.setName("xxl-job, executor TriggerCallbackThread");
 		triggerCallbackThread.start();
 
+		if (callbackJournal != null) {
+			// retried by journal
+			return;
+		}
 
 		// retry
 		triggerRetryCallbackThread = new Thread(new Runnable() {
@@ -148,7 +193,10 @@ public class TriggerCallbackThread {
 		toStop = true;
 		// stop callback, interrupt and wait
 		if (triggerCallbackThread != null) {    // support empty admin address
-			triggerCallbackThread.interrupt();
+			if (callbackJournal == null) {
+				// not interrupt journal mode, callback in flight is acked before stop; it checks toStop every SYNC_INTERVAL
+				triggerCallbackThread.interrupt();
+			}
 			try {
 				triggerCallbackThread.join();
 			} catch (InterruptedException e) {
@@ -166,17 +214,146 @@ public class TriggerCallbackThread {
 			}
 		}
 
+		// close journal, callback not acked is replayed next start
+		XxlJobCallbackJournal journal = callbackJournal;
+		callbackJournal = null;
+		if (journal != null) {
+			journal.close();
+		}
+
+	}
+
+
+	// ---------------------- callback journal ----------------------
+
+	/**
+	 * callback from journal, in order; ack after admin accepted, or retry with backoff
+	 */
+	private void runJournalCallback() {
+		int failCount = 0;
+		while (!toStop) {
+			try {
+				appendMemoryQueue();
+				callbackJournal.sync();
+
+				XxlJobCallbackJournal.ReadBatch batch = callbackJournal.read(CALLBACK_BATCH_SIZE);
+				List<HandleCallbackParam> callbackParamList = batch.getCallbackParamList();
+				if (callbackParamList.isEmpty()) {
+					callbackJournal.await(SYNC_INTERVAL);
+					continue;
+				}
+
+				if (doCallback(callbackParamList)) {
+					callbackJournal.ack(batch);
+					failCount = 0;
+					if (callbackParamList.size() >= CALLBACK_BATCH_SIZE) {
+						// backlog, replay throttled
+						TimeUnit.MILLISECONDS.sleep(REPLAY_INTERVAL);
+					}
+				} else {
+					// admin not available, retry: 1s, 2s, 4s ... RETRY_INTERVAL_MAX
+					failCount++;
+					long retryTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Math.min(1L << Math.min(failCount - 1, 10), RETRY_INTERVAL_MAX));
+					while (!toStop && System.currentTimeMillis() < retryTime) {
+						TimeUnit.MILLISECONDS.sleep(SYNC_INTERVAL);
+					}
+				}
+			} catch (Exception e) {
+				if (!toStop) {
+					logger.error(e.getMessage(), e);
+				}
+				// journal io fail, reopen (recover write position, truncate torn record); backoff, not spin
+				failCount++;
+				if (e instanceof IOException && !toStop) {
+					try {
+						callbackJournal.reopen();
+					} catch (IOException e2) {
+						logger.error(">>>>>>>>>>> xxl-job, callback journal reopen fail.", e2);
+					}
+				}
+				try {
+					TimeUnit.SECONDS.sleep(Math.min(1L << Math.min(failCount - 1, 10), RETRY_INTERVAL_MAX));
+				} catch (InterruptedException e2) {
+					// checks toStop
+				}
+			}
+		}
+
+		// last callback, once
+		try {
+			XxlJobCallbackJournal.ReadBatch batch = callbackJournal.read(CALLBACK_BATCH_SIZE);
+			if (!batch.getCallbackParamList().isEmpty() && doCallback(batch.getCallbackParamList())) {
+				callbackJournal.ack(batch);
+			}
+		} catch (Exception e) {
+			logger.error(e.getMessage(), e);
+		}
+
+		appendMemoryQueue();
+		logger.info(">>>>>>>>>>> xxl-job, executor callback thread destroy.");
+	}
+
+	/**
+	 * callback pushed to memory queue when journal append fail, append again, or callback directly
+	 */
+	private void appendMemoryQueue() {
+		if (callBackQueue.isEmpty()) {
+			return;
+		}
+		List<HandleCallbackParam> callbackParamList = new ArrayList<HandleCallbackParam>();
+		callBackQueue.drainTo(callbackParamList);
+		try {
+			for (HandleCallbackParam callbackParam : callbackParamList) {
+				callbackJournal.append(callbackParam);
+			}
+			return;
+		} catch (IOException e) {
+			logger.error(">>>>>>>>>>> xxl-job, callback journal append fail.", e);
+		}
+		if (!doCallback(callbackParamList)) {
+			if (toStop) {
+				// moved to journal next start
+				appendFailCallbackFile(callbackParamList);
+			} else {
+				callBackQueue.addAll(callbackParamList);
+			}
+		}
+	}
+
+	/**
+	 * move fail-callback file (old version) to journal
+	 */
+	private void loadFailCallbackFile() throws IOException {
+		File callbackLogPath = new File(failCallbackFilePath);
+		File[] callbackLogFiles = callbackLogPath.isDirectory() ? callbackLogPath.listFiles() : null;
+		if (callbackLogFiles == null) {
+			return;
+		}
+		for (File callbaclLogFile : callbackLogFiles) {
+			byte[] callbackParamList_bytes = FileUtil.readFileContent(callbaclLogFile);
+			if (callbackParamList_bytes != null && callbackParamList_bytes.length > 0) {
+				List<HandleCallbackParam> callbackParamList = (List<HandleCallbackParam>) JdkSerializeTool.deserialize(callbackParamList_bytes, List.class);
+				if (callbackParamList != null) {
+					for (HandleCallbackParam callbackParam : callbackParamList) {
+						callbackJournal.append(callbackParam);
+					}
+				}
+			}
+			callbaclLogFile.delete();
+		}
+		callbackJournal.sync();
 	}
 
 
 	// ---------------------- fail-callback file ----------------------
 
 	/**
-	 * do callback, will retry if error
+	 * do callback
 	 *
 	 * @param callbackParamList
+	 * @return true if accepted by one admin
 	 */
-	private void doCallback(List<HandleCallbackParam> callbackParamList) {
+	private boolean doCallback(List<HandleCallbackParam> callbackParamList) {
 		boolean callbackRet = false;
 		// callback, will retry if error
 		for (AdminBiz adminBiz : XxlJobExecutor.getAdminBizList()) {
@@ -194,10 +371,7 @@ public class TriggerCallbackThread {
 				callbackLog(callbackParamList, "<br>----------- xxl-job job callback error, errorMsg:" + e.getMessage());
 			}
 		}
-		// 将任务执行结果写会admin时，失败，则调用以下方法
-		if (!callbackRet) {
-			appendFailCallbackFile(callbackParamList);
-		}
+		return callbackRet;
 	}
 
 	/**
@@ -267,7 +441,10 @@ public class TriggerCallbackThread {
 			List<HandleCallbackParam> callbackParamList = (List<HandleCallbackParam>) JdkSerializeTool.deserialize(callbackParamList_bytes, List.class);
 
 			callbaclLogFile.delete();
-			doCallback(callbackParamList);
+			// 将任务执行结果写会admin时，失败，则调用以下方法
+			if (!doCallback(callbackParamList)) {
+				appendFailCallbackFile(callbackParamList);
+			}
 		}
 
 	}
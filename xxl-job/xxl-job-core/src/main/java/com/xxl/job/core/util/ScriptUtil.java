@@ -1,11 +1,10 @@
 package com.xxl.job.core.util;
 
 import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.thread.ScriptProcessThread;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,7 +42,7 @@ public class ScriptUtil {
 	}
 
 	/**
-	 * 脚本执行，日志文件实时输出
+	 * 脚本执行，日志文件实时输出（标准输出、错误输出合并，由 ScriptProcessThread 统一读取，经日志写入线程写入）
 	 *
 	 * @param command
 	 * @param scriptFile
@@ -53,14 +52,7 @@ public class ScriptUtil {
 	 * @throws IOException
 	 */
 	public static int execToFile(String command, String scriptFile, String logFile, String... params) throws IOException {
-
-		FileOutputStream fileOutputStream = null;
-		Thread inputThread = null;
-		Thread errThread = null;
 		try {
-			// file
-			fileOutputStream = new FileOutputStream(logFile, true);
-
 			// command
 			List<String> cmdarray = new ArrayList<>();
 			cmdarray.add(command);
@@ -72,96 +64,11 @@ public class ScriptUtil {
 			}
 			String[] cmdarrayFinal = cmdarray.toArray(new String[cmdarray.size()]);
 
-			// process-exec
-			final Process process = Runtime.getRuntime().exec(cmdarrayFinal);
-
-			// log-thread
-			final FileOutputStream finalFileOutputStream = fileOutputStream;
-			inputThread = new Thread(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						copy(process.getInputStream(), finalFileOutputStream, new byte[1024]);
-					} catch (IOException e) {
-						XxlJobHelper.log(e);
-					}
-				}
-			});
-			errThread = new Thread(new Runnable() {
-				@Override
-				public void run() {
-					try {
-						copy(process.getErrorStream(), finalFileOutputStream, new byte[1024]);
-					} catch (IOException e) {
-						XxlJobHelper.log(e);
-					}
-				}
-			});
-			inputThread.start();
-			errThread.start();
-
-			// process-wait
-			int exitValue = process.waitFor();      // exit code: 0=success, 1=error
-
-			// log-thread join
-			inputThread.join();
-			errThread.join();
-
-			return exitValue;
+			// process-exec, process-wait
+			return ScriptProcessThread.getInstance().exec(cmdarrayFinal, logFile);
 		} catch (Exception e) {
 			XxlJobHelper.log(e);
 			return -1;
-		} finally {
-			if (fileOutputStream != null) {
-				try {
-					fileOutputStream.close();
-				} catch (IOException e) {
-					XxlJobHelper.log(e);
-				}
-
-			}
-			if (inputThread != null && inputThread.isAlive()) {
-				inputThread.interrupt();
-			}
-			if (errThread != null && errThread.isAlive()) {
-				errThread.interrupt();
-			}
-		}
-	}
-
-	/**
-	 * 数据流Copy（Input自动关闭，Output不处理）
-	 *
-	 * @param inputStream
-	 * @param outputStream
-	 * @param buffer
-	 * @return
-	 * @throws IOException
-	 */
-	private static long copy(InputStream inputStream, OutputStream outputStream, byte[] buffer) throws IOException {
-		try {
-			long total = 0;
-			for (; ; ) {
-				int res = inputStream.read(buffer);
-				if (res == -1) {
-					break;
-				}
-				if (res > 0) {
-					total += res;
-					if (outputStream != null) {
-						outputStream.write(buffer, 0, res);
-					}
-				}
-			}
-			outputStream.flush();
-			//out = null;
-			inputStream.close();
-			inputStream = null;
-			return total;
-		} finally {
-			if (inputStream != null) {
-				inputStream.close();
-			}
 		}
 	}
 
@@ -0,0 +1,321 @@
+package com.xxl.job.core.util;
+
+import com.xxl.job.core.biz.model.ReturnT;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * async remoting client, netty http
+ *
+ * 1、pool: one fixed channel pool per address (scheme://host:port), keep-alive connection is reused across calls;
+ * 2、one request in flight per connection (no pipelining), the executor server may answer requests out of order;
+ * 3、future: complete on the event loop with ReturnT, never exceptionally, error as FAIL_CODE like XxlJobRemotingUtil;
+ *
+ * @see XxlJobRemotingUtil, same protocol
+ */
+public class XxlJobRemotingClient {
+	private static Logger logger = LoggerFactory.getLogger(XxlJobRemotingClient.class);
+
+	private static final int CONNECT_TIMEOUT = 3;               // s, same as XxlJobRemotingUtil
+	private static final int IDLE_TIMEOUT = 60;                 // s, close before the server does (beat 3N, 90s)
+	private static final int MAX_CONNECTIONS = 64;              // per address
+	private static final int MAX_PENDING_ACQUIRES = 10000;      // per address
+	private static final int MAX_CONTENT_LENGTH = 5 * 1024 * 1024;
+
+	private static final AttributeKey<PendingRequest> PENDING_REQUEST = AttributeKey.valueOf("xxl-job-pending-request");
+
+	private static volatile EventLoopGroup workerGroup;
+	private static volatile SslContext sslContext;
+	private static final ConcurrentMap<String, FixedChannelPool> poolMap = new ConcurrentHashMap<>();
+
+
+	// ---------------------- post ----------------------
+
+	/**
+	 * post, async
+	 *
+	 * @param url
+	 * @param accessToken
+	 * @param timeout            read timeout, by second
+	 * @param requestObj
+	 * @param returnTargClassOfT
+	 * @return future of ReturnT, never completed exceptionally
+	 */
+	public static <T> CompletableFuture<ReturnT<T>> postBody(final String url,
+															  final String accessToken,
+															  final int timeout,
+															  final Object requestObj,
+															  final Class<T> returnTargClassOfT) {
+		final CompletableFuture<ReturnT<T>> result = new CompletableFuture<>();
+		try {
+			final URI uri = new URI(url);
+			final FixedChannelPool pool = getPool(uri);
+
+			final FullHttpRequest request = buildRequest(uri, accessToken, requestObj);
+			pool.acquire().addListener(new GenericFutureListener<Future<Channel>>() {
+				@Override
+				public void operationComplete(Future<Channel> future) throws Exception {
+					if (!future.isSuccess()) {
+						request.release();
+						result.complete(fail(url, future.cause()));
+						return;
+					}
+					send(future.getNow(), pool, request, new PendingRequest<T>(url, timeout, returnTargClassOfT, result));
+				}
+			});
+		} catch (Exception e) {
+			result.complete(fail(url, e));
+		}
+		return result;
+	}
+
+	/**
+	 * post, sync; wait for the async call, with pooled connection
+	 */
+	public static <T> ReturnT<T> postBodySync(String url, String accessToken, int timeout, Object requestObj, Class<T> returnTargClassOfT) {
+		try {
+			// bounded by connect + acquire + read timeout, future never completes exceptionally
+			return postBody(url, accessToken, timeout, requestObj, returnTargClassOfT).get(timeout + CONNECT_TIMEOUT * 2 + 1, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			return fail(url, e);
+		}
+	}
+
+	/**
+	 * close all connection and the event loop
+	 */
+	public static void shutdown() {
+		synchronized (XxlJobRemotingClient.class) {
+			for (FixedChannelPool pool : poolMap.values()) {
+				pool.close();
+			}
+			poolMap.clear();
+			if (workerGroup != null) {
+				workerGroup.shutdownGracefully();
+				workerGroup = null;
+			}
+		}
+	}
+
+
+	// ---------------------- tool ----------------------
+
+	private static FixedChannelPool getPool(URI uri) throws Exception {
+		final boolean useHttps = "https".equalsIgnoreCase(uri.getScheme());
+		final String host = uri.getHost();
+		final int port = uri.getPort() > 0 ? uri.getPort() : (useHttps ? 443 : 80);
+		String poolKey = (useHttps ? "https" : "http") + "://" + host + ":" + port;
+
+		FixedChannelPool pool = poolMap.get(poolKey);
+		if (pool != null) {
+			return pool;
+		}
+		synchronized (XxlJobRemotingClient.class) {
+			pool = poolMap.get(poolKey);
+			if (pool != null) {
+				return pool;
+			}
+			if (useHttps && sslContext == null) {
+				// trust all, same as XxlJobRemotingUtil
+				sslContext = SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+			}
+			if (workerGroup == null) {
+				workerGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors(), new DefaultThreadFactory("xxl-job, remoting client", true));
+			}
+
+			Bootstrap bootstrap = new Bootstrap()
+					.group(workerGroup)
+					.channel(NioSocketChannel.class)
+					.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT * 1000)
+					.option(ChannelOption.SO_KEEPALIVE, true)
+					.option(ChannelOption.TCP_NODELAY, true)
+					.remoteAddress(InetSocketAddress.createUnresolved(host, port));
+			pool = new FixedChannelPool(bootstrap, new AbstractChannelPoolHandler() {
+				@Override
+				public void channelCreated(Channel channel) throws Exception {
+					ChannelPipeline pipeline = channel.pipeline();
+					if (useHttps) {
+						pipeline.addLast(sslContext.newHandler(channel.alloc(), host, port));
+					}
+					pipeline.addLast(new IdleStateHandler(0, 0, IDLE_TIMEOUT, TimeUnit.SECONDS))
+							.addLast(new HttpClientCodec())
+							.addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+							.addLast(new ResponseHandler());
+				}
+			}, ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL, CONNECT_TIMEOUT * 1000L, MAX_CONNECTIONS, MAX_PENDING_ACQUIRES);
+
+			poolMap.put(poolKey, pool);
+			return pool;
+		}
+	}
+
+	private static FullHttpRequest buildRequest(URI uri, String accessToken, Object requestObj) {
+		String requestBody = requestObj != null ? GsonTool.toJson(requestObj) : "";
+		String path = (uri.getRawPath() != null && uri.getRawPath().length() > 0) ? uri.getRawPath() : "/";
+
+		FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, path, Unpooled.copiedBuffer(requestBody, CharsetUtil.UTF_8));
+		request.headers().set(HttpHeaderNames.HOST, uri.getPort() > 0 ? uri.getHost() + ":" + uri.getPort() : uri.getHost());
+		request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+		request.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json;charset=UTF-8");
+		request.headers().set(HttpHeaderNames.ACCEPT_CHARSET, "application/json;charset=UTF-8");
+		request.headers().set(HttpHeaderNames.CONTENT_LENGTH, request.content().readableBytes());
+		if (accessToken != null && accessToken.trim().length() > 0) {
+			request.headers().set(XxlJobRemotingUtil.XXL_JOB_ACCESS_TOKEN, accessToken);
+		}
+		return request;
+	}
+
+	private static <T> void send(final Channel channel, final FixedChannelPool pool, FullHttpRequest request, final PendingRequest<T> pendingRequest) {
+		pendingRequest.pool = pool;
+		channel.attr(PENDING_REQUEST).set(pendingRequest);
+
+		// read timeout
+		pendingRequest.timeoutFuture = channel.eventLoop().schedule(new Runnable() {
+			@Override
+			public void run() {
+				finish(channel, pendingRequest, null, new java.util.concurrent.TimeoutException("read timed out"));
+			}
+		}, pendingRequest.timeout, TimeUnit.SECONDS);
+
+		channel.writeAndFlush(request).addListener(new ChannelFutureListener() {
+			@Override
+			public void operationComplete(ChannelFuture future) throws Exception {
+				if (!future.isSuccess()) {
+					finish(channel, pendingRequest, null, future.cause());
+				}
+			}
+		});
+	}
+
+	/**
+	 * finish the pending request of the channel, only once; release the channel to pool (close it if not reusable)
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void finish(Channel channel, PendingRequest<T> pendingRequest, FullHttpResponse response, Throwable cause) {
+		if (!channel.attr(PENDING_REQUEST).compareAndSet(pendingRequest, null)) {
+			return;
+		}
+		if (pendingRequest.timeoutFuture != null) {
+			pendingRequest.timeoutFuture.cancel(false);
+		}
+
+		boolean reusable = cause == null && HttpUtil.isKeepAlive(response);
+		if (!reusable) {
+			channel.close();
+		}
+		pendingRequest.pool.release(channel);
+
+		// result
+		String url = pendingRequest.url;
+		if (cause != null) {
+			pendingRequest.result.complete(fail(url, cause));
+			return;
+		}
+		int statusCode = response.status().code();
+		if (statusCode != 200) {
+			pendingRequest.result.complete(new ReturnT<T>(ReturnT.FAIL_CODE, "xxl-job remoting fail, StatusCode(" + statusCode + ") invalid. for url : " + url));
+			return;
+		}
+		String resultJson = response.content().toString(CharsetUtil.UTF_8);
+		try {
+			ReturnT<T> returnT = GsonTool.fromJson(resultJson, ReturnT.class, pendingRequest.returnTargClassOfT);
+			pendingRequest.result.complete(returnT);
+		} catch (Exception e) {
+			logger.error("xxl-job remoting (url=" + url + ") response content invalid(" + resultJson + ").", e);
+			pendingRequest.result.complete(new ReturnT<T>(ReturnT.FAIL_CODE, "xxl-job remoting (url=" + url + ") response content invalid(" + resultJson + ")."));
+		}
+	}
+
+	private static <T> ReturnT<T> fail(String url, Throwable cause) {
+		logger.error(cause.getMessage(), cause);
+		return new ReturnT<T>(ReturnT.FAIL_CODE, "xxl-job remoting error(" + cause.getMessage() + "), for url : " + url);
+	}
+
+	private static class PendingRequest<T> {
+		private final String url;
+		private final int timeout;
+		private final Class<T> returnTargClassOfT;
+		private final CompletableFuture<ReturnT<T>> result;
+		private FixedChannelPool pool;
+		private ScheduledFuture<?> timeoutFuture;
+
+		private PendingRequest(String url, int timeout, Class<T> returnTargClassOfT, CompletableFuture<ReturnT<T>> result) {
+			this.url = url;
+			this.timeout = timeout;
+			this.returnTargClassOfT = returnTargClassOfT;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * response handler, one per channel
+	 */
+	private static class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) throws Exception {
+			PendingRequest<?> pendingRequest = ctx.channel().attr(PENDING_REQUEST).get();
+			if (pendingRequest != null) {
+				finish(ctx.channel(), pendingRequest, response, null);
+			}
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+			PendingRequest<?> pendingRequest = ctx.channel().attr(PENDING_REQUEST).get();
+			if (pendingRequest != null) {
+				finish(ctx.channel(), pendingRequest, null, new java.io.IOException("connection closed"));
+			}
+			super.channelInactive(ctx);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			PendingRequest<?> pendingRequest = ctx.channel().attr(PENDING_REQUEST).get();
+			if (pendingRequest != null) {
+				finish(ctx.channel(), pendingRequest, null, cause);
+			} else {
+				logger.error(">>>>>>>>>>> xxl-job remoting client caught exception", cause);
+			}
+			ctx.close();
+		}
+
+		@Override
+		public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+			if (evt instanceof IdleStateEvent) {
+				// idle in pool, close it, the pool drops inactive channel on acquire
+				ctx.channel().close();
+			} else {
+				super.userEventTriggered(ctx, evt);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.xxl.job.core.log;
+
+import com.xxl.job.core.biz.model.HandleCallbackParam;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class XxlJobCallbackJournalTest {
+
+    // record of "msg-N": header 8 + payload 29, a segment rolls after 3 records
+    private static final long SEGMENT_SIZE = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldTruncateTornTail() throws IOException {
+        XxlJobCallbackJournal journal = open();
+        append(journal, 1, 2);
+        journal.close();
+
+        // crash in the middle of a record: header and part of the payload
+        File segment = segmentFiles()[0];
+        long validSize = segment.length();
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(validSize);
+            raf.writeInt(29);
+            raf.writeInt(12345);
+            raf.writeLong(3);
+        }
+
+        journal = open();
+        assertEquals(validSize, segment.length());
+        append(journal, 3, 3);
+        assertEquals(ids(1, 3), logIds(journal.read(10)));
+        journal.close();
+    }
+
+    @Test
+    public void shouldRollAndDeleteAckedSegment() throws IOException {
+        XxlJobCallbackJournal journal = open();
+        append(journal, 1, 10);
+        assertEquals(4, segmentFiles().length);
+
+        // read across segments
+        XxlJobCallbackJournal.ReadBatch batch = journal.read(7);
+        assertEquals(ids(1, 7), logIds(batch));
+        journal.ack(batch);
+        assertEquals(2, segmentFiles().length);
+
+        batch = journal.read(10);
+        assertEquals(ids(8, 10), logIds(batch));
+        journal.ack(batch);
+        assertEquals(1, segmentFiles().length);
+        assertEquals(0, journal.read(10).getCallbackParamList().size());
+        journal.close();
+    }
+
+    @Test
+    public void shouldReplayNotAckedAfterReopen() throws IOException {
+        XxlJobCallbackJournal journal = open();
+        append(journal, 1, 5);
+        journal.ack(journal.read(2));
+
+        // read but not acked: read again after reopen
+        assertEquals(ids(3, 5), logIds(journal.read(10)));
+        journal.close();
+
+        journal = open();
+        assertEquals(ids(3, 5), logIds(journal.read(10)));
+        append(journal, 6, 6);
+        assertEquals(ids(3, 6), logIds(journal.read(10)));
+        journal.close();
+    }
+
+    @Test
+    public void shouldReplayFromOldestSegmentWhenAckLost() throws IOException {
+        XxlJobCallbackJournal journal = open();
+        append(journal, 1, 8);
+        journal.ack(journal.read(4));
+        journal.close();
+        assertEquals(2, segmentFiles().length);
+
+        // ack not fsync-ed: lost ack only makes repeat callback, of the segments not deleted
+        assertTrue(new File(tempDir.toFile(), "ack").delete());
+        journal = open();
+        assertEquals(ids(4, 8), logIds(journal.read(10)));
+        journal.close();
+    }
+
+    @Test
+    public void shouldAppendFromInterruptedThread() throws Exception {
+        XxlJobCallbackJournal journal = open();
+
+        // job thread interrupted by kill / timeout, appends its callback; the journal stays open for others
+        Thread jobThread = new Thread(() -> {
+            Thread.currentThread().interrupt();
+            try {
+                append(journal, 1, 5);
+                journal.sync();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            assertTrue(Thread.currentThread().isInterrupted());
+        });
+        List<Throwable> errors = new ArrayList<>();
+        jobThread.setUncaughtExceptionHandler((thread, e) -> errors.add(e));
+        jobThread.start();
+        jobThread.join();
+        assertEquals(0, errors.size());
+
+        append(journal, 6, 6);
+        XxlJobCallbackJournal.ReadBatch batch = journal.read(10);
+        assertEquals(ids(1, 6), logIds(batch));
+        journal.ack(batch);
+        journal.close();
+    }
+
+    @Test
+    public void shouldReopenAfterClose() throws IOException {
+        XxlJobCallbackJournal journal = open();
+        append(journal, 1, 4);
+        journal.ack(journal.read(1));
+        journal.close();
+
+        journal.reopen();
+        append(journal, 5, 5);
+        assertEquals(ids(2, 5), logIds(journal.read(10)));
+        journal.close();
+    }
+
+    private XxlJobCallbackJournal open() throws IOException {
+        XxlJobCallbackJournal journal = new XxlJobCallbackJournal(tempDir.toString(), SEGMENT_SIZE);
+        journal.open();
+        return journal;
+    }
+
+    private static void append(XxlJobCallbackJournal journal, long fromLogId, long toLogId) throws IOException {
+        for (long logId = fromLogId; logId <= toLogId; logId++) {
+            journal.append(new HandleCallbackParam(logId, 0, 200, "msg-" + (logId % 10)));
+        }
+    }
+
+    private File[] segmentFiles() {
+        return tempDir.toFile().listFiles((dir, name) -> name.endsWith(".journal"));
+    }
+
+    private static List<Long> ids(long fromLogId, long toLogId) {
+        List<Long> ids = new ArrayList<>();
+        for (long logId = fromLogId; logId <= toLogId; logId++) {
+            ids.add(logId);
+        }
+        return ids;
+    }
+
+    private static List<Long> logIds(XxlJobCallbackJournal.ReadBatch batch) {
+        List<Long> ids = new ArrayList<>();
+        for (HandleCallbackParam callbackParam : batch.getCallbackParamList()) {
+            ids.add(callbackParam.getLogId());
+        }
+        return ids;
+    }
+
+}
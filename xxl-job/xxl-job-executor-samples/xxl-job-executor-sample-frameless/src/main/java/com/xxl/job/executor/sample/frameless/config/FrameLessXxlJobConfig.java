@@ -43,6 +43,10 @@ public class FrameLessXxlJobConfig {
         xxlJobExecutor.setPort(Integer.valueOf(xxlJobProp.getProperty("xxl.job.executor.port")));
         xxlJobExecutor.setLogPath(xxlJobProp.getProperty("xxl.job.executor.logpath"));
         xxlJobExecutor.setLogRetentionDays(Integer.valueOf(xxlJobProp.getProperty("xxl.job.executor.logretentiondays")));
+        xxlJobExecutor.setLogFlushInterval(Integer.valueOf(xxlJobProp.getProperty("xxl.job.executor.logflushinterval")));
+        xxlJobExecutor.setJobThreadMode(xxlJobProp.getProperty("xxl.job.executor.threadmode"));
+        xxlJobExecutor.setJobThreadPoolSize(Integer.valueOf(xxlJobProp.getProperty("xxl.job.executor.threadpoolsize")));
+        xxlJobExecutor.setScriptMaxRunning(Integer.valueOf(xxlJobProp.getProperty("xxl.job.executor.scriptmaxrunning")));
 
         // registry job bean
         xxlJobExecutor.setXxlJobBeanList(Arrays.asList(new SampleXxlJob()));
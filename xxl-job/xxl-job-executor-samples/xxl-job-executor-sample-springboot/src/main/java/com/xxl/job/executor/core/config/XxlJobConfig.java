@@ -40,6 +40,18 @@ public class XxlJobConfig {
 	@Value("${xxl.job.executor.logretentiondays}")
 	private int logRetentionDays;
 
+	@Value("${xxl.job.executor.logflushinterval}")
+	private int logFlushInterval;
+
+	@Value("${xxl.job.executor.threadmode}")
+	private String threadMode;
+
+	@Value("${xxl.job.executor.threadpoolsize}")
+	private int threadPoolSize;
+
+	@Value("${xxl.job.executor.scriptmaxrunning}")
+	private int scriptMaxRunning;
+
 
 	@Bean
 	public XxlJobSpringExecutor xxlJobExecutor() {
@@ -53,6 +65,10 @@ public class XxlJobConfig {
 		xxlJobSpringExecutor.setAccessToken(accessToken);
 		xxlJobSpringExecutor.setLogPath(logPath);
 		xxlJobSpringExecutor.setLogRetentionDays(logRetentionDays);
+		xxlJobSpringExecutor.setLogFlushInterval(logFlushInterval);
+		xxlJobSpringExecutor.setJobThreadMode(threadMode);
+		xxlJobSpringExecutor.setJobThreadPoolSize(threadPoolSize);
+		xxlJobSpringExecutor.setScriptMaxRunning(scriptMaxRunning);
 
 		return xxlJobSpringExecutor;
 	}